@@ -0,0 +1,90 @@
+package comparator;
+
+import leaks.Leak;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Responsible for grouping the Leaks of an application incrementally, while the tools are still running. Each tool adds
+ * its Leaks as soon as they were parsed. They are sorted into a TreeMap right away, using the same order as the
+ * LeakComparator (class name, method name and sink method name, ignoring case). Within an entry of the map, the Leaks
+ * are kept per tool, so it does not matter in which order the tools finish.
+ *
+ * Once all tools have added their Leaks, groupLeaks only has to walk the map once and merge neighbouring Leaks, which
+ * gives exactly the same result as LeakComparator.groupLeaks on the Leaks of all tools in the order of the tools list.
+ *
+ * @see LeakComparator
+ */
+public class LeakIndex {
+    private final int slots;
+    private final TreeMap<Leak, ArrayList<ArrayList<Leak>>> leaks;
+    private int size;
+
+    /**
+     * @param slots - Integer: number of tools adding Leaks to the index.
+     */
+    public LeakIndex(int slots){
+        LeakComparator comparator = new LeakComparator();
+        Comparator<Leak> order = comparator.sortByClassName
+                .thenComparing(comparator.sortByMethodName)
+                .thenComparing(comparator.sortBySinkMethod);
+        this.slots = slots;
+        this.leaks = new TreeMap<>(order);
+    }
+
+    /**
+     * Adds the Leaks reported by a tool to the index.
+     *
+     * @param slot - Integer: index of the tool in the tools list.
+     * @param toolLeaks - List of Leaks reported by the tool, in the order the parser created them.
+     */
+    public synchronized void add(int slot, List<Leak> toolLeaks){
+        for(Leak leak : toolLeaks){
+            ArrayList<ArrayList<Leak>> bucket = leaks.get(leak);
+            if(bucket == null){
+                bucket = new ArrayList<>(slots);
+                for(int i = 0; i < slots; i++){
+                    bucket.add(new ArrayList<>(1));
+                }
+                leaks.put(leak, bucket);
+            }
+            bucket.get(slot).add(leak);
+        }
+        size += toolLeaks.size();
+    }
+
+    /**
+     * Groups the Leaks of all tools. Similar Leaks, i.e. Leaks with the same class, method and sink method name, are
+     * merged into the first of them, just like in LeakComparator.groupLeaks.
+     *
+     * @return ArrayList of Leak objects that is sorted and where similar Leaks are grouped together in single Leaks.
+     */
+    public synchronized ArrayList<Leak> groupLeaks(){
+        ArrayList<Leak> groupedLeaks = new ArrayList<>();
+        Leak currentLeak = null;
+        for(ArrayList<ArrayList<Leak>> bucket : leaks.values()){
+            for(ArrayList<Leak> toolLeaks : bucket){
+                for(Leak nextLeak : toolLeaks){
+                    if(currentLeak != null && currentLeak.compareTo(nextLeak) == 0){
+                        currentLeak.enhanceFields(nextLeak);
+                    } else {
+                        groupedLeaks.add(nextLeak);
+                        currentLeak = nextLeak;
+                    }
+                }
+            }
+        }
+        return groupedLeaks;
+    }
+
+    /**
+     * Gets the number of Leaks added by all tools.
+     * @return Integer: number of Leaks before grouping.
+     */
+    public synchronized int size(){
+        return size;
+    }
+}
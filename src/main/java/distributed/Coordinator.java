@@ -0,0 +1,379 @@
+package distributed;
+
+import leaks.Leak;
+import scheduler.AnalysisJob;
+import scheduler.Job;
+import scheduler.JobListener;
+import scheduler.JobQueue;
+import tool.ITool;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Responsible for spreading the (apk, tool) jobs of a corpus analysis across several machines. Workers connect to the
+ * coordinator over TCP and are handed one job at a time. The job is leased to the worker as long as the worker sends a
+ * heartbeat at least once within the lease timeout. If the lease expires or the connection to the worker is lost, the
+ * job is handed to the next free worker again. A job that was handed out too often without a result (e.g. because it
+ * crashes every worker) is reported as not completed.
+ *
+ * The workers send back the raw results file of the tool and the Leaks they parsed from it. The coordinator stores the
+ * results file, lets the tool of the job serve it, and notifies the JobListener just like the JobScheduler does for
+ * jobs run on this machine. The listener is called on the thread serving the worker.
+ *
+ * Only AnalysisJobs are handed out. The preparation steps a tool requires, e.g. Dare for IC3, are run by the worker
+ * right before the tool, since their artifacts are not shipped between machines.
+ *
+ * The apks and tools are expected at the same paths relative to the home directory on all machines, e.g. because the
+ * workspace is shared. The protocol is not authenticated, it is meant for a trusted cluster network.
+ *
+ * @see Worker
+ * @see Protocol
+ */
+public class Coordinator implements JobQueue {
+    private static final int MAX_ATTEMPTS = 3; // times a job is handed out before it is given up
+
+    private final ServerSocket serverSocket;
+    private final long leaseTimeout;        // time within which a worker has to send a heartbeat [in ms]
+    private final File resultsDir;
+    private final JobListener listener;
+    private final Thread acceptor;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition stateChanged = lock.newCondition();
+    private final HashMap<Integer, AnalysisJob> jobs = new HashMap<>();
+    private final HashMap<Integer, Integer> attempts = new HashMap<>();
+    private final LinkedList<Integer> pendingJobs = new LinkedList<>();
+    private final HashSet<Integer> finishedJobs = new HashSet<>();
+    private int nextJobId;
+    private int unfinishedJobs;
+    private boolean shutdown;
+
+    /**
+     * Starts listening for workers.
+     *
+     * @param port - Integer: port to listen on, 0 for any free port.
+     * @param leaseTimeout - Long: time within which a worker has to send a heartbeat [in ms].
+     * @param resultsDir - File: folder to store the raw results files received from the workers in.
+     * @param listener - JobListener notified about every finished job.
+     * @throws IOException if the port cannot be opened.
+     */
+    public Coordinator(int port, long leaseTimeout, File resultsDir, JobListener listener) throws IOException {
+        this.serverSocket = new ServerSocket(port);
+        this.leaseTimeout = leaseTimeout;
+        this.resultsDir = resultsDir;
+        this.listener = listener;
+        this.acceptor = new Thread(this::acceptWorkers, "coordinator");
+        this.acceptor.start();
+        System.out.println("Coordinator: Waiting for workers on port " + serverSocket.getLocalPort());
+    }
+
+    /**
+     * Queues a job. It will be handed to the next free worker.
+     * @param job - AnalysisJob to run.
+     * @throws IllegalArgumentException if the job is not an AnalysisJob.
+     */
+    @Override
+    public void submit(Job job){
+        if(!(job instanceof AnalysisJob)){
+            throw new IllegalArgumentException("Job " + job + " is run by the workers themselves, it was not accepted.");
+        }
+        lock.lock();
+        try {
+            if(shutdown){
+                throw new IllegalStateException("Coordinator was shut down, job " + job + " was not accepted.");
+            }
+            int jobId = nextJobId++;
+            jobs.put(jobId, (AnalysisJob) job);
+            attempts.put(jobId, 0);
+            pendingJobs.add(jobId);
+            unfinishedJobs++;
+            stateChanged.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until all submitted jobs have finished, then tells the workers to shut down and stops listening.
+     * @throws InterruptedException if the waiting thread is interrupted.
+     */
+    @Override
+    public void awaitTermination() throws InterruptedException {
+        lock.lock();
+        try {
+            shutdown = true;
+            stateChanged.signalAll();
+            while(unfinishedJobs > 0){
+                stateChanged.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            System.out.println("Error: Coordinator socket could not be closed. " + e.getMessage());
+        }
+        acceptor.join();
+    }
+
+    /**
+     * Accepts connecting workers and serves each of them in its own thread until the coordinator is closed.
+     */
+    private void acceptWorkers(){
+        while(!serverSocket.isClosed()){
+            try {
+                Socket socket = serverSocket.accept();
+                Thread thread = new Thread(() -> serveWorker(socket), "coordinator-" + socket.getRemoteSocketAddress());
+                thread.setDaemon(true);
+                thread.start();
+            } catch (IOException e) {
+                if(!serverSocket.isClosed()){
+                    System.out.println("Error: Worker could not connect. " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Hands jobs to a worker one after the other and receives their results. If the worker does not send a message
+     * within the lease timeout or the connection breaks, its current job is handed out again.
+     *
+     * @param socket - Socket connected to the worker.
+     */
+    private void serveWorker(Socket socket){
+        String workerName = socket.getRemoteSocketAddress().toString();
+        Integer jobId = null;
+        try (Socket connection = socket) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(connection.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(connection.getOutputStream()));
+            if(in.readByte() != Protocol.HELLO){
+                throw new IOException("Worker did not introduce itself.");
+            }
+            workerName = in.readUTF();
+            System.out.println("Coordinator: Worker " + workerName + " connected.");
+
+            while((jobId = nextJob()) != null){
+                long startTime = System.currentTimeMillis();
+                AnalysisJob job = getJob(jobId);
+                out.writeByte(Protocol.JOB);
+                out.writeInt(jobId);
+                out.writeUTF(job.getToolName());
+                out.writeUTF(getPathInHomeDir(job.getTool()));
+                out.writeLong(job.getTool().getTimeout());
+                out.flush();
+
+                connection.setSoTimeout((int) leaseTimeout);
+                receiveResult(in, jobId, startTime);
+                connection.setSoTimeout(0);
+                jobId = null;
+            }
+            out.writeByte(Protocol.SHUTDOWN);
+            out.flush();
+        } catch (SocketTimeoutException e) {
+            System.out.println("Error: Lease of worker " + workerName + " expired, its job is handed out again.");
+        } catch (IOException e) {
+            System.out.println("Error: Connection to worker " + workerName + " was lost. " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if(jobId != null){
+                requeue(jobId);
+            }
+        }
+    }
+
+    /**
+     * Reads the heartbeats of a running job until its result arrives.
+     *
+     * @param in - DataInputStream of the connection to the worker.
+     * @param jobId - Integer: id of the job the worker is running.
+     * @param startTime - Long: time at which the job was handed to the worker [in ms].
+     * @throws IOException if the lease expires or the connection breaks.
+     */
+    private void receiveResult(DataInputStream in, int jobId, long startTime) throws IOException {
+        while(true){
+            byte type = in.readByte();
+            if(type == Protocol.HEARTBEAT){
+                in.readInt();
+                continue;
+            }
+            if(type != Protocol.RESULT || in.readInt() != jobId){
+                throw new IOException("Unexpected message of type " + type + ".");
+            }
+            boolean completed = in.readBoolean();
+            int exitCode = in.readInt();
+            File resultsFile = in.readBoolean() ? receiveResultsFile(in, jobId) : null;
+            ArrayList<ArrayList<String>> leakProperties = Protocol.readLeaks(in);
+            finish(jobId, completed && resultsFile != null, exitCode, resultsFile, leakProperties, startTime);
+            return;
+        }
+    }
+
+    /**
+     * Stores the raw results file sent by a worker in the results folder.
+     *
+     * @param in - DataInputStream of the connection to the worker.
+     * @param jobId - Integer: id of the job, used to keep the files of different jobs apart.
+     * @return File containing the raw results.
+     * @throws IOException if the file cannot be received or written.
+     */
+    private File receiveResultsFile(DataInputStream in, int jobId) throws IOException {
+        String fileName = new File(in.readUTF()).getName();
+        long length = in.readLong();
+        Files.createDirectories(resultsDir.toPath());
+        File resultsFile = new File(resultsDir, jobId + "-" + fileName);
+        try (OutputStream file = Files.newOutputStream(resultsFile.toPath())) {
+            Protocol.copy(in, file, length);
+        }
+        return resultsFile;
+    }
+
+    /**
+     * Waits for the next job to hand out.
+     * @return Integer: id of the job or null if all jobs have finished and no more jobs will be submitted.
+     * @throws InterruptedException if the waiting thread is interrupted.
+     */
+    private Integer nextJob() throws InterruptedException {
+        lock.lock();
+        try {
+            while(pendingJobs.isEmpty()){
+                if(shutdown && unfinishedJobs == 0){
+                    return null;
+                }
+                stateChanged.await();
+            }
+            Integer jobId = pendingJobs.removeFirst();
+            attempts.merge(jobId, 1, Integer::sum);
+            return jobId;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Hands a job out again after its worker was lost. A job that was already handed out too often is given up and
+     * reported as not completed.
+     * @param jobId - Integer: id of the job.
+     */
+    private void requeue(int jobId){
+        boolean givenUp;
+        lock.lock();
+        try {
+            if(finishedJobs.contains(jobId)){
+                return;
+            }
+            givenUp = attempts.get(jobId) >= MAX_ATTEMPTS;
+            if(!givenUp){
+                pendingJobs.addFirst(jobId);
+                stateChanged.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if(givenUp){
+            System.out.println("Error: Job " + getJob(jobId) + " was given up after " + MAX_ATTEMPTS + " attempts.");
+            finish(jobId, false, 1, null, null, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Completes a job with the result of a worker and notifies the listener. A second result for the same job, e.g.
+     * from a worker whose lease had expired, is ignored.
+     *
+     * @param jobId - Integer: id of the job.
+     * @param completed - boolean: whether the tool completed its analysis.
+     * @param exitCode - Integer: exit code of the tool on the worker.
+     * @param resultsFile - File: raw results received from the worker or null.
+     * @param leakProperties - ArrayList with the properties of the Leaks parsed by the worker or null.
+     * @param startTime - Long: time at which the job was handed to the worker [in ms].
+     */
+    private void finish(int jobId, boolean completed, int exitCode, File resultsFile,
+                        ArrayList<ArrayList<String>> leakProperties, long startTime){
+        AnalysisJob job;
+        lock.lock();
+        try {
+            if(!finishedJobs.add(jobId)){
+                return;
+            }
+            job = jobs.remove(jobId);
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            ArrayList<Leak> leaks = null;
+            if(completed){
+                job.getTool().useCachedResults(resultsFile);
+                leaks = new ArrayList<>();
+                for(ArrayList<String> properties : leakProperties){
+                    leaks.add(new Leak(properties, job.getTool()));
+                }
+            } else {
+                System.out.println("Error: " + job + " did not complete on the worker - Exit Code: " + exitCode);
+            }
+            job.completeRemotely(completed, leaks, startTime);
+            listener.jobFinished(job);
+        } catch (RuntimeException e) {
+            System.out.println("Error: Results of job " + job + " could not be processed. " + e.getMessage());
+        } finally {
+            lock.lock();
+            try {
+                unfinishedJobs--;
+                stateChanged.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Gets the path of the apk relative to the home directory, which is the same on all machines. The tools prepend
+     * the home directory to the path they were created with.
+     *
+     * @param tool - ITool of the job.
+     * @return String path of the apk starting with "/".
+     */
+    static String getPathInHomeDir(ITool tool){
+        String homeDir = System.getProperty("user.dir") + "/..";
+        String apkPath = tool.getApkPath();
+        return apkPath.startsWith(homeDir) ? apkPath.substring(homeDir.length()) : apkPath;
+    }
+
+    private AnalysisJob getJob(int jobId){
+        lock.lock();
+        try {
+            return jobs.get(jobId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** ----------------------------------------------------------------------------------------------------------------
+     * HELPER METHODS (GETTERS & SETTERS)
+     * ----------------------------------------------------------------------------------------------------------------*/
+
+    /**
+     * Gets the port the coordinator listens on for workers.
+     * @return Integer: local port.
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+}
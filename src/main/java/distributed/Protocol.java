@@ -0,0 +1,99 @@
+package distributed;
+
+import leaks.Leak;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+
+/**
+ * Responsible for the messages exchanged between the Coordinator and its Workers over a plain TCP connection. Every
+ * message starts with a byte giving its type, followed by its fields written with DataOutputStream:
+ *
+ * HELLO (worker to coordinator): name of the worker.
+ * JOB (coordinator to worker): job id, tool name, path of the apk relative to the home directory and the time the
+ *     tool may run [in ms].
+ * HEARTBEAT (worker to coordinator): job id, sent regularly while the job is running to renew its lease.
+ * RESULT (worker to coordinator): job id, whether the tool completed, its exit code, whether a results file follows,
+ *      the file name, length and content of the raw results file and the parsed Leaks.
+ * SHUTDOWN (coordinator to worker): all jobs have finished, the worker may exit.
+ *
+ * A Leak is sent as its five properties: class name, method name, method return, sink method and sink method return.
+ * The coordinator recreates the Leaks with its own tool objects.
+ *
+ * @see Coordinator
+ * @see Worker
+ */
+final class Protocol {
+    static final byte HELLO = 1;
+    static final byte JOB = 2;
+    static final byte HEARTBEAT = 3;
+    static final byte RESULT = 4;
+    static final byte SHUTDOWN = 5;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private Protocol(){
+    }
+
+    /**
+     * Writes the properties of the Leaks.
+     * @param out - DataOutputStream of the connection.
+     * @param leaks - ArrayList of Leaks to send.
+     * @throws IOException if the connection is broken.
+     */
+    static void writeLeaks(DataOutputStream out, ArrayList<Leak> leaks) throws IOException {
+        out.writeInt(leaks.size());
+        for(Leak leak : leaks){
+            out.writeUTF(leak.getClassName());
+            out.writeUTF(leak.getMethodName());
+            out.writeUTF(leak.getMethodReturn());
+            out.writeUTF(leak.getSinkMethod());
+            out.writeUTF(leak.getSinkMethodReturn());
+        }
+    }
+
+    /**
+     * Reads the properties of the Leaks, in the order expected by the Leak constructor.
+     * @param in - DataInputStream of the connection.
+     * @return ArrayList with the properties of each Leak.
+     * @throws IOException if the connection is broken.
+     */
+    static ArrayList<ArrayList<String>> readLeaks(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        ArrayList<ArrayList<String>> leaks = new ArrayList<>(count);
+        for(int i = 0; i < count; i++){
+            ArrayList<String> properties = new ArrayList<>(5);
+            for(int j = 0; j < 5; j++){
+                properties.add(in.readUTF());
+            }
+            leaks.add(properties);
+        }
+        return leaks;
+    }
+
+    /**
+     * Copies the given number of bytes from one stream to another.
+     *
+     * @param in - InputStream to read from.
+     * @param out - OutputStream to write to.
+     * @param length - Long: number of bytes to copy.
+     * @throws IOException if the stream ends early or the connection is broken.
+     */
+    static void copy(InputStream in, OutputStream out, long length) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long remaining = length;
+        while(remaining > 0){
+            int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if(read == -1){
+                throw new EOFException("Results file ended after " + (length - remaining) + " of " + length + " bytes.");
+            }
+            out.write(buffer, 0, read);
+            remaining -= read;
+        }
+    }
+}
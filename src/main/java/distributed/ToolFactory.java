@@ -0,0 +1,43 @@
+package distributed;
+
+import tool.CovertTool;
+import tool.FlowDroidTool;
+import tool.HorndroidTool;
+import tool.ITool;
+import tool.Ic3Tool;
+import tool.IcctaTool;
+
+/**
+ * Responsible for creating the tool a Worker has to run for a job. The Coordinator only sends the name of the tool and
+ * the path of the apk, the worker creates the tool within its own workspace.
+ *
+ * @see Worker
+ */
+public interface ToolFactory {
+
+    /**
+     * Creates the tool with the given name for an apk.
+     *
+     * @param toolName - String: name of the tool e.g. flowdroid.
+     * @param apkPath - String: path of the apk relative to the home directory.
+     * @return new ITool ready to run its analysis.
+     */
+    ITool createTool(String toolName, String apkPath);
+
+    /**
+     * Gets the factory creating the tools of the workspace the worker was started in.
+     * @return ToolFactory for the tools of this project.
+     */
+    static ToolFactory forWorkspace(){
+        return (toolName, apkPath) -> {
+            switch (toolName){
+                case "flowdroid": return new FlowDroidTool(apkPath);
+                case "covert": return new CovertTool(apkPath);
+                case "iccta": return new IcctaTool(apkPath);
+                case "ic3": return new Ic3Tool(apkPath);
+                case "horndroid": return new HorndroidTool(apkPath);
+                default: throw new IllegalArgumentException("Unknown tool: " + toolName);
+            }
+        };
+    }
+}
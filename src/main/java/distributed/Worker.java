@@ -0,0 +1,262 @@
+package distributed;
+
+import leaks.Leak;
+import tool.ITool;
+import tool.PreparationStep;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Responsible for running the jobs handed out by a Coordinator on this machine. A worker connects to the coordinator,
+ * introduces itself and then runs one job after the other with the existing tools. While a tool is running, a
+ * heartbeat is sent regularly so the coordinator keeps the job leased to this worker. When the tool has finished, the
+ * raw results file and the Leaks parsed from it are sent back and the output of the tool is cleaned. The preparation
+ * steps a tool requires, e.g. Dare for IC3, are run right before the tool.
+ *
+ * Several workers can run in the same process, one per slot. Like in the JobScheduler, only one ic3 job runs at a time
+ * per process, since ic3 works in fixed folders of its tool directory.
+ *
+ * @see Coordinator
+ * @see Protocol
+ */
+public class Worker implements Runnable {
+    static final long HEARTBEAT_INTERVAL = 10000;  // time between two heartbeats [in ms]
+    private static final int CONNECT_ATTEMPTS = 30;
+    private static final long CONNECT_DELAY = 2000; // time between two attempts to connect [in ms]
+    private static final HashMap<String, Semaphore> TOOL_LIMITS = new HashMap<>();
+
+    static {
+        TOOL_LIMITS.put("ic3", new Semaphore(1));
+    }
+
+    private final String host;
+    private final int port;
+    private final String name;
+    private final ToolFactory toolFactory;
+    private final long heartbeatInterval;
+    private final ScheduledExecutorService heartbeats;
+    private volatile Socket socket;
+    private int finishedJobs;
+
+    /**
+     * Runs workers for the jobs of a coordinator.
+     * @param args - address of the coordinator as "host:port", optionally followed by the number of jobs to run in
+     *             parallel on this machine (default is 1).
+     */
+    public static void main(String[] args){
+        String[] address = args[0].split(":");
+        int slots = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        ArrayList<Thread> threads = new ArrayList<>();
+        for(int slot = 0; slot < slots; slot++){
+            Worker worker = new Worker(address[0], Integer.parseInt(address[1]), getHostName() + "-" + slot,
+                    ToolFactory.forWorkspace(), HEARTBEAT_INTERVAL);
+            Thread thread = new Thread(worker, "worker-" + slot);
+            thread.start();
+            threads.add(thread);
+        }
+        try {
+            for(Thread thread : threads){
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            System.out.println("Error: Workers were interrupted.");
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @param host - String: host name of the coordinator.
+     * @param port - Integer: port the coordinator listens on.
+     * @param name - String: name of the worker shown by the coordinator.
+     * @param toolFactory - ToolFactory creating the tools to run.
+     * @param heartbeatInterval - Long: time between two heartbeats, must be shorter than the lease timeout [in ms].
+     */
+    public Worker(String host, int port, String name, ToolFactory toolFactory, long heartbeatInterval){
+        this.host = host;
+        this.port = port;
+        this.name = name;
+        this.toolFactory = toolFactory;
+        this.heartbeatInterval = heartbeatInterval;
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name + "-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Connects to the coordinator and runs the jobs it hands out until it tells the worker to shut down or the
+     * connection is lost.
+     */
+    @Override
+    public void run(){
+        try (Socket connection = connect()) {
+            socket = connection;
+            DataInputStream in = new DataInputStream(new BufferedInputStream(connection.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(connection.getOutputStream()));
+            out.writeByte(Protocol.HELLO);
+            out.writeUTF(name);
+            out.flush();
+
+            byte type;
+            while((type = in.readByte()) == Protocol.JOB){
+                int jobId = in.readInt();
+                String toolName = in.readUTF();
+                String apkPath = in.readUTF();
+                long timeout = in.readLong();
+                runJob(out, jobId, toolName, apkPath, timeout);
+            }
+            if(type != Protocol.SHUTDOWN){
+                throw new IOException("Unexpected message of type " + type + ".");
+            }
+            System.out.println("Worker " + name + ": Finished " + finishedJobs + " jobs, shutting down.");
+        } catch (IOException e) {
+            System.out.println("Error: Worker " + name + " lost the connection to the coordinator. " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            heartbeats.shutdownNow();
+        }
+    }
+
+    /**
+     * Connects to the coordinator. Workers may be started before the coordinator, so connecting is retried for a while.
+     * @return Socket connected to the coordinator.
+     * @throws IOException if the coordinator cannot be reached.
+     * @throws InterruptedException if the worker is interrupted while waiting to retry.
+     */
+    private Socket connect() throws IOException, InterruptedException {
+        for(int attempt = 1; ; attempt++){
+            try {
+                return new Socket(host, port);
+            } catch (IOException e) {
+                if(attempt == CONNECT_ATTEMPTS){
+                    throw e;
+                }
+                Thread.sleep(CONNECT_DELAY);
+            }
+        }
+    }
+
+    /**
+     * Runs the tool of a job, sends heartbeats while it is running and sends its results back afterwards.
+     *
+     * @param out - DataOutputStream of the connection to the coordinator.
+     * @param jobId - Integer: id of the job.
+     * @param toolName - String: name of the tool to run.
+     * @param apkPath - String: path of the apk relative to the home directory.
+     * @param timeout - Long: time the tool may run [in ms] or 0 to keep the default of the tool.
+     * @throws IOException if the connection is broken.
+     * @throws InterruptedException if the worker is interrupted while waiting for its tool limit.
+     */
+    private void runJob(DataOutputStream out, int jobId, String toolName, String apkPath, long timeout)
+            throws IOException, InterruptedException {
+        System.out.println("Worker " + name + ": Running " + toolName + " on " + apkPath);
+        ScheduledFuture<?> heartbeat = heartbeats.scheduleAtFixedRate(() -> sendHeartbeat(out, jobId),
+                heartbeatInterval, heartbeatInterval, TimeUnit.MILLISECONDS);
+        ITool tool = null;
+        boolean completed = false;
+        File resultsFile = null;
+        ArrayList<Leak> leaks = new ArrayList<>();
+        Semaphore toolLimit = TOOL_LIMITS.get(toolName);
+        if(toolLimit != null){
+            toolLimit.acquire();
+        }
+        try {
+            tool = toolFactory.createTool(toolName, apkPath);
+            if(timeout > 0){
+                tool.setTimeout(timeout);
+            }
+            if(PreparationStep.prepare(tool)){
+                completed = tool.runAnalysis();
+            } else {
+                tool.skipAnalysis();
+            }
+            if(completed){
+                resultsFile = tool.getResultsFile();
+                leaks = tool.getLeaks();
+            }
+        } catch (RuntimeException e) {
+            System.out.println("Error: " + toolName + " analysis of " + apkPath + " failed. " + e.getMessage());
+            completed = false;
+        } finally {
+            if(toolLimit != null){
+                toolLimit.release();
+            }
+            heartbeat.cancel(false);
+        }
+
+        synchronized (out){
+            out.writeByte(Protocol.RESULT);
+            out.writeInt(jobId);
+            out.writeBoolean(completed);
+            out.writeInt(tool != null ? tool.getExitCode() : 1);
+            boolean hasResults = completed && resultsFile != null && resultsFile.isFile();
+            out.writeBoolean(hasResults);
+            if(hasResults){
+                out.writeUTF(resultsFile.getName());
+                out.writeLong(resultsFile.length());
+                Files.copy(resultsFile.toPath(), out);
+            }
+            Protocol.writeLeaks(out, completed ? leaks : new ArrayList<>());
+            out.flush();
+        }
+        if(tool != null){
+            tool.cleanToolOutput();
+        }
+        finishedJobs++;
+    }
+
+    /**
+     * Sends a heartbeat renewing the lease of the running job.
+     * @param out - DataOutputStream of the connection to the coordinator.
+     * @param jobId - Integer: id of the running job.
+     */
+    private void sendHeartbeat(DataOutputStream out, int jobId){
+        synchronized (out){
+            try {
+                out.writeByte(Protocol.HEARTBEAT);
+                out.writeInt(jobId);
+                out.flush();
+            } catch (IOException e) {
+                System.out.println("Error: Worker " + name + " could not send a heartbeat. " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Closes the connection to the coordinator, e.g. to simulate a crashed worker.
+     */
+    public void stop(){
+        try {
+            if(socket != null){
+                socket.close();
+            }
+        } catch (IOException e) {
+            System.out.println("Error: Worker " + name + " could not be stopped. " + e.getMessage());
+        }
+    }
+
+    private static String getHostName(){
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (IOException e) {
+            return "worker";
+        }
+    }
+}
@@ -1,20 +1,31 @@
 package main;
 
-import comparator.LeakComparator;
+import comparator.LeakIndex;
 import comparator.ToolComparator;
+import distributed.Worker;
 import leaks.Leak;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
+import results.JournalEntry;
+import results.ResultCache;
+import results.ResultJournal;
+import scheduler.AnalysisJob;
+import scheduler.Job;
+import scheduler.JobGraph;
+import scheduler.JobScheduler;
 import tool.*;
 import writer.Writer;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
  * Responsible for running all the selected analysis tools on a given apk file. The
- * analysis tools are run sequentially on the apk each producing it's own results.
+ * analysis tools are run sequentially on the apk each producing it's own results. Alternatively, the tools can be run
+ * concurrently by a JobScheduler, since they are independent external processes that only share preparation steps.
  *
  * The runner uses the Tools Interface, which all required methods to trigger the analysis for each
  * type of tool. To run the analysis tools, a script needs to be triggered in the console. For that purpose,
@@ -26,62 +37,75 @@ import java.util.ArrayList;
  * @author Timo Spring
  */
 public class AnalysisRunner {
+    static final String WORKER_OPTION = "--worker";
+    static final String CACHEPATH = System.getProperty("user.dir") + "/../results/cache/";
+    static final long CACHE_BUDGET = 10240; // disk space for cached raw results [in MB]
+
     private String appName;
-    private ArrayList<Leak> allLeaks = new ArrayList<>();
     private ArrayList<Leak> groupedLeaks;
     private String matchingMatrix;
-    private static ArrayList<ITool> tools;
-    private static StringBuilder timedOut = new StringBuilder();
-    private static final String APKFOLDERPATH = System.getProperty("user.dir") + "/../apksToTest/";
+    private ArrayList<ITool> tools;
+    private LeakIndex leakIndex;
+    private StringBuilder timedOut = new StringBuilder();
+    private ResultJournal journal;
+    private String apkHash;
+    private ResultCache cache;
 
 
     /**
      * Runs the whole Analysis on a given application. It gets the apk to a provided folder path, initialized the tools
      * with the path to the apk, runs the tools on the application, groups and summarizes the Leak objects, and writes
      * the results to a CSV and text file.
-     * @param args - path to the APK that you want to check in the analysis.
+     *
+     * To analyse a whole corpus of applications instead, pass "--corpus" followed by the folder or manifest file
+     * listing the apks and optionally the number of parallel jobs. To run jobs for a coordinator on another machine,
+     * pass "--worker" followed by the address of the coordinator as "host:port" and optionally the number of slots.
+     *
+     * The raw results of the tools are only cached (see ResultCache) if "--cache=[path]" or "--cache-size=[MB]" is
+     * given, since filling the cache means hashing the apk and all jars of the tools.
+     *
+     * @param args - path to the APK that you want to check in the analysis. Optionally followed by the number of worker
+     *             threads used to run the tools concurrently (e.g. 4). Without it, the tools run sequentially. Further
+     *             options are given as "--name=value" e.g. "--cache-size=2048".
+     * @see CorpusRunner
      */
     public static void main(String[] args){
+        if(args.length > 0 && args[0].equals(CorpusRunner.CORPUS_OPTION)){
+            CorpusRunner.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if(args.length > 0 && args[0].equals(WORKER_OPTION)){
+            Worker.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
     	String apkPath = args[0].substring(2);
         AnalysisRunner runner = new AnalysisRunner();
         String appName = apkPath.substring(apkPath.lastIndexOf("../")+2);
+        int threads = args.length > 1 && !args[1].startsWith("--") ? Integer.parseInt(args[1]) : 1;
         runner.initializeTools(appName);
-        runner.runAnalysis(appName);
-        runner.summarizeLeaks();
-        runner.createMatchingMatrix();
-        runner.createSummaryReport();
-        runner.createCsvResultsFile();
-        runner.cleanTestResults();
-        runner.printProgress(8, "");
-
-       /*//LOCAL RUNNING CONFIG
-        AnalysisRunner runner = new AnalysisRunner();
-        File apkFolder = new File(APKFOLDERPATH);
-        File[] apksToTest = apkFolder.listFiles((APKFOLDERPATH, apkName) -> apkName.endsWith(".apk"));
-        System.out.printf("Total APKs to test: %s\n", apksToTest.length);
-
-        for(File apks: apksToTest){
-            String apkPath = apks.getPath();
-            String appName = apkPath.substring(apkPath.lastIndexOf("../")+2);
-            runner.initializeTools(appName);
-            runner.runAnalysis(appName);
-            runner.summarizeLeaks();
-            //runner.createMatchingMatrix();
-            runner.createSummaryReport();
-            runner.createCsvResultsFile();
-            runner.cleanTestResults();
-            runner.printProgress(8, "");
-        }*/
-
-
+        String cachePath = CorpusRunner.getOption(args, "cache", null);
+        String cacheSize = CorpusRunner.getOption(args, "cache-size", null);
+        if(cachePath != null || cacheSize != null){
+            long budget = cacheSize != null ? Long.parseLong(cacheSize) : CACHE_BUDGET;
+            if(budget > 0){
+                runner.setResultCache(new ResultCache(new File(cachePath != null ? cachePath : CACHEPATH), budget));
+            }
+        }
+        if(threads > 1){
+            runner.runAnalysisConcurrently(threads);
+        } else {
+            runner.runAnalysis();
+        }
+        runner.evaluateResults();
     }
 
     /**
      * Adds all tools to run to the ArrayList of Tools and passes the path to the apk to the tools.
      *
-     * @param apkPath - String: Path to apk that should be analysed.
+     * @param apkPath - String: Path to apk that should be analysed. Used to get the name of the application.
      */
-    private void initializeTools(String apkPath){
+    void initializeTools(String apkPath){
+        appName = getAppName(apkPath);
         tools = new ArrayList<>();
         tools.add(new FlowDroidTool(apkPath));
         tools.add(new CovertTool(apkPath));
@@ -89,41 +113,167 @@ public class AnalysisRunner {
         tools.add(new Ic3Tool(apkPath));
         //tools.add(new HorndroidTool(apkPath));
 
+        leakIndex = new LeakIndex(tools.size());
     }
 
     /**
-     * Runs the analysis for all tools. It does so by iterating through the list of tools and telling them to run themselves.
-     * After a tool has run, we collect the Leaks that the tool reported.
+     * Serves the results of tools that already analysed the same apk from the given cache instead of running them.
+     * @param cache - ResultCache with the raw results of earlier runs.
+     */
+    void setResultCache(ResultCache cache){
+        this.cache = cache;
+    }
+
+    /**
+     * Records every finished tool and the final evaluation of the application in the given journal, so that a corpus
+     * run can be resumed after a crash.
      *
-     * @param apkPath - String: path to the apk to be analysed. Used to get the name of the application.
+     * @param journal - ResultJournal of the corpus run.
+     * @param apkHash - String: SHA-256 hash of the apk identifying it in the journal.
      */
-    private void runAnalysis(String apkPath) {
-        appName = getAppName(apkPath);
+    void setJournal(ResultJournal journal, String apkHash){
+        this.journal = journal;
+        this.apkHash = apkHash;
+    }
 
-        for(ITool tool: tools){
-            printProgress(0, tool.getToolName());
-            boolean exitCode = tool.runAnalysis();
+    /**
+     * Runs the analysis for all tools. It does so by iterating through the jobs of the tools and telling them to run
+     * themselves. Preparation steps shared by the tools, e.g. Dare, come first and are run only once. After a tool has
+     * run, we collect the Leaks that the tool reported.
+     */
+    private void runAnalysis() {
+        for(Job job : JobGraph.createJobs(tools, cache)){
+            printProgress(0, job.getName());
+            job.run();
+            job.notifyListener(this::jobFinished);
+        }
+        completeAnalysis();
+    }
 
-            if(!exitCode){
+    /**
+     * Runs the analysis for all tools concurrently. The jobs of the tools are handed to a JobScheduler with the given
+     * number of threads. A tool requiring the artifact of a preparation step, e.g. IC3 requiring the Dare output, waits
+     * for the step, while the other tools already run. As soon as a tool has finished, we back up its results and
+     * collect its Leaks, while the other tools keep running.
+     *
+     * @param threads - Integer: maximum number of jobs running at the same time.
+     */
+    private void runAnalysisConcurrently(int threads) {
+        JobScheduler scheduler = new JobScheduler(Math.max(1, Math.min(threads, tools.size())), this::jobFinished);
+        for(Job job : JobGraph.createJobs(tools, cache)){
+            printProgress(0, job.getName());
+            scheduler.submit(job);
+        }
+
+        try {
+            scheduler.awaitTermination();
+        } catch (InterruptedException e) {
+            System.out.println("Error: Analysis of " + appName + " was interrupted.");
+            Thread.currentThread().interrupt();
+        }
+        completeAnalysis();
+    }
+
+    private void jobFinished(AnalysisJob job){
+        collectResults(job.getTool(), job.isCompleted());
+    }
+
+    /**
+     * Collects the results of a tool that has run. If the tool did not complete its analysis, it is reported as timed
+     * out. Otherwise, its results file is backed up and its Leaks are collected. Tools of the same application may
+     * finish concurrently, so the collected Leaks are stored per tool and only merged in completeAnalysis.
+     *
+     * @param tool - ITool that has run.
+     * @param completed - boolean: whether the tool completed its analysis.
+     */
+    void collectResults(ITool tool, boolean completed){
+        collectResults(tool, completed, null);
+    }
+
+    /**
+     * Collects the results of a tool that has run, like collectResults(tool, completed), but takes the Leaks that were
+     * already parsed e.g. by a remote worker.
+     *
+     * @param tool - ITool that has run.
+     * @param completed - boolean: whether the tool completed its analysis.
+     * @param parsedLeaks - ArrayList of Leaks of the tool or null if they still have to be parsed.
+     */
+    void collectResults(ITool tool, boolean completed, ArrayList<Leak> parsedLeaks){
+        if(!completed){
+            synchronized (this){
                 timedOut.append(appName).append(";").append(tool.getToolName()).append("\n");
-            }else{
-                printProgress(1, tool.getToolName());
-                backupResultsFiles(tool, appName);
-                collectLeaks(tool);
             }
+            saveOutputTail(tool);
+            if(journal != null){
+                int exitCode = tool.getExitCode() != 0 ? tool.getExitCode() : 1;
+                journal.record(new JournalEntry(apkHash, tool.getToolName(), exitCode, null, 0));
+            }
+            return;
+        }
+        printProgress(1, tool.getToolName());
+        File backup = backupResultsFiles(tool, appName);
+        ArrayList<Leak> leaks = parsedLeaks != null ? parsedLeaks : tool.getLeaks();
+        printProgress(2, tool.getToolName());
+        leakIndex.add(tools.indexOf(tool), leaks);
+        if(journal != null){
+            journal.record(new JournalEntry(apkHash, tool.getToolName(), 0, backup, leaks.size()));
         }
+    }
 
+    /**
+     * Restores the results of a tool that completed in an earlier run from the backup of its raw results, instead of
+     * running the tool again.
+     *
+     * @param tool - ITool that completed in an earlier run.
+     * @param entry - JournalEntry of the completed job.
+     */
+    void restoreResults(ITool tool, JournalEntry entry){
+        ArrayList<Leak> leaks = tool.getLeaks(entry.getResultsFile());
+        printProgress(9, tool.getToolName());
+        leakIndex.add(tools.indexOf(tool), leaks);
+    }
+
+    /**
+     * Marks the analysis with all tools as completed. The Leaks of the tools were already sorted into the LeakIndex
+     * when they were collected. It keeps them per tool in the order of the tools list, no matter in which order the
+     * tools finished, so grouping, matching matrix and reports are always the same.
+     */
+    synchronized void completeAnalysis(){
         printProgress(3, "");
     }
 
     /**
-     * Summarizes the Leaks by using the LeakComparator object to compare all Leaks within the list of reported Leaks.
-     * Results in a list of summarized and grouped Leak objects.
+     * Evaluates the collected Leaks of all tools, i.e. groups them, creates the matching matrix, writes the summary
+     * report and CSV file and cleans the output of the tools.
+     */
+    void evaluateResults(){
+        summarizeLeaks();
+        createMatchingMatrix();
+        createSummaryReport();
+        createCsvResultsFile();
+        cleanTestResults();
+        if(journal != null){
+            journal.recordEvaluation(apkHash);
+        }
+        printProgress(8, "");
+    }
+
+    /**
+     * Gets the tools that are run on the application.
+     * @return ArrayList of ITool objects.
+     */
+    ArrayList<ITool> getTools(){
+        return tools;
+    }
+
+    /**
+     * Summarizes the Leaks by grouping the Leaks of all tools, which were sorted into the LeakIndex while the tools
+     * were still running. Results in a list of summarized and grouped Leak objects, the same as given by the
+     * LeakComparator.
      */
     private void summarizeLeaks(){
-        assert allLeaks != null && groupedLeaks.size() == 0;
-        LeakComparator leakComparator = new LeakComparator();
-        groupedLeaks = leakComparator.groupLeaks(allLeaks);
+        assert leakIndex != null;
+        groupedLeaks = leakIndex.groupLeaks();
         printProgress(4, "");
 
     }
@@ -137,20 +287,6 @@ public class AnalysisRunner {
         matchingMatrix = comparator.getMatrix();
     }
 
-    /**
-     * Collects all reported vulnerabilities from a tool and adds them to a global list of all vulnerabilities.
-     *
-     * @param tool - ITool interface implemented by the Tool class. Tool to collect the vulnerabilities from.
-     */
-    private void collectLeaks(ITool tool) {
-        ArrayList<Leak> leaks = tool.getLeaks();
-        printProgress(2, tool.getToolName());
-        for(Leak leak : leaks){
-            allLeaks.add(leak);
-        }
-
-    }
-
     /**
      * Creates a summary report of the final list of all leaks to a application. It does so by calling the Writer object
      * with all required information, such as the list of leaks, application name, matching matrices and status on which
@@ -175,10 +311,10 @@ public class AnalysisRunner {
     /**
      * Copies the results file from the tool directory to the "results" folder.
      * @param tool - ITool : selected tool from which to gather the analysis results.
+     * @return File - backup of the results file or null if it could not be copied.
      */
-    private void backupResultsFiles(ITool tool, String appName){
-        String workingDir = System.getProperty("user.dir");
-        String resultsDir = workingDir + "/../results/rawResults/" + appName + "/";
+    private File backupResultsFiles(ITool tool, String appName){
+        String resultsDir = getRawResultsDir();
         String toolName = tool.getToolName() + "Results";
         File resultsFile = tool.getResultsFile();
         String suffix = FilenameUtils.getExtension(resultsFile.getName());
@@ -188,6 +324,38 @@ public class AnalysisRunner {
             FileUtils.copyFile(tool.getResultsFile(), targetDir);
         } catch (IOException e){
             System.out.println("Error: Results couldn't be transferred. " + e.getStackTrace());
+            return null;
+        }
+        return targetDir;
+    }
+
+    /**
+     * Gets the folder the raw results of the application are backed up to. If a journal is kept, the journal points to
+     * the backups to restore them, so the folder is named after the hash of the apk as well: apks with the same name in
+     * different folders of a corpus must not overwrite each other's backups.
+     * @return String path to the folder, ending with a slash.
+     */
+    private String getRawResultsDir(){
+        String workingDir = System.getProperty("user.dir");
+        String folderName = journal != null && apkHash != null ? appName + "-" + apkHash : appName;
+        return workingDir + "/../results/rawResults/" + folderName + "/";
+    }
+
+    /**
+     * Saves the end of the output of a tool that did not complete next to the raw results, to see why it failed.
+     * @param tool - ITool that did not complete its analysis.
+     */
+    private void saveOutputTail(ITool tool){
+        String outputTail = tool.getOutputTail();
+        if(outputTail == null){
+            return;
+        }
+        File outputFile = new File(getRawResultsDir() + appName + "-" + tool.getToolName() + "Output.log");
+        try {
+            FileUtils.writeStringToFile(outputFile, outputTail, StandardCharsets.UTF_8);
+            System.out.println(appName + ": Output of " + tool.getToolName() + " saved here " + outputFile.getPath());
+        } catch (IOException e){
+            System.out.println("Error: Output of " + tool.getToolName() + " couldn't be saved. " + e.getMessage());
         }
     }
 
@@ -202,7 +370,6 @@ public class AnalysisRunner {
             tool.cleanToolOutput();
         }
         tools.clear();
-        allLeaks.clear();
         groupedLeaks.clear();
     }
 
@@ -225,7 +392,7 @@ public class AnalysisRunner {
             case 0: System.out.println(appName + ".apk: Running " + toolName + " analysis..."); break;
             case 1: System.out.println(appName + ".apk: Completed " + toolName + " analysis."); break;
             case 2: System.out.println(appName + ".apk: Collecting Leaks from " + toolName + "\n"); break;
-            case 3: System.out.println(appName + ".apk: Full analysis with all tools completed. Raw results saved here: ~/droid-Security-thesis/results/rawResults/" + appName +"\n");break;
+            case 3: System.out.println(appName + ".apk: Full analysis with all tools completed. Raw results saved here: ~/droid-Security-thesis/results/rawResults/" + new File(getRawResultsDir()).getName() + "\n");break;
             case 4: System.out.println(appName + ".apk: Grouping and comparing Leaks..."); break;
             case 5: System.out.println(appName + ".apk: Creating summary report...");break;
             case 6: System.out.println(appName + ".apk: Adding Leaks to global CSV File...");break;
@@ -234,6 +401,7 @@ public class AnalysisRunner {
             + "Summary Text file: \t~/droid-Security-thesis/results/summary_" + appName + ".txt\n"
             + "Global CSV file: \t~/droid-Security-thesis/results/csv/summary_" + appName + ".csv\n\n"
             + "*************************************************************************\n\n");break;
+            case 9: System.out.println(appName + ".apk: Restored Leaks of " + toolName + " from an earlier run."); break;
 
         }
     }
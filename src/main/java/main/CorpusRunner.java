@@ -0,0 +1,689 @@
+package main;
+
+import distributed.Coordinator;
+import parser.Parsers;
+import results.Checksums;
+import results.JournalEntry;
+import results.ResultCache;
+import results.ResultJournal;
+import scheduler.AdmissionController;
+import scheduler.AnalysisJob;
+import scheduler.ApkFeatures;
+import scheduler.ApkInspector;
+import scheduler.BatchJob;
+import scheduler.Job;
+import scheduler.JobGraph;
+import scheduler.JobListener;
+import scheduler.JobQueue;
+import scheduler.JobScheduler;
+import scheduler.PressureMonitor;
+import scheduler.RuntimeHistory;
+import scheduler.SchedulingPolicy;
+import shell.control.ShellExecutor;
+import shell.control.WarmJvmPool;
+import tool.ITool;
+import tool.Tool;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Responsible for analysing a whole corpus of applications. The apks are either taken from a folder or from a manifest
+ * file listing one apk path per line. The analysis of the corpus is broken into independent jobs, one for each pair of
+ * apk and tool, which are run by the JobScheduler with a configurable level of parallelism. As soon as all jobs of an
+ * apk have finished, its Leaks are evaluated and written to the reports just like for a single apk. After every apk
+ * the throughput of the run is reported in APKs per hour.
+ *
+ * Jobs are only started while the memory and cores reserved by the running tools fit into the machine, keeping a
+ * headroom of free memory that can be set with the option "--headroom=[MB]". On Linux, the number of running jobs is
+ * additionally adapted to the memory and cpu pressure of the machine. The thresholds are set with the options
+ * "--memory-pressure=[%]" and "--cpu-pressure=[%]".
+ *
+ * Every finished job is recorded in a ResultJournal ("--journal=[path]", by default results/journal.txt). If a corpus
+ * run is started again, e.g. after the machine rebooted, apks that were already evaluated are skipped and tools that
+ * already completed are not run again. Their Leaks are restored from the backup of their raw results instead, so only
+ * missing or failed jobs are run.
+ *
+ * Tools that analysed the same apk with the same jars, command and android.jar before are served from the ResultCache
+ * ("--cache=[path]", by default results/cache) instead of being run. The cache is limited to "--cache-size=[MB]",
+ * a size of 0 disables it.
+ *
+ * Every tool gets a deadline derived from its running times on similar apks, i.e. apks of similar size and number of
+ * dex classes, which are kept in a RuntimeHistory ("--history=[path]", by default results/runtimes.txt). Deadlines
+ * never exceed "--timeout-cap=[minutes]" (by default 60), which is also used as long as there is too little history.
+ *
+ * Before any job is submitted, all apks are inspected without unpacking them (see ApkInspector) to estimate their cost.
+ * The jobs are run in the order of "--policy=[fifo|shortest-first|longest-first]", by default the most expensive apks
+ * first, so that a few giant apks do not keep the run going long after all other apks are done.
+ *
+ * With the option "--warm-jvms=[jobs]", FlowDroid, IccTA and HornDroid run in warm JVMs that analyse the given number of
+ * apks each before they are replaced (see WarmJvmPool), instead of starting a new JVM per apk. By default it is off.
+ *
+ * With the option "--covert-batch=[apks]", Covert runs once for the given number of apks (see CovertBatch) instead of
+ * once per apk. The batches are filled in the order the apks are submitted. By default every apk runs on its own.
+ *
+ * With the option "--workspaces=[path]", every run of IC3, Dare and HornDroid works in a workspace of its own below the
+ * given folder, e.g. on a tmpfs like /dev/shm, mirroring the tool directory (see Tool.setWorkspaceRoot). Their runs no
+ * longer share output folders, so IC3 and Dare are not limited to one job at a time anymore. HornDroid then always
+ * starts a new JVM, even with "--warm-jvms", since a warm JVM cannot change its working directory.
+ *
+ * With the options "--process-limit=[processes]" and "--tool-limits=[tool:processes,...]", e.g.
+ * "--tool-limits=horndroid:2,dare:1", the ShellExecutor runs at most the given number of tool processes at the same
+ * time, in total and per tool or preparation step. Commands over a limit wait in the order they arrived. These limits
+ * come on top of the admission of the jobs and by default there are none.
+ *
+ * With the option "--mapped-reports=true", the results files of FlowDroid, IccTA, IC3 and Covert are mapped into memory
+ * and parsed without decoding them into Strings (see MappedCharSequence), which is faster for results files of hundreds
+ * of MB. By default they are read line by line.
+ *
+ * With the option "--coordinator=[port]" the jobs are not run on this machine, but handed to Workers on other machines
+ * connecting to the given port (see distributed.Coordinator). Admission, pressure and cache only apply to local runs.
+ *
+ * Each apk gets its own AnalysisRunner, which keeps the collected Leaks and the state of the tools for this apk.
+ *
+ * The results of a finished job are backed up, parsed and sorted into the LeakIndex of its apk on a separate parse
+ * stage, so the slot of the job is free for the next tool right away. The evaluation of an apk, i.e. the final grouping
+ * and writing of the reports, runs on the parse stage as well, while the tools of other apks keep running.
+ *
+ * @see AnalysisRunner
+ * @see JobScheduler
+ * @see Coordinator
+ */
+public class CorpusRunner implements JobListener {
+    static final String CORPUS_OPTION = "--corpus";
+    private static final String APKFOLDERPATH = System.getProperty("user.dir") + "/../apksToTest/";
+    private static final long DEFAULT_HEADROOM = 2048; // memory kept free for the system and the runner [in MB]
+    private static final double DEFAULT_MEMORY_PRESSURE = 10; // share of time stalled waiting for memory [in %]
+    private static final double DEFAULT_CPU_PRESSURE = 50;    // share of time stalled waiting for cpu [in %]
+    private static final long PRESSURE_INTERVAL = 5;          // time between two samples of the pressure [in s]
+    private static final String JOURNALPATH = System.getProperty("user.dir") + "/../results/journal.txt";
+    private static final int JOURNAL_BATCH_SIZE = 16;         // records written before the journal is synced
+    private static final long JOURNAL_BATCH_INTERVAL = 30000; // time after which the journal is synced [in ms]
+    private static final long LEASE_TIMEOUT = 60000;          // time within which a worker has to send a heartbeat [in ms]
+    private static final int PARSE_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() / 4);
+    private static final String RUNTIMEHISTORYPATH = System.getProperty("user.dir") + "/../results/runtimes.txt";
+    private static final double TIMEOUT_SAFETY_FACTOR = 3;   // factor applied to the p99 running time of similar apks
+    private static final long MIN_TIMEOUT = TimeUnit.MINUTES.toMillis(5); // shortest deadline given to a tool
+    private static final String DEFAULT_POLICY = "longest-first";
+    private static final int TIMED_OUT = 2;                   // exit code of a tool that was killed after its deadline
+    private static final String REMOTERESULTSPATH = System.getProperty("user.dir") + "/../results/remoteResults/";
+
+    private final HashMap<ITool, AnalysisRunner> runners = new HashMap<>();
+    private final HashMap<AnalysisRunner, Integer> remainingJobs = new HashMap<>();
+    private final HashMap<ITool, ApkFeatures> apkFeatures = new HashMap<>();
+    private final JobQueue jobs;
+    private final JobScheduler scheduler;
+    private final ExecutorService parseStage = Executors.newFixedThreadPool(PARSE_THREADS);
+    private ResultJournal journal;
+    private ResultCache cache;
+    private RuntimeHistory runtimeHistory;
+    private SchedulingPolicy policy = SchedulingPolicy.FIFO;
+    private int covertBatchSize = 1;
+    private BatchJob covertBatch;     // batch of Covert jobs that is not full yet
+    private int totalApks;
+    private int completedApks;
+    private long startTime;
+
+
+    /**
+     * Runs the analysis on a corpus of applications.
+     * @param args - optional path to a folder containing the apks or to a manifest file listing the apks (default is
+     *             the apksToTest folder in the workspace), optionally followed by the number of jobs to run in
+     *             parallel (default is the number of available cores). Further options are given as
+     *             "--name=value" e.g. "--headroom=4096".
+     */
+    public static void main(String[] args){
+        File source = new File(args.length > 0 ? args[0] : APKFOLDERPATH);
+        int parallelism = args.length > 1 && !args[1].startsWith("--") ? Integer.parseInt(args[1])
+                : Runtime.getRuntime().availableProcessors();
+        long headroom = Long.parseLong(getOption(args, "headroom", Long.toString(DEFAULT_HEADROOM)));
+        double memoryPressure = Double.parseDouble(getOption(args, "memory-pressure",
+                Double.toString(DEFAULT_MEMORY_PRESSURE)));
+        double cpuPressure = Double.parseDouble(getOption(args, "cpu-pressure", Double.toString(DEFAULT_CPU_PRESSURE)));
+
+        String coordinatorPort = getOption(args, "coordinator", null);
+
+        List<File> apks = findApks(source);
+        CorpusRunner corpusRunner;
+        if(coordinatorPort != null){
+            try {
+                corpusRunner = new CorpusRunner(Integer.parseInt(coordinatorPort), LEASE_TIMEOUT);
+            } catch (IOException e) {
+                System.out.println("Error: Coordinator could not listen on port " + coordinatorPort + ". " + e.getMessage());
+                return;
+            }
+        } else {
+            corpusRunner = new CorpusRunner(parallelism, AdmissionController.forThisMachine(headroom));
+            corpusRunner.monitorPressure(new PressureMonitor(parallelism, memoryPressure, cpuPressure));
+            long cacheSize = Long.parseLong(getOption(args, "cache-size", Long.toString(AnalysisRunner.CACHE_BUDGET)));
+            if(cacheSize > 0){
+                corpusRunner.setResultCache(new ResultCache(new File(getOption(args, "cache", AnalysisRunner.CACHEPATH)),
+                        cacheSize));
+            }
+            corpusRunner.setCovertBatchSize(Integer.parseInt(getOption(args, "covert-batch", "1")));
+        }
+
+        String workspaces = getOption(args, "workspaces", null);
+        if(workspaces != null && coordinatorPort == null){
+            corpusRunner.useWorkspaces(Paths.get(workspaces));
+        }
+
+        if(coordinatorPort == null){
+            setProcessLimits(ShellExecutor.getShared(), getOption(args, "process-limit", "0"),
+                    getOption(args, "tool-limits", ""));
+        }
+
+        int jobsPerJvm = Integer.parseInt(getOption(args, "warm-jvms", "0"));
+        WarmJvmPool warmJvms = jobsPerJvm > 0 && coordinatorPort == null ? new WarmJvmPool(jobsPerJvm) : null;
+        Tool.setWarmJvmPool(warmJvms);
+        Parsers.setMemoryMapped(Boolean.parseBoolean(getOption(args, "mapped-reports", "false")));
+
+        corpusRunner.setPolicy(SchedulingPolicy.valueOf(getOption(args, "policy", DEFAULT_POLICY)
+                .toUpperCase(Locale.ROOT).replace('-', '_')));
+        long timeoutCap = TimeUnit.MINUTES.toMillis(Long.parseLong(getOption(args, "timeout-cap",
+                Long.toString(TimeUnit.MILLISECONDS.toMinutes(ShellExecutor.DEFAULT_TIMEOUT)))));
+        corpusRunner.setRuntimeHistory(new RuntimeHistory(new File(getOption(args, "history", RUNTIMEHISTORYPATH)),
+                TIMEOUT_SAFETY_FACTOR, Math.min(MIN_TIMEOUT, timeoutCap), timeoutCap));
+
+        File journalFile = new File(getOption(args, "journal", JOURNALPATH));
+        try (ResultJournal journal = new ResultJournal(journalFile, JOURNAL_BATCH_SIZE, JOURNAL_BATCH_INTERVAL)) {
+            corpusRunner.setJournal(journal);
+            corpusRunner.run(apks);
+        } catch (IOException e) {
+            System.out.println("Error: Journal " + journalFile.getPath() + " could not be used. " + e.getMessage());
+        } finally {
+            if(warmJvms != null){
+                warmJvms.close();
+            }
+        }
+    }
+
+    public CorpusRunner(int parallelism, AdmissionController admissionController){
+        this.scheduler = new JobScheduler(parallelism, this);
+        this.jobs = scheduler;
+        // ic3 writes its stats to the dareOutput folder of the ic3 directory, dare works in its own output folder.
+        scheduler.setToolLimit("ic3", 1);
+        scheduler.setToolLimit("dare", 1);
+        scheduler.setAdmissionController(admissionController);
+        System.out.println("Memory available for the tools: " + admissionController.getMemoryBudget() + " MB");
+    }
+
+    /**
+     * Creates a runner that hands the jobs to remote workers instead of running them on this machine.
+     *
+     * @param port - Integer: port the workers connect to.
+     * @param leaseTimeout - Long: time within which a worker has to send a heartbeat [in ms].
+     * @throws IOException if the port cannot be opened.
+     */
+    public CorpusRunner(int port, long leaseTimeout) throws IOException {
+        this.scheduler = null;
+        this.jobs = new Coordinator(port, leaseTimeout, new File(REMOTERESULTSPATH), this);
+    }
+
+    /**
+     * Lets the number of running jobs follow the memory and cpu pressure of the machine, if the kernel reports it.
+     * @param pressureMonitor - PressureMonitor with the thresholds to use.
+     */
+    public void monitorPressure(PressureMonitor pressureMonitor){
+        if(scheduler == null){
+            return;
+        }
+        if(!pressureMonitor.isAvailable()){
+            System.out.println("Pressure stall information is not available, running with a fixed parallelism.");
+            return;
+        }
+        scheduler.setPressureMonitor(pressureMonitor, PRESSURE_INTERVAL);
+    }
+
+    /**
+     * Records the finished jobs in the given journal and skips the jobs that already completed according to it.
+     * @param journal - ResultJournal of the corpus run.
+     */
+    public void setJournal(ResultJournal journal){
+        this.journal = journal;
+    }
+
+    /**
+     * Serves the results of tools that already analysed the same apk from the given cache instead of running them.
+     * @param cache - ResultCache with the raw results of earlier runs.
+     */
+    public void setResultCache(ResultCache cache){
+        this.cache = cache;
+    }
+
+    /**
+     * Sets the order in which the jobs are run, based on the estimated cost of their apks.
+     * @param policy - SchedulingPolicy to use.
+     */
+    public void setPolicy(SchedulingPolicy policy){
+        this.policy = policy;
+        if(scheduler != null){
+            scheduler.setPolicy(policy);
+        }
+    }
+
+    /**
+     * Lets the tools writing to fixed folders of their tool directory work in workspaces of their own, so that the
+     * limits of one job at a time for these tools can be lifted.
+     * @param root - Path of the folder the workspaces are created in.
+     */
+    public void useWorkspaces(Path root){
+        Tool.setWorkspaceRoot(root.toAbsolutePath());
+        if(scheduler != null){
+            scheduler.removeToolLimit("ic3");
+            scheduler.removeToolLimit("dare");
+        }
+    }
+
+    /**
+     * Runs Covert once for several apks instead of once per apk. Only applies to local runs.
+     * @param covertBatchSize - Integer: number of apks per Covert run, 1 to run every apk on its own.
+     */
+    public void setCovertBatchSize(int covertBatchSize){
+        this.covertBatchSize = covertBatchSize;
+    }
+
+    /**
+     * Gives every tool a deadline derived from its running times on similar apks and adds the running times of this
+     * run to the history.
+     * @param runtimeHistory - RuntimeHistory of earlier runs.
+     */
+    public void setRuntimeHistory(RuntimeHistory runtimeHistory){
+        this.runtimeHistory = runtimeHistory;
+    }
+
+    /**
+     * Limits the number of tool processes the ShellExecutor runs at the same time.
+     *
+     * @param shell - ShellExecutor running the tools.
+     * @param processLimit - String: maximum number of processes in total, "0" for no limit.
+     * @param toolLimits - String: comma separated list of "tool:processes", e.g. "horndroid:2,dare:1", may be empty.
+     */
+    static void setProcessLimits(ShellExecutor shell, String processLimit, String toolLimits){
+        shell.setProcessLimit(Integer.parseInt(processLimit));
+        for(String toolLimit : toolLimits.split(",")){
+            int colon = toolLimit.lastIndexOf(':');
+            if(colon > 0){
+                String toolName = toolLimit.substring(0, colon).trim();
+                shell.setLimit(toolName, Integer.parseInt(toolLimit.substring(colon + 1).trim()));
+            } else if(!toolLimit.trim().isEmpty()){
+                System.out.println("Error: Tool limit " + toolLimit + " is not of the form tool:processes.");
+            }
+        }
+    }
+
+    /**
+     * Gets the value of an option given as "--name=value" on the command line.
+     *
+     * @param args - String array of command line arguments.
+     * @param name - String: name of the option without the leading "--".
+     * @param defaultValue - String: value to return if the option is not given.
+     * @return String value of the option.
+     */
+    static String getOption(String[] args, String name, String defaultValue){
+        String prefix = "--" + name + "=";
+        for(String arg : args){
+            if(arg.startsWith(prefix)){
+                return arg.substring(prefix.length());
+            }
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Gets the apks to analyse. If the source is a folder, all apks inside this folder are taken. Otherwise, the
+     * source is read as a manifest file with one path to an apk per line. Empty lines and lines starting with "#" are
+     * ignored, relative paths are resolved against the folder of the manifest.
+     *
+     * @param source - File: folder containing the apks or manifest file listing the apks.
+     * @return List of apk files sorted by their path.
+     */
+    static List<File> findApks(File source){
+        ArrayList<File> apks = new ArrayList<>();
+        if(source.isDirectory()){
+            File[] apksInFolder = source.listFiles((folder, apkName) -> apkName.endsWith(".apk"));
+            if(apksInFolder != null){
+                apks.addAll(Arrays.asList(apksInFolder));
+            }
+        } else {
+            try {
+                for(String line : Files.readAllLines(source.toPath())){
+                    line = line.trim();
+                    if(line.isEmpty() || line.startsWith("#")){
+                        continue;
+                    }
+                    File apk = new File(line);
+                    apks.add(apk.isAbsolute() ? apk : new File(source.getAbsoluteFile().getParentFile(), line));
+                }
+            } catch (IOException e) {
+                System.out.println("Error: Manifest " + source.getPath() + " could not be read. " + e.getMessage());
+            }
+        }
+        apks.sort(null);
+        return apks;
+    }
+
+    /**
+     * Runs all tools on all given apks and waits until the whole corpus is analysed. One job per apk and tool is
+     * handed to the scheduler, except for the jobs that already completed according to the journal.
+     *
+     * @param apks - List of apk files to analyse.
+     */
+    public void run(List<File> apks){
+        totalApks = apks.size();
+        startTime = System.currentTimeMillis();
+        System.out.printf("Total APKs to test: %s\n", totalApks);
+
+        HashMap<File, ApkFeatures> features = inspectApks(apks);
+        ArrayList<File> orderedApks = new ArrayList<>(apks);
+        Comparator<File> order = getOrder(features);
+        if(order != null){
+            orderedApks.sort(order);
+        }
+        for(File apk : orderedApks){
+            submitJobs(apk, features.get(apk));
+        }
+        submitCovertBatch();
+
+        try {
+            jobs.awaitTermination();
+            parseStage.shutdown();
+            parseStage.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            System.out.println("Error: Corpus analysis was interrupted.");
+            Thread.currentThread().interrupt();
+        }
+        printThroughput();
+    }
+
+    /**
+     * Hands the jobs of an apk to the scheduler or coordinator. Jobs that completed in an earlier run are not submitted, their Leaks
+     * are restored instead. If all jobs of the apk completed before, it is evaluated right away. The scheduler also gets
+     * the preparation steps the tools depend on, while the workers of a coordinator run them on their own. All jobs of
+     * the apk get the estimated cost of the apk. Covert jobs are added to the current batch if batches are used.
+     *
+     * @param apk - File: apk to analyse.
+     * @param features - ApkFeatures of the apk or null if it could not be inspected.
+     */
+    private void submitJobs(File apk, ApkFeatures features){
+        String apkHash = getApkHash(apk);
+        if(apkHash != null && journal.isEvaluated(apkHash)){
+            System.out.println(apk.getName() + ": Skipped, it was already evaluated in an earlier run.");
+            synchronized (this){
+                totalApks--;
+            }
+            return;
+        }
+
+        AnalysisRunner runner = new AnalysisRunner();
+        runner.initializeTools(getPathInHomeDir(apk));
+        ArrayList<ITool> toolsToRun = new ArrayList<>();
+        for(ITool tool : runner.getTools()){
+            JournalEntry entry = apkHash != null ? journal.getCompleted(apkHash, tool.getToolName()) : null;
+            if(entry != null){
+                runner.restoreResults(tool, entry);
+            } else {
+                toolsToRun.add(tool);
+            }
+        }
+        if(apkHash != null){
+            runner.setJournal(journal, apkHash);
+        }
+
+        if(toolsToRun.isEmpty()){
+            completeApk(runner);
+            return;
+        }
+        applyTimeouts(features, toolsToRun);
+        synchronized (this){
+            remainingJobs.put(runner, toolsToRun.size());
+            for(ITool tool : toolsToRun){
+                runners.put(tool, runner);
+            }
+        }
+        List<Job> apkJobs = new ArrayList<>();
+        if(scheduler == null){
+            for(ITool tool : toolsToRun){
+                apkJobs.add(new AnalysisJob(tool, cache));
+            }
+        } else {
+            apkJobs = JobGraph.createJobs(toolsToRun, cache);
+        }
+        for(Job job : apkJobs){
+            job.setEstimatedCost(features != null ? features.getEstimatedCost() : 0);
+            if(!addToCovertBatch(job, features)){
+                jobs.submit(job);
+            }
+        }
+    }
+
+    /**
+     * Adds a job to the current batch of Covert jobs. A full batch is submitted right away.
+     *
+     * @param job - Job of an apk.
+     * @param features - ApkFeatures of the apk, providing its package name, or null if it could not be inspected.
+     * @return true if the job was added to the batch, false if it has to be submitted on its own.
+     */
+    private boolean addToCovertBatch(Job job, ApkFeatures features){
+        if(covertBatchSize < 2 || scheduler == null || features == null || !(job instanceof AnalysisJob)){
+            return false;
+        }
+        BatchJob fullBatch = null;
+        synchronized (this){
+            if(covertBatch == null){
+                covertBatch = new BatchJob(covertBatchSize, cache);
+            }
+            if(!covertBatch.add((AnalysisJob) job, features.getPackageName())){
+                return false;
+            }
+            if(covertBatch.isFull()){
+                fullBatch = covertBatch;
+                covertBatch = null;
+            }
+        }
+        if(fullBatch != null){
+            jobs.submit(fullBatch);
+        }
+        return true;
+    }
+
+    /**
+     * Submits the batch of Covert jobs that is not full yet, once all apks were submitted. A batch of a single job is
+     * submitted as a plain job.
+     */
+    private void submitCovertBatch(){
+        BatchJob batch;
+        synchronized (this){
+            batch = covertBatch;
+            covertBatch = null;
+        }
+        if(batch == null || batch.getMembers().isEmpty()){
+            return;
+        }
+        if(batch.getMembers().size() == 1){
+            jobs.submit(batch.getMembers().get(0));
+        } else {
+            jobs.submit(batch);
+        }
+    }
+
+    /**
+     * Inspects all apks before any job is submitted, so the jobs can be ordered by their estimated cost.
+     *
+     * @param apks - List of apk files to analyse.
+     * @return HashMap of the apks and their features, apks that could not be inspected are missing.
+     */
+    private HashMap<File, ApkFeatures> inspectApks(List<File> apks){
+        long start = System.currentTimeMillis();
+        HashMap<File, ApkFeatures> features = new HashMap<>();
+        for(File apk : apks){
+            ApkFeatures apkFeatures = ApkInspector.inspect(apk);
+            if(apkFeatures != null){
+                features.put(apk, apkFeatures);
+            }
+        }
+        System.out.println("Inspected " + features.size() + " APKs in " + (System.currentTimeMillis() - start) + " ms.");
+        return features;
+    }
+
+    /**
+     * Gets the order in which the apks are submitted. It follows the scheduling policy, so that the coordinator, which
+     * hands out jobs in the order of submission, and the first jobs dispatched by the scheduler follow it as well.
+     *
+     * @param features - HashMap of the apks and their features.
+     * @return Comparator of apk files or null to keep the order of the corpus.
+     */
+    private Comparator<File> getOrder(HashMap<File, ApkFeatures> features){
+        return policy.getOrder(apk -> features.containsKey(apk) ? features.get(apk).getEstimatedCost() : 0);
+    }
+
+    /**
+     * Sets the deadline of each tool according to the running times of the tool on apks similar to the given one.
+     *
+     * @param features - ApkFeatures of the apk to analyse or null if it could not be inspected.
+     * @param toolsToRun - List of ITools that are going to run on the apk.
+     */
+    private void applyTimeouts(ApkFeatures features, List<ITool> toolsToRun){
+        if(runtimeHistory == null || features == null){
+            return;
+        }
+        for(ITool tool : toolsToRun){
+            tool.setTimeout(runtimeHistory.getTimeout(tool.getToolName(), features));
+        }
+        synchronized (this){
+            for(ITool tool : toolsToRun){
+                apkFeatures.put(tool, features);
+            }
+        }
+    }
+
+    /**
+     * Adds the running time of a job to the runtime history. Only runs that completed or timed out are added, runs
+     * that failed with an error or whose results were cached say nothing about the time the tool needs.
+     * @param job - AnalysisJob that has finished.
+     */
+    private void recordRunningTime(AnalysisJob job){
+        ApkFeatures features;
+        synchronized (this){
+            features = apkFeatures.remove(job.getTool());
+        }
+        ITool tool = job.getTool();
+        boolean timedOut = tool.getExitCode() == TIMED_OUT;
+        if(features != null && tool.getRunningTime() > 0 && (job.isCompleted() || timedOut)){
+            runtimeHistory.record(tool.getToolName(), features, tool.getRunningTime(), job.isCompleted());
+        }
+    }
+
+    /**
+     * Gets the hash identifying the apk in the journal.
+     * @param apk - File: apk to analyse.
+     * @return String: SHA-256 hash of the apk or null if there is no journal or the apk cannot be read.
+     */
+    private String getApkHash(File apk){
+        if(journal == null){
+            return null;
+        }
+        try {
+            return Checksums.sha256(apk);
+        } catch (IOException e) {
+            System.out.println("Error: " + apk.getPath() + " could not be hashed, it is not journaled. " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Hands the results of a finished job to the parse stage, so the slot of the job is freed right away.
+     *
+     * @param job - AnalysisJob that has finished.
+     */
+    @Override
+    public void jobFinished(AnalysisJob job) {
+        parseStage.execute(() -> processResults(job));
+    }
+
+    /**
+     * Collects the results of a finished job on the parse stage. When the last job of an apk has finished, the Leaks
+     * of all its tools are evaluated and written to the reports.
+     *
+     * @param job - AnalysisJob that has finished.
+     */
+    private void processResults(AnalysisJob job) {
+        AnalysisRunner runner;
+        synchronized (this){
+            runner = runners.remove(job.getTool());
+        }
+        recordRunningTime(job);
+        try {
+            runner.collectResults(job.getTool(), job.isCompleted(), job.getLeaks());
+        } catch (RuntimeException e) {
+            System.out.println("Error: Results of job " + job + " could not be processed. " + e.getMessage());
+        }
+
+        boolean isLastJob;
+        synchronized (this){
+            int remaining = remainingJobs.get(runner) - 1;
+            isLastJob = remaining == 0;
+            if(isLastJob){
+                remainingJobs.remove(runner);
+            } else {
+                remainingJobs.put(runner, remaining);
+            }
+        }
+
+        if(isLastJob){
+            try {
+                completeApk(runner);
+            } catch (RuntimeException e) {
+                System.out.println("Error: Results of " + job.getAppName() + " could not be evaluated. " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Evaluates the Leaks of all tools of an apk and writes them to the reports.
+     * @param runner - AnalysisRunner of the apk.
+     */
+    private void completeApk(AnalysisRunner runner){
+        runner.completeAnalysis();
+        runner.evaluateResults();
+        synchronized (this){
+            completedApks++;
+        }
+        printThroughput();
+    }
+
+    /**
+     * Prints the number of analysed apks and the throughput of the corpus run in APKs per hour.
+     */
+    private synchronized void printThroughput(){
+        double hours = (System.currentTimeMillis() - startTime) / 3600000.0;
+        double throughput = hours > 0 ? completedApks / hours : 0;
+        System.out.println(String.format(Locale.ROOT, "Corpus: %d/%d APKs analysed (%.2f APKs per hour)",
+                completedApks, totalApks, throughput));
+    }
+
+    /**
+     * Gets the path of the apk relative to the home directory of the workspace, which is how the tools expect it.
+     * Apks outside of the home directory are reached through "..".
+     *
+     * @param apk - File: apk to analyse.
+     * @return String path starting with "/" relative to the home directory.
+     */
+    private static String getPathInHomeDir(File apk){
+        Path homeDir = Paths.get(System.getProperty("user.dir"), "..").toAbsolutePath().normalize();
+        Path apkPath = apk.toPath().toAbsolutePath().normalize();
+        return "/" + homeDir.relativize(apkPath).toString();
+    }
+}
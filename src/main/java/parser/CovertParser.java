@@ -1,12 +1,24 @@
 package parser;
 
+import leaks.Leak;
+import parser.SignatureScanner.Signature;
+import tool.ITool;
+
 import java.io.File;
-import java.util.regex.Pattern;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Responsible for parsing cover tool results files and returning leaks that are indicated inside this results file (.xml)
- * Defines the regex required to find the desired components inside the results file such as leak description, class toolName,
- * method toolName etc. Furthermore, it overrides the method to find the component toolName inside the leak description.
+ * The analysisReport of Covert is read as XML, one vulnerability after the other (see CovertReportReader), instead of
+ * being searched as text. Every vulnerability is a leak in the method described in its element of type METHOD e.g.
+ * "org.cert.sendsms.MainActivity: void onActivityResult(int,int,android.content.Intent)". Covert does not report the
+ * method called as sink, so the method is the sink method as well.
  *
  * It extends the Parsers class that implements the IParser Interface.
  *
@@ -15,21 +27,50 @@ import java.util.regex.Pattern;
 public class CovertParser extends Parsers{
 
     /**
-     * Defines the regex required to parse the covert results files and prepares the pattern for the matching.
+     * Sets up the parser for the covert results file.
      * @param file - covert tool results file (.xml) describing the found leaks
      */
     public CovertParser(File file) {
         super(file);
-        setLeakTag("<vulnerability>");
-        setCutAwayTag("</vulnerabilities>");
+    }
 
-        setClassNameRegex("(?<=<description>).*(?=:)");
-        setFullMethodRegex("(?<=: ).*(?=<\\/description>)");
-        setMethodNameRegex("(?<= ).*");
-        setMethodReturnRegex("\\w+(?= )");
-        setSinkMethodRegex("(?<=: ).*(?=<\\/description>)");
+    /**
+     * Reads the vulnerabilities of the report and creates a Leak object for each of them.
+     * @param tool - Tool object from which to get the tool name
+     * @return ArrayList of Leak Objects in the order of the vulnerabilities in the report.
+     */
+    @Override
+    public ArrayList<Leak> getLeaks(ITool tool) {
+        try (Stream<Leak> leaks = streamLeaks(tool)) {
+            return leaks.collect(Collectors.toCollection(ArrayList::new));
+        }
+    }
 
-        pattern = Pattern.compile(getLeakTag());
+    /**
+     * Creates the Leak objects while the report is read, so only the vulnerability that is currently read is kept in
+     * memory. The stream should be closed after use, which closes the report.
+     * @param tool - Tool object from which to get the tool name
+     * @return Stream of Leak Objects in the order of the vulnerabilities in the report.
+     */
+    @Override
+    public Stream<Leak> streamLeaks(ITool tool) {
+        CovertReportReader vulnerabilities;
+        try {
+            vulnerabilities = new CovertReportReader(getFile());
+        } catch (IOException e) {
+            System.out.println("Error: File " + getFile().getName() + " could not be read." + e.getMessage());
+            return Stream.empty();
+        }
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(vulnerabilities, Spliterator.ORDERED), false)
+                .map(method -> createLeak(method, tool))
+                .onClose(vulnerabilities::close);
+    }
 
+    /**
+     * Creates a Leak object for a vulnerability with the method as sink method.
+     */
+    private Leak createLeak(Signature method, ITool tool) {
+        String[] methodName = {method.getMethodName(), method.getReturnType()};
+        return createLeak(method.getClassName(), methodName, methodName, tool);
     }
 }
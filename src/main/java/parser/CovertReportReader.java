@@ -0,0 +1,180 @@
+package parser;
+
+import parser.SignatureScanner.Signature;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Responsible for walking through the analysisReport of Covert with a StAX reader, one vulnerability after the other.
+ * Only the vulnerability that is currently read is kept in memory, so the memory needed does not grow with the size of
+ * the report, e.g. of a report for a whole batch of apps.
+ *
+ * Every vulnerability describes the apps, components and methods concerned in nested vulnerabilityElements and element
+ * elements, each with a type and a description. The method of the vulnerability is the description of the first element
+ * of type METHOD, e.g. "org.cert.sendsms.MainActivity: void onActivityResult(int,int,android.content.Intent)". If there
+ * is no such element, the first description of the vulnerability that is a method signature is taken.
+ *
+ * The app of the vulnerability is the description of its vulnerabilityElements or element of type APP, i.e. the package
+ * name of the app. It is used to split the report of a batch of apps into the reports of the single apps.
+ *
+ * @see CovertParser
+ * @see tool.CovertBatch
+ */
+public class CovertReportReader implements Iterator<Signature>, Closeable {
+    private static final String VULNERABILITY = "vulnerability";
+    private static final String VULNERABILITY_ELEMENTS = "vulnerabilityElements";
+    private static final String ELEMENT = "element";
+    private static final String TYPE = "type";
+    private static final String DESCRIPTION = "description";
+    private static final String METHOD = "METHOD";
+    private static final String APP = "APP";
+
+    private final File file;
+    private final InputStream input;
+    private final XMLStreamReader reader;
+    private Signature next;         // method of the vulnerability read ahead or null if it is not read yet
+    private String nextApp;         // app of the vulnerability read ahead
+    private String app;             // app of the vulnerability returned last
+    private boolean endOfReport;
+
+    /**
+     * Opens the report.
+     * @param file - File: analysisReport of Covert.
+     * @throws IOException if the report cannot be opened or is no XML document.
+     */
+    public CovertReportReader(File file) throws IOException {
+        this.file = file;
+        this.input = new FileInputStream(file);
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        try {
+            this.reader = factory.createXMLStreamReader(input);
+        } catch (XMLStreamException e) {
+            input.close();
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if(next == null && !endOfReport){
+            next = readVulnerability();
+        }
+        return next != null;
+    }
+
+    @Override
+    public Signature next() {
+        if(!hasNext()){
+            throw new NoSuchElementException();
+        }
+        Signature method = next;
+        next = null;
+        app = nextApp;
+        return method;
+    }
+
+    /**
+     * Reads up to the end of the next vulnerability.
+     * @return Signature of the method of the vulnerability, Signature.NONE if it names no method or null if there are
+     * no more vulnerabilities.
+     */
+    private Signature readVulnerability(){
+        try {
+            while(reader.hasNext()){
+                if(reader.next() == XMLStreamConstants.START_ELEMENT && reader.getLocalName().equals(VULNERABILITY)){
+                    return readMethod();
+                }
+            }
+        } catch (XMLStreamException e) {
+            System.out.println("Error: File " + file.getName() + " could not be parsed." + e.getMessage());
+        }
+        endOfReport = true;
+        return null;
+    }
+
+    /**
+     * Reads the elements of a vulnerability and finds its method and app.
+     * @return Signature of the method of the vulnerability or Signature.NONE if it names no method.
+     */
+    private Signature readMethod() throws XMLStreamException {
+        ArrayList<String> types = new ArrayList<>();     // types of the elements enclosing the current position
+        HashSet<String> apps = new HashSet<>();
+        Signature method = null;
+        Signature firstSignature = null;
+        int depth = 1;
+        while(depth > 0 && reader.hasNext()){
+            int event = reader.next();
+            if(event == XMLStreamConstants.START_ELEMENT){
+                String name = reader.getLocalName();
+                if(name.equals(ELEMENT) || name.equals(VULNERABILITY_ELEMENTS)){
+                    types.add(null);
+                    depth++;
+                } else if(name.equals(TYPE) && !types.isEmpty()){
+                    types.set(types.size() - 1, reader.getElementText().trim());
+                } else if(name.equals(DESCRIPTION)){
+                    String description = reader.getElementText().trim();
+                    String type = types.isEmpty() ? null : types.get(types.size() - 1);
+                    if(APP.equals(type)){
+                        apps.add(description);
+                    }
+                    Signature signature = SignatureScanner.parse(description, 0);
+                    if(signature != null && firstSignature == null){
+                        firstSignature = signature;
+                    }
+                    if(signature != null && method == null && METHOD.equals(type)){
+                        method = signature;
+                    }
+                } else {
+                    depth++;
+                }
+            } else if(event == XMLStreamConstants.END_ELEMENT){
+                String name = reader.getLocalName();
+                if(name.equals(ELEMENT) || name.equals(VULNERABILITY_ELEMENTS)){
+                    types.remove(types.size() - 1);
+                }
+                depth--;
+            }
+        }
+        nextApp = apps.size() == 1 ? apps.iterator().next() : null;
+        if(method != null){
+            return method;
+        }
+        return firstSignature != null ? firstSignature : Signature.NONE;
+    }
+
+    /**
+     * Gets the app of the vulnerability returned last by next.
+     * @return String: package name of the app or null if the vulnerability names no app or several apps.
+     */
+    public String getApp() {
+        return app;
+    }
+
+    @Override
+    public void close() {
+        try {
+            reader.close();
+        } catch (XMLStreamException e) {
+            System.out.println("Error: File " + file.getName() + " could not be closed." + e.getMessage());
+        }
+        try {
+            input.close();
+        } catch (IOException e) {
+            System.out.println("Error: File " + file.getName() + " could not be closed." + e.getMessage());
+        }
+    }
+}
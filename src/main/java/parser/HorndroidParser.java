@@ -1,26 +1,31 @@
 package parser;
 
+import leaks.Leak;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
+import tool.ITool;
 
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 /**
  * Responsible for parsing horndroid tool results files and returning leaks that are indicated inside this results file (.log)
- * Defines the regex required to find the desired components inside the results file such as leak description, class toolName,
- * method toolName etc. Furthermore, it overrides the method to find the method toolName inside the leak description.
+ * Defines the regex required to find the leak descriptions inside the results file and the tags in front of the methods.
+ * Furthermore, it overrides the methods to find the class and method names, since HornDroid uses Dalvik descriptors.
  *
  * It extends the Parsers class that implements the IParser Interface.
  *
  * @author Timo Spring
  */
 public class HorndroidParser extends Parsers {
+    private static final String CLASS_TAG = "of the class L";
+    private static final String CLASS_END = "; to the sink";
     private ArrayList<String> leaksFromReport;
 
 
@@ -28,9 +33,8 @@ public class HorndroidParser extends Parsers {
         super(file);
         setLeakTag("((Test if register )|(\\[REF\\] Test if register )).*(?=:POTENTIAL LEAK)");
         setCutAwayTag("");
-        setClassNameRegex("(?<=of the class L).*(?=; to the sink)");
-        setFullMethodRegex("(?<=method )\\w+\\((\\w?|\\;|\\/)+\\)");
-        setSinkMethodRegex("(?<=to the sink ).*\\)");
+        setMethodTag("method ");
+        setSinkTag("to the sink ");
         pattern = Pattern.compile(getLeakTag());
 
     }
@@ -67,15 +71,27 @@ public class HorndroidParser extends Parsers {
     }
 
     /**
-     * Returns the String representation of the JSON file that was read before containg all HornDroid leaks.
+     * Returns the String representation of the JSON file containg all HornDroid leaks, reading it on first use.
      * @return
      */
     @Override
     protected ArrayList<String> findLeaksInReport(){
-        assert leaksFromReport != null;
+        if(leaksFromReport == null){
+            readFile(getFile());
+        }
         return leaksFromReport;
     }
 
+    /**
+     * The HornDroid report is a JSON file, which is read as a whole, so the leaks are streamed from getLeaks.
+     * @param tool - Tool object from which to get the tool name
+     * @return Stream of the Leak Objects of getLeaks.
+     */
+    @Override
+    public Stream<Leak> streamLeaks(ITool tool) {
+        return getLeaks(tool).stream();
+    }
+
     /**
      * Finds the class toolName inside the leak description and brings it to a similar format as the other tools use i.e.
      * with "." as a delimiter instead of a "/".
@@ -85,9 +101,14 @@ public class HorndroidParser extends Parsers {
      */
     @Override
     protected String findClassName(String finding){
-        String className = findMatches(finding, getClassNameRegex());
-        className = removeAnnotations(className);
-        return className;
+        int start = finding.indexOf(CLASS_TAG);
+        if(start < 0){
+            return "";
+        }
+        start += CLASS_TAG.length();
+        int lineEnd = finding.indexOf('\n', start);
+        int end = finding.lastIndexOf(CLASS_END, lineEnd < 0 ? finding.length() : lineEnd);
+        return end < start ? "" : removeAnnotations(finding.substring(start, end));
     }
 
     /**
@@ -99,7 +120,7 @@ public class HorndroidParser extends Parsers {
      */
     @Override
     protected String[] findMethodName(String finding){
-        String fullMethodName = removeAnnotations(findMatches(finding, getFullMethodRegex()));
+        String fullMethodName = removeAnnotations(SignatureScanner.findMethod(finding, getMethodTag()));
         String[] method = {fullMethodName, ""};
         return method;
     }
@@ -112,7 +133,7 @@ public class HorndroidParser extends Parsers {
      */
     @Override
     protected String[] findSinkMethod(String finding){
-        String methodName = removeAnnotations(findMatches(finding, getSinkMethodRegex()));
+        String methodName = removeAnnotations(SignatureScanner.findMethod(finding, getSinkTag()));
         String[] method = {methodName, ""};
         return method;
     }
@@ -120,21 +141,56 @@ public class HorndroidParser extends Parsers {
     /**
      * Removes annotations from the leak descriptions that are used by HornDroid in their reports e.g. Ljava instead of
      * java. This is required in order to compare the Leaks later on with the other tools reporting the Leaks in a normal
-     * format (without annotations)
+     * format (without annotations). In a single pass, it removes the "L" in front of java, android and the types
+     * following "(" or ";", replaces "/" by ".", removes the ";" in front of ")", replaces the other ";" by "," and
+     * finally removes "II".
      *
      * @param finding - String description of the leak
      * @return finding String description in standardized format (without annotations).
      */
     private String removeAnnotations(String finding){
-        finding = finding.replaceAll("Ljava", "java");
-        finding = finding.replaceAll("Landroid", "android");
-        finding = finding.replaceAll("\\/", ".");
-        finding = finding.replaceAll("\\(L", "(");
-        finding = finding.replaceAll("\\;L", ";");
-        finding = finding.replaceAll("\\;\\)", ")");
-        finding = finding.replaceAll("\\;", ",");
-        finding = finding.replaceAll("II", "");
-        return finding;
+        StringBuilder builder = new StringBuilder(finding.length());
+        boolean pendingI = false;       // whether the last appended character is an "I" that may be removed with the next
+        for(int i = 0; i < finding.length(); i++){
+            char c = finding.charAt(i);
+            if(isAnnotation(finding, i)){
+                continue;
+            }
+            if(c == ';'){
+                int next = i + 1;
+                while(next < finding.length() && isAnnotation(finding, next)){
+                    next++;
+                }
+                if(next < finding.length() && finding.charAt(next) == ')'){
+                    continue;
+                }
+                c = ',';
+            } else if(c == '/'){
+                c = '.';
+            }
+            if(c == 'I' && pendingI){
+                builder.setLength(builder.length() - 1);
+                pendingI = false;
+            } else {
+                builder.append(c);
+                pendingI = c == 'I';
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Checks whether the character at the index is an "L" marking a type, i.e. in front of java or android or after
+     * "(" or ";".
+     */
+    private static boolean isAnnotation(String finding, int index){
+        if(finding.charAt(index) != 'L'){
+            return false;
+        }
+        if(finding.startsWith("java", index + 1) || finding.startsWith("android", index + 1)){
+            return true;
+        }
+        return index > 0 && (finding.charAt(index - 1) == '(' || finding.charAt(index - 1) == ';');
     }
 
 
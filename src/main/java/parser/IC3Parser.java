@@ -1,14 +1,20 @@
 package parser;
 
+import leaks.Leak;
+import parser.SignatureScanner.Signature;
+import tool.ITool;
+
 import java.io.File;
 import java.util.ArrayList;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 /**
  * Responsible for parsing ic3 tool results files and returning leaks that are indicated inside this results file (.log)
- * Defines the regex required to find the desired components inside the results file such as leak description, class toolName,
- * method toolName etc. Furthermore, it overrides the method to find the method toolName inside the leak description.
+ * Defines the regex required to find the leak descriptions inside the results file and the tags of the method signatures.
+ * Furthermore, it overrides the methods to find the signatures of the method and the sink method inside the leak
+ * description.
  *
  * It extends the Parsers class that implements the IParser Interface.
  *
@@ -27,11 +33,8 @@ public class IC3Parser extends Parsers{
         super(file);
         setLeakTag("(?<=\\*\\*\\*\\*\\*Result\\*\\*\\*\\*\\*)[\\s\\S]*(?=PATH)");
         setCutAwayTag("");
-        setClassNameRegex(".*\\..*(?=\\/)");
-        setMethodReturnRegex("\\w+(?= )");
-        setMethodNameRegex("(?<= ).*");
-        setFullMethodRegex("(?<=\\/).*(?= :)");
-        setSinkMethodRegex("(?<=<).*(?=>)");
+        setMethodTag("/");
+        setSinkTag("<");
         pattern = Pattern.compile(getLeakTag());
     }
 
@@ -45,10 +48,9 @@ public class IC3Parser extends Parsers{
     @Override
     protected ArrayList<String> findLeaksInReport() {
         ArrayList<String> leaksFromReport = new ArrayList<>();
-        String fileAsSingleLine = getFileAsSingleLine();
         String leakTag = getLeakTag();
         pattern = Pattern.compile(leakTag);
-        matcher = pattern.matcher(fileAsSingleLine);
+        matcher = pattern.matcher(getFileContent());
         ArrayList<String> findingsPart = new ArrayList<>();
 
         if(matcher.find()){
@@ -58,6 +60,17 @@ public class IC3Parser extends Parsers{
         return leaksFromReport;
     }
 
+    /**
+     * The leak section of ic3 is found by a regex spanning several lines, so the results file is read as a whole and
+     * the leaks are streamed from getLeaks.
+     * @param tool - Tool object from which to get the tool name
+     * @return Stream of the Leak Objects of getLeaks.
+     */
+    @Override
+    public Stream<Leak> streamLeaks(ITool tool) {
+        return getLeaks(tool).stream();
+    }
+
     /**
      * Finds the section describing the leaks inside the results file. It does so by using the regex with look ahead and
      * look behind and recursive function calls. For each found leak description a new String is added to the
@@ -80,17 +93,31 @@ public class IC3Parser extends Parsers{
     }
 
     /**
-     * Finds the sink method in the leak description. It does so by first shortening the description and then parsing
-     * for the sink method.
+     * Finds the signature of the method where the leak occurs. Ic3 describes a leak starting with this method in the
+     * form "org.cert.sendsms.MainActivity/void sendSMSMessage(java.lang.String) : ", i.e. with the class name in front
+     * of the method tag.
+     * @param finding - String description of the leak
+     * @return Signature of the method or Signature.NONE if there is none.
+     */
+    @Override
+    protected Signature findMethodSignature(String finding){
+        int slash = finding.indexOf(getMethodTag());
+        if(slash < 0){
+            return Signature.NONE;
+        }
+        Signature method = SignatureScanner.parseMethod(finding, slash + 1, finding.substring(0, slash).trim());
+        return method != null ? method : Signature.NONE;
+    }
+
+    /**
+     * Finds the signature of the sink method, which is the first signature after the method where the leak occurs.
      * @param finding - String description of the leak
-     * @return String array containing the sink method return and sink method name.
+     * @return Signature of the sink method or Signature.NONE if there is none.
      */
     @Override
-    protected String[] findSinkMethod(String finding){
-        String[] shortedFinding = findMatches(finding, getSinkMethodRegex()).split(":");
-        String[] fullMethod = shortedFinding[1].split(" ");
-        String[] method = {fullMethod[2], fullMethod[1]};
-        return method;
+    protected Signature findSinkSignature(String finding){
+        int statement = finding.indexOf(" : ");
+        return SignatureScanner.findFirst(finding, getSinkTag(), Math.max(statement, 0));
     }
 
 
@@ -4,6 +4,7 @@ import leaks.Leak;
 import tool.ITool;
 
 import java.util.ArrayList;
+import java.util.stream.Stream;
 
 
 /**
@@ -26,6 +27,18 @@ public interface IParser {
      */
     ArrayList<Leak> getLeaks(ITool tool);
 
+    /**
+     * Parses the results file like getLeaks, but returns the leaks as a Stream. Parsers that can, create the leaks
+     * while the results file is read, so the whole file never has to be kept in memory. The Stream has to be closed
+     * after use, e.g. with try-with-resources, to close the results file.
+     *
+     * @param tool - Tool object from which the leaks should be collected.
+     * @return Stream of Leak Objects in the order they are described in the results file.
+     */
+    default Stream<Leak> streamLeaks(ITool tool){
+        return getLeaks(tool).stream();
+    }
+
     /**
      * Returns a string representation of the Parsers object containing the matcher, used regex and found leaks.
      * @return String representation of the parser.
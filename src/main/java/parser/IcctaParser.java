@@ -1,11 +1,10 @@
 package parser;
 
+import parser.SignatureScanner.Signature;
+
 import java.io.File;
-import java.lang.reflect.Array;
 import java.util.ArrayList;
 import java.util.Iterator;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Responsible for parsing iccta tool results files and returning leaks that are indicated inside this results file (.txt)
@@ -20,8 +19,7 @@ import java.util.regex.Pattern;
  * @author Timo Spring
  */
 public class IcctaParser extends FlowDroidParser {
-    private Pattern pattern;
-    private Matcher matcher;
+    private static final String METHOD_TAG = "in <";
     private String className;
 
 
@@ -31,21 +29,15 @@ public class IcctaParser extends FlowDroidParser {
     }
 
     /**
-     * Finds the method name in the leak description. First we have to replace some values in the string that the regex works
+     * Finds the method name in the leak description, i.e. the last method of the class found before.
      *
      * @param finding - String description of the leak.
-     * @return Stirng array containing the method return type and method name.
+     * @return Stirng array containing the method name and method return type.
      */
     @Override
     protected String[] findMethodName(String finding) {
-        String regex = "(?<=" + className.replaceAll("\\$", "\\\\\\$") + ": )(\\w|\\.)+ (\\w|[<>])+\\([^)]*\\)";
-        setupMatcher(finding, regex);
-        String method = "";
-        while (matcher.find()){
-            method = matcher.group();
-        }
-        String[] fullMethod = method.split(" ");
-        String[] methodName = {fullMethod[1], fullMethod[0]};
+        Signature method = SignatureScanner.findLastMethod(finding, className);
+        String[] methodName = {method.getMethodName(), method.getReturnType()};
         return methodName;
     }
 
@@ -63,56 +55,74 @@ public class IcctaParser extends FlowDroidParser {
     }
 
     /**
-     * Shortens the leak description to an area where the method name and class name occur. Then by spliting this area,
-     * we can get the class name already.
+     * Shortens the leak description to an area where the method name and class name occur, i.e. from "in <" to the
+     * last ">" of the line. Then by spliting this area, we can get the class name already. If there are several such
+     * areas, all class names of the description are compared.
      * @param finding String description of the leak.
      */
     private void shortenFinding(String finding) {
-        String regex = "(?<=in <).*(?=\\>)";
-        setupMatcher(finding, regex);
-        if(matcher.find()) {
-            String match1 = matcher.group();
-            if (matcher.find()) {
-                getAndCompareAllOccurrences(finding, match1);
-                return;
-            } else {
-                String[] className3 = match1.split(":");
-                className = className3[0];
+        int areas = 0;
+        String match1 = null;
+        int lineStart = 0;
+        while(lineStart < finding.length() && areas < 2){
+            int lineEnd = finding.indexOf('\n', lineStart);
+            if(lineEnd < 0){
+                lineEnd = finding.length();
             }
-        }else className = ""; return;
+            int start = finding.indexOf(METHOD_TAG, lineStart);
+            int end = finding.lastIndexOf('>', lineEnd - 1);
+            if(start >= 0 && start < lineEnd && end >= start + METHOD_TAG.length()){
+                if(match1 == null){
+                    match1 = finding.substring(start + METHOD_TAG.length(), end);
+                }
+                areas++;
+            }
+            lineStart = lineEnd + 1;
+        }
+        if(match1 == null){
+            className = "";
+        } else if(areas > 1){
+            getAndCompareAllOccurrences(finding, match1);
+        } else {
+            int colon = match1.indexOf(':');
+            className = colon < 0 ? match1 : match1.substring(0, colon);
+        }
     }
 
     /**
-     * Gets all possible candidates for the class name based on an initial match from the leak description.
-     * It does so by exluding class names that
+     * Gets all possible candidates for the class name based on an initial match from the leak description, i.e. all
+     * names after a "<" that start with the same package as the initial match. It does so by exluding class names that
      * cannot contain the sink method (e.g. classes not belonging to the application).
      *
      * @param finding - String description of the leak
      * @param match1 - first occurrence of a possible class name.
      */
     private void getAndCompareAllOccurrences(String finding, String match1) {
-        String beginning = match1.split("\\.")[0];
-        String regex = "(?<=<)" + beginning + "\\.(\\w|\\.)+";
-        setupMatcher(finding, regex);
+        int dot = match1.indexOf('.');
+        String beginning = "<" + (dot < 0 ? match1 : match1.substring(0, dot)) + ".";
         ArrayList<String> candidates = new ArrayList<>();
-        while (matcher.find()) {
-            String match = matcher.group();
-            boolean exists = false;
-            selectCandidates(candidates, match, exists);
+        int index = finding.indexOf(beginning);
+        while (index >= 0) {
+            int end = index + beginning.length();
+            while (end < finding.length() && isNameChar(finding.charAt(end))) {
+                end++;
+            }
+            if (end > index + beginning.length()) {
+                String match = finding.substring(index + 1, end);
+                boolean exists = false;
+                selectCandidates(candidates, match, exists);
+            }
+            index = finding.indexOf(beginning, end);
         }
         compareClassNames(candidates);
         return;
     }
 
     /**
-     * Prepares the matcher with the regex.
-     *
-     * @param finding - String description of the leak
-     * @param regex - String
+     * Characters of the candidates for the class name i.e. word characters and ".".
      */
-    private void setupMatcher(String finding, String regex) {
-        pattern = Pattern.compile(regex);
-        matcher = pattern.matcher(finding);
+    private static boolean isNameChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_' || c == '.';
     }
 
     /**
@@ -139,6 +149,10 @@ public class IcctaParser extends FlowDroidParser {
      * @param candidates - ArrayList of String objects containing all possible candidates for the class name.
      */
     private void compareClassNames(ArrayList<String> candidates) {
+        if (candidates.isEmpty()) {
+            className = "";
+            return;
+        }
         Iterator<String> iterator = candidates.iterator();
         String className1 = candidates.get(0);
         while (iterator.hasNext()) {
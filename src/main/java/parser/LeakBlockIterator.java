@@ -0,0 +1,151 @@
+package parser;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Responsible for cutting a results file into leak descriptions in a single forward pass, without reading the whole
+ * file into memory. It reads the file line by line and only keeps the leak description that is currently read, so the
+ * memory needed depends on the longest leak description rather than on the size of the file, e.g. of jimple dumps
+ * before the leaks.
+ *
+ * A leak description starts where the leak tag matches and ends right before the next match, just like in
+ * LeakBlocks.split. Only the last description is cut at the first match of the cut away tag, so a leak tag following
+ * the cut away tag still starts a new description. The leak tag is matched within single lines, the cut away tag within
+ * the last description.
+ *
+ * @see Parsers
+ */
+class LeakBlockIterator implements Iterator<String>, Closeable {
+    private final BufferedReader reader;
+    private final Pattern leakPattern;
+    private final int leakTagLength;
+    private final Pattern cutAwayPattern;
+    private final String fileName;
+    private final ArrayDeque<String> leaks = new ArrayDeque<>();
+
+    private StringBuilder leak;     // leak description currently read or null before the first leak tag
+    private int skip;               // characters of the next line in which no leak tag may start
+    private boolean endOfFile;
+
+    /**
+     * @param reader - BufferedReader of the results file, closed by close.
+     * @param leakTag - String: regex defining where a leak description starts.
+     * @param cutAwayTag - String: regex defining where the last leak description ends, empty if it ends with the file.
+     * @param fileName - String: name of the results file for error messages.
+     */
+    LeakBlockIterator(BufferedReader reader, String leakTag, String cutAwayTag, String fileName){
+        this.reader = reader;
+        this.leakPattern = Pattern.compile(leakTag);
+        this.leakTagLength = leakTag.length();
+        this.cutAwayPattern = cutAwayTag == null || cutAwayTag.isEmpty() ? null : Pattern.compile(cutAwayTag);
+        this.fileName = fileName;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while(leaks.isEmpty() && !endOfFile){
+            readLine();
+        }
+        return !leaks.isEmpty();
+    }
+
+    @Override
+    public String next() {
+        if(!hasNext()){
+            throw new NoSuchElementException();
+        }
+        return leaks.poll();
+    }
+
+    /**
+     * Reads the next line and adds the leak descriptions that end in it.
+     */
+    private void readLine(){
+        String line;
+        try {
+            line = reader.readLine();
+        } catch (IOException e) {
+            System.out.println("Error: File " + fileName + " could not be read." + e.getMessage());
+            line = null;
+        }
+        if(line == null){
+            endOfFile = true;
+            finishLastLeak();
+            return;
+        }
+        String text = line + "\n";
+        int from = Math.min(skip, text.length());
+        skip = Math.max(0, skip - text.length());
+        int segmentStart = 0;
+        Matcher matcher = leakPattern.matcher(text);
+        while(from <= text.length() && skip == 0 && matcher.find(from)){
+            int start = matcher.start();
+            if(leak != null){
+                leak.append(text, segmentStart, start);
+                leaks.add(finishLeak());
+            }
+            leak = new StringBuilder();
+            segmentStart = start;
+            from = start + leakTagLength;
+            if(from > text.length()){
+                skip = from - text.length();
+            }
+        }
+        if(leak != null){
+            leak.append(text, segmentStart, text.length());
+        }
+    }
+
+    /**
+     * Finishes a leak description that ends where the next one starts. The character right before the next leak tag
+     * is not part of it.
+     */
+    private String finishLeak(){
+        if(leak.length() > 0){
+            leak.setLength(leak.length() - 1);
+        }
+        return leak.toString().trim();
+    }
+
+    /**
+     * Finishes the last leak description at the end of the file. It is trimmed and then ends at the first match of the
+     * cut away tag, keeping the whitespace in front of the cut away tag.
+     */
+    private void finishLastLeak(){
+        if(leak == null){
+            return;
+        }
+        int start = 0;
+        int end = leak.length();
+        while(start < end && leak.charAt(start) <= ' '){
+            start++;
+        }
+        while(end > start && leak.charAt(end - 1) <= ' '){
+            end--;
+        }
+        if(cutAwayPattern != null){
+            Matcher matcher = cutAwayPattern.matcher(leak).region(start, end);
+            if(matcher.find()){
+                end = matcher.start();
+            }
+        }
+        leaks.add(leak.substring(start, end));
+        leak = null;
+    }
+
+    @Override
+    public void close() {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            System.out.println("Error: File " + fileName + " could not be closed." + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package parser;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Responsible for cutting the single line representation of a results file into leak descriptions. The results file is
+ * scanned once, from one leak tag to the next, and only the start and end index of every leak description is recorded.
+ * A description is copied into a String only when it is requested with get, so a report with a hundred thousand leaks
+ * needs neither a String per leak nor a deep recursion at once.
+ *
+ * A leak description starts where the leak tag matches and ends right before the next match. The last description ends
+ * at the cut away tag or at the end of the file. Leading and trailing whitespace is not part of a description, except
+ * for the whitespace in front of the cut away tag.
+ *
+ * @see Parsers
+ */
+class LeakBlocks extends AbstractList<String> {
+    private final CharSequence content;
+    private int[] offsets = new int[32];    // start and end index of each leak description
+    private int size;
+
+    private LeakBlocks(CharSequence content){
+        this.content = content;
+    }
+
+    /**
+     * Finds the leak descriptions in the results file.
+     *
+     * @param content - CharSequence: single line representation of the results file.
+     * @param leakPattern - Pattern defining where a leak description starts.
+     * @param leakTagLength - Integer: length of the leak tag, after which the next leak tag is searched.
+     * @param cutAwayTag - String: regex defining where the last leak description ends, empty if it ends with the file.
+     * @return LeakBlocks with the leak descriptions in the order of the results file.
+     */
+    static LeakBlocks split(CharSequence content, Pattern leakPattern, int leakTagLength, String cutAwayTag){
+        LeakBlocks blocks = new LeakBlocks(content);
+        Matcher matcher = leakPattern.matcher(content);
+        if(!matcher.find()){
+            return blocks;
+        }
+        int start = matcher.start();
+        int from = start + leakTagLength;
+        while(from <= content.length() && matcher.find(from)){
+            int next = matcher.start();
+            blocks.addTrimmed(start, next - 1);
+            start = next;
+            from = start + leakTagLength;
+        }
+        blocks.addLast(start, cutAwayTag);
+        return blocks;
+    }
+
+    /**
+     * Adds a leak description without its leading and trailing whitespace.
+     */
+    private void addTrimmed(int start, int end){
+        while(start < end && content.charAt(start) <= ' '){
+            start++;
+        }
+        while(end > start && content.charAt(end - 1) <= ' '){
+            end--;
+        }
+        add(start, end);
+    }
+
+    /**
+     * Adds the last leak description, which ends at the first match of the cut away tag. The whitespace in front of the
+     * cut away tag is kept.
+     */
+    private void addLast(int start, String cutAwayTag){
+        addTrimmed(start, content.length());
+        if(cutAwayTag == null || cutAwayTag.isEmpty()){
+            return;
+        }
+        Matcher cut = Pattern.compile(cutAwayTag).matcher(content).region(offsets[2 * size - 2], offsets[2 * size - 1]);
+        if(cut.find()){
+            offsets[2 * size - 1] = cut.start();
+        }
+    }
+
+    private void add(int start, int end){
+        if(2 * size + 2 > offsets.length){
+            offsets = Arrays.copyOf(offsets, 2 * offsets.length);
+        }
+        offsets[2 * size] = start;
+        offsets[2 * size + 1] = end;
+        size++;
+    }
+
+    /**
+     * Copies a leak description out of the results file.
+     * @param index - Integer: index of the leak description.
+     * @return String: description of the leak.
+     */
+    @Override
+    public String get(int index) {
+        if(index < 0 || index >= size){
+            throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+        }
+        return content.subSequence(offsets[2 * index], offsets[2 * index + 1]).toString();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,104 @@
+package parser;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Responsible for showing a memory-mapped results file as a CharSequence, so the regex of the parsers can run over the
+ * file without decoding it into a String first. Every byte is one character, which only holds for ASCII files. Only the
+ * parts of the file that are needed, e.g. the leak descriptions, are copied into Strings by toString.
+ *
+ * The view looks exactly like the String built by Parsers.readFile, i.e. the file ends with a line break even if the
+ * file itself does not. Files that cannot be shown like this, because they contain non-ASCII characters or carriage
+ * returns, are not mapped.
+ *
+ * @see Parsers
+ */
+final class MappedCharSequence implements CharSequence {
+    private final ByteBuffer buffer;
+    private final int offset;
+    private final int length;
+    private final boolean newlineAdded;     // whether the last character is the line break added after the file
+
+    private MappedCharSequence(ByteBuffer buffer, int offset, int length, boolean newlineAdded){
+        this.buffer = buffer;
+        this.offset = offset;
+        this.length = length;
+        this.newlineAdded = newlineAdded;
+    }
+
+    /**
+     * Maps a results file into memory.
+     *
+     * @param file - File: results file to map.
+     * @return MappedCharSequence of the file or null if the file cannot be mapped or is not a plain ASCII file.
+     */
+    static MappedCharSequence map(File file){
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if(size >= Integer.MAX_VALUE){
+                return null;
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        } catch (IOException | UnsupportedOperationException e) {
+            System.out.println("Error: File " + file.getName() + " could not be mapped." + e.getMessage());
+            return null;
+        }
+        int size = buffer.limit();
+        for(int i = 0; i < size; i++){
+            byte b = buffer.get(i);
+            if(b < 0 || b == '\r'){
+                return null;
+            }
+        }
+        boolean newlineAdded = size > 0 && buffer.get(size - 1) != '\n';
+        return new MappedCharSequence(buffer, 0, newlineAdded ? size + 1 : size, newlineAdded);
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if(index < 0 || index >= length){
+            throw new IndexOutOfBoundsException("index " + index + ", length " + length);
+        }
+        if(newlineAdded && index == length - 1){
+            return '\n';
+        }
+        return (char) buffer.get(offset + index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if(start < 0 || end > length || start > end){
+            throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + length);
+        }
+        boolean withNewline = newlineAdded && end == length;
+        return new MappedCharSequence(buffer, offset + start, end - start, withNewline && end > start);
+    }
+
+    /**
+     * Copies the characters of the sequence into a String.
+     * @return String of the sequence.
+     */
+    @Override
+    public String toString(){
+        int bytes = newlineAdded ? length - 1 : length;
+        byte[] copy = new byte[length];
+        ByteBuffer view = buffer.duplicate();
+        view.position(offset);
+        view.get(copy, 0, bytes);
+        if(newlineAdded){
+            copy[bytes] = '\n';
+        }
+        return new String(copy, StandardCharsets.US_ASCII);
+    }
+}
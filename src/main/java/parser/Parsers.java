@@ -1,12 +1,17 @@
 package parser;
 
 import leaks.Leak;
+import parser.SignatureScanner.Signature;
 import tool.ITool;
 
 import java.io.*;
 import java.util.ArrayList;
-import java.util.regex.Matcher;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Responsible for implementing the parser to parse the different results files. First it reads the results file. Since
@@ -16,50 +21,53 @@ import java.util.regex.Pattern;
  * all required information, we create a new Leak object with the given characteristics, so we can easily compare
  * the leaks later on.
  *
+ * The results file is only read when the leaks are requested. With streamLeaks, it is not read completely at all, but
+ * the leaks are created one after the other while the file is read line by line (see LeakBlockIterator). If memory
+ * mapping is turned on, the results file is mapped into memory instead and the regex run over it directly, so only the
+ * leak descriptions are copied into Strings (see MappedCharSequence).
+ *
+ * The class, method and sink method of a leak are read out of the method signatures in its description with the
+ * SignatureScanner. The tool parsers set the tags after which the signatures of the method and the sink are found.
+ *
  * The Parsers class implements the IParser interface and is extended by the different tool parsers, which basically only
- * set the regex differently. The Parsers class uses Matcher, Pattern and regex.
+ * set the regex and tags differently. The Parsers class uses Pattern and regex to find the leaks (see LeakBlocks).
  *
  * @author Timo Spring
  */
 public class Parsers implements IParser {
+    private static volatile boolean memoryMapped;   // whether results files are mapped into memory instead of read
+
     protected Pattern pattern;
-    private Matcher matcher;
 
-    protected ArrayList<String> fileAsLines;      // String for each line of the results file
-    private String fileAsSingleLine;            // single line representation of the read file
-    private ArrayList<String> leaksFromReport;  // found leak descriptions inside the results file, one leak for each String
+    private final File file;                    // results file of the tool
+    private CharSequence fileContent;           // single line representation of the results file, null until it is read
+    private List<String> leaksFromReport;       // found leak descriptions inside the results file, one leak for each String
 
     private String leakTag;                     // regex defining how leak description can be found in results file
     private String cutAwayTag;                  // regex defining if some additional info can be cut away at the end of the results file
-    private String classNameRegex;              // regex defining how to find the class toolName inside the leak description
-    private String fullMethodRegex;             // regex defining how to find full method toolName including return type
-    private String methodNameRegex;             // regex defining how to find the method toolName inside the leak description
-    private String methodReturnRegex;           // regex defining how to find the method return type inside the full method toolName
-    private String sinkMethodRegex;             // regex defining how to find the leaking method (sink)
+    private String methodTag;                   // text in front of the signature of the method where the leak occurs
+    private String sinkTag;                     // text in front of the signature of the leaking method (sink)
 
     Parsers(File file){
         assert file.isFile();
-        readFile(file);
+        this.file = file;
         this.leaksFromReport = new ArrayList<>();
     }
 
     /**
-     * Reads the results file to which the parser is setup. It creates an ArrayList of Strings with a String for each line
-     * in the file and a String containing the file as a single line. This is necessary since the tool parsers sometimes
-     * use one or the other (since their report structure is different).
+     * Reads the results file to which the parser is setup into a String containing the file as a single line, where
+     * every line ends with a line break.
      *
      * @param file - File: results file containing the leak descriptions. either .txt, .xml or .log files
      */
     public void readFile(File file){
-        fileAsLines = new ArrayList<>();
-        try {
-            FileReader fileReader = new FileReader(file);
-            BufferedReader reader = new BufferedReader(fileReader);
+        StringBuilder builder = new StringBuilder((int) Math.min(Integer.MAX_VALUE - 8, file.length()));
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
             String line;
             while((line = reader.readLine())!= null){
-                fileAsLines.add(line);
+                builder.append(line).append("\n");
             }
-            fileAsSingleLine = linesToSingleLine(fileAsLines);
+            fileContent = builder.toString();
         } catch (IOException e) {
             System.out.println("Error: File " + file.getName() + " could not be read." + e.getMessage());
         }
@@ -77,67 +85,49 @@ public class Parsers implements IParser {
      */
     @Override
     public ArrayList<Leak> getLeaks(ITool tool) {
-        ArrayList<String> findings = findLeaksInReport();
+        List<String> findings = findLeaksInReport();
         return createLeaks(findings, tool);
     }
 
-
     /**
-     * Finds the section in the results file, where the leaks are mentioned/described. It then creates a new String
-     * in an ArrayList for each leak that is described. It is used as a preparation to later parse for component toolName
-     * and the other required information.
+     * Parses the results file in a single pass and creates the Leak objects one after the other, while the file is
+     * read. Only the leak description that is currently read is kept in memory, so even results files of hundreds of
+     * MB can be parsed. The Leaks are the same as the ones of getLeaks. The stream should be closed after use, which
+     * closes the results file.
      *
-     * @return ArrayList of Strings containing a String description for each found leak in the results file.
+     * @param tool - Tool object from which to get the tool name e.g. flowdroid
+     * @return Stream of Leak Objects in the order they are described in the results file.
      */
-    protected ArrayList<String> findLeaksInReport() {
-        matcher = pattern.matcher(fileAsSingleLine);
-
-        if(matcher.find()){
-            findLeaks(matcher.start());
+    @Override
+    public Stream<Leak> streamLeaks(ITool tool) {
+        if(memoryMapped){
+            return findLeaksInReport().stream().map(finding -> createLeak(finding, tool));
         }
-        return leaksFromReport;
-
-    }
-
-    /**
-     * Find and creates substrings to given regex in a string. It does so by first searching for the start of the match and
-     * saving the index of it. Then it searches for the next occurrence of the match and saves its index. Then it creates
-     * a substring of the text between the current match and the next match. This is recursively repeated until there
-     * are no matches found anymore.
-     *
-     * @param start Integer - Index of the first match found.
-     */
-    private void findLeaks(int start) {
-        assert matcher != null && fileAsSingleLine != null && start >= 0;
-        int next;
-        if(matcher.find(start + leakTag.length())){
-            next = matcher.start();
-            leaksFromReport.add(fileAsSingleLine.substring(start, next - 1).trim());
-            findLeaks(next);
-        } else {
-            next = fileAsSingleLine.length();
-            String lastLeak = fileAsSingleLine.substring(start, next).trim();
-            String[] filter = lastLeak.split(cutAwayTag);
-            leaksFromReport.add(filter[0]);
+        BufferedReader reader;
+        try {
+            reader = new BufferedReader(new FileReader(file));
+        } catch (IOException e) {
+            System.out.println("Error: File " + file.getName() + " could not be read." + e.getMessage());
+            return Stream.empty();
         }
+        LeakBlockIterator findings = new LeakBlockIterator(reader, leakTag, cutAwayTag, file.getName());
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(findings, Spliterator.ORDERED), false)
+                .map(finding -> createLeak(finding, tool))
+                .onClose(findings::close);
     }
 
+
     /**
-     * Matches a regex on a given String. It does so by compiling the pattern with the new regex and then setting up the
-     * matcher and returning the first match found. Is used to find Component toolName, class toolName and method toolName in the
-     * string description of the leak.
+     * Finds the section in the results file, where the leaks are mentioned/described. It then records where each leak
+     * that is described starts and ends in the results file, in a single pass from one leak tag to the next. The String
+     * description of a leak is only created when it is taken from the list. It is used as a preparation to later parse
+     * for component toolName and the other required information.
      *
-     * @param finding - String: Description text of the found leak. Contains the information that we are looking for e.g.
-     *                component toolName
-     * @param regex - String: Defining what we are looking for i.e. pattern of the desired information.
-     * @return String - found match to our search e.g. Component Name.
+     * @return List of Strings containing a String description for each found leak in the results file.
      */
-     String findMatches(String finding, String regex){
-         pattern = Pattern.compile(regex);
-         matcher = pattern.matcher(finding);
-         if(matcher.find()){
-             return matcher.group(0);
-         }return "";
+    protected List<String> findLeaksInReport() {
+        leaksFromReport = LeakBlocks.split(getFileContent(), pattern, leakTag.length(), cutAwayTag);
+        return leaksFromReport;
     }
 
     /**
@@ -149,114 +139,116 @@ public class Parsers implements IParser {
      * @param tool  - Tool object from which to get the toolName e.g. flowdroid
      * @return list of Leak objects
      */
-    private ArrayList<Leak> createLeaks(ArrayList<String> findings, ITool tool) {
+    private ArrayList<Leak> createLeaks(List<String> findings, ITool tool) {
         ArrayList<Leak> leaks = new ArrayList<>();
         for(String finding: findings){
-            ArrayList<String> characteristics = new ArrayList<>();
-            characteristics.add(findClassName(finding));
-            String[] method = findMethodName(finding);
-            characteristics.add(method[0]); // method toolName
-            characteristics.add(method[1]); // method return type
-            String[] sinkMethod = findSinkMethod(finding);
-            characteristics.add(sinkMethod[0]); // sink method toolName
-            characteristics.add(sinkMethod[1]); // sink method return type
-
-            Leak leak = new Leak(characteristics, tool);
-            leaks.add(leak);
+            leaks.add(createLeak(finding, tool));
         }
         return leaks;
     }
 
-
+    /**
+     * Creates a Leak object out of the description of a single leak.
+     *
+     * @param finding - String: description text of the found leak.
+     * @param tool - Tool object from which to get the toolName e.g. flowdroid
+     * @return Leak with the class, method and sink method found in the description.
+     */
+    private Leak createLeak(String finding, ITool tool) {
+        return createLeak(findClassName(finding), findMethodName(finding), findSinkMethod(finding), tool);
+    }
 
     /**
-     * Creats a single line representation to a given ArrayList of Strings.
+     * Creates a Leak object out of the class, method and sink method of a leak.
      *
-     * @param lines - ArrayList of Strings. Each String contains a line of the results file that was read previously.
-     * @return String - containing the single line representation of the results file.
+     * @param className - String: class toolName of the leak.
+     * @param method - String array containing the method toolName and the method return type.
+     * @param sinkMethod - String array containing the sink method toolName and the sink method return type.
+     * @param tool - Tool object from which to get the toolName e.g. flowdroid
+     * @return Leak with the given class, method and sink method.
      */
-    private String linesToSingleLine(ArrayList<String> lines) {
-        assert !lines.isEmpty();
-        StringBuilder builder = new StringBuilder();
-        for (String line : lines) {
-            builder.append(line).append("\n");
-        }
-        return builder.toString();
+    static Leak createLeak(String className, String[] method, String[] sinkMethod, ITool tool) {
+        ArrayList<String> characteristics = new ArrayList<>();
+        characteristics.add(className);
+        characteristics.add(method[0]); // method toolName
+        characteristics.add(method[1]); // method return type
+        characteristics.add(sinkMethod[0]); // sink method toolName
+        characteristics.add(sinkMethod[1]); // sink method return type
+        return new Leak(characteristics, tool);
     }
 
     /**
-     * Finds the class toolName inside the leak description string. It does so by first getting the regex that defines
-     * how to find the class toolName for the given tool parser and then calling the general findMatches method to
-     * get the desired information.
+     * Finds the class toolName inside the leak description string, i.e. the class of the signature of the method where
+     * the leak occurs.
      *
      * @param finding - String description of the leak.
      * @return String - class toolName found in the leak description
      */
-     protected String findClassName(String finding) {
-        return findMatches(finding, getClassNameRegex());
-
+    protected String findClassName(String finding) {
+        return findMethodSignature(finding).getClassName();
     }
 
     /**
-     * Finds the method toolName inside the leak description string. It does so by first getting the regex that defines
-     * how to find the method toolName for the given tool parser and then calling the general findMatches method to
-     * get the desired information.
+     * Finds the method toolName inside the leak description string, i.e. the method of the signature of the method
+     * where the leak occurs.
      *
      * @param finding - String description of the leak.
-     * @return String - method toolName found in the leak description
+     * @return String array containing the method toolName and the method return type.
      */
     protected String[] findMethodName(String finding) {
-        String fullMethod = findMatches(finding, getFullMethodRegex());
-        String methodReturn = findMatches(fullMethod, getMethodReturnRegex());
-        String methodName = findMatches(fullMethod, getMethodNameRegex());
-        String[] method = {methodName, methodReturn};
-        return method;
+        Signature method = findMethodSignature(finding);
+        return new String[]{method.getMethodName(), method.getReturnType()};
     }
 
+    /**
+     * Finds the sink method inside the leak description string.
+     *
+     * @param finding - String description of the leak.
+     * @return String array containing the sink method toolName and the sink method return type.
+     */
     protected String[] findSinkMethod(String finding) {
-        String fullMethod = findMatches(finding, getSinkMethodRegex());
-        String methodReturn = findMatches(fullMethod, getMethodReturnRegex());
-        String methodName = findMatches(fullMethod, getMethodNameRegex());
-        String[] method = {methodName, methodReturn};
-        return method;
+        Signature sinkMethod = findSinkSignature(finding);
+        return new String[]{sinkMethod.getMethodName(), sinkMethod.getReturnType()};
     }
 
-
-    /** ----------------------------------------------------------------------------------------------------------------
-     * HELPER METHODS (GETTERS & SETTERS)
-     * ----------------------------------------------------------------------------------------------------------------*/
-
-
-    void setClassNameRegex(String classNameRegex){
-        this.classNameRegex = classNameRegex;
+    /**
+     * Finds the signature of the method where the leak occurs, by default the first signature after the method tag.
+     * @param finding - String description of the leak.
+     * @return Signature of the method or Signature.NONE if there is none.
+     */
+    protected Signature findMethodSignature(String finding) {
+        return SignatureScanner.findFirst(finding, methodTag, 0);
     }
 
-    String getClassNameRegex() {
-        return this.classNameRegex;
+    /**
+     * Finds the signature of the sink method, by default the first signature after the sink tag.
+     * @param finding - String description of the leak.
+     * @return Signature of the sink method or Signature.NONE if there is none.
+     */
+    protected Signature findSinkSignature(String finding) {
+        return SignatureScanner.findFirst(finding, sinkTag, 0);
     }
 
-    void setFullMethodRegex(String fullMethodRegex){
-        this.fullMethodRegex = fullMethodRegex;
-    }
 
-    String getFullMethodRegex() {
-        return this.fullMethodRegex;
-    }
+    /** ----------------------------------------------------------------------------------------------------------------
+     * HELPER METHODS (GETTERS & SETTERS)
+     * ----------------------------------------------------------------------------------------------------------------*/
 
-    void setMethodNameRegex(String methodNameRegex){
-        this.methodNameRegex = methodNameRegex;
+
+    void setMethodTag(String methodTag){
+        this.methodTag = methodTag;
     }
 
-    String getMethodNameRegex() {
-        return this.methodNameRegex;
+    String getMethodTag() {
+        return this.methodTag;
     }
 
-    void setMethodReturnRegex(String methodReturnRegex){
-        this.methodReturnRegex = methodReturnRegex;
+    void setSinkTag(String sinkTag){
+        this.sinkTag = sinkTag;
     }
 
-    String getMethodReturnRegex() {
-        return this.methodReturnRegex;
+    String getSinkTag() {
+        return this.sinkTag;
     }
 
     protected void setLeakTag(String leakTag){
@@ -275,16 +267,31 @@ public class Parsers implements IParser {
         this.pattern = pattern;
     }
 
-    protected String getFileAsSingleLine(){
-        return this.fileAsSingleLine;
+    /**
+     * Gets the results file as a single line, mapping or reading it on first use. ASCII files are mapped into memory if
+     * memory mapping is turned on, all other files are read.
+     * @return CharSequence containing all lines of the results file, each ending with a line break.
+     */
+    protected CharSequence getFileContent(){
+        if(fileContent == null && memoryMapped){
+            fileContent = MappedCharSequence.map(file);
+        }
+        if(fileContent == null){
+            readFile(file);
+        }
+        return this.fileContent;
     }
 
-    protected void setSinkMethodRegex(String sinkMethodRegex) {
-        this.sinkMethodRegex = sinkMethodRegex;
+    /**
+     * Turns the memory mapping on or off for the results files parsed afterwards.
+     * @param memoryMapped - boolean: true to map results files into memory, false to read them.
+     */
+    public static void setMemoryMapped(boolean memoryMapped){
+        Parsers.memoryMapped = memoryMapped;
     }
 
-    public String getSinkMethodRegex(){
-        return this.sinkMethodRegex;
+    protected File getFile(){
+        return this.file;
     }
 
     /**
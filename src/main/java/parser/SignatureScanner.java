@@ -0,0 +1,212 @@
+package parser;
+
+/**
+ * Responsible for reading method signatures out of leak descriptions. The tools describe the methods of a leak with
+ * Soot signatures like "<org.cert.sendsms.MainActivity: void onActivityResult(int,int,android.content.Intent)>", which
+ * are read in a single pass over the characters of the description. No regex is compiled and the description is not
+ * split; only the class name, return type and method name of the signature are copied into Strings.
+ *
+ * HornDroid describes methods with Dalvik descriptors like "onClick(Landroid/view/View;)V" instead, of which only the
+ * method and its parameters are read, see findMethod.
+ *
+ * @see Parsers
+ */
+final class SignatureScanner {
+
+    private SignatureScanner(){
+    }
+
+    /**
+     * Responsible for holding the parts of a method signature found in a leak description.
+     */
+    static final class Signature {
+        static final Signature NONE = new Signature("", "", "");
+
+        private final String className;
+        private final String returnType;
+        private final String methodName;
+
+        Signature(String className, String returnType, String methodName){
+            this.className = className;
+            this.returnType = returnType;
+            this.methodName = methodName;
+        }
+
+        /** ------------------------------------------------------------------------------------------------------------
+         * HELPER METHODS (GETTERS & SETTERS)
+         * ------------------------------------------------------------------------------------------------------------*/
+
+        String getClassName() {
+            return className;
+        }
+
+        String getReturnType() {
+            return returnType;
+        }
+
+        /**
+         * Gets the name of the method together with its parameter types e.g. "onClick(android.view.View)".
+         * @return String: method name and parameter types.
+         */
+        String getMethodName() {
+            return methodName;
+        }
+    }
+
+    /**
+     * Finds the first signature that follows a tag in the text, e.g. the first signature after "<".
+     *
+     * @param text - String: description of the leak.
+     * @param tag - String: text right in front of the signature.
+     * @param from - Integer: index from which to search for the tag.
+     * @return Signature found or Signature.NONE if no tag is followed by a signature.
+     */
+    static Signature findFirst(String text, String tag, int from){
+        int index = text.indexOf(tag, from);
+        while(index >= 0){
+            Signature signature = parse(text, index + tag.length());
+            if(signature != null){
+                return signature;
+            }
+            index = text.indexOf(tag, index + 1);
+        }
+        return Signature.NONE;
+    }
+
+    /**
+     * Finds the last signature that follows a tag in the text, e.g. the last signature after "(in <".
+     *
+     * @param text - String: description of the leak.
+     * @param tag - String: text right in front of the signature.
+     * @return Signature found or Signature.NONE if no tag is followed by a signature.
+     */
+    static Signature findLast(String text, String tag){
+        int index = text.lastIndexOf(tag);
+        while(index >= 0){
+            Signature signature = parse(text, index + tag.length());
+            if(signature != null){
+                return signature;
+            }
+            index = index > 0 ? text.lastIndexOf(tag, index - 1) : -1;
+        }
+        return Signature.NONE;
+    }
+
+    /**
+     * Finds the last method of a given class in the text, i.e. the last signature starting with the class name.
+     *
+     * @param text - String: description of the leak.
+     * @param className - String: name of the class the method belongs to.
+     * @return Signature found or Signature.NONE if the class name is never followed by a method.
+     */
+    static Signature findLastMethod(String text, String className){
+        String tag = className + ": ";
+        int index = text.lastIndexOf(tag);
+        while(index >= 0){
+            Signature signature = parseMethod(text, index + tag.length(), className);
+            if(signature != null){
+                return signature;
+            }
+            index = index > 0 ? text.lastIndexOf(tag, index - 1) : -1;
+        }
+        return Signature.NONE;
+    }
+
+    /**
+     * Reads a signature of the form "class: return method(parameters)" starting at the given index.
+     *
+     * @param text - String: description of the leak.
+     * @param start - Integer: index of the first character of the class name.
+     * @return Signature or null if there is no signature at the index.
+     */
+    static Signature parse(String text, int start){
+        int colon = start;
+        while(colon < text.length() && isTypeChar(text.charAt(colon))){
+            colon++;
+        }
+        if(colon == start || !text.startsWith(": ", colon)){
+            return null;
+        }
+        return parseMethod(text, colon + 2, text.substring(start, colon));
+    }
+
+    /**
+     * Reads a method of the form "return method(parameters)" starting at the given index.
+     *
+     * @param text - String: description of the leak.
+     * @param start - Integer: index of the first character of the return type.
+     * @param className - String: name of the class the method belongs to.
+     * @return Signature or null if there is no method at the index.
+     */
+    static Signature parseMethod(String text, int start, String className){
+        int space = start;
+        while(space < text.length() && isTypeChar(text.charAt(space))){
+            space++;
+        }
+        if(space == start || space >= text.length() || text.charAt(space) != ' '){
+            return null;
+        }
+        int close = scanMethod(text, space + 1);
+        if(close < 0){
+            return null;
+        }
+        return new Signature(className, text.substring(start, space), text.substring(space + 1, close + 1));
+    }
+
+    /**
+     * Finds the first method of the form "method(parameters)" after a tag, e.g. the method of HornDroid's
+     * "in method onClick(Landroid/view/View;)V", whose types are not separated by spaces from the method name.
+     *
+     * @param text - String: description of the leak.
+     * @param tag - String: text right in front of the method.
+     * @return String: method name and parameters or an empty String if no tag is followed by a method.
+     */
+    static String findMethod(String text, String tag){
+        int index = text.indexOf(tag);
+        while(index >= 0){
+            int start = index + tag.length();
+            int close = scanMethod(text, start);
+            if(close >= 0){
+                return text.substring(start, close + 1);
+            }
+            index = text.indexOf(tag, index + 1);
+        }
+        return "";
+    }
+
+    /**
+     * Scans a method name followed by its parameters in parentheses.
+     * @return Integer: index of the closing parenthesis or -1 if there is no method at the index.
+     */
+    private static int scanMethod(String text, int start){
+        int open = start;
+        while(open < text.length() && isNameChar(text.charAt(open))){
+            open++;
+        }
+        if(open == start || open >= text.length() || text.charAt(open) != '('){
+            return -1;
+        }
+        int close = open + 1;
+        while(close < text.length() && text.charAt(close) != ')'){
+            if(text.charAt(close) <= ' '){
+                return -1;
+            }
+            close++;
+        }
+        return close < text.length() ? close : -1;
+    }
+
+    /**
+     * Characters of class names and types, e.g. "java.lang.String[]" or "org.cert.sendsms.MainActivity$1".
+     */
+    private static boolean isTypeChar(char c){
+        return c > ' ' && c != ':' && c != '<' && c != '>' && c != '(' && c != ')' && c != ',';
+    }
+
+    /**
+     * Characters of method names, which may be enclosed in angle brackets like "<init>".
+     */
+    private static boolean isNameChar(char c){
+        return c > ' ' && c != ':' && c != '(' && c != ')' && c != ',';
+    }
+}
@@ -0,0 +1,75 @@
+package results;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Responsible for computing checksums of files. An apk is identified by the SHA-256 hash of its content, so results of
+ * an apk can be found again even if the apk was renamed or moved to another folder.
+ */
+public final class Checksums {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private Checksums(){
+    }
+
+    /**
+     * Computes the SHA-256 hash of the content of a file.
+     *
+     * @param file - File to hash.
+     * @return String: hash as 64 lower case hex digits.
+     * @throws IOException if the file cannot be read.
+     */
+    public static String sha256(File file) throws IOException {
+        MessageDigest digest = newSha256();
+        update(digest, file.toPath());
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Adds the content of a file to a message digest.
+     *
+     * @param digest - MessageDigest to update.
+     * @param file - Path of the file to add.
+     * @throws IOException if the file cannot be read.
+     */
+    static void update(MessageDigest digest, Path file) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream input = Files.newInputStream(file)) {
+            int read;
+            while((read = input.read(buffer)) != -1){
+                digest.update(buffer, 0, read);
+            }
+        }
+    }
+
+    /**
+     * Creates a new SHA-256 message digest. Every Java platform has to support SHA-256, so it is always available.
+     * @return new MessageDigest.
+     */
+    static MessageDigest newSha256(){
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported by this Java platform.", e);
+        }
+    }
+
+    /**
+     * Converts bytes to a String of lower case hex digits.
+     * @param bytes - byte array e.g. a digest.
+     * @return String with two hex digits per byte.
+     */
+    static String toHex(byte[] bytes){
+        StringBuilder builder = new StringBuilder(bytes.length * 2);
+        for(byte b : bytes){
+            builder.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return builder.toString();
+    }
+}
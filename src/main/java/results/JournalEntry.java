@@ -0,0 +1,97 @@
+package results;
+
+import java.io.File;
+
+/**
+ * Responsible for holding one record of the ResultJournal i.e. the outcome of running a tool on an apk. The apk is
+ * identified by the SHA-256 hash of its content. A record is stored as one line of tab separated values:
+ * apk hash, tool name, exit code, location of the backed up raw results and number of parsed Leaks.
+ *
+ * @see ResultJournal
+ */
+public class JournalEntry {
+    private static final String SEPARATOR = "\t";
+    private static final String NO_RESULTS = "-";
+
+    private final String apkHash;
+    private final String toolName;
+    private final int exitCode;
+    private final File resultsFile;
+    private final int leakCount;
+
+    /**
+     * @param apkHash - String: SHA-256 hash of the apk.
+     * @param toolName - String: name of the tool e.g. flowdroid.
+     * @param exitCode - Integer: exit code of the tool, 0 if the analysis completed.
+     * @param resultsFile - File: backup of the raw results of the tool or null if there are none.
+     * @param leakCount - Integer: number of Leaks parsed from the raw results.
+     */
+    public JournalEntry(String apkHash, String toolName, int exitCode, File resultsFile, int leakCount){
+        this.apkHash = apkHash;
+        this.toolName = toolName;
+        this.exitCode = exitCode;
+        this.resultsFile = resultsFile;
+        this.leakCount = leakCount;
+    }
+
+    /**
+     * Parses a line of the journal.
+     * @param line - String: tab separated values as written by toLine.
+     * @return JournalEntry or null if the line is not a valid record e.g. because it was only partially written.
+     */
+    static JournalEntry parse(String line){
+        String[] values = line.split(SEPARATOR);
+        if(values.length != 5){
+            return null;
+        }
+        try {
+            File resultsFile = values[3].equals(NO_RESULTS) ? null : new File(values[3]);
+            return new JournalEntry(values[0], values[1], Integer.parseInt(values[2]), resultsFile,
+                    Integer.parseInt(values[4]));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Gets the record as it is written to the journal.
+     * @return String: tab separated values terminated by a line break.
+     */
+    String toLine(){
+        return apkHash + SEPARATOR + toolName + SEPARATOR + exitCode + SEPARATOR
+                + (resultsFile == null ? NO_RESULTS : resultsFile.getPath()) + SEPARATOR + leakCount + "\n";
+    }
+
+    /**
+     * Checks whether the tool completed its analysis and its raw results can still be read, so the job does not need
+     * to be run again.
+     * @return true if the job is completed.
+     */
+    public boolean isCompleted(){
+        return exitCode == 0 && resultsFile != null && resultsFile.isFile();
+    }
+
+    /** ----------------------------------------------------------------------------------------------------------------
+     * HELPER METHODS (GETTERS & SETTERS)
+     * ----------------------------------------------------------------------------------------------------------------*/
+
+    public String getApkHash() {
+        return apkHash;
+    }
+
+    public String getToolName() {
+        return toolName;
+    }
+
+    public int getExitCode() {
+        return exitCode;
+    }
+
+    public File getResultsFile() {
+        return resultsFile;
+    }
+
+    public int getLeakCount() {
+        return leakCount;
+    }
+}
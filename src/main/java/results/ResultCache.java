@@ -0,0 +1,284 @@
+package results;
+
+import tool.ITool;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Responsible for keeping the raw results of the tools, so that an apk is not analysed again by a tool that already
+ * analysed exactly the same apk. This saves hours of analysis whenever the same apks are run again after only the
+ * grouping or the reports were changed.
+ *
+ * The cached results are addressed by the SHA-256 hash of the apk and a fingerprint of the tool, which covers the jars
+ * in the tool directory, the arguments of the command used to run the tool (with the apk specific arguments replaced)
+ * and the android.jar
+ * used. Changing any of these leads to a cache miss. The hashes of apks, jars and android.jars are computed only once
+ * per run.
+ *
+ * Each entry is a folder named after its key containing the results file of the tool. The cache is kept within a disk
+ * budget by deleting the least recently used entries, where the modification time of an entry is updated on every hit.
+ */
+public class ResultCache {
+    private static final String APK_PLACEHOLDER = "<apk>";
+    private static final String APP_PLACEHOLDER = "<app>";
+
+    private final File cacheDir;
+    private final long budget;    // disk space available for the cache [in bytes]
+    private final ConcurrentHashMap<String, String> hashes = new ConcurrentHashMap<>();
+
+    /**
+     * @param cacheDir - File: folder containing the cached results.
+     * @param budget - Long: disk space available for the cache [in MB].
+     */
+    public ResultCache(File cacheDir, long budget){
+        this.cacheDir = cacheDir;
+        this.budget = budget * 1024 * 1024;
+    }
+
+    /**
+     * Runs the analysis of the tool unless its results are already cached. On a hit, the tool serves the cached results
+     * file instead. After a completed analysis, the results file is added to the cache.
+     *
+     * @param tool - ITool to run.
+     * @return true if the analysis completed or its results were cached, false otherwise.
+     */
+    public boolean runAnalysis(ITool tool){
+        if(serveCachedResults(tool)){
+            return true;
+        }
+        boolean completed = tool.runAnalysis();
+        if(completed){
+            storeResults(tool);
+        }
+        return completed;
+    }
+
+    /**
+     * Lets the tool serve its cached results, if there are any, e.g. before the tool is run together with others.
+     *
+     * @param tool - ITool to run.
+     * @return true if the results were cached, false if the tool still has to run.
+     */
+    public boolean serveCachedResults(ITool tool){
+        String key = getKey(tool);
+        File cachedResults = key != null ? lookup(key) : null;
+        if(cachedResults == null){
+            return false;
+        }
+        System.out.println(tool.getAppName() + ".apk: Serving " + tool.getToolName() + " results from the cache.");
+        tool.useCachedResults(cachedResults);
+        return true;
+    }
+
+    /**
+     * Adds the results file of a tool that completed its analysis to the cache.
+     * @param tool - ITool that completed its analysis.
+     */
+    public void storeResults(ITool tool){
+        String key = getKey(tool);
+        if(key != null){
+            store(key, tool.getResultsFile());
+        }
+    }
+
+    /**
+     * Gets the cache key of a tool and its apk.
+     * @param tool - ITool to run.
+     * @return String: SHA-256 hash of the apk hash and the tool fingerprint or null if the apk cannot be read.
+     */
+    String getKey(ITool tool){
+        try {
+            MessageDigest digest = Checksums.newSha256();
+            digest.update(getHash(new File(tool.getApkPath())).getBytes(StandardCharsets.UTF_8));
+            digest.update(getFingerprint(tool).getBytes(StandardCharsets.UTF_8));
+            return Checksums.toHex(digest.digest());
+        } catch (IOException e) {
+            System.out.println("Error: " + tool.getApkPath() + " could not be hashed, results are not cached. "
+                    + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Gets the fingerprint of the tool, which changes whenever the tool would produce different results for the same
+     * apk: its name, the jars in its tool directory, the arguments of its command and the android.jar used.
+     *
+     * @param tool - ITool to run.
+     * @return String describing the tool.
+     * @throws IOException if the jars cannot be read.
+     */
+    String getFingerprint(ITool tool) throws IOException {
+        File androidSdk = new File(tool.getAndroidSdk());
+        return tool.getToolName() + "\n"
+                + getJarsHash(new File(tool.getToolDir())) + "\n"
+                + getArguments(tool) + "\n"
+                + (androidSdk.isFile() ? getHash(androidSdk) : tool.getAndroidSdk()) + "\n";
+    }
+
+    /**
+     * Gets the arguments of the command of the tool, where an argument that is the path or the name of the apk is
+     * replaced by a placeholder. Only whole arguments are replaced, so a short app name such as "app" does not change
+     * the name of a jar or folder that happens to contain it. The working directory and the results file are left
+     * out, since they only tell where the tool runs and writes to.
+     *
+     * @param tool - ITool to run.
+     * @return String: arguments separated by null characters.
+     */
+    private static String getArguments(ITool tool){
+        StringBuilder arguments = new StringBuilder();
+        for(String argument : tool.getCommandSpec().getArguments()){
+            if(argument.equals(tool.getApkPath())){
+                arguments.append(APK_PLACEHOLDER);
+            } else if(argument.equals(tool.getAppName())){
+                arguments.append(APP_PLACEHOLDER);
+            } else {
+                arguments.append(argument);
+            }
+            arguments.append('\0');
+        }
+        return arguments.toString();
+    }
+
+    /**
+     * Gets the SHA-256 hash of a file, which is computed only once per run.
+     * @param file - File to hash.
+     * @return String: hash of the file.
+     * @throws IOException if the file cannot be read.
+     */
+    private String getHash(File file) throws IOException {
+        String path = file.getAbsolutePath();
+        String hash = hashes.get(path);
+        if(hash == null){
+            hash = Checksums.sha256(file);
+            hashes.put(path, hash);
+        }
+        return hash;
+    }
+
+    /**
+     * Gets a hash over all jars in the tool directory and its subfolders, which is computed only once per run.
+     * @param toolDir - File: root directory of the tool.
+     * @return String: hash of the relative paths and contents of the jars.
+     * @throws IOException if the jars cannot be read.
+     */
+    private String getJarsHash(File toolDir) throws IOException {
+        String key = toolDir.getAbsolutePath() + "/*.jar";
+        String hash = hashes.get(key);
+        if(hash != null){
+            return hash;
+        }
+        MessageDigest digest = Checksums.newSha256();
+        if(toolDir.isDirectory()){
+            List<Path> jars;
+            try (Stream<Path> files = Files.walk(toolDir.toPath())) {
+                jars = files.filter(file -> file.toString().endsWith(".jar") && Files.isRegularFile(file))
+                        .sorted().collect(Collectors.toList());
+            }
+            for(Path jar : jars){
+                digest.update(toolDir.toPath().relativize(jar).toString().getBytes(StandardCharsets.UTF_8));
+                Checksums.update(digest, jar);
+            }
+        }
+        hash = Checksums.toHex(digest.digest());
+        hashes.put(key, hash);
+        return hash;
+    }
+
+    /**
+     * Looks up the cached results file for a key and marks the entry as recently used.
+     * @param key - String: cache key of the tool and apk.
+     * @return File: cached results file or null on a miss.
+     */
+    synchronized File lookup(String key){
+        File entry = new File(cacheDir, key);
+        File[] files = entry.listFiles();
+        if(files == null || files.length == 0){
+            return null;
+        }
+        entry.setLastModified(System.currentTimeMillis());
+        return files[0];
+    }
+
+    /**
+     * Adds a results file to the cache. The file is copied to a temporary folder first and then moved into place, so
+     * an entry is never seen half written. Afterwards, least recently used entries are evicted to keep the budget.
+     *
+     * @param key - String: cache key of the tool and apk.
+     * @param resultsFile - File: results file of the completed analysis.
+     */
+    synchronized void store(String key, File resultsFile){
+        File entry = new File(cacheDir, key);
+        File temporaryEntry = new File(cacheDir, key + ".tmp");
+        if(entry.isDirectory()){
+            return;
+        }
+        try {
+            Files.createDirectories(temporaryEntry.toPath());
+            Files.copy(resultsFile.toPath(), new File(temporaryEntry, resultsFile.getName()).toPath(),
+                    StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temporaryEntry.toPath(), entry.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.out.println("Error: Results could not be cached. " + e.getMessage());
+            deleteEntry(temporaryEntry);
+            return;
+        }
+        evict();
+    }
+
+    /**
+     * Deletes the least recently used entries until the cache fits into its budget.
+     */
+    synchronized void evict(){
+        File[] entries = cacheDir.listFiles(File::isDirectory);
+        if(entries == null){
+            return;
+        }
+        ArrayList<File> leastRecentlyUsed = new ArrayList<>(Arrays.asList(entries));
+        leastRecentlyUsed.sort(Comparator.comparingLong(File::lastModified));
+        long size = 0;
+        for(File entry : leastRecentlyUsed){
+            size += getSize(entry);
+        }
+        for(File entry : leastRecentlyUsed){
+            if(size <= budget){
+                break;
+            }
+            size -= getSize(entry);
+            deleteEntry(entry);
+        }
+    }
+
+    private static long getSize(File entry){
+        long size = 0;
+        File[] files = entry.listFiles();
+        if(files != null){
+            for(File file : files){
+                size += file.length();
+            }
+        }
+        return size;
+    }
+
+    private static void deleteEntry(File entry){
+        File[] files = entry.listFiles();
+        if(files != null){
+            for(File file : files){
+                file.delete();
+            }
+        }
+        entry.delete();
+    }
+}
@@ -0,0 +1,195 @@
+package results;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Responsible for remembering which jobs of a corpus run have completed, so that a run that died (e.g. because the
+ * machine rebooted or the JVM crashed) can be resumed instead of starting from scratch. Every finished job is appended
+ * to the journal file as a JournalEntry, i.e. the hash of the apk, the tool, its exit code, the location of the backed
+ * up raw results and the number of parsed Leaks. Once all tools of an apk are evaluated and written to the reports, an
+ * entry for the pseudo tool "evaluation" is appended as well.
+ *
+ * The journal is only ever appended to. To keep the cost of fsync low, the file is forced to disk after a batch of
+ * records or after some time has passed since the last sync, whichever comes first. A timer checks the time as well,
+ * so the last records are synced even if no further job finishes for a long time. At most the jobs of the last batch
+ * are lost by a crash, which are simply run again. A record that was only partially written when the crash happened
+ * is cut off when the journal is opened again.
+ *
+ * When the journal is opened, the existing records are read and the latest record of each (apk, tool) pair wins.
+ *
+ * @see JournalEntry
+ */
+public class ResultJournal implements Closeable {
+    public static final String EVALUATION = "evaluation";
+
+    private final FileChannel channel;
+    private final int batchSize;           // records written before the journal is forced to disk
+    private final long batchInterval;      // time after which the journal is forced to disk [in ms]
+    private final HashMap<String, JournalEntry> entries = new HashMap<>();
+    private final ScheduledExecutorService syncTimer;
+    private int unsyncedRecords;
+    private long lastSync;
+
+    /**
+     * Opens the journal file, reads its records and prepares it for appending further records. The file is created
+     * if it does not exist yet.
+     *
+     * @param journalFile - File to write the records to.
+     * @param batchSize - Integer: number of records after which the journal is forced to disk.
+     * @param batchInterval - Long: time after which the journal is forced to disk [in ms].
+     * @throws IOException if the journal cannot be read or opened.
+     */
+    public ResultJournal(File journalFile, int batchSize, long batchInterval) throws IOException {
+        this.batchSize = batchSize;
+        this.batchInterval = batchInterval;
+        File folder = journalFile.getAbsoluteFile().getParentFile();
+        if(folder != null){
+            Files.createDirectories(folder.toPath());
+        }
+        this.channel = FileChannel.open(journalFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        readRecords(journalFile);
+        this.lastSync = System.currentTimeMillis();
+        this.syncTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "journal-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1, batchInterval);
+        syncTimer.scheduleAtFixedRate(this::syncIfDue, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Reads all complete records of the journal. Everything after the last line break belongs to a record that was
+     * only partially written and is cut off, so further records start on a new line.
+     *
+     * @param journalFile - File containing the records.
+     * @throws IOException if the journal cannot be read.
+     */
+    private void readRecords(File journalFile) throws IOException {
+        String content = new String(Files.readAllBytes(journalFile.toPath()), StandardCharsets.UTF_8);
+        int end = content.lastIndexOf('\n') + 1;
+        for(String line : content.substring(0, end).split("\n")){
+            JournalEntry entry = JournalEntry.parse(line);
+            if(entry != null){
+                entries.put(getKey(entry.getApkHash(), entry.getToolName()), entry);
+            }
+        }
+        long validLength = content.substring(0, end).getBytes(StandardCharsets.UTF_8).length;
+        channel.truncate(validLength);
+        channel.position(validLength);
+    }
+
+    /**
+     * Appends a record to the journal. The journal is forced to disk if the batch is full or the batch interval has
+     * passed.
+     *
+     * @param entry - JournalEntry of a finished job.
+     */
+    public synchronized void record(JournalEntry entry){
+        entries.put(getKey(entry.getApkHash(), entry.getToolName()), entry);
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(entry.toLine().getBytes(StandardCharsets.UTF_8));
+            while(buffer.hasRemaining()){
+                channel.write(buffer);
+            }
+            unsyncedRecords++;
+            if(unsyncedRecords >= batchSize || System.currentTimeMillis() - lastSync >= batchInterval){
+                sync();
+            }
+        } catch (IOException e) {
+            System.out.println("Error: Journal record for " + entry.getToolName() + " could not be written. "
+                    + e.getMessage());
+        }
+    }
+
+    /**
+     * Forces the records to disk if the batch interval has passed since the last sync.
+     */
+    private synchronized void syncIfDue(){
+        if(unsyncedRecords == 0 || System.currentTimeMillis() - lastSync < batchInterval || !channel.isOpen()){
+            return;
+        }
+        try {
+            sync();
+        } catch (IOException e) {
+            System.out.println("Error: Journal could not be synced. " + e.getMessage());
+        }
+    }
+
+    /**
+     * Records that all tools of an apk were evaluated and written to the reports.
+     * @param apkHash - String: SHA-256 hash of the apk.
+     */
+    public void recordEvaluation(String apkHash){
+        record(new JournalEntry(apkHash, EVALUATION, 0, null, 0));
+    }
+
+    /**
+     * Forces all records written so far to disk.
+     * @throws IOException if the journal cannot be synced.
+     */
+    public synchronized void sync() throws IOException {
+        if(unsyncedRecords > 0){
+            channel.force(false);
+            unsyncedRecords = 0;
+        }
+        lastSync = System.currentTimeMillis();
+    }
+
+    /**
+     * Gets the record of a job that completed in this or an earlier run.
+     *
+     * @param apkHash - String: SHA-256 hash of the apk.
+     * @param toolName - String: name of the tool.
+     * @return JournalEntry of the completed job or null if the job has to be run (again).
+     */
+    public synchronized JournalEntry getCompleted(String apkHash, String toolName){
+        JournalEntry entry = entries.get(getKey(apkHash, toolName));
+        return entry != null && entry.isCompleted() ? entry : null;
+    }
+
+    /**
+     * Checks whether the Leaks of an apk were already evaluated and written to the reports.
+     * @param apkHash - String: SHA-256 hash of the apk.
+     * @return true if the apk does not need to be analysed again.
+     */
+    public synchronized boolean isEvaluated(String apkHash){
+        JournalEntry entry = entries.get(getKey(apkHash, EVALUATION));
+        return entry != null && entry.getExitCode() == 0;
+    }
+
+    /**
+     * Syncs the outstanding records and closes the journal.
+     * @throws IOException if the journal cannot be synced or closed.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        syncTimer.shutdownNow();
+        sync();
+        channel.close();
+    }
+
+    /**
+     * Checks whether records were written that are not yet forced to disk.
+     * @return true if the journal has to be synced.
+     */
+    synchronized boolean hasUnsyncedRecords(){
+        return unsyncedRecords > 0;
+    }
+
+    private static String getKey(String apkHash, String toolName){
+        return apkHash + "/" + toolName;
+    }
+}
@@ -0,0 +1,117 @@
+package scheduler;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+/**
+ * Responsible for deciding whether a job may start given the memory and cores of the machine. Each tool declares how
+ * much memory and how many cores it is expected to use. A job is only admitted while the reservations of all admitted
+ * jobs plus its own fit into the physical memory minus a configurable headroom and into the available cores. This way
+ * as many analyses as possible run side by side without making the machine swap or triggering the OOM killer.
+ *
+ * A job that does not even fit into an idle machine is admitted as soon as no other job is running, otherwise it
+ * would never run at all.
+ *
+ * The JobScheduler calls the admission controller while holding its lock, whenever it looks for the next job to
+ * dispatch, and releases the reservation after the job has finished.
+ *
+ * @see JobScheduler
+ */
+public class AdmissionController {
+    private static final String MEMINFO = "/proc/meminfo";
+
+    private final long memoryBudget;  // memory available for the tools [in MB]
+    private final int cpuBudget;      // cores available for the tools
+    private long reservedMemory;
+    private int reservedCpus;
+    private int admittedJobs;
+
+    /**
+     * @param totalMemory - Long: physical memory of the machine [in MB].
+     * @param headroom - Long: memory kept free for the operating system and the runner itself [in MB].
+     * @param cpus - Integer: number of cores of the machine.
+     */
+    public AdmissionController(long totalMemory, long headroom, int cpus){
+        this.memoryBudget = Math.max(0, totalMemory - headroom);
+        this.cpuBudget = cpus;
+    }
+
+    /**
+     * Creates an admission controller for the machine we are running on. The physical memory is read from
+     * /proc/meminfo, the number of cores is taken from the JVM.
+     *
+     * @param headroom - Long: memory kept free for the operating system and the runner itself [in MB].
+     * @return new AdmissionController for this machine.
+     */
+    public static AdmissionController forThisMachine(long headroom){
+        long totalMemory = readTotalMemory(new File(MEMINFO));
+        return new AdmissionController(totalMemory, headroom, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Reads the physical memory of the machine from the "MemTotal" entry of a meminfo file, which is given in kB. If
+     * the file cannot be read (e.g. on macOS), the memory is not limited.
+     *
+     * @param meminfo - File in the format of /proc/meminfo.
+     * @return Long: physical memory [in MB] or Long.MAX_VALUE if it is unknown.
+     */
+    static long readTotalMemory(File meminfo){
+        try {
+            for(String line : Files.readAllLines(meminfo.toPath())){
+                if(line.startsWith("MemTotal:")){
+                    String kiloBytes = line.substring("MemTotal:".length()).replace("kB", "").trim();
+                    return Long.parseLong(kiloBytes) / 1024;
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            System.out.println("Error: Physical memory could not be read from " + meminfo.getPath() + ". " + e.getMessage());
+        }
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Admits the job if its reservations fit into what is left of the machine and reserves its memory and cores.
+     *
+     * @param job - Job that should be started.
+     * @return true if the job was admitted, false if it has to wait for other jobs to finish.
+     */
+    public synchronized boolean tryAdmit(Job job){
+        long memory = job.getMemoryReservation();
+        int cpus = job.getCpuReservation();
+        boolean fits = reservedMemory + memory <= memoryBudget && reservedCpus + cpus <= cpuBudget;
+        if(!fits && admittedJobs > 0){
+            return false;
+        }
+        reservedMemory += memory;
+        reservedCpus += cpus;
+        admittedJobs++;
+        return true;
+    }
+
+    /**
+     * Releases the reservations of a job that has finished.
+     * @param job - Job that was admitted before.
+     */
+    public synchronized void release(Job job){
+        reservedMemory -= job.getMemoryReservation();
+        reservedCpus -= job.getCpuReservation();
+        admittedJobs--;
+    }
+
+    /** ----------------------------------------------------------------------------------------------------------------
+     * HELPER METHODS (GETTERS & SETTERS)
+     * ----------------------------------------------------------------------------------------------------------------*/
+
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    public synchronized long getReservedMemory() {
+        return reservedMemory;
+    }
+
+    public synchronized int getAdmittedJobs() {
+        return admittedJobs;
+    }
+}
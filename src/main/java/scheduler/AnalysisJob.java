@@ -0,0 +1,136 @@
+package scheduler;
+
+import leaks.Leak;
+import results.ResultCache;
+import tool.ITool;
+
+import java.util.ArrayList;
+
+/**
+ * Responsible for describing the analysis of one apk with one tool. If a ResultCache is given, the tool is only run if
+ * its results for the apk are not cached yet. The job may depend on preparation jobs or on jobs of other tools
+ * producing artifacts the tool requires. If one of them does not complete, the tool is marked as failed without running.
+ *
+ * A job that was run by a remote worker is completed with the Leaks the worker parsed from the results, so they do not
+ * need to be parsed again. A job that was run as part of a BatchJob is completed by the batch.
+ *
+ * @see Job
+ * @see JobScheduler
+ */
+public class AnalysisJob extends Job {
+    private final ITool tool;
+    private final ResultCache cache;
+    private ArrayList<Leak> leaks;
+    private boolean servedFromCache;
+
+    public AnalysisJob(ITool tool){
+        this(tool, null);
+    }
+
+    public AnalysisJob(ITool tool, ResultCache cache){
+        this.tool = tool;
+        this.cache = cache;
+    }
+
+    /**
+     * Runs the analysis of the tool on its apk, unless its results are cached.
+     * @return true if the analysis completed, false otherwise.
+     */
+    @Override
+    protected boolean execute() {
+        if(servedFromCache){
+            return true;
+        }
+        return cache != null ? cache.runAnalysis(tool) : tool.runAnalysis();
+    }
+
+    /**
+     * Lets the tool serve its cached results before the job is run, so the job does not need to wait for the artifacts
+     * the tool would require to run.
+     * @return true if the results were cached, false if the tool still has to run.
+     */
+    boolean serveCachedResults() {
+        servedFromCache = cache != null && cache.serveCachedResults(tool);
+        return servedFromCache;
+    }
+
+    /**
+     * Marks the analysis of the tool as failed, since it cannot run without the artifact of its prerequisite.
+     */
+    @Override
+    protected void prerequisiteFailed() {
+        tool.skipAnalysis();
+    }
+
+    @Override
+    public void notifyListener(JobListener listener) {
+        listener.jobFinished(this);
+    }
+
+    /**
+     * Completes a job that was run by a remote worker.
+     *
+     * @param completed - boolean: whether the tool completed its analysis.
+     * @param leaks - ArrayList of Leaks parsed by the worker or null if the tool did not complete.
+     * @param startTime - Long: time at which the job was handed to the worker [in ms].
+     */
+    public void completeRemotely(boolean completed, ArrayList<Leak> leaks, long startTime){
+        this.completed = completed;
+        this.leaks = leaks;
+        this.startTime = startTime;
+        this.endTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Completes a job that was run as a member of a BatchJob instead of being run itself. Its Leaks still have to be
+     * parsed.
+     *
+     * @param completed - boolean: whether the tool completed its analysis.
+     * @param startTime - Long: time at which the batch started [in ms].
+     */
+    void completeInBatch(boolean completed, long startTime){
+        this.completed = completed;
+        this.startTime = startTime;
+        this.endTime = System.currentTimeMillis();
+    }
+
+    /** ----------------------------------------------------------------------------------------------------------------
+     * HELPER METHODS (GETTERS & SETTERS)
+     * ----------------------------------------------------------------------------------------------------------------*/
+
+    public ITool getTool() {
+        return tool;
+    }
+
+    public String getToolName() {
+        return tool.getToolName();
+    }
+
+    @Override
+    public String getName() {
+        return tool.getToolName();
+    }
+
+    @Override
+    public String getAppName() {
+        return tool.getAppName();
+    }
+
+    @Override
+    public long getMemoryReservation() {
+        return tool.getMemoryReservation();
+    }
+
+    @Override
+    public int getCpuReservation() {
+        return tool.getCpuReservation();
+    }
+
+    /**
+     * Gets the Leaks parsed by a remote worker.
+     * @return ArrayList of Leaks or null if the results still have to be parsed.
+     */
+    public ArrayList<Leak> getLeaks() {
+        return leaks;
+    }
+}
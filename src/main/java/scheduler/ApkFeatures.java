@@ -0,0 +1,143 @@
+package scheduler;
+
+/**
+ * Responsible for holding the features of an apk that the running time of the tools depends on, i.e. the size of the
+ * apk, the number of dex files, classes and methods, and the number of components declared in the manifest. They are
+ * read by the ApkInspector before the apk is analysed, together with the package name declared in the manifest.
+ *
+ * The features are condensed into an estimated cost, which is used to order the jobs of a corpus run. The analyses
+ * mostly scale with the amount of code, and the inter-component analyses additionally with the entry points of the
+ * app, so the cost counts the dex methods plus a fixed number of methods per component. It is only meant to compare
+ * apks with each other, not to predict running times.
+ *
+ * @see ApkInspector
+ * @see RuntimeHistory
+ */
+public class ApkFeatures {
+    static final int COMPONENT_WEIGHT = 1000; // methods a component adds to the estimated cost
+
+    private final long apkSize;
+    private final int dexClasses;
+    private int dexFiles;
+    private int dexMethods;
+    private int activities;
+    private int services;
+    private int receivers;
+    private int providers;
+    private String packageName;
+
+    /**
+     * @param apkSize - Long: size of the apk file [in bytes].
+     * @param dexClasses - Integer: number of classes defined in all dex files of the apk.
+     */
+    public ApkFeatures(long apkSize, int dexClasses){
+        this.apkSize = apkSize;
+        this.dexClasses = dexClasses;
+    }
+
+    /**
+     * Gets the distance to the features of another apk. Running times grow with the size of an apk rather than with
+     * the difference in size, so the features are compared on a logarithmic scale.
+     *
+     * @param other - ApkFeatures of the other apk.
+     * @return Double: distance, 0 for apks with the same features.
+     */
+    public double distanceTo(ApkFeatures other){
+        return Math.abs(Math.log1p(apkSize) - Math.log1p(other.apkSize))
+                + Math.abs(Math.log1p(dexClasses) - Math.log1p(other.dexClasses));
+    }
+
+    /**
+     * Gets the estimated cost of analysing the apk with a tool, relative to other apks.
+     * @return Long: number of dex methods plus the weighted number of components.
+     */
+    public long getEstimatedCost(){
+        return dexMethods + (long) COMPONENT_WEIGHT * getComponents();
+    }
+
+    /** ----------------------------------------------------------------------------------------------------------------
+     * HELPER METHODS (GETTERS & SETTERS)
+     * ----------------------------------------------------------------------------------------------------------------*/
+
+    public long getApkSize() {
+        return apkSize;
+    }
+
+    public int getDexClasses() {
+        return dexClasses;
+    }
+
+    public int getDexFiles() {
+        return dexFiles;
+    }
+
+    public void setDexFiles(int dexFiles) {
+        this.dexFiles = dexFiles;
+    }
+
+    public int getDexMethods() {
+        return dexMethods;
+    }
+
+    public void setDexMethods(int dexMethods) {
+        this.dexMethods = dexMethods;
+    }
+
+    public int getActivities() {
+        return activities;
+    }
+
+    public void setActivities(int activities) {
+        this.activities = activities;
+    }
+
+    public int getServices() {
+        return services;
+    }
+
+    public void setServices(int services) {
+        this.services = services;
+    }
+
+    public int getReceivers() {
+        return receivers;
+    }
+
+    public void setReceivers(int receivers) {
+        this.receivers = receivers;
+    }
+
+    public int getProviders() {
+        return providers;
+    }
+
+    public void setProviders(int providers) {
+        this.providers = providers;
+    }
+
+    /**
+     * Gets the package name of the app, which is how Covert names the app in its reports.
+     * @return String: package name declared in the manifest or null if it could not be read.
+     */
+    public String getPackageName() {
+        return packageName;
+    }
+
+    public void setPackageName(String packageName) {
+        this.packageName = packageName;
+    }
+
+    /**
+     * Gets the number of components declared in the manifest.
+     * @return Integer: number of activities, services, broadcast receivers and content providers.
+     */
+    public int getComponents() {
+        return activities + services + receivers + providers;
+    }
+
+    @Override
+    public String toString(){
+        return apkSize / 1024 + " kB, " + dexFiles + " dex files, " + dexClasses + " classes, " + dexMethods
+                + " methods, " + getComponents() + " components";
+    }
+}
@@ -0,0 +1,231 @@
+package scheduler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Responsible for reading the features of an apk without unpacking it. The entries are taken from the central
+ * directory of the zip file. Of the dex files, only their headers are read, which contain the number of classes and
+ * methods defined in each of them. The only entry read completely is the binary AndroidManifest.xml, which is small,
+ * to count the components declared in it and to read the package name of the app.
+ *
+ * @see ApkFeatures
+ * @see <a href="https://source.android.com/devices/tech/dalvik/dex-format#header-item">Dex header format</a>
+ */
+public class ApkInspector {
+    private static final String MANIFEST = "AndroidManifest.xml";
+    private static final int DEX_HEADER_SIZE = 0x70;
+    private static final int METHOD_IDS_SIZE_OFFSET = 0x58;
+    private static final int CLASS_DEFS_SIZE_OFFSET = 0x60;
+
+    // chunk types of the binary xml format
+    private static final int RES_STRING_POOL_TYPE = 0x0001;
+    private static final int RES_XML_TYPE = 0x0003;
+    private static final int RES_XML_START_ELEMENT_TYPE = 0x0102;
+    private static final int UTF8_FLAG = 1 << 8;
+    private static final int ATTRIBUTE_NAME_OFFSET = 4;
+    private static final int ATTRIBUTE_RAW_VALUE_OFFSET = 8;
+
+    private ApkInspector(){
+    }
+
+    /**
+     * Reads the features of an apk.
+     *
+     * @param apk - File: apk to inspect.
+     * @return ApkFeatures of the apk or null if it cannot be read.
+     */
+    public static ApkFeatures inspect(File apk){
+        try (ZipFile zip = new ZipFile(apk)) {
+            int dexFiles = 0;
+            int dexClasses = 0;
+            int dexMethods = 0;
+            byte[] manifest = null;
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while(entries.hasMoreElements()){
+                ZipEntry entry = entries.nextElement();
+                if(isDexFile(entry.getName())){
+                    try (InputStream in = zip.getInputStream(entry)) {
+                        byte[] header = readDexHeader(in);
+                        dexFiles++;
+                        dexClasses += readInt(header, CLASS_DEFS_SIZE_OFFSET);
+                        dexMethods += readInt(header, METHOD_IDS_SIZE_OFFSET);
+                    }
+                } else if(entry.getName().equals(MANIFEST)){
+                    try (InputStream in = zip.getInputStream(entry)) {
+                        manifest = readFully(in);
+                    }
+                }
+            }
+            ApkFeatures features = new ApkFeatures(apk.length(), dexClasses);
+            features.setDexFiles(dexFiles);
+            features.setDexMethods(dexMethods);
+            if(manifest != null){
+                countComponents(manifest, features);
+            }
+            return features;
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Error: " + apk.getPath() + " could not be inspected. " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Checks whether a zip entry is one of the dex files of the apk i.e. classes.dex, classes2.dex, ...
+     * @param name - String: name of the zip entry.
+     * @return true if the entry is a dex file in the root of the apk.
+     */
+    static boolean isDexFile(String name){
+        return name.startsWith("classes") && name.endsWith(".dex") && !name.contains("/");
+    }
+
+    /**
+     * Reads the header of a dex file.
+     * @param dex - InputStream positioned at the start of the dex file.
+     * @return byte array containing the header.
+     * @throws IOException if the header cannot be read or the file is not a dex file.
+     */
+    static byte[] readDexHeader(InputStream dex) throws IOException {
+        byte[] header = new byte[DEX_HEADER_SIZE];
+        new DataInputStream(dex).readFully(header);
+        if(header[0] != 'd' || header[1] != 'e' || header[2] != 'x'){
+            throw new IOException("Not a dex file.");
+        }
+        return header;
+    }
+
+    /**
+     * Counts the components declared in a binary AndroidManifest.xml by walking its chunks. Every start element is
+     * looked up in the string pool. Of the attributes, only the package of the manifest element is read.
+     *
+     * @param manifest - byte array: content of the binary manifest.
+     * @param features - ApkFeatures the counts are written to.
+     * @throws IOException if the manifest is not in the binary xml format.
+     */
+    static void countComponents(byte[] manifest, ApkFeatures features) throws IOException {
+        if(manifest.length < 8 || readShort(manifest, 0) != RES_XML_TYPE){
+            throw new IOException("AndroidManifest.xml is not a binary xml file.");
+        }
+        int stringPool = -1;
+        int activities = 0;
+        int services = 0;
+        int receivers = 0;
+        int providers = 0;
+        int position = readShort(manifest, 2);
+        while(position + 8 <= manifest.length){
+            int type = readShort(manifest, position);
+            int size = readInt(manifest, position + 4);
+            if(size < 8){
+                break;
+            }
+            if(type == RES_STRING_POOL_TYPE){
+                stringPool = position;
+            } else if(type == RES_XML_START_ELEMENT_TYPE && stringPool >= 0){
+                switch (readString(manifest, stringPool, readInt(manifest, position + 20))){
+                    case "activity":
+                    case "activity-alias": activities++; break;
+                    case "service": services++; break;
+                    case "receiver": receivers++; break;
+                    case "provider": providers++; break;
+                    case "manifest": features.setPackageName(readAttribute(manifest, stringPool, position, "package"));
+                        break;
+                    default: break;
+                }
+            }
+            position += size;
+        }
+        features.setActivities(activities);
+        features.setServices(services);
+        features.setReceivers(receivers);
+        features.setProviders(providers);
+    }
+
+    /**
+     * Reads the raw value of an attribute of a start element in a binary xml file.
+     *
+     * @param xml - byte array: content of the binary xml file.
+     * @param pool - Integer: offset of the string pool chunk.
+     * @param element - Integer: offset of the start element chunk.
+     * @param name - String: name of the attribute.
+     * @return String: raw value of the attribute or null if the element has no such attribute with a string value.
+     */
+    static String readAttribute(byte[] xml, int pool, int element, String name){
+        int attributeStart = element + 16 + readShort(xml, element + 24);
+        int attributeSize = readShort(xml, element + 26);
+        int attributeCount = readShort(xml, element + 28);
+        for(int i = 0; i < attributeCount; i++){
+            int attribute = attributeStart + i * attributeSize;
+            if(attribute + ATTRIBUTE_RAW_VALUE_OFFSET + 4 > xml.length){
+                break;
+            }
+            if(readString(xml, pool, readInt(xml, attribute + ATTRIBUTE_NAME_OFFSET)).equals(name)){
+                int value = readInt(xml, attribute + ATTRIBUTE_RAW_VALUE_OFFSET);
+                return value >= 0 ? readString(xml, pool, value) : null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reads a string from the string pool of a binary xml file, which is either encoded in UTF-8 or UTF-16.
+     *
+     * @param xml - byte array: content of the binary xml file.
+     * @param pool - Integer: offset of the string pool chunk.
+     * @param index - Integer: index of the string in the pool.
+     * @return String at the index or an empty String if the index is not in the pool.
+     */
+    static String readString(byte[] xml, int pool, int index){
+        int stringCount = readInt(xml, pool + 8);
+        if(index < 0 || index >= stringCount){
+            return "";
+        }
+        boolean utf8 = (readInt(xml, pool + 16) & UTF8_FLAG) != 0;
+        int stringsStart = readInt(xml, pool + 20);
+        int offsets = pool + readShort(xml, pool + 2);
+        int position = pool + stringsStart + readInt(xml, offsets + index * 4);
+        if(utf8){
+            position += (xml[position] & 0x80) != 0 ? 2 : 1; // length in characters
+            int length = xml[position] & 0xff;
+            if((length & 0x80) != 0){
+                length = (length & 0x7f) << 8 | xml[position + 1] & 0xff;
+                position++;
+            }
+            return new String(xml, position + 1, length, StandardCharsets.UTF_8);
+        }
+        int length = readShort(xml, position);
+        if((length & 0x8000) != 0){
+            length = (length & 0x7fff) << 16 | readShort(xml, position + 2);
+            position += 2;
+        }
+        return new String(xml, position + 2, length * 2, StandardCharsets.UTF_16LE);
+    }
+
+    private static byte[] readFully(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while((read = in.read(buffer)) != -1){
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Reads an unsigned little-endian integer, as used in dex and binary xml files.
+     */
+    static int readInt(byte[] bytes, int offset){
+        return (bytes[offset] & 0xff) | (bytes[offset + 1] & 0xff) << 8 | (bytes[offset + 2] & 0xff) << 16
+                | (bytes[offset + 3] & 0xff) << 24;
+    }
+
+    private static int readShort(byte[] bytes, int offset){
+        return (bytes[offset] & 0xff) | (bytes[offset + 1] & 0xff) << 8;
+    }
+}
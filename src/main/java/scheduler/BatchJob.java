@@ -0,0 +1,154 @@
+package scheduler;
+
+import results.ResultCache;
+import tool.CovertBatch;
+import tool.CovertTool;
+import tool.ITool;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Responsible for running the Covert jobs of several apks as a single job, see CovertBatch. The batch takes one slot
+ * and the reservation of one Covert run. Its member jobs are not submitted themselves: once the batch has finished,
+ * every member is completed with the outcome for its apk and handed to the listener like any other job. If Covert did
+ * not complete for the batch, the members are handed back to the scheduler as follow-up jobs instead and run on their
+ * own, each in a slot of its own and with its own deadline.
+ *
+ * Members whose results are cached are served from the cache and left out of the Covert run.
+ *
+ * @see CovertBatch
+ * @see AnalysisJob
+ */
+public class BatchJob extends Job {
+    private final int capacity;
+    private final ResultCache cache;
+    private final CovertBatch batch = new CovertBatch();
+    private final ArrayList<AnalysisJob> members = new ArrayList<>();
+    private final HashSet<AnalysisJob> completedMembers = new HashSet<>();
+    private final ArrayList<Job> retriedMembers = new ArrayList<>();
+
+    /**
+     * @param capacity - Integer: number of apks after which the batch is full.
+     * @param cache - ResultCache serving cached results or null.
+     */
+    public BatchJob(int capacity, ResultCache cache){
+        this.capacity = capacity;
+        this.cache = cache;
+    }
+
+    /**
+     * Adds a job to the batch. Only Covert jobs without prerequisites can be run in a batch.
+     *
+     * @param job - AnalysisJob to add.
+     * @param packageName - String: package name of the apk of the job or null if it is not known.
+     * @return true if the job was added, false if it has to be submitted on its own.
+     */
+    public boolean add(AnalysisJob job, String packageName){
+        if(isFull() || !job.getPrerequisites().isEmpty() || !batch.add(job.getTool(), packageName)){
+            return false;
+        }
+        members.add(job);
+        setEstimatedCost(getEstimatedCost() + job.getEstimatedCost());
+        return true;
+    }
+
+    /**
+     * Runs Covert once for all members whose results are not cached. Members that have to run on their own are neither
+     * completed nor failed by the batch.
+     * @return true if all members completed, false otherwise.
+     */
+    @Override
+    protected boolean execute() {
+        HashSet<AnalysisJob> cached = new HashSet<>();
+        for(AnalysisJob member : members){
+            if(cache != null && cache.serveCachedResults(member.getTool())){
+                batch.remove(member.getTool());
+                cached.add(member);
+            }
+        }
+        List<CovertTool> retriedTools = batch.runAnalysis();
+        for(AnalysisJob member : members){
+            ITool tool = member.getTool();
+            if(retriedTools.contains(tool)){
+                retriedMembers.add(member);
+            } else if(tool.getExitCode() == 0){
+                completedMembers.add(member);
+                if(cache != null && !cached.contains(member)){
+                    cache.storeResults(tool);
+                }
+            }
+        }
+        return completedMembers.size() == members.size();
+    }
+
+    /**
+     * Completes the members of the batch and hands them to the listener, except for the members that run on their own.
+     * @param listener - JobListener of the runner.
+     */
+    @Override
+    public void notifyListener(JobListener listener) {
+        for(AnalysisJob member : members){
+            if(retriedMembers.contains(member)){
+                continue;
+            }
+            member.completeInBatch(completedMembers.contains(member), startTime);
+            listener.jobFinished(member);
+        }
+    }
+
+    /** ----------------------------------------------------------------------------------------------------------------
+     * HELPER METHODS (GETTERS & SETTERS)
+     * ----------------------------------------------------------------------------------------------------------------*/
+
+    /**
+     * Gets the members that did not complete in the batch and have to run on their own.
+     * @return List of AnalysisJobs to queue.
+     */
+    @Override
+    public List<Job> getFollowUpJobs() {
+        return retriedMembers;
+    }
+
+    public boolean isFull() {
+        return members.size() >= capacity;
+    }
+
+    public List<AnalysisJob> getMembers() {
+        return members;
+    }
+
+    @Override
+    public String getName() {
+        return members.get(0).getName();
+    }
+
+    /**
+     * Gets the names of the applications of the batch.
+     * @return String: names of the applications separated by commas.
+     */
+    @Override
+    public String getAppName() {
+        StringBuilder appNames = new StringBuilder();
+        for(AnalysisJob member : members){
+            appNames.append(appNames.length() > 0 ? "," : "").append(member.getAppName());
+        }
+        return appNames.toString();
+    }
+
+    @Override
+    public long getMemoryReservation() {
+        return members.get(0).getMemoryReservation();
+    }
+
+    @Override
+    public int getCpuReservation() {
+        return members.get(0).getCpuReservation();
+    }
+
+    @Override
+    public String toString(){
+        return getName() + " batch of " + members.size() + " APKs";
+    }
+}
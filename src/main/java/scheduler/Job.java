@@ -0,0 +1,164 @@
+package scheduler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Responsible for describing a single unit of work of an analysis, i.e. running one tool or one preparation step on
+ * one apk. A job may depend on other jobs producing an artifact it requires. The JobScheduler only dispatches a job
+ * once all of its prerequisites have finished, and a job whose prerequisite did not complete is not run at all but
+ * counts as not completed. Jobs without a common prerequisite are independent of each other and run side by side.
+ *
+ * After the job has run, it keeps track of whether it completed and how long it took.
+ *
+ * @see AnalysisJob
+ * @see PreparationJob
+ * @see JobGraph
+ */
+public abstract class Job implements Runnable {
+    private final ArrayList<Job> prerequisites = new ArrayList<>();
+    private volatile boolean finished;
+    protected boolean completed;
+    protected long startTime;
+    protected long endTime;
+    private long estimatedCost;
+
+    /**
+     * Runs the job, unless one of its prerequisites did not complete. A job failing with an exception is treated like
+     * a job that did not complete, so that a single broken job cannot stop the whole analysis.
+     */
+    @Override
+    public final void run() {
+        startTime = System.currentTimeMillis();
+        try {
+            Job failedPrerequisite = getFailedPrerequisite();
+            if(failedPrerequisite != null){
+                System.out.println("Error: " + this + " was not run, since " + failedPrerequisite + " did not complete.");
+                prerequisiteFailed();
+                completed = false;
+            } else {
+                completed = execute();
+            }
+        } catch (RuntimeException e) {
+            System.out.println("Error: " + getName() + " analysis of " + getAppName() + " failed. " + e.getMessage());
+            completed = false;
+        } finally {
+            endTime = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Does the actual work of the job.
+     * @return true if the job completed, false otherwise.
+     */
+    protected abstract boolean execute();
+
+    /**
+     * Records that the job was not run, since one of its prerequisites did not complete.
+     */
+    protected void prerequisiteFailed(){
+    }
+
+    /**
+     * Notifies the listener about the finished job, if the listener is interested in this kind of job.
+     * @param listener - JobListener of the runner.
+     */
+    public abstract void notifyListener(JobListener listener);
+
+    /**
+     * Gets the jobs to run after this job has finished, e.g. the members of a batch that did not complete together.
+     * The JobScheduler queues them before it frees the slot of this job, even if it was shut down in the meantime.
+     * @return List of Jobs to queue, empty by default.
+     */
+    public List<Job> getFollowUpJobs(){
+        return Collections.emptyList();
+    }
+
+    /**
+     * Makes this job wait for the given job, e.g. because it produces an artifact this job requires. The prerequisite
+     * must be submitted to the same scheduler, otherwise this job is never dispatched.
+     * @param job - Job that has to finish before this job may run.
+     */
+    public void dependsOn(Job job){
+        prerequisites.add(job);
+    }
+
+    private Job getFailedPrerequisite(){
+        for(Job prerequisite : prerequisites){
+            if(!prerequisite.isCompleted()){
+                return prerequisite;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether all prerequisites have finished, successfully or not, so the job may be dispatched.
+     * @return true if the job does not wait for another job.
+     */
+    boolean isReady(){
+        for(Job prerequisite : prerequisites){
+            if(!prerequisite.finished){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Marks the job as finished, after the listener was notified.
+     */
+    void markFinished(){
+        finished = true;
+    }
+
+    /** ----------------------------------------------------------------------------------------------------------------
+     * HELPER METHODS (GETTERS & SETTERS)
+     * ----------------------------------------------------------------------------------------------------------------*/
+
+    /**
+     * Gets the name of the tool or step run by the job. Tool limits apply to all jobs of the same name.
+     * @return String: name of the tool or step.
+     */
+    public abstract String getName();
+
+    public abstract String getAppName();
+
+    public abstract long getMemoryReservation();
+
+    public abstract int getCpuReservation();
+
+    /**
+     * Gets the estimated cost of the job relative to other jobs, used by the SchedulingPolicy.
+     * @return Long: estimated cost, 0 if unknown.
+     */
+    public long getEstimatedCost() {
+        return estimatedCost;
+    }
+
+    public void setEstimatedCost(long estimatedCost) {
+        this.estimatedCost = estimatedCost;
+    }
+
+    public List<Job> getPrerequisites() {
+        return prerequisites;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    /**
+     * Gets the wall time the job was running.
+     * @return Long: running time of the job in milliseconds.
+     */
+    public long getWallTime() {
+        return endTime - startTime;
+    }
+
+    @Override
+    public String toString(){
+        return getAppName() + ".apk/" + getName();
+    }
+}
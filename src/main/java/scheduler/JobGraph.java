@@ -0,0 +1,101 @@
+package scheduler;
+
+import results.ResultCache;
+import tool.Artifact;
+import tool.ITool;
+import tool.PreparationStep;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Responsible for turning the tools of an apk into a graph of jobs. Every tool becomes an AnalysisJob. A tool requiring
+ * an artifact depends on the job producing it: either the job of another tool producing the artifact, or a
+ * PreparationJob that is created once per apk and shared by all tools requiring the artifact. A tool whose results are
+ * cached requires no artifacts, so no preparation step is run for it.
+ *
+ * The jobs are returned in an order in which every job comes after its prerequisites, so they can be submitted to a
+ * JobScheduler one after the other, or run one after the other on the current thread.
+ *
+ * @see Job
+ * @see Artifact
+ */
+public final class JobGraph {
+
+    private JobGraph(){
+    }
+
+    /**
+     * Creates the jobs of an apk.
+     *
+     * @param tools - List of ITools to run on the apk.
+     * @param cache - ResultCache serving cached results or null.
+     * @return List of Jobs, ordered such that prerequisites come first.
+     */
+    public static List<Job> createJobs(List<ITool> tools, ResultCache cache){
+        ArrayList<Job> jobs = new ArrayList<>();
+        HashMap<Artifact, Job> producers = new HashMap<>();
+        ArrayList<AnalysisJob> toolJobs = new ArrayList<>();
+        for(ITool tool : tools){
+            AnalysisJob job = new AnalysisJob(tool, cache);
+            toolJobs.add(job);
+            for(Artifact artifact : tool.getProducedArtifacts()){
+                producers.put(artifact, job);
+            }
+        }
+        for(AnalysisJob job : toolJobs){
+            List<Artifact> requiredArtifacts = job.getTool().getRequiredArtifacts();
+            if(requiredArtifacts.isEmpty() || job.serveCachedResults()){
+                continue;
+            }
+            for(Artifact artifact : requiredArtifacts){
+                Job producer = producers.get(artifact);
+                if(producer == null){
+                    PreparationStep step = PreparationStep.forArtifact(artifact, job.getTool());
+                    if(step == null){
+                        System.out.println("Error: " + artifact + " required by " + job + " is not produced by any job.");
+                        continue;
+                    }
+                    producer = new PreparationJob(step);
+                    producers.put(artifact, producer);
+                    jobs.add(producer);
+                }
+                job.dependsOn(producer);
+            }
+        }
+        jobs.addAll(toolJobs);
+        return sortByPrerequisites(jobs);
+    }
+
+    /**
+     * Sorts the jobs topologically, keeping the given order wherever the dependencies allow it.
+     *
+     * @param jobs - List of Jobs whose prerequisites are part of the list.
+     * @return List of Jobs where every job comes after its prerequisites.
+     * @throws IllegalStateException if the jobs depend on each other in a cycle.
+     */
+    static List<Job> sortByPrerequisites(List<Job> jobs){
+        ArrayList<Job> sortedJobs = new ArrayList<>();
+        HashSet<Job> visiting = new HashSet<>();
+        for(Job job : jobs){
+            visit(job, sortedJobs, visiting);
+        }
+        return sortedJobs;
+    }
+
+    private static void visit(Job job, ArrayList<Job> sortedJobs, HashSet<Job> visiting){
+        if(sortedJobs.contains(job)){
+            return;
+        }
+        if(!visiting.add(job)){
+            throw new IllegalStateException("Jobs depend on each other in a cycle, e.g. " + job + ".");
+        }
+        for(Job prerequisite : job.getPrerequisites()){
+            visit(prerequisite, sortedJobs, visiting);
+        }
+        visiting.remove(job);
+        sortedJobs.add(job);
+    }
+}
@@ -0,0 +1,19 @@
+package scheduler;
+
+/**
+ * Responsible for getting notified about finished jobs of the JobScheduler. It is implemented by the runners, which
+ * collect the results of the jobs and evaluate an apk as soon as all of its jobs have finished. Only AnalysisJobs are
+ * reported, preparation jobs have no results of their own.
+ *
+ * @see JobScheduler
+ */
+public interface JobListener {
+
+    /**
+     * Is called by the worker thread that ran the job, right after the job has finished. The job still occupies its
+     * slot in the scheduler while the listener is running.
+     *
+     * @param job - AnalysisJob that has finished, successfully or not.
+     */
+    void jobFinished(AnalysisJob job);
+}
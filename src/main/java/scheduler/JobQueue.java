@@ -0,0 +1,24 @@
+package scheduler;
+
+/**
+ * Responsible for accepting Jobs and running them somewhere, either on worker threads of this machine
+ * (JobScheduler) or on worker processes of other machines (distributed.Coordinator). The JobListener given to the
+ * queue is notified about every finished job.
+ *
+ * @see JobScheduler
+ * @see JobListener
+ */
+public interface JobQueue {
+
+    /**
+     * Queues a job to be run as soon as possible.
+     * @param job - Job to run.
+     */
+    void submit(Job job);
+
+    /**
+     * Tells the queue that no more jobs will be submitted and waits until all submitted jobs have finished.
+     * @throws InterruptedException if the waiting thread is interrupted.
+     */
+    void awaitTermination() throws InterruptedException;
+}
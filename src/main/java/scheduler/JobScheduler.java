@@ -0,0 +1,353 @@
+package scheduler;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.ListIterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Responsible for running Jobs, i.e. (apk, tool) pairs and the preparation steps they depend on, with a configurable
+ * level of parallelism. Submitted jobs are queued and handed to a pool of worker threads by a dispatcher thread as soon
+ * as a slot becomes free, so that all slots are kept busy as long as there is work left.
+ *
+ * A job depending on other jobs, e.g. IC3 on the Dare step of the same apk, is skipped by the dispatcher until all of
+ * its prerequisites have finished. Meanwhile, the jobs of other tools and apks are dispatched, so only the dependent
+ * branch waits instead of the whole analysis.
+ *
+ * Some tools cannot run several times side by side, because they work in fixed folders of their tool directory. For
+ * those tools a limit can be set. A job of a tool that reached its limit is skipped by the dispatcher until another
+ * job of the same tool has finished, while jobs of other tools are dispatched in the meantime.
+ *
+ * Optionally, an AdmissionController decides whether the memory and cores of the machine are sufficient to start a
+ * job. Jobs that do not fit right now are skipped in the same way until running jobs have released their reservations.
+ *
+ * Pending jobs are dispatched in the order of the SchedulingPolicy, by default in the order of submission. Jobs that
+ * cannot run yet are skipped, so a cheaper job may start while an expensive one waits for memory.
+ *
+ * Optionally, a PressureMonitor lowers the number of jobs that may run at the same time below the parallelism while
+ * the machine is under memory or cpu pressure.
+ *
+ * @see Job
+ * @see JobGraph
+ * @see JobListener
+ * @see AdmissionController
+ * @see PressureMonitor
+ * @see SchedulingPolicy
+ */
+public class JobScheduler implements JobQueue {
+    private final int parallelism;
+    private final JobListener listener;
+    private final ExecutorService workers;
+    private final Thread dispatcher;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition stateChanged = lock.newCondition();
+    private final LinkedList<Job> pendingJobs = new LinkedList<>();
+    private final HashMap<String, Integer> toolLimits = new HashMap<>();
+    private final HashMap<String, Integer> runningPerTool = new HashMap<>();
+    private AdmissionController admissionController;
+    private PressureMonitor pressureMonitor;
+    private Comparator<Job> order;
+    private int runningJobs;
+    private boolean shutdown;
+
+    public JobScheduler(int parallelism, JobListener listener){
+        assert parallelism > 0;
+        this.parallelism = parallelism;
+        this.listener = listener;
+        this.workers = Executors.newFixedThreadPool(parallelism);
+        this.dispatcher = new Thread(this::dispatch, "job-dispatcher");
+        this.dispatcher.start();
+    }
+
+    /**
+     * Limits the number of jobs of the given tool running at the same time.
+     * @param toolName - String: name of the tool e.g. ic3
+     * @param limit - Integer: maximum number of concurrent jobs of this tool, must be at least 1.
+     */
+    public void setToolLimit(String toolName, int limit){
+        assert limit > 0;
+        lock.lock();
+        try {
+            toolLimits.put(toolName, limit);
+            stateChanged.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the limit of the given tool, e.g. because its jobs no longer share folders.
+     * @param toolName - String: name of the tool e.g. ic3
+     */
+    public void removeToolLimit(String toolName){
+        lock.lock();
+        try {
+            toolLimits.remove(toolName);
+            stateChanged.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sets the order in which pending jobs are dispatched. Jobs that are already pending are reordered.
+     * @param policy - SchedulingPolicy to use.
+     */
+    public void setPolicy(SchedulingPolicy policy){
+        lock.lock();
+        try {
+            this.order = policy.getOrder(Job::getEstimatedCost);
+            if(order != null){
+                pendingJobs.sort(order);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sets the admission controller, which checks the memory and cores reserved by the running jobs before a job
+     * is dispatched.
+     * @param admissionController - AdmissionController for the machine.
+     */
+    public void setAdmissionController(AdmissionController admissionController){
+        lock.lock();
+        try {
+            this.admissionController = admissionController;
+            stateChanged.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sets the pressure monitor, which adapts the number of jobs running at the same time to the memory and cpu
+     * pressure of the machine. The monitor is started with the given sampling interval and stopped as soon as all
+     * jobs have finished.
+     * @param pressureMonitor - PressureMonitor for the machine.
+     * @param interval - Long: time between two samples of the pressure [in seconds].
+     */
+    public void setPressureMonitor(PressureMonitor pressureMonitor, long interval){
+        lock.lock();
+        try {
+            this.pressureMonitor = pressureMonitor;
+            stateChanged.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        pressureMonitor.start(this, interval);
+    }
+
+    /**
+     * Wakes the dispatcher up to check again whether pending jobs can be dispatched, e.g. because the concurrency
+     * limit of the pressure monitor has changed.
+     */
+    void wakeUp(){
+        lock.lock();
+        try {
+            stateChanged.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Queues a job. It will be run as soon as a slot is free, its prerequisites have finished and all jobs before it in
+     * the order of the policy were dispatched or are waiting for their prerequisites or tool limit.
+     * @param job - Job to run.
+     */
+    @Override
+    public void submit(Job job){
+        lock.lock();
+        try {
+            if(shutdown){
+                throw new IllegalStateException("Scheduler was shut down, job " + job + " was not accepted.");
+            }
+            insert(job);
+            stateChanged.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Inserts a job into the queue after all jobs that come before it or are equal to it in the order of the policy.
+     * Must be called holding the lock.
+     * @param job - Job to queue.
+     */
+    private void insert(Job job){
+        if(order == null){
+            pendingJobs.add(job);
+            return;
+        }
+        ListIterator<Job> iterator = pendingJobs.listIterator(pendingJobs.size());
+        while(iterator.hasPrevious()){
+            if(order.compare(iterator.previous(), job) <= 0){
+                iterator.next();
+                break;
+            }
+        }
+        iterator.add(job);
+    }
+
+    /**
+     * Tells the scheduler that no more jobs will be submitted. Jobs that were already submitted are still run.
+     */
+    public void shutdown(){
+        lock.lock();
+        try {
+            shutdown = true;
+            stateChanged.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Shuts the scheduler down and waits until all submitted jobs have finished.
+     * @throws InterruptedException if the waiting thread is interrupted.
+     */
+    @Override
+    public void awaitTermination() throws InterruptedException {
+        shutdown();
+        dispatcher.join();
+        workers.shutdown();
+        workers.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        if(pressureMonitor != null){
+            pressureMonitor.stop();
+        }
+    }
+
+    /**
+     * Dispatches the pending jobs to the workers until the scheduler is shut down and all jobs have finished. Waits
+     * whenever no job can be dispatched, i.e. all slots are taken, the machine is under pressure or all pending jobs are
+     * waiting for their prerequisites, their tool limit or for memory and cores to become available.
+     */
+    private void dispatch(){
+        while(true){
+            Job job;
+            lock.lock();
+            try {
+                while((job = nextDispatchableJob()) == null){
+                    if(shutdown && pendingJobs.isEmpty() && runningJobs == 0){
+                        return;
+                    }
+                    stateChanged.await();
+                }
+                runningJobs++;
+                runningPerTool.merge(job.getName(), 1, Integer::sum);
+            } catch (InterruptedException e) {
+                System.out.println("Error: Job dispatcher was interrupted. " + pendingJobs.size() + " jobs were not run.");
+                return;
+            } finally {
+                lock.unlock();
+            }
+            Job dispatchedJob = job;
+            workers.execute(() -> runJob(dispatchedJob));
+        }
+    }
+
+    /**
+     * Selects the first pending job that may run now and removes it from the queue. Must be called holding the lock.
+     * @return Job to run next or null if there is none.
+     */
+    private Job nextDispatchableJob(){
+        if(runningJobs >= getConcurrencyLimit()){
+            return null;
+        }
+        Iterator<Job> iterator = pendingJobs.iterator();
+        while(iterator.hasNext()){
+            Job job = iterator.next();
+            if(job.isReady() && isBelowToolLimit(job.getName()) && isAdmitted(job)){
+                iterator.remove();
+                return job;
+            }
+        }
+        return null;
+    }
+
+    private int getConcurrencyLimit(){
+        return pressureMonitor == null ? parallelism : Math.min(parallelism, pressureMonitor.getConcurrencyLimit());
+    }
+
+    private boolean isBelowToolLimit(String toolName){
+        Integer limit = toolLimits.get(toolName);
+        return limit == null || runningPerTool.getOrDefault(toolName, 0) < limit;
+    }
+
+    private boolean isAdmitted(Job job){
+        return admissionController == null || admissionController.tryAdmit(job);
+    }
+
+    /**
+     * Runs a job on a worker thread, notifies the listener and frees the slot of the job afterwards. Jobs depending on
+     * it may be dispatched from then on. Its follow-up jobs are queued before the slot is freed, so the dispatcher does
+     * not stop in between.
+     * @param job - Job to run.
+     */
+    private void runJob(Job job){
+        try {
+            job.run();
+            job.notifyListener(listener);
+        } catch (RuntimeException e) {
+            System.out.println("Error: Results of job " + job + " could not be processed. " + e.getMessage());
+        } finally {
+            lock.lock();
+            try {
+                for(Job followUp : job.getFollowUpJobs()){
+                    insert(followUp);
+                }
+                runningJobs--;
+                job.markFinished();
+                runningPerTool.merge(job.getName(), -1, Integer::sum);
+                if(admissionController != null){
+                    admissionController.release(job);
+                }
+                stateChanged.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /** ----------------------------------------------------------------------------------------------------------------
+     * HELPER METHODS (GETTERS & SETTERS)
+     * ----------------------------------------------------------------------------------------------------------------*/
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Gets the number of jobs that are running at the moment.
+     * @return Integer: number of dispatched jobs that have not finished yet.
+     */
+    public int getRunningJobs() {
+        lock.lock();
+        try {
+            return runningJobs;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of jobs that were submitted but not dispatched yet.
+     * @return Integer: number of queued jobs.
+     */
+    public int getPendingJobs() {
+        lock.lock();
+        try {
+            return pendingJobs.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package scheduler;
+
+import tool.PreparationStep;
+
+/**
+ * Responsible for running a preparation step of an apk, e.g. Dare, as a job of its own. The tools requiring the
+ * artifact of the step depend on this job, so the step runs only once per apk, however many tools require it.
+ * Preparation jobs are not reported to the JobListener, since they have no results of their own.
+ *
+ * @see PreparationStep
+ * @see JobGraph
+ */
+public class PreparationJob extends Job {
+    private final PreparationStep step;
+
+    public PreparationJob(PreparationStep step){
+        this.step = step;
+    }
+
+    @Override
+    protected boolean execute() {
+        return step.run();
+    }
+
+    @Override
+    public void notifyListener(JobListener listener) {
+        if(!completed){
+            System.out.println("Error: " + this + " failed with exit code " + step.getExitCode() + ".");
+        }
+    }
+
+    /** ----------------------------------------------------------------------------------------------------------------
+     * HELPER METHODS (GETTERS & SETTERS)
+     * ----------------------------------------------------------------------------------------------------------------*/
+
+    public PreparationStep getStep() {
+        return step;
+    }
+
+    @Override
+    public String getName() {
+        return step.getName();
+    }
+
+    @Override
+    public String getAppName() {
+        return step.getAppName();
+    }
+
+    @Override
+    public long getMemoryReservation() {
+        return step.getMemoryReservation();
+    }
+
+    @Override
+    public int getCpuReservation() {
+        return step.getCpuReservation();
+    }
+}
@@ -0,0 +1,163 @@
+package scheduler;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Responsible for adapting the number of concurrently running jobs to the actual load of the machine. The memory
+ * reservations of the tools are only estimates and the real heap usage of e.g. FlowDroid or IccTA varies a lot between
+ * apks. So while jobs are running, the monitor samples the Linux pressure stall information (PSI) in
+ * /proc/pressure/memory and /proc/pressure/cpu, i.e. the share of time in which tasks were stalled waiting for memory
+ * or cpu during the last 10 seconds ("some avg10").
+ *
+ * If the pressure stays above the threshold for several samples in a row, the concurrency limit is lowered below the
+ * number of running jobs, so the JobScheduler stops launching new tool processes and gives up one slot for every
+ * further period of sustained pressure. Once the pressure has stayed clearly below the threshold (at half of it) for
+ * the same number of samples, the limit is raised again by one slot at a time until the configured parallelism is
+ * reached. Running jobs are never interrupted.
+ *
+ * On systems without PSI (e.g. older kernels or macOS) the limit stays at the configured parallelism.
+ *
+ * @see JobScheduler
+ */
+public class PressureMonitor {
+    private static final String MEMORY_PRESSURE = "/proc/pressure/memory";
+    private static final String CPU_PRESSURE = "/proc/pressure/cpu";
+    private static final int SUSTAINED_SAMPLES = 3; // samples in a row needed to change the concurrency limit
+
+    private final File memoryPressureFile;
+    private final File cpuPressureFile;
+    private final double memoryThreshold;    // share of stalled time due to memory [in %]
+    private final double cpuThreshold;       // share of stalled time due to cpu [in %]
+    private final int maxConcurrency;
+    private volatile int concurrencyLimit;
+    private int samplesUnderPressure;
+    private int samplesWithoutPressure;
+    private ScheduledExecutorService sampler;
+
+    /**
+     * @param maxConcurrency - Integer: highest concurrency limit i.e. the parallelism of the scheduler.
+     * @param memoryThreshold - Double: memory pressure above which no new jobs are started [in %].
+     * @param cpuThreshold - Double: cpu pressure above which no new jobs are started [in %].
+     */
+    public PressureMonitor(int maxConcurrency, double memoryThreshold, double cpuThreshold){
+        this(new File(MEMORY_PRESSURE), new File(CPU_PRESSURE), maxConcurrency, memoryThreshold, cpuThreshold);
+    }
+
+    /**
+     * Special Constructor mainly used for testing.
+     */
+    PressureMonitor(File memoryPressureFile, File cpuPressureFile, int maxConcurrency, double memoryThreshold,
+                    double cpuThreshold){
+        this.memoryPressureFile = memoryPressureFile;
+        this.cpuPressureFile = cpuPressureFile;
+        this.maxConcurrency = maxConcurrency;
+        this.memoryThreshold = memoryThreshold;
+        this.cpuThreshold = cpuThreshold;
+        this.concurrencyLimit = maxConcurrency;
+    }
+
+    /**
+     * Checks whether the kernel provides pressure stall information.
+     * @return true if both pressure files can be read.
+     */
+    public boolean isAvailable(){
+        return memoryPressureFile.canRead() && cpuPressureFile.canRead();
+    }
+
+    /**
+     * Starts sampling the pressure in a background thread. After every sample that changed the concurrency limit, the
+     * scheduler is woken up to dispatch jobs according to the new limit.
+     *
+     * @param scheduler - JobScheduler whose running jobs are throttled.
+     * @param interval - Long: time between two samples [in seconds].
+     */
+    public void start(JobScheduler scheduler, long interval){
+        sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "pressure-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sampler.scheduleAtFixedRate(() -> {
+            int previousLimit = concurrencyLimit;
+            sample(scheduler.getRunningJobs());
+            if(concurrencyLimit != previousLimit){
+                System.out.println("Pressure: concurrency limit changed from " + previousLimit + " to " + concurrencyLimit);
+                scheduler.wakeUp();
+            }
+        }, interval, interval, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops sampling the pressure.
+     */
+    public void stop(){
+        if(sampler != null){
+            sampler.shutdownNow();
+        }
+    }
+
+    /**
+     * Takes one sample of the memory and cpu pressure and adapts the concurrency limit if the pressure was high or low
+     * for long enough. Pressure between half of the threshold and the threshold keeps the limit as it is.
+     *
+     * @param runningJobs - Integer: number of jobs running at the moment.
+     */
+    synchronized void sample(int runningJobs){
+        double memoryPressure = readPressure(memoryPressureFile);
+        double cpuPressure = readPressure(cpuPressureFile);
+
+        if(memoryPressure >= memoryThreshold || cpuPressure >= cpuThreshold){
+            samplesWithoutPressure = 0;
+            if(++samplesUnderPressure >= SUSTAINED_SAMPLES){
+                concurrencyLimit = Math.max(1, Math.min(concurrencyLimit, runningJobs) - 1);
+                samplesUnderPressure = 0;
+            }
+        } else if(memoryPressure < memoryThreshold / 2 && cpuPressure < cpuThreshold / 2){
+            samplesUnderPressure = 0;
+            if(++samplesWithoutPressure >= SUSTAINED_SAMPLES && concurrencyLimit < maxConcurrency){
+                concurrencyLimit++;
+                samplesWithoutPressure = 0;
+            }
+        } else {
+            samplesUnderPressure = 0;
+            samplesWithoutPressure = 0;
+        }
+    }
+
+    /**
+     * Reads the share of time in which some tasks were stalled during the last 10 seconds from a PSI file. Its first
+     * line looks like "some avg10=1.23 avg60=0.50 avg300=0.10 total=12345".
+     *
+     * @param pressureFile - File in the format of /proc/pressure/memory.
+     * @return Double: pressure in % or 0 if the file cannot be read.
+     */
+    static double readPressure(File pressureFile){
+        try {
+            for(String line : Files.readAllLines(pressureFile.toPath())){
+                if(line.startsWith("some")){
+                    for(String field : line.split(" ")){
+                        if(field.startsWith("avg10=")){
+                            return Double.parseDouble(field.substring("avg10=".length()));
+                        }
+                    }
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            return 0;
+        }
+        return 0;
+    }
+
+    /**
+     * Gets the number of jobs that may run at the same time according to the current pressure.
+     * @return Integer between 1 and the configured parallelism.
+     */
+    public int getConcurrencyLimit(){
+        return concurrencyLimit;
+    }
+}
@@ -0,0 +1,144 @@
+package scheduler;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Responsible for keeping the running times of the tools together with the features of the analysed apks, and for
+ * deriving a deadline for the next analysis from them. The deadline of a tool on an apk is the 99th percentile of the
+ * running times of the tool on the most similar apks, multiplied by a safety factor. It never exceeds a global cap and
+ * never falls below a minimum. As long as there are too few completed runs of a tool, the cap is used.
+ *
+ * This way hanging runs on ordinary apks are killed long before the cap, while large apks get as much time as the
+ * tool needed on similar large apks before. Only completed runs are used for the deadline, since runs that timed out
+ * only tell us that the tool needed more time than it got.
+ *
+ * The history is stored in a text file with one line per run, so it grows over several corpus runs:
+ * tool, apk size, dex classes, running time [in ms] and whether the run completed, separated by tabs.
+ *
+ * @see ApkFeatures
+ */
+public class RuntimeHistory {
+    static final int MIN_SAMPLES = 5;       // completed runs of a tool needed before its deadline is adapted
+    static final int NEIGHBOURS = 20;       // number of similar apks the deadline is derived from
+    static final double PERCENTILE = 0.99;
+
+    private final File file;
+    private final double safetyFactor;
+    private final long minTimeout;  // [in ms]
+    private final long maxTimeout;  // [in ms]
+    private final HashMap<String, ArrayList<Sample>> samples = new HashMap<>();
+
+    /**
+     * Loads the history from the given file, if it exists.
+     *
+     * @param file - File storing the history.
+     * @param safetyFactor - Double: factor the 99th percentile of similar runs is multiplied with.
+     * @param minTimeout - Long: shortest deadline given to a tool [in ms].
+     * @param maxTimeout - Long: global cap of the deadlines [in ms].
+     */
+    public RuntimeHistory(File file, double safetyFactor, long minTimeout, long maxTimeout){
+        this.file = file;
+        this.safetyFactor = safetyFactor;
+        this.minTimeout = minTimeout;
+        this.maxTimeout = maxTimeout;
+        load();
+    }
+
+    private void load(){
+        if(!file.isFile()){
+            return;
+        }
+        try {
+            for(String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)){
+                String[] fields = line.split("\t");
+                if(fields.length != 5){
+                    continue;
+                }
+                ApkFeatures features = new ApkFeatures(Long.parseLong(fields[1]), Integer.parseInt(fields[2]));
+                add(fields[0], new Sample(features, Long.parseLong(fields[3]), fields[4].equals("1")));
+            }
+        } catch (IOException | NumberFormatException e) {
+            System.out.println("Error: Runtime history " + file.getPath() + " could not be read completely. " + e.getMessage());
+        }
+    }
+
+    /**
+     * Gets the deadline for running a tool on an apk with the given features.
+     *
+     * @param toolName - String: name of the tool.
+     * @param features - ApkFeatures of the apk.
+     * @return Long: time the tool may run before it is killed [in ms].
+     */
+    public synchronized long getTimeout(String toolName, ApkFeatures features){
+        ArrayList<Sample> completedRuns = new ArrayList<>();
+        for(Sample sample : samples.getOrDefault(toolName, new ArrayList<>())){
+            if(sample.completed){
+                completedRuns.add(sample);
+            }
+        }
+        if(completedRuns.size() < MIN_SAMPLES){
+            return maxTimeout;
+        }
+        completedRuns.sort(Comparator.comparingDouble(sample -> sample.features.distanceTo(features)));
+        List<Sample> similarRuns = completedRuns.subList(0, Math.min(NEIGHBOURS, completedRuns.size()));
+        ArrayList<Long> runningTimes = new ArrayList<>();
+        for(Sample sample : similarRuns){
+            runningTimes.add(sample.runningTime);
+        }
+        Collections.sort(runningTimes);
+        int rank = (int) Math.ceil(PERCENTILE * runningTimes.size()) - 1;
+        long timeout = (long) (runningTimes.get(rank) * safetyFactor);
+        return Math.max(minTimeout, Math.min(maxTimeout, timeout));
+    }
+
+    /**
+     * Adds a run of a tool to the history and appends it to the history file.
+     *
+     * @param toolName - String: name of the tool.
+     * @param features - ApkFeatures of the analysed apk.
+     * @param runningTime - Long: wall time of the run [in ms].
+     * @param completed - boolean: true if the run completed, false if it timed out.
+     */
+    public synchronized void record(String toolName, ApkFeatures features, long runningTime, boolean completed){
+        add(toolName, new Sample(features, runningTime, completed));
+        String line = toolName + "\t" + features.getApkSize() + "\t" + features.getDexClasses() + "\t" + runningTime
+                + "\t" + (completed ? "1" : "0") + "\n";
+        try {
+            if(file.getParentFile() != null){
+                Files.createDirectories(file.getParentFile().toPath());
+            }
+            Files.write(file.toPath(), line.getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE,
+                    StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            System.out.println("Error: Runtime history " + file.getPath() + " could not be written. " + e.getMessage());
+        }
+    }
+
+    private void add(String toolName, Sample sample){
+        samples.computeIfAbsent(toolName, name -> new ArrayList<>()).add(sample);
+    }
+
+    /**
+     * Responsible for holding a single run of a tool.
+     */
+    private static class Sample {
+        private final ApkFeatures features;
+        private final long runningTime;
+        private final boolean completed;
+
+        Sample(ApkFeatures features, long runningTime, boolean completed){
+            this.features = features;
+            this.runningTime = runningTime;
+            this.completed = completed;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package scheduler;
+
+import java.util.Comparator;
+import java.util.function.ToLongFunction;
+
+/**
+ * Responsible for defining the order in which the JobScheduler dispatches pending jobs, based on their estimated cost.
+ *
+ * LONGEST_FIRST starts the most expensive jobs first, so that the few giant apks of a corpus do not end up running
+ * alone at the end of the run while all other slots are idle, which shortens the total running time (makespan).
+ * SHORTEST_FIRST finishes as many apks as possible early, which lowers the average time until an apk is evaluated.
+ * FIFO keeps the order of submission.
+ *
+ * @see JobScheduler
+ * @see ApkFeatures#getEstimatedCost()
+ */
+public enum SchedulingPolicy {
+    FIFO,
+    SHORTEST_FIRST,
+    LONGEST_FIRST;
+
+    /**
+     * Gets the order of jobs or apks under this policy. Used with a stable sort, items with the same cost keep their
+     * order of submission.
+     *
+     * @param cost - Function giving the estimated cost of an item.
+     * @return Comparator of the items, null for FIFO.
+     */
+    public <T> Comparator<T> getOrder(ToLongFunction<T> cost){
+        switch (this){
+            case SHORTEST_FIRST: return Comparator.comparingLong(cost);
+            case LONGEST_FIRST: return Comparator.comparingLong(cost).reversed();
+            default: return null;
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package shell.control;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.MalformedURLException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.security.Permission;
+import java.util.ArrayList;
+import java.util.jar.JarFile;
+
+/**
+ * Responsible for running a Java analyzer several times in the same JVM. It is the main class of a warm JVM started by
+ * the WarmJvmPool: the jars of the analyzer are loaded into a class loader of their own, isolated from the classes of
+ * the benchmark, and the main method of the analyzer is called once per job received over a socket on the loopback
+ * interface. The classes of the analyzer, e.g. soot and its android.jar, are loaded and compiled only once.
+ *
+ * During a job, System.out is redirected to the results file of the job and System.exit is trapped, so an analyzer
+ * ending with System.exit only ends its job, with the status as exit value. After every job, the global state of soot
+ * is reset if the analyzer uses it. The JVM ends after its number of jobs, or earlier if the heap retained after a
+ * garbage collection keeps growing, and is then replaced by a new one.
+ *
+ * Protocol, per job: the pool sends the number of arguments, the arguments and the path of the results file (empty to
+ * discard the output). The server answers with the exit value, whether the JVM ends now and the error of the analyzer
+ * (empty if there was none).
+ *
+ * @see WarmJvmPool
+ */
+public class AnalyzerServer {
+    static final String READY = "ANALYZER SERVER READY ON PORT ";
+    private static final double RECYCLE_HEAP_FRACTION = 0.5; // heap retained after a job at which the JVM ends
+    private static final int MAX_ERROR_LENGTH = 16 * 1024;  // characters of the error sent back
+
+    private static volatile boolean trapExit;
+
+    /**
+     * Starts the server.
+     * @param args - number of jobs after which the JVM ends, followed by "-jar" and the jar of the analyzer or by "-cp",
+     *             the class path and the main class of the analyzer.
+     */
+    public static void main(String[] args) throws Exception {
+        int jobsPerJvm = Integer.parseInt(args[0]);
+        URLClassLoader loader;
+        String mainClass;
+        if(args[1].equals("-jar")){
+            File jar = new File(args[2]).getAbsoluteFile();
+            try (JarFile jarFile = new JarFile(jar)) {
+                mainClass = jarFile.getManifest().getMainAttributes().getValue("Main-Class");
+            }
+            loader = createClassLoader(args[2]); // Class-Path entries of the manifest are followed by the loader
+        } else {
+            loader = createClassLoader(args[2]);
+            mainClass = args[3];
+        }
+        Method main = Class.forName(mainClass, true, loader).getMethod("main", String[].class);
+        try {
+            System.setSecurityManager(new ExitTrap());
+        } catch (UnsupportedOperationException | SecurityException e) {
+            // e.g. JDK 18+ without -Djava.security.manager=allow, which JDK 8 cannot be given
+            System.out.println("Error: System.exit of the analyzer cannot be trapped. " + e);
+            System.exit(1);
+        }
+
+        PrintStream console = System.out;
+        try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            console.println(READY + server.getLocalPort());
+            console.flush();
+            try (Socket socket = server.accept()) {
+                DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                for(int jobs = 1; ; jobs++){
+                    String[] arguments;
+                    String outputPath;
+                    try {
+                        arguments = new String[in.readInt()];
+                        for(int i = 0; i < arguments.length; i++){
+                            arguments[i] = in.readUTF();
+                        }
+                        outputPath = in.readUTF();
+                    } catch (EOFException e) {
+                        break; // the pool has closed the connection
+                    }
+                    StringWriter error = new StringWriter();
+                    int exitValue = runJob(main, loader, arguments, outputPath, error, console);
+                    resetSoot(loader);
+                    boolean recycle = jobs >= jobsPerJvm || isHeapGrown();
+                    out.writeInt(exitValue);
+                    out.writeBoolean(recycle);
+                    String message = error.toString();
+                    out.writeUTF(message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message);
+                    out.flush();
+                    if(recycle){
+                        break;
+                    }
+                }
+            }
+        }
+        trapExit = false;
+        System.exit(0); // threads the analyzer left behind must not keep the JVM alive
+    }
+
+    /**
+     * Runs the main method of the analyzer once with System.out redirected to the results file.
+     * @return Integer: exit value of the run, 0 if main returned, the status of System.exit or 1 on an error.
+     */
+    private static int runJob(Method main, ClassLoader loader, String[] arguments, String outputPath,
+                              StringWriter error, PrintStream console){
+        Thread thread = Thread.currentThread();
+        ClassLoader previousLoader = thread.getContextClassLoader();
+        try (PrintStream output = openOutput(outputPath)) {
+            System.setOut(output);
+            thread.setContextClassLoader(loader);
+            trapExit = true;
+            main.invoke(null, (Object) arguments);
+            return 0;
+        } catch (InvocationTargetException e) {
+            if(e.getCause() instanceof ExitException){
+                return ((ExitException) e.getCause()).status;
+            }
+            e.getCause().printStackTrace(new PrintWriter(error));
+            return 1;
+        } catch (IOException | ReflectiveOperationException | RuntimeException e) {
+            e.printStackTrace(new PrintWriter(error));
+            return 1;
+        } finally {
+            trapExit = false;
+            thread.setContextClassLoader(previousLoader);
+            System.setOut(console);
+        }
+    }
+
+    private static PrintStream openOutput(String outputPath) throws IOException {
+        if(outputPath.isEmpty()){
+            return new PrintStream(new OutputStream() {
+                @Override
+                public void write(int b) {
+                }
+
+                @Override
+                public void write(byte[] bytes, int offset, int length) {
+                }
+            });
+        }
+        return new PrintStream(new BufferedOutputStream(new FileOutputStream(outputPath)), false);
+    }
+
+    /**
+     * Creates the class loader of the analyzer. Its parent is the extension class loader, so the analyzer does not see
+     * the classes of the benchmark, e.g. another version of a library.
+     */
+    private static URLClassLoader createClassLoader(String classpath) throws MalformedURLException {
+        ArrayList<URL> urls = new ArrayList<>();
+        for(String entry : classpath.split(File.pathSeparator)){
+            if(!entry.isEmpty()){
+                urls.add(new File(entry).getAbsoluteFile().toURI().toURL());
+            }
+        }
+        return new URLClassLoader(urls.toArray(new URL[0]), ClassLoader.getSystemClassLoader().getParent());
+    }
+
+    /**
+     * Resets the global state of soot, which FlowDroid and IccTA keep in static fields, so the next apk starts from a
+     * clean state.
+     */
+    private static void resetSoot(ClassLoader loader){
+        try {
+            Class.forName("soot.G", false, loader).getMethod("reset").invoke(null);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // the analyzer does not use soot
+        }
+    }
+
+    private static boolean isHeapGrown(){
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        long used = runtime.totalMemory() - runtime.freeMemory();
+        return used > RECYCLE_HEAP_FRACTION * runtime.maxMemory();
+    }
+
+    /**
+     * Turns System.exit of the analyzer into an ExitException while a job runs and allows everything else.
+     */
+    private static class ExitTrap extends SecurityManager {
+        @Override
+        public void checkPermission(Permission permission) {
+        }
+
+        @Override
+        public void checkPermission(Permission permission, Object context) {
+        }
+
+        @Override
+        public void checkExit(int status) {
+            if(trapExit){
+                throw new ExitException(status);
+            }
+        }
+    }
+
+    private static class ExitException extends SecurityException {
+        private static final long serialVersionUID = 1L;
+        private final int status;
+
+        ExitException(int status){
+            super("System.exit(" + status + ") of the analyzer");
+            this.status = status;
+        }
+    }
+}
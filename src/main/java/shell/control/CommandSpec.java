@@ -0,0 +1,183 @@
+package shell.control;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Responsible for describing a command that is started directly, without a shell in between. The command consists of
+ * the program and its arguments (argv), the working directory, additional environment variables and optionally the
+ * files stdout and stderr are redirected to. The redirection is done by the operating system, so the output of a tool
+ * is written straight into its results file and the process started is the tool itself, not a shell.
+ *
+ * Since no shell is involved, arguments are passed as they are, e.g. apk names containing spaces need no quoting. Only
+ * a leading "~/" of the program is expanded to the home directory of the user, as the shell would have done.
+ *
+ * @see ShellExecutor
+ */
+public class CommandSpec {
+    private final File directory;
+    private final List<String> arguments;
+    private final Map<String, String> environment;
+    private File outputFile;
+    private File errorFile;
+    private String group;
+    private OutputRingBuffer capture;
+
+    /**
+     * @param directory - String: path of the directory the command is executed in (working dir).
+     * @param arguments - program followed by its arguments.
+     */
+    public CommandSpec(String directory, String... arguments){
+        this(directory, Arrays.asList(arguments));
+    }
+
+    /**
+     * @param directory - String: path of the directory the command is executed in (working dir).
+     * @param arguments - List of Strings: program followed by its arguments.
+     */
+    public CommandSpec(String directory, List<String> arguments){
+        this.directory = new File(directory);
+        this.arguments = new ArrayList<>(arguments);
+        this.environment = new LinkedHashMap<>();
+    }
+
+    /**
+     * Creates a ProcessBuilder for the command. If stdout is redirected to a file but stderr is not, stderr stays a
+     * pipe that has to be drained. If neither is redirected, stderr is merged into stdout.
+     *
+     * @return ProcessBuilder ready to start the command.
+     */
+    ProcessBuilder toProcessBuilder(){
+        ArrayList<String> command = new ArrayList<>(arguments);
+        command.set(0, expandHome(command.get(0)));
+        ProcessBuilder builder = new ProcessBuilder(command);
+        builder.directory(directory);
+        builder.environment().putAll(environment);
+        if(outputFile != null){
+            builder.redirectOutput(outputFile);
+        }
+        if(errorFile != null){
+            builder.redirectError(errorFile);
+        } else if(outputFile == null){
+            builder.redirectErrorStream(true);
+        }
+        return builder;
+    }
+
+    private static String expandHome(String program){
+        if(program.startsWith("~/")){
+            return System.getProperty("user.home") + program.substring(1);
+        }
+        return program;
+    }
+
+    /**
+     * Gets the command as it would be written in a shell, e.g. for logging and to compare commands.
+     * Redirections are shown relative to the working directory if the file lies within it.
+     * @return String representation of the command.
+     */
+    @Override
+    public String toString(){
+        StringBuilder builder = new StringBuilder();
+        for(String argument : arguments){
+            if(builder.length() > 0){
+                builder.append(' ');
+            }
+            builder.append(quote(argument));
+        }
+        if(outputFile != null){
+            builder.append(" > ").append(quote(getDisplayPath(outputFile)));
+        }
+        if(errorFile != null){
+            builder.append(" 2> ").append(quote(getDisplayPath(errorFile)));
+        }
+        return builder.toString();
+    }
+
+    private String getDisplayPath(File file){
+        Path path = file.toPath().normalize();
+        Path dir = directory.toPath().normalize();
+        return path.startsWith(dir) ? dir.relativize(path).toString() : file.getPath();
+    }
+
+    private static String quote(String argument){
+        if(argument.isEmpty() || argument.matches(".*[\\s'\"$`\\\\;&|<>()*?].*")){
+            return "'" + argument.replace("'", "'\\''") + "'";
+        }
+        return argument;
+    }
+
+
+    /** ----------------------------------------------------------------------------------------------------------------
+     * HELPER METHODS (GETTERS & SETTERS)
+     * ----------------------------------------------------------------------------------------------------------------*/
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    public List<String> getArguments() {
+        return arguments;
+    }
+
+    public Map<String, String> getEnvironment() {
+        return environment;
+    }
+
+    /**
+     * Adds an environment variable on top of the environment of this process.
+     */
+    public void setEnvironment(String name, String value) {
+        environment.put(name, value);
+    }
+
+    public File getOutputFile() {
+        return outputFile;
+    }
+
+    /**
+     * Redirects stdout to a file, which is truncated when the command is started.
+     */
+    public void setOutputFile(File outputFile) {
+        this.outputFile = outputFile;
+    }
+
+    public String getGroup() {
+        return group;
+    }
+
+    /**
+     * Sets the group of the command, e.g. the name of the tool, for the limits of the ShellExecutor.
+     */
+    public void setGroup(String group) {
+        this.group = group;
+    }
+
+    public OutputRingBuffer getCapture() {
+        return capture;
+    }
+
+    /**
+     * Sets the buffer keeping the end of the output that is not redirected to a file. The caller may read it while
+     * the command runs to follow its output. Without a buffer, the ShellExecutor uses one of its own.
+     */
+    public void setCapture(OutputRingBuffer capture) {
+        this.capture = capture;
+    }
+
+    public File getErrorFile() {
+        return errorFile;
+    }
+
+    /**
+     * Redirects stderr to a file, which is truncated when the command is started.
+     */
+    public void setErrorFile(File errorFile) {
+        this.errorFile = errorFile;
+    }
+}
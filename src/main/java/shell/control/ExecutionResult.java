@@ -0,0 +1,82 @@
+package shell.control;
+
+/**
+ * Responsible for describing how a command run by the ShellExecutor ended: its exit value, whether it was killed
+ * because its deadline had passed, how long it ran and how much output it wrote. If they could be measured, the
+ * resources used by its processes are added. If it did not complete, the end of its output is kept to see why.
+ *
+ * @see ShellExecutor#execute(String, String, long)
+ */
+public class ExecutionResult {
+    private final int exitValue;
+    private final boolean timedOut;
+    private final long wallTime;
+    private final long outputBytes;
+    private ResourceUsage resourceUsage;
+    private String outputTail;
+
+    /**
+     * @param exitValue - Integer: exit value of the process, -1 if it could not be started or was killed.
+     * @param timedOut - boolean: whether the process was killed after its deadline.
+     * @param wallTime - Long: time from the start of the process until it ended [in ms].
+     * @param outputBytes - Long: number of bytes written to stdout and stderr.
+     */
+    public ExecutionResult(int exitValue, boolean timedOut, long wallTime, long outputBytes){
+        this.exitValue = exitValue;
+        this.timedOut = timedOut;
+        this.wallTime = wallTime;
+        this.outputBytes = outputBytes;
+    }
+
+    /**
+     * Checks whether the command ended by itself with exit value 0.
+     * @return true if the command completed successfully.
+     */
+    public boolean isCompleted(){
+        return !timedOut && exitValue == 0;
+    }
+
+    /** ----------------------------------------------------------------------------------------------------------------
+     * HELPER METHODS (GETTERS & SETTERS)
+     * ----------------------------------------------------------------------------------------------------------------*/
+
+    public int getExitValue() {
+        return exitValue;
+    }
+
+    public boolean isTimedOut() {
+        return timedOut;
+    }
+
+    public long getWallTime() {
+        return wallTime;
+    }
+
+    public long getOutputBytes() {
+        return outputBytes;
+    }
+
+    /**
+     * Gets the resources used by the processes of the command.
+     * @return ResourceUsage or null if they could not be measured.
+     */
+    public ResourceUsage getResourceUsage() {
+        return resourceUsage;
+    }
+
+    public void setResourceUsage(ResourceUsage resourceUsage) {
+        this.resourceUsage = resourceUsage;
+    }
+
+    /**
+     * Gets the end of the output of a command that did not complete, i.e. of what was not redirected to a file.
+     * @return String with the last lines of the output or null if the command completed.
+     */
+    public String getOutputTail() {
+        return outputTail;
+    }
+
+    public void setOutputTail(String outputTail) {
+        this.outputTail = outputTail;
+    }
+}
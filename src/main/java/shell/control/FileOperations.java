@@ -0,0 +1,199 @@
+package shell.control;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Responsible for the file operations the tools need around their analysis, e.g. removing their output or moving the
+ * apk into their directory. They used to be "rm -r", "mkdir -p", "cp" and "cat /dev/null >" commands run in the
+ * ShellExecutor, one process each. Here they are done within this JVM with java.nio.file, so they neither start a
+ * process nor wait for the lock of the ShellExecutor.
+ *
+ * Files are linked instead of copied if source and target are on the same file store. The tools only read the apk,
+ * so the link behaves like a copy, and removing it leaves the original apk untouched.
+ *
+ * A workspace lets several runs of the same tool work side by side: it mirrors the tool directory with symbolic links,
+ * except for the paths the tool writes its output to, which every workspace has for itself.
+ *
+ * All operations report their errors on the console and return whether they succeeded, like the shell commands did
+ * with their exit code.
+ */
+public class FileOperations {
+
+    private FileOperations(){
+    }
+
+    /**
+     * Deletes a file or a directory with all of its content, like "rm -r". A path that does not exist is already
+     * deleted, so it is no error.
+     *
+     * @param path - Path of the file or directory to delete.
+     * @return true if the path does not exist anymore.
+     */
+    public static boolean delete(Path path){
+        try {
+            if(!Files.isDirectory(path)){
+                Files.deleteIfExists(path);
+                return true;
+            }
+            Files.walkFileTree(path, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+                    Files.deleteIfExists(file);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult postVisitDirectory(Path dir, IOException e) throws IOException {
+                    if(e != null && !(e instanceof NoSuchFileException)){
+                        throw e;
+                    }
+                    Files.deleteIfExists(dir);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+            return true;
+        } catch (NoSuchFileException e) {
+            return true;
+        } catch (IOException e) {
+            System.out.println("Error: " + path + " could not be deleted. " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Deletes several files or directories. They are independent of each other, so they are deleted in parallel.
+     *
+     * @param paths - Paths of the files or directories to delete, none of them may contain another.
+     * @return true if none of the paths exists anymore.
+     */
+    public static boolean deleteAll(Path... paths){
+        return Arrays.stream(paths).parallel().map(FileOperations::delete).reduce(true, Boolean::logicalAnd);
+    }
+
+    /**
+     * Creates a directory together with all missing parent directories, like "mkdir -p".
+     *
+     * @param dir - Path of the directory to create.
+     * @return true if the directory exists afterwards.
+     */
+    public static boolean createDirectories(Path dir){
+        try {
+            Files.createDirectories(dir);
+            return true;
+        } catch (IOException e) {
+            System.out.println("Error: " + dir + " could not be created. " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Empties a file, like "cat /dev/null >". The file is created if it does not exist yet.
+     *
+     * @param file - Path of the file to empty.
+     * @return true if the file is empty afterwards.
+     */
+    public static boolean truncate(Path file){
+        try {
+            Files.write(file, new byte[0]);
+            return true;
+        } catch (IOException e) {
+            System.out.println("Error: " + file + " could not be emptied. " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Links a file to the target path if both are on the same file store, otherwise the file is copied. An existing
+     * file at the target path is replaced.
+     *
+     * @param source - Path of the file to link or copy.
+     * @param target - Path of the link or copy, its directory must exist.
+     * @return true if the file is available at the target path.
+     */
+    public static boolean linkOrCopy(Path source, Path target){
+        try {
+            Files.deleteIfExists(target);
+            Path targetDir = target.toAbsolutePath().getParent();
+            if(Files.getFileStore(source).equals(Files.getFileStore(targetDir))){
+                try {
+                    Files.createLink(target, source);
+                    return true;
+                } catch (IOException | UnsupportedOperationException e) {
+                    // e.g. the file system does not support hard links, fall back to copying
+                }
+            }
+            Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+            return true;
+        } catch (IOException e) {
+            System.out.println("Error: " + source + " could not be transferred to " + target + ". " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Creates a workspace for one run of a tool. Every entry of the tool directory is linked into the workspace, except
+     * for the private paths. A private directory of the tool directory is created empty in the workspace, a private
+     * file is left out, so the tool creates it anew. Directories containing a private path are created in the workspace
+     * and their other entries are linked. An existing workspace is replaced.
+     *
+     * @param toolDir - Path of the tool directory.
+     * @param workspace - Path of the workspace to create.
+     * @param privatePaths - Collection of paths relative to the tool directory, e.g. "logs/app.log".
+     * @return true if the workspace was created.
+     */
+    public static boolean createWorkspace(Path toolDir, Path workspace, Collection<String> privatePaths){
+        if(!delete(workspace)){
+            return false;
+        }
+        try {
+            mirror(toolDir.toAbsolutePath(), workspace, new ArrayList<>(privatePaths));
+            return true;
+        } catch (IOException e) {
+            System.out.println("Error: Workspace " + workspace + " could not be created. " + e.getMessage());
+            delete(workspace);
+            return false;
+        }
+    }
+
+    private static void mirror(Path source, Path target, List<String> privatePaths) throws IOException {
+        Files.createDirectories(target);
+        if(!Files.isDirectory(source)){
+            return;
+        }
+        try (Stream<Path> entries = Files.list(source)) {
+            for(Path entry : (Iterable<Path>) entries::iterator){
+                String name = entry.getFileName().toString();
+                ArrayList<String> nestedPaths = new ArrayList<>();
+                boolean isPrivate = false;
+                for(String privatePath : privatePaths){
+                    if(privatePath.equals(name)){
+                        isPrivate = true;
+                    } else if(privatePath.startsWith(name + "/")){
+                        nestedPaths.add(privatePath.substring(name.length() + 1));
+                    }
+                }
+                if(isPrivate){
+                    if(Files.isDirectory(entry)){
+                        Files.createDirectories(target.resolve(name));
+                    }
+                } else if(!nestedPaths.isEmpty()){
+                    mirror(entry, target.resolve(name), nestedPaths);
+                } else {
+                    Files.createSymbolicLink(target.resolve(name), entry);
+                }
+            }
+        }
+    }
+}
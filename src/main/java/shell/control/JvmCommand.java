@@ -0,0 +1,113 @@
+package shell.control;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Responsible for recognizing commands that start a Java analyzer, e.g. "java -Xmx12g -jar IccTA.jar ..." or
+ * "java -cp soot-trunk.jar:... soot.jimple.infoflow.android.TestApps.Test ...", and splitting them into the JVM that
+ * is started, the analyzer it loads and the arguments of the single run. Commands with the same JVM and analyzer can
+ * be run one after the other in the same warm JVM, with only the arguments changing.
+ *
+ * @see WarmJvmPool
+ */
+class JvmCommand {
+    private final CommandSpec spec;
+    private final String program;
+    private final List<String> jvmOptions;
+    private final boolean jar;
+    private final String classpath;   // class path or jar of the analyzer
+    private final String mainClass;   // null if the main class is taken from the jar
+    private final List<String> arguments;
+
+    private JvmCommand(CommandSpec spec, List<String> jvmOptions, boolean jar, String classpath, String mainClass,
+                       List<String> arguments){
+        this.spec = spec;
+        this.program = spec.getArguments().get(0);
+        this.jvmOptions = jvmOptions;
+        this.jar = jar;
+        this.classpath = classpath;
+        this.mainClass = mainClass;
+        this.arguments = arguments;
+    }
+
+    /**
+     * Splits a command starting a Java analyzer.
+     *
+     * @param spec - CommandSpec of the command.
+     * @return JvmCommand or null if the command does not start a JVM with a class path and main class or a jar.
+     */
+    static JvmCommand parse(CommandSpec spec){
+        List<String> argv = spec.getArguments();
+        if(argv.isEmpty() || !new File(argv.get(0)).getName().equals("java") || spec.getErrorFile() != null){
+            return null;
+        }
+        List<String> jvmOptions = new ArrayList<>();
+        for(int i = 1; i < argv.size(); i++){
+            String argument = argv.get(i);
+            if(argument.equals("-cp") || argument.equals("-classpath")){
+                if(i + 2 >= argv.size()){
+                    return null;
+                }
+                return new JvmCommand(spec, jvmOptions, false, argv.get(i + 1), argv.get(i + 2),
+                        new ArrayList<>(argv.subList(i + 3, argv.size())));
+            } else if(argument.equals("-jar")){
+                if(i + 1 >= argv.size()){
+                    return null;
+                }
+                return new JvmCommand(spec, jvmOptions, true, argv.get(i + 1), null,
+                        new ArrayList<>(argv.subList(i + 2, argv.size())));
+            } else if(argument.startsWith("-X") || argument.startsWith("-D")){
+                jvmOptions.add(argument);
+            } else {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the key of the warm JVMs this command can run in, i.e. the same working directory, JVM options and
+     * analyzer.
+     * @return String identifying the JVM.
+     */
+    String getKey(){
+        return spec.getDirectory().getPath() + "|" + program + "|" + jvmOptions + "|" + classpath + "|" + mainClass;
+    }
+
+    /**
+     * Creates the command starting a warm JVM for the analyzer of this command. It runs the AnalyzerServer with the
+     * class path of the benchmark, which loads the analyzer into a class loader of its own.
+     *
+     * @param jobsPerJvm - Integer: number of runs after which the JVM ends.
+     * @return CommandSpec of the warm JVM.
+     */
+    CommandSpec createServerSpec(int jobsPerJvm){
+        List<String> argv = new ArrayList<>();
+        argv.add(program);
+        argv.addAll(jvmOptions);
+        argv.add("-cp");
+        argv.add(System.getProperty("java.class.path"));
+        argv.add(AnalyzerServer.class.getName());
+        argv.add(Integer.toString(jobsPerJvm));
+        argv.add(jar ? "-jar" : "-cp");
+        argv.add(classpath);
+        if(!jar){
+            argv.add(mainClass);
+        }
+        return new CommandSpec(spec.getDirectory().getPath(), argv);
+    }
+
+    /** ----------------------------------------------------------------------------------------------------------------
+     * HELPER METHODS (GETTERS & SETTERS)
+     * ----------------------------------------------------------------------------------------------------------------*/
+
+    CommandSpec getSpec() {
+        return spec;
+    }
+
+    List<String> getArguments() {
+        return arguments;
+    }
+}
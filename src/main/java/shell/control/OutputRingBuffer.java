@@ -0,0 +1,92 @@
+package shell.control;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Responsible for keeping the last bytes a process wrote, e.g. the last 64 KB of a tool's output, to see why it failed.
+ * The buffer has a fixed size and is allocated once. Older output is overwritten, so the memory used stays the same no
+ * matter how much a tool writes. Writing only copies the bytes into the buffer, nothing is allocated per write.
+ *
+ * The tail can be read at any time, also while the process is still writing, e.g. to follow a running tool.
+ *
+ * @see StreamDrainer
+ */
+public class OutputRingBuffer extends OutputStream {
+    private final byte[] buffer;
+    private int position;     // index the next byte is written to
+    private long bytesWritten;
+
+    /**
+     * @param capacity - Integer: number of bytes kept [in bytes].
+     */
+    public OutputRingBuffer(int capacity){
+        this.buffer = new byte[capacity];
+    }
+
+    @Override
+    public synchronized void write(int b) {
+        buffer[position] = (byte) b;
+        position = (position + 1) % buffer.length;
+        bytesWritten++;
+    }
+
+    @Override
+    public synchronized void write(byte[] bytes, int offset, int length) {
+        bytesWritten += length;
+        if(length >= buffer.length){
+            // only the end of the bytes fits into the buffer
+            System.arraycopy(bytes, offset + length - buffer.length, buffer, 0, buffer.length);
+            position = 0;
+            return;
+        }
+        int first = Math.min(length, buffer.length - position);
+        System.arraycopy(bytes, offset, buffer, position, first);
+        System.arraycopy(bytes, offset + first, buffer, 0, length - first);
+        position = (position + length) % buffer.length;
+    }
+
+    /**
+     * Gets the bytes kept in the buffer, oldest first.
+     * @return byte array with at most the capacity of the buffer.
+     */
+    public synchronized byte[] toByteArray(){
+        if(bytesWritten < buffer.length){
+            byte[] bytes = new byte[position];
+            System.arraycopy(buffer, 0, bytes, 0, position);
+            return bytes;
+        }
+        byte[] bytes = new byte[buffer.length];
+        System.arraycopy(buffer, position, bytes, 0, buffer.length - position);
+        System.arraycopy(buffer, 0, bytes, buffer.length - position, position);
+        return bytes;
+    }
+
+    /**
+     * Gets the output kept in the buffer as text. If older output was overwritten, the text starts after the first
+     * line break, so it does not begin with half a line, and a note says how much output is missing.
+     * @return String with the last lines of the output.
+     */
+    public synchronized String getTail(){
+        byte[] bytes = toByteArray();
+        int start = 0;
+        long omitted = bytesWritten - bytes.length;
+        if(omitted > 0){
+            while(start < bytes.length && bytes[start] != '\n'){
+                start++;
+            }
+            start = Math.min(start + 1, bytes.length);
+            omitted += start;
+        }
+        String tail = new String(bytes, start, bytes.length - start, StandardCharsets.UTF_8);
+        return omitted > 0 ? "[" + omitted + " bytes of earlier output omitted]\n" + tail : tail;
+    }
+
+    /**
+     * Gets the number of bytes written to the buffer, including those that were overwritten.
+     * @return Long: number of bytes written.
+     */
+    public synchronized long getBytesWritten(){
+        return bytesWritten;
+    }
+}
@@ -0,0 +1,169 @@
+package shell.control;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Responsible for finding and killing all processes started for a command. The tools are started through shell
+ * scripts (e.g. runIC3.sh or covert.sh), which start the actual JVMs as child processes. Killing only the shell would
+ * leave the JVMs running and keep the output pipe open, so the whole tree of descendants has to be killed.
+ *
+ * The descendants are read from /proc on Linux and from ps on other platforms. To keep the tree from growing while it
+ * is killed, all processes are stopped first, the tree is read again, and then everything is killed.
+ */
+public class ProcessTree {
+    private static final File PROC = new File("/proc");
+
+    private ProcessTree(){
+    }
+
+    /**
+     * Kills a process together with all of its descendants.
+     * @param process - Process to kill.
+     */
+    public static void kill(Process process){
+        long pid = getPid(process);
+        if(pid > 0){
+            LinkedHashSet<Long> tree = new LinkedHashSet<>();
+            tree.add(pid);
+            tree.addAll(getDescendants(pid));
+            signal("STOP", tree);
+            tree.addAll(getDescendants(pid));
+            signal("KILL", tree);
+        }
+        process.destroyForcibly();
+    }
+
+    /**
+     * Gets the process id of a process. The JVMs we run on do not offer Process.pid() in all versions, so it is read
+     * from the method if it exists and from the pid field of the UNIX process implementation otherwise.
+     *
+     * @param process - Process started by a ProcessBuilder.
+     * @return Long: process id or -1 if it cannot be determined.
+     */
+    public static long getPid(Process process){
+        try {
+            return (Long) Process.class.getMethod("pid").invoke(process);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Java 8, fall back to the field of the implementation
+        }
+        try {
+            Field field = process.getClass().getDeclaredField("pid");
+            field.setAccessible(true);
+            return field.getInt(process);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Gets all descendants of a process, i.e. its children, their children and so on.
+     * @param pid - Long: process id of the root of the tree.
+     * @return List of process ids, parents before their children.
+     */
+    public static List<Long> getDescendants(long pid){
+        HashMap<Long, List<Long>> children = PROC.isDirectory() ? readProc() : readPs();
+        ArrayList<Long> descendants = new ArrayList<>();
+        ArrayDeque<Long> queue = new ArrayDeque<>();
+        queue.add(pid);
+        while(!queue.isEmpty()){
+            for(Long child : children.getOrDefault(queue.poll(), new ArrayList<>())){
+                descendants.add(child);
+                queue.add(child);
+            }
+        }
+        return descendants;
+    }
+
+    /**
+     * Reads the parent of every process from /proc/[pid]/stat. The name of the process is put in parentheses and may
+     * contain spaces, so the fields are counted from the last closing parenthesis.
+     * @return HashMap of process ids and the ids of their children.
+     */
+    private static HashMap<Long, List<Long>> readProc(){
+        HashMap<Long, List<Long>> children = new HashMap<>();
+        File[] processes = PROC.listFiles((dir, name) -> name.chars().allMatch(Character::isDigit));
+        if(processes == null){
+            return children;
+        }
+        for(File process : processes){
+            try {
+                String stat = new String(Files.readAllBytes(new File(process, "stat").toPath()), StandardCharsets.UTF_8);
+                String[] fields = stat.substring(stat.lastIndexOf(')') + 2).split(" ");
+                long parent = Long.parseLong(fields[1]);
+                children.computeIfAbsent(parent, id -> new ArrayList<>()).add(Long.parseLong(process.getName()));
+            } catch (IOException | RuntimeException e) {
+                // the process has terminated in the meantime
+            }
+        }
+        return children;
+    }
+
+    /**
+     * Reads the parent of every process from the output of ps, e.g. on macOS.
+     * @return HashMap of process ids and the ids of their children.
+     */
+    private static HashMap<Long, List<Long>> readPs(){
+        HashMap<Long, List<Long>> children = new HashMap<>();
+        try {
+            Process ps = new ProcessBuilder("ps", "-A", "-o", "pid=", "-o", "ppid=").redirectErrorStream(true).start();
+            String output = new String(readAll(ps), StandardCharsets.UTF_8);
+            ps.waitFor(10, TimeUnit.SECONDS);
+            for(String line : output.split("\n")){
+                String[] fields = line.trim().split("\\s+");
+                if(fields.length == 2){
+                    children.computeIfAbsent(Long.parseLong(fields[1]), id -> new ArrayList<>())
+                            .add(Long.parseLong(fields[0]));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            System.out.println("Error: Processes could not be listed. " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return children;
+    }
+
+    /**
+     * Sends a signal to the given processes.
+     * @param signal - String: name of the signal e.g. KILL
+     * @param pids - Collection of process ids.
+     */
+    private static void signal(String signal, Iterable<Long> pids){
+        ArrayList<String> command = new ArrayList<>();
+        command.add("kill");
+        command.add("-" + signal);
+        for(Long pid : pids){
+            command.add(Long.toString(pid));
+        }
+        try {
+            Process kill = new ProcessBuilder(command).redirectErrorStream(true).start();
+            readAll(kill);
+            kill.waitFor(10, TimeUnit.SECONDS);
+        } catch (IOException e) {
+            System.out.println("Error: Processes could not be killed. " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static byte[] readAll(Process process) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while((read = process.getInputStream().read(buffer)) != -1){
+            output.write(buffer, 0, read);
+        }
+        return output.toByteArray();
+    }
+}
@@ -0,0 +1,133 @@
+package shell.control;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Responsible for measuring the resources used by a command while it runs. The ShellExecutor runs a sampler regularly
+ * for the process it started. Each sample reads /proc/[pid]/status, stat and io of the process and all of its
+ * descendants, e.g. the JVMs started by the scripts of the tools.
+ *
+ * The resident set sizes of all processes are summed up per sample and the highest sum is kept. CPU time and bytes
+ * read and written only grow, so the last values seen per process are summed up, which keeps the values of processes
+ * that have ended between two samples. Whatever a process does after the last sample is lost, so the values are lower
+ * bounds and as exact as the sampling interval.
+ *
+ * Without /proc, i.e. on other platforms than Linux, nothing is measured.
+ *
+ * @see ResourceUsage
+ */
+public class ResourceSampler implements Runnable {
+    private static final File PROC = new File("/proc");
+    private static final long TICKS_PER_SECOND = 100; // USER_HZ, the unit of the CPU times in /proc/[pid]/stat
+    private static final int UTIME = 11;              // index of utime after the state field of /proc/[pid]/stat
+    private static final int STIME = 12;
+
+    private final long pid;
+    private final HashMap<Long, long[]> counters = new HashMap<>(); // pid -> user ticks, system ticks, read, written
+    private long peakRss;
+
+    /**
+     * @param pid - Long: process id of the root of the process tree to measure.
+     */
+    public ResourceSampler(long pid){
+        this.pid = pid;
+    }
+
+    /**
+     * Checks whether resources can be measured on this platform.
+     * @return true if /proc is available.
+     */
+    public static boolean isSupported(){
+        return PROC.isDirectory();
+    }
+
+    /**
+     * Takes a sample of the process tree.
+     */
+    @Override
+    public synchronized void run(){
+        List<Long> tree = new ArrayList<>();
+        tree.add(pid);
+        tree.addAll(ProcessTree.getDescendants(pid));
+        long rss = 0;
+        for(Long process : tree){
+            File dir = new File(PROC, Long.toString(process));
+            rss += readRss(dir);
+            long[] values = counters.computeIfAbsent(process, id -> new long[4]);
+            readCpuTimes(dir, values);
+            readIo(dir, values);
+        }
+        peakRss = Math.max(peakRss, rss);
+    }
+
+    /**
+     * Gets the resources measured by the samples taken so far.
+     * @return ResourceUsage of the process tree.
+     */
+    public synchronized ResourceUsage getUsage(){
+        long[] total = new long[4];
+        for(long[] values : counters.values()){
+            for(int i = 0; i < total.length; i++){
+                total[i] += values[i];
+            }
+        }
+        return new ResourceUsage(peakRss, total[0] * 1000 / TICKS_PER_SECOND, total[1] * 1000 / TICKS_PER_SECOND,
+                total[2], total[3]);
+    }
+
+    /**
+     * Reads the resident set size from the VmRSS line of /proc/[pid]/status.
+     * @return Long: resident set size [in kB] or 0 if the process has ended.
+     */
+    private static long readRss(File dir){
+        for(String line : readLines(new File(dir, "status"))){
+            if(line.startsWith("VmRSS:")){
+                return Long.parseLong(line.substring(6).trim().split("\\s+")[0]);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Reads the CPU times from /proc/[pid]/stat. The name of the process is put in parentheses and may contain spaces,
+     * so the fields are counted from the last closing parenthesis.
+     */
+    private static void readCpuTimes(File dir, long[] values){
+        List<String> lines = readLines(new File(dir, "stat"));
+        if(lines.isEmpty()){
+            return;
+        }
+        String stat = lines.get(0);
+        String[] fields = stat.substring(stat.lastIndexOf(')') + 2).split(" ");
+        values[0] = Long.parseLong(fields[UTIME]);
+        values[1] = Long.parseLong(fields[STIME]);
+    }
+
+    /**
+     * Reads the bytes read from and written to storage from /proc/[pid]/io.
+     */
+    private static void readIo(File dir, long[] values){
+        for(String line : readLines(new File(dir, "io"))){
+            if(line.startsWith("read_bytes:")){
+                values[2] = Long.parseLong(line.substring(11).trim());
+            } else if(line.startsWith("write_bytes:")){
+                values[3] = Long.parseLong(line.substring(12).trim());
+            }
+        }
+    }
+
+    private static List<String> readLines(File file){
+        try {
+            return Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        } catch (IOException | RuntimeException e) {
+            // the process has ended in the meantime or the file may not be read
+            return new ArrayList<>();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package shell.control;
+
+/**
+ * Responsible for describing the resources used by the processes of a command: the peak resident memory of the whole
+ * process tree, the CPU time spent in user and kernel mode and the bytes read from and written to the storage layer.
+ *
+ * @see ResourceSampler
+ */
+public class ResourceUsage {
+    private final long peakRss;
+    private final long userCpuTime;
+    private final long systemCpuTime;
+    private final long readBytes;
+    private final long writtenBytes;
+
+    /**
+     * @param peakRss - Long: highest sum of the resident set sizes of all processes of the tree [in kB].
+     * @param userCpuTime - Long: CPU time spent in user mode [in ms].
+     * @param systemCpuTime - Long: CPU time spent in kernel mode [in ms].
+     * @param readBytes - Long: number of bytes read from storage.
+     * @param writtenBytes - Long: number of bytes written to storage.
+     */
+    public ResourceUsage(long peakRss, long userCpuTime, long systemCpuTime, long readBytes, long writtenBytes){
+        this.peakRss = peakRss;
+        this.userCpuTime = userCpuTime;
+        this.systemCpuTime = systemCpuTime;
+        this.readBytes = readBytes;
+        this.writtenBytes = writtenBytes;
+    }
+
+    /**
+     * Gets the resources used in a form to be shown in the summary.
+     * @return String e.g. "peak RSS: 1536 MB, CPU user: 61.2 s, CPU system: 3.4 s, read: 120 MB, written: 8 MB"
+     */
+    @Override
+    public String toString(){
+        return String.format("peak RSS: %d MB, CPU user: %.1f s, CPU system: %.1f s, read: %d MB, written: %d MB",
+                peakRss / 1024, userCpuTime / 1000.0, systemCpuTime / 1000.0, readBytes >> 20, writtenBytes >> 20);
+    }
+
+    /**
+     * Gets the resources used since an earlier measurement of the same processes, e.g. by one job of a warm JVM. The
+     * peak memory is the one of this measurement, since memory is not used up like CPU time.
+     * @param earlier - ResourceUsage measured before.
+     * @return ResourceUsage with the CPU time and I/O since the earlier measurement.
+     */
+    public ResourceUsage since(ResourceUsage earlier){
+        return new ResourceUsage(peakRss, userCpuTime - earlier.userCpuTime, systemCpuTime - earlier.systemCpuTime,
+                readBytes - earlier.readBytes, writtenBytes - earlier.writtenBytes);
+    }
+
+    /**
+     * Gets the resources used as a row of the performance csv file.
+     * @param separator - String: separator of the columns.
+     * @return String with peak RSS [kB], user and system CPU time [ms], bytes read and written.
+     */
+    public String getCSVRepresentation(String separator){
+        return peakRss + separator + userCpuTime + separator + systemCpuTime + separator + readBytes + separator
+                + writtenBytes;
+    }
+
+    /** ----------------------------------------------------------------------------------------------------------------
+     * HELPER METHODS (GETTERS & SETTERS)
+     * ----------------------------------------------------------------------------------------------------------------*/
+
+    public long getPeakRss() {
+        return peakRss;
+    }
+
+    public long getUserCpuTime() {
+        return userCpuTime;
+    }
+
+    public long getSystemCpuTime() {
+        return systemCpuTime;
+    }
+
+    public long getReadBytes() {
+        return readBytes;
+    }
+
+    public long getWrittenBytes() {
+        return writtenBytes;
+    }
+}
@@ -2,10 +2,13 @@ package shell.control;
 
 import java.io.*;
 import java.util.Timer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
 
 
 /**
@@ -18,89 +21,233 @@ import java.util.concurrent.locks.ReentrantLock;
  * If this boolean is false, then only a confirmation is shown after successful execution. To show the
  * console output, it uses the StreamHunter and Executors class.
  *
+ * Every command runs with a deadline, by default the same for all tools, counted from the start of the process. The
+ * output of the process is drained by a StreamDrainer on another thread, so the deadline is enforced even while a tool
+ * keeps writing or keeps its output open. When the deadline has passed, the whole ProcessTree is killed, including the
+ * JVMs started by the shell scripts of the tools.
+ *
+ * Tools are started from a CommandSpec instead of a String, without "sh -c" in between. Their results are redirected
+ * into the results file by the operating system, so the process started is the tool itself and no output passes
+ * through this JVM.
+ *
+ * The last CAPTURE_SIZE bytes of the output that is not redirected to a file are kept in an OutputRingBuffer. If the
+ * command fails or times out, they are added to the ExecutionResult.
+ *
+ * While a command runs, the resources used by its process tree are sampled from /proc by a ResourceSampler and added
+ * to the ExecutionResult.
+ *
+ * The executor keeps no state per command, so all tools share one instance and any number of commands may run at the
+ * same time. How many do run is bounded by the JobScheduler, which admits jobs by the resources of the machine. On top
+ * of that, limits can be set here for the commands of a group, e.g. a tool, and for all processes. Commands waiting for
+ * a limit are queued fairly, i.e. they are started in the order they arrived. Their deadline starts once they run.
+ *
  * @author Timo Spring
  */
 public class ShellExecutor {
-    private ProcessBuilder builder;
-    private ProcessBuilder helperBuilder;
-
-    private static final int TIMEOUT = 60; // Time out to be applied to the analysis [in minutes] per tool.
-    final Lock lock = new ReentrantLock();
-    final Lock helperLock = new ReentrantLock();
+    private static final ShellExecutor SHARED = new ShellExecutor();
+    public static final long DEFAULT_TIMEOUT = TimeUnit.MINUTES.toMillis(60); // Time out to be applied to the analysis [in ms] per tool.
+    private static final long DRAIN_TIMEOUT = 5000; // time to wait for the output after the process has ended [in ms]
+    public static final int CAPTURE_SIZE = 64 * 1024; // end of the output kept per command to see why it failed [in bytes]
+    private static final ExecutorService DRAINERS = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "output-drainer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final long SAMPLE_INTERVAL = 1000; // time between two samples of the used resources [in ms]
+    private static final ScheduledExecutorService SAMPLERS = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "resource-sampler");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ConcurrentHashMap<String, Semaphore> groupLimits = new ConcurrentHashMap<>();
+    private volatile Semaphore processLimit;
     private static boolean isTraceVisible = false; // specifies whether the tool console output is displayed during the analysis
 
 
     public ShellExecutor(){
-        builder = new ProcessBuilder();
-        helperBuilder = new ProcessBuilder();
     }
 
     /**
-     * Adds the command to be executed in the shell and directory that it should
-     * run in to the builder. Afterwards, the builder is ready to execute the command.
+     * Runs the command string in the terminal/shell with the default deadline.
      *
      * @param directory - String, Path of directory in which command should be executed (working dir),
      *                  must be a valid directory
      * @param command - String, command to be executed in the shell,
      *                must be a valid command (depending on underlying platform)
+     * @return Integer exitCode - 0 if the execution returned successful, 1 if it failed and 2 if it timed out.
      */
-    private void setCommandForBuilder(String directory, String command){
-        assert builder != null;
-
-        /*if(isWindows()){
-            builder.command("cmd.exe", "/c", command);
-        }else {*/
-            builder.command("sh", "-c", command);
-        //}
-        builder.redirectErrorStream(true);
-        builder.directory(new File(directory));
+    public int runCommand(String directory, String command){
+        return runCommand(directory, command, DEFAULT_TIMEOUT);
     }
 
-
     /**
      * Runs the command string in the terminal/shell. Before that it triggers the builder configuration in the correct
      * location and. A new Process is started for the command execution, which should finish with exit code 0 in case
-     * the command was successfully executed. Otherwise, an exception will be thrown.
+     * the command was successfully executed. If the process is still running when the timeout has passed, it is killed.
      *
      * @param directory - String, Path of directory in which command should be executed (working dir),
      *                  must be a valid directory
      * @param command - String, command to be executed in the shell,
      *                must be a valid command (depending on underlying platform)
-     * @return Integer exitCode - should be 0 if the execution returned successful. Otherwise, an exception will have
-     *                  been thrown.
+     * @param timeout - Long: time the command may run before it is killed [in ms].
+     * @return Integer exitCode - 0 if the execution returned successful, 1 if it failed and 2 if it timed out.
      */
-    public int runCommand(String directory, String command){
-        lock.lock();
-        boolean exitCode = false;
-        setCommandForBuilder(directory, command);
-        System.out.println("Command: " + command);
+    public int runCommand(String directory, String command, long timeout){
+        return getExitCode(execute(directory, command, timeout), timeout);
+    }
+
+    /**
+     * Runs a command directly, without a shell, and redirects its output as described by the CommandSpec. If the
+     * process is still running when the timeout has passed, it is killed.
+     *
+     * @param spec - CommandSpec: program, arguments, working directory and redirections of the command.
+     * @param timeout - Long: time the command may run before it is killed [in ms].
+     * @return Integer exitCode - 0 if the execution returned successful, 1 if it failed and 2 if it timed out.
+     */
+    public int runCommand(CommandSpec spec, long timeout){
+        return getExitCode(execute(spec, timeout), timeout);
+    }
+
+    /**
+     * Gets the exit code the tools use for the result of a command and reports how it ended.
+     *
+     * @param result - ExecutionResult of the command.
+     * @param timeout - Long: time the command was allowed to run [in ms].
+     * @return Integer exitCode - 0 if the execution returned successful, 1 if it failed and 2 if it timed out.
+     */
+    public static int getExitCode(ExecutionResult result, long timeout){
+        if(result.isTimedOut()){
+            System.out.println("TIME OUT: Aborting analysis after " + TimeUnit.MILLISECONDS.toSeconds(timeout)
+                    + " seconds - Exit Code: 2\n");
+            return 2;
+        } else if(!result.isCompleted()){
+            System.out.println("Analysis interrupted because of an error - Exit Code: " + result.getExitValue() + "\n");
+            return 1;
+        }
+        return 0;
+    }
+
+    /**
+     * Runs the command string in the terminal/shell and enforces its deadline from the moment the process is started.
+     * The combined stdout and stderr are drained asynchronously and discarded, unless the trace is visible. When the
+     * deadline has passed, the process and all of its descendants are killed.
+     *
+     * @param directory - String, Path of directory in which command should be executed (working dir),
+     *                  must be a valid directory
+     * @param command - String, command to be executed in the shell,
+     *                must be a valid command (depending on underlying platform)
+     * @param timeout - Long: time the command may run before it is killed [in ms].
+     * @return ExecutionResult describing how the command ended.
+     */
+    public ExecutionResult execute(String directory, String command, long timeout){
+        return execute(new CommandSpec(directory, "sh", "-c", command), command, timeout);
+    }
+
+    /**
+     * Runs a command directly, without a shell, and enforces its deadline from the moment the process is started.
+     * Output redirected to files is written there by the operating system, only the output that is not redirected is
+     * drained asynchronously and discarded, unless the trace is visible.
+     *
+     * @param spec - CommandSpec: program, arguments, working directory and redirections of the command.
+     * @param timeout - Long: time the command may run before it is killed [in ms].
+     * @return ExecutionResult describing how the command ended.
+     */
+    public ExecutionResult execute(CommandSpec spec, long timeout){
+        return execute(spec, spec.toString(), timeout);
+    }
+
+    private ExecutionResult execute(CommandSpec spec, String command, long timeout){
+        Semaphore groupLimit = spec.getGroup() != null ? groupLimits.get(spec.getGroup()) : null;
+        Semaphore processes = processLimit;
         try {
-            Process process = builder.start();
-           // if(isTraceVisible){showConsoleTrace(process);}
-            BufferedReader reader = new BufferedReader((new InputStreamReader(process.getInputStream())));
-            String line;
-            while((line = reader.readLine()) != null){}
-            exitCode = process.waitFor(TIMEOUT, TimeUnit.MINUTES);
-
-            process.destroyForcibly();
-            process.destroy();
-            if (!exitCode){
-                throw new InterruptedException();
-            } else if(process.exitValue()!=0) {
-                System.out.println("Analysis interrupted because of an error - Exit Code: " + process.exitValue() + "\n");
-                return 1;
+            acquire(groupLimit);
+            try {
+                acquire(processes);
+            } catch (InterruptedException e) {
+                release(groupLimit);
+                throw e;
             }
-        } catch (IOException | InterruptedException e) {
-            System.out.println("TIME OUT: Aborting analysis - Exit Code: 2\n");
-            return 2;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new ExecutionResult(-1, false, 0, 0);
+        }
+        try {
+            return start(spec, command, timeout);
         } finally {
-            lock.unlock();
+            release(processes);
+            release(groupLimit);
+        }
+    }
+
+    private ExecutionResult start(CommandSpec spec, String command, long timeout){
+        System.out.println("Command: " + command);
+        long startTime = System.currentTimeMillis();
+        Process process = null;
+        try {
+            process = spec.toProcessBuilder().start();
+            // stderr is merged into stdout unless stdout goes to a file
+            InputStream output = spec.getOutputFile() == null ? process.getInputStream() : process.getErrorStream();
+            OutputRingBuffer capture = spec.getCapture() != null ? spec.getCapture() : new OutputRingBuffer(CAPTURE_SIZE);
+            StreamDrainer drainer = new StreamDrainer(output, isTraceVisible ? System.out : null, capture);
+            DRAINERS.execute(drainer);
+            long pid = ProcessTree.getPid(process);
+            ResourceSampler sampler = pid > 0 && ResourceSampler.isSupported() ? new ResourceSampler(pid) : null;
+            ScheduledFuture<?> sampling = sampler != null ? startSampling(sampler) : null;
+            boolean exited = process.waitFor(timeout, TimeUnit.MILLISECONDS);
+            if(sampling != null){
+                sampling.cancel(false);
+                if(!exited){
+                    sampler.run(); // last sample before the tree is killed
+                }
+            }
+            if(!exited){
+                ProcessTree.kill(process);
+                process.waitFor(DRAIN_TIMEOUT, TimeUnit.MILLISECONDS);
+            }
+            drainer.awaitEnd(DRAIN_TIMEOUT);
+            long wallTime = System.currentTimeMillis() - startTime;
+            ExecutionResult result = new ExecutionResult(exited ? process.exitValue() : -1, !exited, wallTime,
+                    drainer.getBytesRead());
+            if(sampler != null){
+                result.setResourceUsage(sampler.getUsage());
+            }
+            if(!result.isCompleted()){
+                result.setOutputTail(capture.getTail());
+            }
+            return result;
+        } catch (IOException e) {
+            System.out.println("Error: Command could not be started. " + e.getMessage());
+            return new ExecutionResult(-1, false, System.currentTimeMillis() - startTime, 0);
+        } catch (InterruptedException e) {
+            ProcessTree.kill(process);
+            Thread.currentThread().interrupt();
+            return new ExecutionResult(-1, false, System.currentTimeMillis() - startTime, 0);
+        }
+    }
+
+    /**
+     * Takes samples of the resources used by a process tree regularly, until the returned future is cancelled.
+     * @param sampler - ResourceSampler of the process tree.
+     * @return ScheduledFuture of the sampling.
+     */
+    static ScheduledFuture<?> startSampling(ResourceSampler sampler){
+        return SAMPLERS.scheduleAtFixedRate(sampler, 0, SAMPLE_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    private static void acquire(Semaphore limit) throws InterruptedException {
+        if(limit != null){
+            limit.acquire();
+        }
+    }
+
+    private static void release(Semaphore limit){
+        if(limit != null){
+            limit.release();
         }
-        return 0;
     }
 
     public int runHelperCommand(String directory, String command){
-        helperLock.lock();
+        ProcessBuilder helperBuilder = new ProcessBuilder();
         helperBuilder.command("sh", "-c", command);
         helperBuilder.redirectErrorStream(true);
         helperBuilder.directory(new File(directory));
@@ -118,8 +265,6 @@ public class ShellExecutor {
             e.printStackTrace();
         } catch (InterruptedException e) {
             e.printStackTrace();
-        }finally {
-            helperLock.unlock();
         }
         return exitCode;
     }
@@ -149,6 +294,34 @@ public class ShellExecutor {
         return System.getProperty("os.toolName").toLowerCase().startsWith("windows");
     }
 
+    /**
+     * Gets the executor shared by all tools.
+     * @return ShellExecutor of this JVM.
+     */
+    public static ShellExecutor getShared(){
+        return SHARED;
+    }
+
+    /**
+     * Limits how many commands of a group may run at the same time. Commands exceeding the limit wait in the order
+     * they arrived. Changing the limit only affects commands started afterwards.
+     *
+     * @param group - String: group of the commands, e.g. the name of a tool.
+     * @param limit - Integer: maximum number of running commands of the group, at least 1.
+     */
+    public void setLimit(String group, int limit){
+        groupLimits.put(group, new Semaphore(limit, true));
+    }
+
+    /**
+     * Limits how many commands may run at the same time in total. Commands exceeding the limit wait in the order they
+     * arrived.
+     * @param limit - Integer: maximum number of running commands or 0 for no limit.
+     */
+    public void setProcessLimit(int limit){
+        processLimit = limit > 0 ? new Semaphore(limit, true) : null;
+    }
+
     /**
      * Changes the visibility of the running analysis console output (
      * @param value - boolean
@@ -0,0 +1,95 @@
+package shell.control;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Responsible for draining the output of a running process on its own thread, so that the process never blocks on a
+ * full pipe and the thread waiting for the process can enforce its deadline. Unlike the StreamHunter, it reads raw
+ * bytes into a single reused buffer instead of creating a String per line. The output is only counted, or copied to
+ * a sink such as the console if one is given, so the memory used does not depend on how much a tool writes. The end
+ * of the output can be kept in an OutputRingBuffer of fixed size, to see why a tool failed.
+ *
+ * @see ShellExecutor
+ */
+public class StreamDrainer implements Runnable {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final InputStream inputStream;
+    private final OutputStream sink;
+    private final OutputRingBuffer capture;
+    private final CountDownLatch drained = new CountDownLatch(1);
+    private volatile long bytesRead;
+
+    /**
+     * @param inputStream - InputStream of the process, e.g. its combined stdout and stderr.
+     * @param sink - OutputStream the output is copied to or null to discard it.
+     */
+    public StreamDrainer(InputStream inputStream, OutputStream sink){
+        this(inputStream, sink, null);
+    }
+
+    /**
+     * @param inputStream - InputStream of the process, e.g. its combined stdout and stderr.
+     * @param sink - OutputStream the output is copied to or null to discard it.
+     * @param capture - OutputRingBuffer keeping the end of the output or null to keep nothing.
+     */
+    public StreamDrainer(InputStream inputStream, OutputStream sink, OutputRingBuffer capture){
+        this.inputStream = inputStream;
+        this.sink = sink;
+        this.capture = capture;
+    }
+
+    /**
+     * Reads the stream until its end, i.e. until all processes writing to it have terminated or closed it.
+     */
+    @Override
+    public void run() {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream in = inputStream) {
+            int read;
+            while((read = in.read(buffer)) != -1){
+                bytesRead += read;
+                if(capture != null){
+                    capture.write(buffer, 0, read);
+                }
+                if(sink != null){
+                    sink.write(buffer, 0, read);
+                }
+            }
+        } catch (IOException e) {
+            // the stream was closed because the process was killed
+        } finally {
+            drained.countDown();
+        }
+    }
+
+    /**
+     * Waits until the stream has been drained completely.
+     * @param timeout - Long: maximum time to wait [in ms].
+     * @return true if the end of the stream was reached, false if the time elapsed before.
+     * @throws InterruptedException if the waiting thread is interrupted.
+     */
+    public boolean awaitEnd(long timeout) throws InterruptedException {
+        return drained.await(timeout, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Gets the buffer keeping the end of the output.
+     * @return OutputRingBuffer or null if the output is not kept.
+     */
+    public OutputRingBuffer getCapture() {
+        return capture;
+    }
+
+    /**
+     * Gets the number of bytes the process wrote so far.
+     * @return Long: number of bytes drained.
+     */
+    public long getBytesRead() {
+        return bytesRead;
+    }
+}
@@ -0,0 +1,176 @@
+package shell.control;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Responsible for one warm JVM running an AnalyzerServer, as seen from the benchmark: it starts the JVM, connects to
+ * it and hands it one job after the other. A JVM that ended after its last job, failed or was killed because a job
+ * exceeded its deadline is retired and must not be used anymore.
+ *
+ * @see WarmJvmPool
+ * @see AnalyzerServer
+ */
+class WarmJvm {
+    private final Process process;
+    private final long pid;
+    private final Socket socket;
+    private final DataInputStream in;
+    private final DataOutputStream out;
+    private final StreamDrainer drainer;
+    private boolean retired;
+
+    private WarmJvm(Process process, Socket socket, StreamDrainer drainer) throws IOException {
+        this.process = process;
+        this.pid = ProcessTree.getPid(process);
+        this.socket = socket;
+        this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        this.drainer = drainer;
+    }
+
+    /**
+     * Starts a warm JVM and connects to it.
+     *
+     * @param serverSpec - CommandSpec starting the AnalyzerServer.
+     * @return WarmJvm ready to run jobs.
+     * @throws IOException if the JVM could not be started or ended before it was ready.
+     */
+    static WarmJvm start(CommandSpec serverSpec) throws IOException {
+        System.out.println("Starting warm JVM: " + serverSpec);
+        Process process = serverSpec.toProcessBuilder().start();
+        try {
+            InputStream output = process.getInputStream();
+            int port = readPort(output);
+            StreamDrainer drainer = new StreamDrainer(output, null, new OutputRingBuffer(ShellExecutor.CAPTURE_SIZE));
+            Thread thread = new Thread(drainer, "warm-jvm-drainer");
+            thread.setDaemon(true);
+            thread.start();
+            return new WarmJvm(process, new Socket(InetAddress.getLoopbackAddress(), port), drainer);
+        } catch (IOException | RuntimeException e) {
+            ProcessTree.kill(process);
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the output of the JVM until the server reports the port it listens on. Anything the analyzer prints
+     * while it is loaded comes before.
+     */
+    private static int readPort(InputStream output) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while((b = output.read()) != -1){
+            if(b != '\n'){
+                line.write(b);
+                continue;
+            }
+            String text = new String(line.toByteArray(), StandardCharsets.UTF_8).trim();
+            if(text.startsWith(AnalyzerServer.READY)){
+                return Integer.parseInt(text.substring(AnalyzerServer.READY.length()));
+            }
+            line.reset();
+        }
+        throw new IOException("Warm JVM ended before it was ready. " + new String(line.toByteArray(),
+                StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Runs a job in the JVM and waits for it at most until the deadline. If the deadline passes, the JVM is killed
+     * together with all processes the analyzer started.
+     *
+     * @param arguments - List of Strings: arguments of the main method of the analyzer.
+     * @param outputFile - File stdout of the analyzer is written to or null to discard it.
+     * @param timeout - Long: time the job may run [in ms].
+     * @return ExecutionResult of the job.
+     */
+    ExecutionResult run(List<String> arguments, File outputFile, long timeout){
+        long startTime = System.currentTimeMillis();
+        ResourceSampler sampler = pid > 0 && ResourceSampler.isSupported() ? new ResourceSampler(pid) : null;
+        ResourceUsage baseline = null;
+        ScheduledFuture<?> sampling = null;
+        if(sampler != null){
+            sampler.run();
+            baseline = sampler.getUsage();
+            sampling = ShellExecutor.startSampling(sampler);
+        }
+        ExecutionResult result;
+        try {
+            out.writeInt(arguments.size());
+            for(String argument : arguments){
+                out.writeUTF(argument);
+            }
+            out.writeUTF(outputFile != null ? outputFile.getAbsolutePath() : "");
+            out.flush();
+            socket.setSoTimeout((int) Math.max(1, Math.min(Integer.MAX_VALUE, timeout)));
+            int exitValue = in.readInt();
+            retired = in.readBoolean();
+            String error = in.readUTF();
+            result = new ExecutionResult(exitValue, false, System.currentTimeMillis() - startTime, 0);
+            if(!result.isCompleted()){
+                result.setOutputTail(error);
+            }
+        } catch (SocketTimeoutException e) {
+            if(sampler != null){
+                sampler.run(); // last sample before the JVM is killed
+            }
+            kill();
+            result = new ExecutionResult(-1, true, System.currentTimeMillis() - startTime, 0);
+        } catch (IOException e) {
+            kill();
+            result = new ExecutionResult(-1, false, System.currentTimeMillis() - startTime, 0);
+            result.setOutputTail("Warm JVM failed. " + e.getMessage() + "\n" + drainer.getCapture().getTail());
+        }
+        if(sampling != null){
+            sampling.cancel(false);
+            result.setResourceUsage(sampler.getUsage().since(baseline));
+        }
+        if(retired){
+            close();
+        }
+        return result;
+    }
+
+    /**
+     * Kills the JVM and all processes the analyzer started.
+     */
+    void kill(){
+        retired = true;
+        ProcessTree.kill(process);
+        close();
+    }
+
+    /**
+     * Closes the connection, which ends the server once it has finished its current job.
+     */
+    void close(){
+        retired = true;
+        try {
+            socket.close();
+            if(!process.waitFor(5, TimeUnit.SECONDS)){
+                ProcessTree.kill(process);
+            }
+        } catch (IOException e) {
+            System.out.println("Error: Connection to warm JVM could not be closed. " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    boolean isRetired(){
+        return retired;
+    }
+}
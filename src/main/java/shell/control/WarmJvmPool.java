@@ -0,0 +1,121 @@
+package shell.control;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+
+/**
+ * Responsible for running Java analyzers in warm JVMs instead of starting a new JVM per apk. FlowDroid, IccTA and
+ * HornDroid spend a good part of every run loading soot and the android.jar before any analysis is done. A warm JVM
+ * loads them once and then runs the analyzer for one apk after the other, see AnalyzerServer.
+ *
+ * The pool keeps the idle JVMs per analyzer, i.e. per working directory, JVM options and class path of the command.
+ * A command is run in an idle JVM of its analyzer, or in a new one if all are busy, so as many JVMs run as the
+ * JobScheduler admits jobs. A JVM is recycled after a number of jobs or when its retained heap has grown too much.
+ *
+ * Only commands starting a JVM with a class path or jar are run warm. Tools running in a workspace of their own per
+ * apk start a new JVM instead, since the JVMs of a working directory could never be reused. Running warm is optional,
+ * since the analyzers may keep state between runs that is not reset.
+ *
+ * @see AnalyzerServer
+ * @see JvmCommand
+ */
+public class WarmJvmPool {
+    private final int jobsPerJvm;
+    private final HashMap<String, ArrayDeque<WarmJvm>> idleJvms = new HashMap<>();
+    private final HashSet<String> coldAnalyzers = new HashSet<>();  // analyzers whose warm JVM could not be started
+    private boolean closed;
+
+    /**
+     * @param jobsPerJvm - Integer: number of jobs after which a JVM is replaced by a new one.
+     */
+    public WarmJvmPool(int jobsPerJvm){
+        this.jobsPerJvm = jobsPerJvm;
+    }
+
+    /**
+     * Checks whether a command can be run in a warm JVM.
+     * @param spec - CommandSpec of the command.
+     * @return true if the command starts a Java analyzer.
+     */
+    public boolean supports(CommandSpec spec){
+        return JvmCommand.parse(spec) != null;
+    }
+
+    /**
+     * Runs a command starting a Java analyzer in a warm JVM. The deadline only covers the run of the analyzer, not
+     * starting a new JVM. If no warm JVM can be started for the analyzer, e.g. because its JVM does not allow trapping
+     * System.exit, the command and all later commands of the analyzer are run in a new JVM per apk instead.
+     *
+     * @param spec - CommandSpec starting a Java analyzer.
+     * @param timeout - Long: time the analyzer may run before its JVM is killed [in ms].
+     * @return ExecutionResult of the run.
+     */
+    public ExecutionResult execute(CommandSpec spec, long timeout){
+        JvmCommand command = JvmCommand.parse(spec);
+        if(command == null){
+            throw new IllegalArgumentException("Not a Java analyzer: " + spec);
+        }
+        if(isCold(command.getKey())){
+            return ShellExecutor.getShared().execute(spec, timeout);
+        }
+        WarmJvm jvm = takeIdleJvm(command.getKey());
+        if(jvm == null){
+            try {
+                jvm = WarmJvm.start(command.createServerSpec(jobsPerJvm));
+            } catch (IOException e) {
+                System.out.println("Error: Warm JVM could not be started, running without. " + e.getMessage());
+                runCold(command.getKey());
+                return ShellExecutor.getShared().execute(spec, timeout);
+            }
+        }
+        System.out.println("Command (warm JVM): " + spec);
+        ExecutionResult result = jvm.run(command.getArguments(), spec.getOutputFile(), timeout);
+        if(!jvm.isRetired()){
+            returnIdleJvm(command.getKey(), jvm);
+        }
+        return result;
+    }
+
+    private synchronized boolean isCold(String key){
+        return coldAnalyzers.contains(key);
+    }
+
+    private synchronized void runCold(String key){
+        coldAnalyzers.add(key);
+    }
+
+    private synchronized WarmJvm takeIdleJvm(String key){
+        ArrayDeque<WarmJvm> idle = idleJvms.get(key);
+        return idle != null ? idle.pollFirst() : null;
+    }
+
+    private void returnIdleJvm(String key, WarmJvm jvm){
+        synchronized (this){
+            if(!closed){
+                idleJvms.computeIfAbsent(key, k -> new ArrayDeque<>()).addFirst(jvm);
+                return;
+            }
+        }
+        jvm.close();
+    }
+
+    /**
+     * Ends all idle JVMs. JVMs still running a job end once it has finished.
+     */
+    public void close(){
+        ArrayList<WarmJvm> jvms = new ArrayList<>();
+        synchronized (this){
+            closed = true;
+            for(ArrayDeque<WarmJvm> idle : idleJvms.values()){
+                jvms.addAll(idle);
+            }
+            idleJvms.clear();
+        }
+        for(WarmJvm jvm : jvms){
+            jvm.close();
+        }
+    }
+}
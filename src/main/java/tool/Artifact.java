@@ -0,0 +1,15 @@
+package tool;
+
+/**
+ * Responsible for naming the intermediate artifacts of an apk that one step of the analysis produces and another one
+ * consumes. Tools declare which artifacts they require and which they produce, so that the producing step can be run
+ * once per apk before all tools depending on it, while tools without a common artifact still run side by side.
+ *
+ * @see ITool#getRequiredArtifacts()
+ * @see ITool#getProducedArtifacts()
+ * @see PreparationStep
+ */
+public enum Artifact {
+    DARE_OUTPUT,    // classes retargeted from the dex code of the apk by Dare, in tools/ic3/dareOutput
+    IC3_MODEL       // inter-component communication model of the apk computed by IC3
+}
@@ -0,0 +1,285 @@
+package tool;
+
+import parser.CovertReportReader;
+import shell.control.CommandSpec;
+import shell.control.ExecutionResult;
+import shell.control.FileOperations;
+import shell.control.ShellExecutor;
+
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.XMLEvent;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Responsible for running Covert once for several apks. Covert analyses all apps in a folder of its app_repo and writes
+ * a single report for all of them. Starting Covert and setting up its Alloy model take longer than the analysis of a
+ * small app, so running it once per batch instead of once per apk raises the number of apks analysed per hour.
+ *
+ * The apks of the batch are put into one folder of the app_repo and Covert runs once, with the longest deadline of the
+ * apks plus a fixed margin, so a batch that hangs does not block its slot for the sum of the deadlines. The combined
+ * report is then split into one report per apk, see splitReport, so the CovertParser and the ResultCache get a results
+ * file with only the vulnerabilities of the apk. The rest of the report, e.g. its name, is the one of the batch. If
+ * Covert does not complete, e.g. because one of the apks makes it crash or the batch times out, the apks are handed
+ * back to be analysed on their own, so a single apk cannot fail the whole batch.
+ *
+ * Covert names the apps in its report by their package name, so every apk has to be added with its package name.
+ *
+ * @see CovertTool
+ */
+public class CovertBatch {
+    private static final AtomicInteger batches = new AtomicInteger();
+    private static final long TIMEOUT_MARGIN = TimeUnit.MINUTES.toMillis(10); // added to the longest deadline [in ms]
+    private static final String VULNERABILITY = "vulnerability";
+
+    private final String folderName;
+    private final LinkedHashMap<CovertTool, String> packageNames = new LinkedHashMap<>();
+    private int uncleanedTools;   // tools of the last run that have not cleaned their output yet
+
+    public CovertBatch(){
+        this.folderName = "covertBatch" + batches.incrementAndGet();
+    }
+
+    /**
+     * Adds the Covert analysis of an apk to the batch. Apks with the same name or package as another apk of the batch
+     * cannot be told apart in the folder or the report of the batch.
+     *
+     * @param tool - ITool to add, must be a CovertTool.
+     * @param packageName - String: package name of the apk or null if it is not known.
+     * @return true if the tool was added, false if it has to run on its own.
+     */
+    public boolean add(ITool tool, String packageName){
+        if(!(tool instanceof CovertTool) || packageName == null || packageName.isEmpty()
+                || packageNames.containsValue(packageName)){
+            return false;
+        }
+        for(CovertTool member : packageNames.keySet()){
+            if(member.getAppName().equals(tool.getAppName())){
+                return false;
+            }
+        }
+        packageNames.put((CovertTool) tool, packageName);
+        return true;
+    }
+
+    /**
+     * Removes a tool from the batch before it is run, e.g. because its results are served from the cache.
+     * @param tool - ITool to remove.
+     */
+    public void remove(ITool tool){
+        packageNames.remove(tool);
+    }
+
+    /**
+     * Runs Covert on all apks of the batch. Afterwards, every tool of the batch has the exit code, the share of the
+     * running time and the results file of its apk, just like after runAnalysis. If Covert did not complete for several
+     * apks, their tools are returned to be analysed on their own.
+     *
+     * @return List of the CovertTools that have to run on their own, empty if the batch completed.
+     */
+    public List<CovertTool> runAnalysis(){
+        if(packageNames.isEmpty()){
+            return new ArrayList<>();
+        }
+        long startTime = System.currentTimeMillis();
+        CovertTool first = packageNames.keySet().iterator().next();
+        Path folder = Paths.get(first.getToolDir(), "app_repo", folderName);
+        HashMap<String, File> reports = new HashMap<>();
+        ArrayList<CovertTool> staged = new ArrayList<>();
+        long timeout = 0;
+        FileOperations.delete(folder);
+        boolean created = FileOperations.createDirectories(folder);
+        synchronized (this){
+            uncleanedTools = packageNames.size();
+        }
+        for(Map.Entry<CovertTool, String> member : packageNames.entrySet()){
+            CovertTool tool = member.getKey();
+            tool.joinBatch(this);
+            Path apk = Paths.get(tool.getApkPath());
+            if(created && FileOperations.linkOrCopy(apk, folder.resolve(apk.getFileName()))){
+                staged.add(tool);
+                reports.put(member.getValue(), tool.locateResultsFile());
+                timeout = Math.max(timeout, tool.getTimeout());
+            } else {
+                tool.exitCode = 1;
+            }
+        }
+        if(staged.isEmpty()){
+            return new ArrayList<>();
+        }
+        timeout += TIMEOUT_MARGIN;
+
+        System.out.println("Running Covert once for " + staged.size() + " APKs in " + folder);
+        CommandSpec spec = new CommandSpec(first.getToolDir(), "./covert.sh", folderName);
+        spec.setGroup(first.getToolName());
+        ExecutionResult result = first.shell.execute(spec, timeout);
+        int exitCode = ShellExecutor.getExitCode(result, timeout);
+        if(exitCode == 0 && !splitReport(folder.resolve(folderName + ".xml").toFile(), reports)){
+            exitCode = 1;
+        }
+        long runningTime = System.currentTimeMillis() - startTime;
+        for(CovertTool tool : staged){
+            tool.exitCode = exitCode;
+            tool.runningTime = runningTime / staged.size();
+            tool.resourceUsage = result.getResourceUsage();
+            tool.outputTail = result.getOutputTail();
+            if(exitCode == 0){
+                tool.recordDuration(tool.runningTime);
+            }
+        }
+
+        if(exitCode != 0 && staged.size() > 1){
+            System.out.println("Error: Covert did not complete for the batch in " + folder
+                    + ", its APKs are analysed on their own.");
+            return staged;
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * Splits the combined report of Covert into one report per app. Every report keeps everything around the
+     * vulnerabilities of the combined report and gets the vulnerabilities that concern only its app, i.e. whose
+     * vulnerability elements name no other app. Vulnerabilities between apps of the batch are left out, since a run
+     * on a single apk cannot find them either.
+     *
+     * The report is streamed with StAX, so only the vulnerability that is currently copied is kept in memory. A
+     * CovertReportReader reads the report side by side with the copy and tells the app of each vulnerability.
+     *
+     * @param report - File: report written by Covert for the whole batch.
+     * @param reports - Map of the package names of the apps to the files their reports are written to.
+     * @return true if all reports were written.
+     */
+    static boolean splitReport(File report, Map<String, File> reports){
+        XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+        inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        XMLOutputFactory outputFactory = XMLOutputFactory.newInstance();
+        HashMap<String, XMLEventWriter> writers = new HashMap<>();
+        ArrayList<OutputStream> outputs = new ArrayList<>();
+        try (CovertReportReader apps = new CovertReportReader(report);
+             InputStream input = new FileInputStream(report)) {
+            for(Map.Entry<String, File> app : reports.entrySet()){
+                OutputStream output = new BufferedOutputStream(new FileOutputStream(app.getValue()));
+                outputs.add(output);
+                writers.put(app.getKey(), outputFactory.createXMLEventWriter(output, "UTF-8"));
+            }
+            XMLEventReader events = inputFactory.createXMLEventReader(input);
+            ArrayList<XMLEvent> vulnerability = new ArrayList<>();  // events of the current vulnerability
+            int depth = 0;                                          // elements open within the current vulnerability
+            int unattributed = 0;
+            while(events.hasNext()){
+                XMLEvent event = events.nextEvent();
+                if(depth == 0 && event.isCharacters() && event.asCharacters().isWhiteSpace()){
+                    vulnerability.add(event);
+                } else if(depth == 0 && !isVulnerability(event)){
+                    vulnerability.add(event);
+                    write(vulnerability, writers.values());
+                } else {
+                    vulnerability.add(event);
+                    if(event.isStartElement()){
+                        depth++;
+                    } else if(event.isEndElement() && --depth == 0){
+                        String app = null;
+                        if(apps.hasNext()){
+                            apps.next();
+                            app = apps.getApp();
+                        }
+                        if(app != null && writers.containsKey(app)){
+                            write(vulnerability, Collections.singletonList(writers.get(app)));
+                        } else {
+                            vulnerability.clear();
+                            unattributed++;
+                        }
+                    }
+                }
+            }
+            write(vulnerability, writers.values());
+            for(XMLEventWriter writer : writers.values()){
+                writer.close();
+            }
+            if(unattributed > 0){
+                System.out.println("Covert batch: " + unattributed + " vulnerabilities of " + report.getName()
+                        + " do not concern a single app of the batch and were left out.");
+            }
+        } catch (IOException | XMLStreamException e) {
+            System.out.println("Error: Covert report " + report.getPath() + " could not be split. " + e.getMessage());
+            return false;
+        } finally {
+            for(OutputStream output : outputs){
+                try {
+                    output.close();
+                } catch (IOException e) {
+                    System.out.println("Error: Covert report could not be written. " + e.getMessage());
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean isVulnerability(XMLEvent event){
+        return event.isStartElement() && event.asStartElement().getName().getLocalPart().equals(VULNERABILITY);
+    }
+
+    /**
+     * Copies the buffered events to the reports and clears the buffer.
+     */
+    private static void write(List<XMLEvent> events, Collection<XMLEventWriter> writers) throws XMLStreamException {
+        for(XMLEventWriter writer : writers){
+            for(XMLEvent event : events){
+                writer.add(event);
+            }
+        }
+        events.clear();
+    }
+
+    /**
+     * Called by a tool of the batch once its apk was evaluated. The folder of the batch is removed as soon as the last
+     * tool no longer needs its results file.
+     */
+    void release(){
+        boolean last;
+        synchronized (this){
+            last = --uncleanedTools == 0;
+        }
+        if(last){
+            CovertTool first = packageNames.keySet().iterator().next();
+            FileOperations.delete(Paths.get(first.getToolDir(), "app_repo", folderName));
+        }
+    }
+
+    /** ----------------------------------------------------------------------------------------------------------------
+     * HELPER METHODS (GETTERS & SETTERS)
+     * ----------------------------------------------------------------------------------------------------------------*/
+
+    public String getFolderName() {
+        return folderName;
+    }
+
+    public List<CovertTool> getTools() {
+        return new ArrayList<>(packageNames.keySet());
+    }
+
+    public int size() {
+        return packageNames.size();
+    }
+}
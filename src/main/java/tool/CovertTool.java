@@ -3,8 +3,12 @@ package tool;
 
 import parser.CovertParser;
 import parser.IParser;
+import shell.control.CommandSpec;
+import shell.control.FileOperations;
 
 import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 /**
  * Responsible for defining the properties of the Covert Analysis Tool. Especially in terms of required commands
@@ -12,18 +16,24 @@ import java.io.File;
  * It extends the abstract Tool class which implements the Tool Interface.
  *
  * The tools results are saved in the .xml file ~/covert/app_repo/apksToTest/apksToTest.xml.
+ * If the apk is analysed together with other apks in a CovertBatch, the results are split from the report of the batch
+ * into the .xml file of the app in the folder of the batch.
  *
  * @author Timo Spring
  * @see Tool
+ * @see CovertBatch
  * @see <a href="http://www.ics.uci.edu/~seal/projects/covert/">Covert Project Site</a>
  */
 public class CovertTool extends Tool {
     private String testFolderName;
+    private CovertBatch batch;      // batch the apk was last analysed in or null
 
     public CovertTool(String apkPath){
         super(apkPath);
         this.toolDir = Tool.homeDir + "/tools/covert";
         this.toolName = "covert";
+        this.memoryReservation = 4096;
+        this.cpuReservation = 2;
         this.resultsFileName = getResultsFileName();
         this.testFolderName = appName;
         this.matrixIndex = 3;
@@ -38,6 +48,8 @@ public class CovertTool extends Tool {
         super(apkPath, androidSdk);
         this.toolDir = Tool.homeDir + "/tools/covert";
         this.toolName = "covert";
+        this.memoryReservation = 4096;
+        this.cpuReservation = 2;
         this.resultsFileName = getResultsFileName();
         this.testFolderName = appName;
         setCommand();
@@ -49,8 +61,7 @@ public class CovertTool extends Tool {
      */
     @Override
     protected void setCommand() {
-        command = "./covert.sh " + testFolderName;
-
+        setCommandSpec(new CommandSpec(toolDir, "./covert.sh", testFolderName));
     }
 
     /**
@@ -61,13 +72,14 @@ public class CovertTool extends Tool {
     @Override
     public boolean runAnalysis() {
         long startTime = System.currentTimeMillis();
+        testFolderName = appName;
         if (transferTestsourcesToCovert()) {
-            exitCode = shell.runCommand(toolDir, command);
+            exitCode = runCommand();
             long endTime = System.currentTimeMillis();
+            runningTime = endTime - startTime;
 
             if (exitCode == 0) {
-                duration = endTime - startTime;
-                totalDuration += duration;
+                recordDuration(endTime - startTime);
                 return true;
             }
         }
@@ -84,12 +96,12 @@ public class CovertTool extends Tool {
         }
 
         /**
-         * Gets the file containing the results from the analysis.
+         * Locates the file in the tool directory containing the results from the analysis.
          * @return File - with extension .xml. Contains the results from the analysis.
          */
         @Override
-        public File getResultsFile () {
-            String resultsPath = toolDir + "/app_repo/" + testFolderName + "/" + testFolderName + ".xml";
+        protected File locateResultsFile() {
+            String resultsPath = toolDir + "/app_repo/" + testFolderName + "/" + appName + ".xml";
             File results = new File(resultsPath);
             assert results.isFile();
             return results;
@@ -108,38 +120,47 @@ public class CovertTool extends Tool {
         /**
          * Cleans the output produced by Covert i.e. removes the test folder "apksToTest" which contains the analysis
          * results and re-creates an empty one. The apksToTest folder can be found in the Covert directory under "app_repo".
-         * The apks to test must be in this folder for the analysis to run properly.
-         * To start the cleaning session, it calls the ShellExecutor and passes it the directory and cleaning command as
-         * Strings.
+         * The apks to test must be in this folder for the analysis to run properly. The folder of a batch is removed
+         * once all of its apks were evaluated.
          */
         @Override
         public void cleanToolOutput () {
-            String cleanCommand = "rm -r " + testFolderName;
-            String covertOutput = toolDir + "/app_repo";
-            Tool.shell.runCommand(covertOutput, cleanCommand);
+            FileOperations.delete(Paths.get(toolDir, "app_repo", appName));
+            if (batch != null) {
+                batch.release();
+                batch = null;
+            }
             //TODO check that directories are clean/empty
         }
 
+        /**
+         * Lets the apk be analysed in the folder of a batch, where the results file of the app is written to.
+         * @param batch - CovertBatch the apk is analysed in.
+         */
+        void joinBatch (CovertBatch batch){
+            this.batch = batch;
+            this.testFolderName = batch.getFolderName();
+        }
+
         /**
          * Transfers the apks in the "apk_sample" folder in the home directory to a tool specific subfolder in the covert
          * directory. This is required for the covert tool to run properly. It does not run, if you simply provide the path
          * to the external apk folder. The folder must be withing the covert directory. Only then can the analysis be run.
-         * Must be valid commands.
+         * The apk is linked into the folder if possible, otherwise it is copied.
          */
         private boolean transferTestsourcesToCovert () {
-            String mkdir = "mkdir -p " + toolDir + "/app_repo/" + testFolderName;
-            exitCode = Tool.shell.runCommand(toolDir, mkdir);
-            if (exitCode != 0) {
+            Path testFolder = Paths.get(toolDir, "app_repo", testFolderName);
+            if (!FileOperations.createDirectories(testFolder)) {
                 System.out.println("Clearing app_repo folder and retrying...");
-                Tool.shell.runHelperCommand(toolDir, "rm -r " + toolDir + "/app_repo/" + testFolderName);
-                exitCode = Tool.shell.runHelperCommand(toolDir, mkdir);
-                if (exitCode != 0){
+                FileOperations.delete(testFolder);
+                if (!FileOperations.createDirectories(testFolder)){
+                    exitCode = 1;
                     return false;
                 }
             }
-            String transferCommand = "cp " + Tool.apkPath + " " + toolDir + "/app_repo/" + testFolderName;
-            exitCode = Tool.shell.runHelperCommand(toolDir, transferCommand);
-            if (exitCode != 0) {
+            Path apk = Paths.get(apkPath);
+            if (!FileOperations.linkOrCopy(apk, testFolder.resolve(apk.getFileName()))) {
+                exitCode = 1;
                 return false;
             }
             return true;
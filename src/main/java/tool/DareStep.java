@@ -0,0 +1,85 @@
+package tool;
+
+import shell.control.CommandSpec;
+import shell.control.FileOperations;
+import shell.control.ShellExecutor;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+
+/**
+ * Responsible for running the Dare helper tool, which retargets the dex code of an apk to Java classes. The classes
+ * are written to the dareOutput folder of IC3, one folder per application, and are required for the IC3 analysis.
+ *
+ * Dare works in the output folder of its own directory, so only one Dare step may run at a time, unless workspaces
+ * are used. Then every Dare step works in a workspace of its own and writes the classes into the workspace of IC3,
+ * which the step creates and IC3 keeps when it starts.
+ *
+ * @see Ic3Tool
+ * @see <a href="http://siis.cse.psu.edu/ded/">Dare Project Site</a>
+ */
+public class DareStep extends PreparationStep {
+    private final ITool tool;       // tool requiring the classes
+    private final String dareRoot;
+    private final String dareOutput;
+    private final Path workspace;   // workspace of the step or null to work in the Dare directory
+
+    public DareStep(ITool tool){
+        super(tool);
+        this.tool = tool;
+        this.dareRoot = Tool.homeDir + "/tools/tools_helper/dare";
+        this.dareOutput = tool.getWorkDir() + "/dareOutput/";
+        Path root = Tool.getWorkspaceRoot();
+        this.workspace = root != null ? root.resolve(getName()).resolve(appName) : null;
+    }
+
+    /**
+     * Runs Dare on the apk. The folders of other applications in dareOutput are kept, they are removed by the
+     * cleanToolOutput method of the Ic3Tool once the application was evaluated.
+     * @return true if Dare completed, false otherwise.
+     */
+    @Override
+    public boolean run() {
+        String workDir = dareRoot;
+        if (workspace != null){
+            workDir = workspace.toString();
+            if (!FileOperations.createWorkspace(Paths.get(dareRoot), workspace, Collections.singletonList("output"))){
+                exitCode = 1;
+                return false;
+            }
+        }
+        if (tool instanceof Tool && !((Tool) tool).prepareWorkspace()){
+            exitCode = 1;
+            return false;
+        }
+        Path output = Paths.get(workDir, "output");
+        FileOperations.delete(output);
+        if (!FileOperations.createDirectories(output) || !FileOperations.createDirectories(Paths.get(dareOutput))){
+            exitCode = 1;
+            return false;
+        }
+
+        CommandSpec spec = new CommandSpec(workDir, "./dare", "-d", dareOutput, apkPath);
+        spec.setGroup(getName());
+        exitCode = shell.runCommand(spec, ShellExecutor.DEFAULT_TIMEOUT);
+        if (workspace != null){
+            FileOperations.delete(workspace);
+        }
+        if (exitCode != 0){
+            System.out.println("Exit Code: " + exitCode);
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public String getName() {
+        return "dare";
+    }
+
+    @Override
+    public Artifact getProducedArtifact() {
+        return Artifact.DARE_OUTPUT;
+    }
+}
@@ -2,6 +2,8 @@ package tool;
 
 import parser.FlowDroidParser;
 import parser.IParser;
+import shell.control.CommandSpec;
+import shell.control.FileOperations;
 
 import java.io.File;
 import java.nio.file.Paths;
@@ -18,6 +20,7 @@ import java.nio.file.Paths;
  * @see <a href="https://blogs.uni-paderborn.de/sse/tools/flowdroid/"> FlowDroid Project Site</a>
  */
 public class FlowDroidTool extends Tool {
+    private static final int MAX_HEAP = 12; // maximum heap of the analysis JVM [in GB]
     private String resultsFile;
 
 
@@ -25,6 +28,8 @@ public class FlowDroidTool extends Tool {
         super(apkPath);
         this.toolDir = Tool.homeDir + "/tools/flowDroid";
         this.toolName = "flowdroid";
+        this.memoryReservation = MAX_HEAP * 1024 + JVM_OVERHEAD;
+        this.cpuReservation = 2;
         this.resultsFile = getResultsFileName();
         this.androidSdk = toolDir + "/android.jar";
         this.matrixIndex = 0;
@@ -39,6 +44,8 @@ public class FlowDroidTool extends Tool {
         super(apkPath, androidSdk);
         this.toolDir = Tool.homeDir + "/tools/flowDroid";
         this.toolName = "flowdroid";
+        this.memoryReservation = MAX_HEAP * 1024 + JVM_OVERHEAD;
+        this.cpuReservation = 2;
         this.resultsFile = getResultsFileName();
         setCommand();
     }
@@ -55,10 +62,12 @@ public class FlowDroidTool extends Tool {
                 "soot.jimple.infoflow.android.TestApps.Test " +
                 Tool.apkPath + " " + Tool.androidSdk + " > " + resultsFile;*/
 
-       command = "~/local/jdk1.8.0_162/bin/java -Xmx12g -cp soot-trunk.jar:" +
-                "soot-infoflow.jar:soot-infoflow-android.jar:slf4j-api-1.7.5.jar:slf4j-simple-1.7.5.jar:axml-2.0.jar " +
-                "soot.jimple.infoflow.android.TestApps.Test " +
-                Tool.apkPath + " " + Tool.androidSdk + " > " + resultsFile;
+        CommandSpec spec = new CommandSpec(toolDir, "~/local/jdk1.8.0_162/bin/java", "-Xmx" + MAX_HEAP + "g",
+                "-cp", "soot-trunk.jar:soot-infoflow.jar:soot-infoflow-android.jar:slf4j-api-1.7.5.jar:" +
+                "slf4j-simple-1.7.5.jar:axml-2.0.jar",
+                "soot.jimple.infoflow.android.TestApps.Test", apkPath, androidSdk);
+        spec.setOutputFile(new File(toolDir, resultsFile));
+        setCommandSpec(spec);
     }
 
     /**
@@ -66,17 +75,16 @@ public class FlowDroidTool extends Tool {
      */
     @Override
     public void cleanToolOutput() {
-        String cleanCommand = "rm -r " + resultsFile;
-        shell.runCommand(toolDir, cleanCommand);
+        FileOperations.delete(Paths.get(toolDir, resultsFile));
 
     }
 
     /**
-     * Gets the file containing the results from the analysis.
+     * Locates the file in the tool directory containing the results from the analysis.
      * @return File - with extension .txt. Contains the results from the analysis.
      */
     @Override
-    public File getResultsFile() {
+    protected File locateResultsFile() {
         String resultsPath = toolDir + "/" + resultsFile;
         File results = new File(resultsPath);
         assert results.isFile();
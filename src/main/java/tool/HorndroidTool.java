@@ -3,8 +3,13 @@ package tool;
 import org.apache.commons.io.FilenameUtils;
 import parser.HorndroidParser;
 import parser.IParser;
+import shell.control.CommandSpec;
+import shell.control.FileOperations;
 
 import java.io.*;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * Responsible for defining the properties of the HornDroid Analysis Tool. Especially in terms of required commands
@@ -12,17 +17,21 @@ import java.io.*;
  * It extends the abstract Tool class which implements the Tool Interface.
  *
  * The tools results are saved in the log file app.log, which can be found here ~/horndroid/target/logs/app.log
+ * In a workspace, the OUTPUT.report and logs folders belong to the run.
  *
  * @author Timo Spring
  * @see Tool
  * @see <a href="https://github.com/ylya/horndroid/blob/master/README.md">HornDroid Project Site</a>
  */
 public class HorndroidTool extends Tool {
+    private static final int MAX_HEAP = 12; // maximum heap of the analysis JVM [in GB]
 
     public HorndroidTool(String apkPath){
         super(apkPath);
         this.toolDir = homeDir + "/tools/horndroid";
         this.toolName = "horndroid";
+        this.memoryReservation = MAX_HEAP * 1024 + JVM_OVERHEAD;
+        this.cpuReservation = 2;
         this.resultsFileName = getResultsFileName();
         setCommand();
         this.matrixIndex = 1;
@@ -36,6 +45,8 @@ public class HorndroidTool extends Tool {
         super(apkPath, androidSdk);
         this.toolDir = homeDir + "/tools/horndroid";
         this.toolName = "horndroid";
+        this.memoryReservation = MAX_HEAP * 1024 + JVM_OVERHEAD;
+        this.cpuReservation = 2;
         this.resultsFileName = getResultsFileName();
         setCommand();
     }
@@ -47,8 +58,8 @@ public class HorndroidTool extends Tool {
      */
     @Override
     protected void setCommand() {
-        command = "~/local/jdk1.8.0_162/bin/java -Xmx12g -jar fshorndroid-0.0.1.jar / ./apktool.jar " + apkPath;
-
+        setCommandSpec(new CommandSpec(getWorkDir(), "~/local/jdk1.8.0_162/bin/java", "-Xmx" + MAX_HEAP + "g", "-jar",
+                "fshorndroid-0.0.1.jar", "/", "./apktool.jar", apkPath));
     }
 
 /*
@@ -60,12 +71,12 @@ public class HorndroidTool extends Tool {
 
 
     /**
-     * Gets the file containing the results from the analysis.
+     * Locates the file in the tool directory containing the results from the analysis.
      * @return File - with extension .log. Contains the results from the analysis.
      */
     @Override
-    public File getResultsFile() {
-        String resultsPath = toolDir + "/OUTPUT.report/" + getResultsFileName();
+    protected File locateResultsFile() {
+        String resultsPath = getWorkDir() + "/OUTPUT.report/" + getResultsFileName();
         File result = new File(resultsPath);
         assert result.isFile();
         return result;
@@ -77,16 +88,24 @@ public class HorndroidTool extends Tool {
      * workspace home directory. For that purpose we have to get the toolName of the apk without extensions, since this will
      * be the toolName of the folder that was created.
      *
-     * To start the cleaning session, it calls the ShellExecutor and passes it the directory and cleaning command as
-     * Strings.
+     * The log is emptied and both folders are deleted in parallel.
      */
     @Override
     public void cleanToolOutput() {
         String apksSourceFolder = homeDir + "/apksToTest/";
-        String cleanCommand = "cat /dev/null > " + toolDir + "/logs/app.log; " +
-                "rm -r " + apksSourceFolder + getFileNameWithoutExtension(apkPath)
-                + "; rm -r OUTPUT.report/" + getResultsFileName();
-        Tool.shell.runCommand(toolDir, cleanCommand);
+        FileOperations.truncate(Paths.get(getWorkDir(), "logs", "app.log"));
+        FileOperations.deleteAll(Paths.get(apksSourceFolder, getFileNameWithoutExtension(apkPath)),
+                Paths.get(getWorkDir(), "OUTPUT.report", getResultsFileName()));
+        deleteWorkspace();
+    }
+
+    /**
+     * HornDroid writes its reports to the OUTPUT.report folder and its log to logs/app.log.
+     * @return List of the paths written by HornDroid.
+     */
+    @Override
+    protected List<String> getPrivatePaths() {
+        return Arrays.asList("OUTPUT.report", "logs/app.log");
     }
 
     /**
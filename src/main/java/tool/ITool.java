@@ -2,9 +2,12 @@ package tool;
 
 import leaks.Leak;
 import parser.IParser;
+import shell.control.CommandSpec;
+import shell.control.ResourceUsage;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Responsible for providing the general commands to trigger the analysis tools to run in a unified way.
@@ -40,6 +43,18 @@ public interface ITool {
      */
     File getResultsFile();
 
+    /**
+     * Serves the results of an earlier analysis of the same apk with the same tool instead of running the analysis.
+     * Afterwards, getResultsFile and getLeaks use the given file.
+     * @param resultsFile - File: cached results file of the tool.
+     */
+    void useCachedResults(File resultsFile);
+
+    /**
+     * Marks the analysis as failed without running it, e.g. because an artifact the tool requires was not produced.
+     */
+    void skipAnalysis();
+
     /**
      * Gets the command to a given Tool Object. Since the String commands used to trigger the analysis to run are
      * highly diverse depending on the tools, we provide a mean to check these commands.
@@ -48,6 +63,13 @@ public interface ITool {
      */
     String getCommand();
 
+    /**
+     * Gets the command started to run the analysis, i.e. the program, its arguments and the file the results are
+     * redirected to.
+     * @return CommandSpec of the analysis.
+     */
+    CommandSpec getCommandSpec();
+
     /**
      * Changes the used home directory. By default it points to the root of the droid-security-thesis workspace (from
      * gitHub) i.e. the parent folder of the benchmarking project. That's because this directory contains the "tools"
@@ -68,6 +90,25 @@ public interface ITool {
      */
     String getToolDir();
 
+    /**
+     * Gets the path to the directory in which the tool runs and writes its output, which is either the tool directory
+     * or a workspace of the apk mirroring it.
+     * @return String path to the working directory of the tool.
+     */
+    String getWorkDir();
+
+    /**
+     * Gets the path to the apk under investigation.
+     * @return String path to the apk.
+     */
+    String getApkPath();
+
+    /**
+     * Gets the path to the android.jar the tool analyses the apk with.
+     * @return String path to the android.jar.
+     */
+    String getAndroidSdk();
+
     /**
      * Gets the commercial toolName of the tool.
      * @return String with the toolName of the tool
@@ -80,6 +121,13 @@ public interface ITool {
      */
     ArrayList<Leak> getLeaks();
 
+    /**
+     * Collect all leaks from a given results file of the tool, e.g. from a backup of the raw results of an earlier run.
+     * @param resultsFile - File in the format of the tool's results file.
+     * @return ArrayList of Leak objects representing the tools findings.
+     */
+    ArrayList<Leak> getLeaks(File resultsFile);
+
     /**
      * Get the duration of the analysis as a String.
      * @return String representation of the analysis duration
@@ -87,10 +135,10 @@ public interface ITool {
     String getDuration();
 
     /**
-     * Get the total duration (sum) of all analysis tools
-     * @return String representation of duration
+     * Gets the duration of the analysis, which is only recorded if it completed.
+     * @return Long: duration of the analysis [in ms], 0 if it did not complete.
      */
-    String getTotalDuration();
+    long getDurationMillis();
 
     /**
      * Gets the matrix index of a tool. The index is required to write to the collect column in the csv summary reports
@@ -110,4 +158,63 @@ public interface ITool {
      * @return boolean - exit code: 0 if analysis completed, 1 if time out occurred.
      */
      int getExitCode();
+
+    /**
+     * Gets the memory the tool is expected to need at most while analysing an apk. It is used to decide how many tools
+     * can run at the same time without running out of physical memory.
+     * @return Long: expected peak memory of the tool [in MB].
+     */
+    long getMemoryReservation();
+
+    /**
+     * Gets the number of cores the tool is expected to keep busy while analysing an apk.
+     * @return Integer: expected number of cores.
+     */
+    int getCpuReservation();
+
+    /**
+     * Gets the intermediate artifacts of the apk that have to exist before the tool can run, e.g. the classes
+     * retargeted by Dare.
+     * @return List of required Artifacts, empty if the tool only needs the apk.
+     */
+    List<Artifact> getRequiredArtifacts();
+
+    /**
+     * Gets the intermediate artifacts of the apk that the tool produces besides its results and that other tools may
+     * require.
+     * @return List of produced Artifacts, empty if the tool produces none.
+     */
+    List<Artifact> getProducedArtifacts();
+
+    /**
+     * Sets the time the analysis may run before it is killed, e.g. derived from the running times of earlier analyses
+     * of similar apks.
+     * @param timeout - Long: deadline of the analysis [in ms].
+     */
+    void setTimeout(long timeout);
+
+    /**
+     * Gets the time the analysis may run before it is killed.
+     * @return Long: deadline of the analysis [in ms].
+     */
+    long getTimeout();
+
+    /**
+     * Gets the wall time of the last run of the tool, whether it completed or not.
+     * @return Long: running time [in ms] or 0 if the tool was not run, e.g. because its results were cached.
+     */
+    long getRunningTime();
+
+    /**
+     * Gets the resources used by the processes of the last run of the tool, i.e. peak memory, CPU time and I/O.
+     * @return ResourceUsage or null if the tool was not run or the resources could not be measured.
+     */
+    ResourceUsage getResourceUsage();
+
+    /**
+     * Gets the end of the output of the tool, e.g. to see why it failed. While the analysis runs, it is the output
+     * written so far. Output redirected to the results file is not included.
+     * @return String with the last lines of the output or null if the last run completed or the tool was not run.
+     */
+    String getOutputTail();
 }
@@ -2,8 +2,14 @@ package tool;
 
 import parser.IC3Parser;
 import parser.IParser;
+import shell.control.CommandSpec;
+import shell.control.FileOperations;
 
 import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Responsible for defining the properties of the IC3 Analysis Tool, which is a replacement
@@ -14,8 +20,12 @@ import java.io.File;
  * The results are saved in a new .txt file in the ~/ic3/ic3output directory with the
  * naming convention [apk_package_name].txt
  *
+ * IC3 requires the classes retargeted by Dare, which are produced by the DareStep before the analysis is run. In a
+ * workspace, the dareOutput folder belongs to the run, so Dare writes the classes into the workspace of the apk.
+ *
  * @author Timo Spring
  * @see Tool
+ * @see DareStep
  * @see <a href="http://siis.cse.psu.edu/ic3/index.html">IC3 Project Site</a>
  */
 public class Ic3Tool extends Tool {
@@ -24,6 +34,8 @@ public class Ic3Tool extends Tool {
         super(apkPath);
         this.toolDir = Tool.homeDir + "/tools/ic3";
         this.toolName = "ic3";
+        this.memoryReservation = 4096;
+        this.cpuReservation = 1;
         this.resultsFileName = getResultsFileName();
         this.matrixIndex = 4;
         setCommand();
@@ -37,6 +49,8 @@ public class Ic3Tool extends Tool {
         super(apkPath, androidSdk);
         this.toolDir = Tool.homeDir + "/tools/ic3";
         this.toolName = "ic3";
+        this.memoryReservation = 4096;
+        this.cpuReservation = 1;
         this.resultsFileName = getResultsFileName();
         setCommand();
     }
@@ -47,42 +61,37 @@ public class Ic3Tool extends Tool {
      */
     @Override
     protected void setCommand() {
-        command = "./runIC3.sh " + apkPath + " > " + getResultsFileName();
+        CommandSpec spec = new CommandSpec(getWorkDir(), "./runIC3.sh", apkPath);
+        spec.setOutputFile(new File(getWorkDir(), getResultsFileName()));
+        setCommandSpec(spec);
 
     }
 
     /**
-     * Runs the analysis by first calling the "Dare" helper tool which prepares the
-     * apks i.e. extracts classes from apks and dex files. Then it runs the analysis by calling its parents
-     * runAnalysis method.
+     * IC3 analyses the classes Dare retargeted from the apk, so Dare has to run first.
+     * @return List containing the Dare output.
      */
     @Override
-    public boolean runAnalysis() {
-        String clean = "rm -r dareOutput; mkdir -p dareOutput";
-        exitCode = shell.runCommand(toolDir, clean);
-
-        long start = System.currentTimeMillis();
-
-        if (runDare()) {
-            exitCode = shell.runCommand(toolDir, command);
-            long endTime = System.currentTimeMillis();
-
-            if (exitCode == 0) {
-                duration = endTime - start;
-                totalDuration += duration;
-                return true;
-            }
-        }
-        return false;
+    public List<Artifact> getRequiredArtifacts() {
+        return Collections.singletonList(Artifact.DARE_OUTPUT);
+    }
+
+    /**
+     * IC3 computes the inter-component communication model of the apk.
+     * @return List containing the IC3 model.
+     */
+    @Override
+    public List<Artifact> getProducedArtifacts() {
+        return Collections.singletonList(Artifact.IC3_MODEL);
     }
 
 	/**
-     * Gets the file containing the results from the analysis.
+     * Locates the file in the tool directory containing the results from the analysis.
      * @return File - with extension .txt. Contains the results from the analysis.
      */
     @Override
-    public File getResultsFile() {
-        String resultsPath = toolDir + "/" + getResultsFileName();
+    protected File locateResultsFile() {
+        String resultsPath = getWorkDir() + "/" + getResultsFileName();
         File result = new File(resultsPath);
         assert result.isFile();
         return result;
@@ -90,55 +99,27 @@ public class Ic3Tool extends Tool {
 
     /**
      * Cleans the output produced by the ic3 tool. Since the tool uses dare, it
-     * cleans all dareOutput folders and ic3output folders. It does so by passing
-     * the corresponding commands to the ShellExecutor to start the cleaning session.
-     * Must be valid commands.
+     * cleans all dareOutput folders and ic3output folders of the application. The folders are
+     * independent of each other, so they are deleted in parallel.
      */
     @Override
     public void cleanToolOutput() {
-	    String cleanCommand = "cd dareOutput/optimized; rm -r " + appName + "; cd ../optimized-decompiled; rm -r " + appName + "; cd ../retargeted; rm -r " + appName
-                + "; cd ..; rm -r stats.csv; cd ..; rm -r " + getResultsFileName();
-        Tool.shell.runCommand(toolDir, cleanCommand);
+        Path dareOutput = Paths.get(getWorkDir(), "dareOutput");
+        FileOperations.deleteAll(dareOutput.resolve("optimized").resolve(appName),
+                dareOutput.resolve("optimized-decompiled").resolve(appName),
+                dareOutput.resolve("retargeted").resolve(appName),
+                dareOutput.resolve("stats.csv"),
+                Paths.get(getWorkDir(), getResultsFileName()));
+        deleteWorkspace();
     }
 
     /**
-     * Runs the Dare Tool to extract .classes from .apks and .dex files. This is required for
-     * the IC3 Tool to run. It does so by executing the shell script defined in the
-     * dare directory i.e. by passing it as a command to the ShellExecutor.
-     * Must be a valid command and directory.
-     *
-     * @see <a href="http://siis.cse.psu.edu/ded/">Dare Project Site</a>
+     * IC3 reads the classes retargeted by Dare from the dareOutput folder and writes its stats to it.
+     * @return List containing the dareOutput folder.
      */
-    private boolean runDare() {
-        String dareRoot = homeDir + "/tools/tools_helper/dare";
-        String dareOutput = homeDir + "/tools/ic3/dareOutput/"; //+ appName;
-
-        String rmCommand= "rm -r output; mkdir output;";
-        exitCode = Tool.shell.runHelperCommand(dareRoot, rmCommand);
-        if (exitCode != 0){
-            System.out.println("Exit Code: " + exitCode);
-            return false;}
-
-        String runDareCommand = "./dare -d " + dareOutput + " " + apkPath;
-        exitCode = Tool.shell.runCommand(dareRoot, runDareCommand);
-        if (exitCode != 0){
-            System.out.println("Exit Code: " + exitCode);
-            return false;}
-
-       /* String copyOutputCommand = "cp -a ./output/. " + dareOutput + ";";
-        exitCode = Tool.shell.runHelperCommand(dareRoot, copyOutputCommand);
-        if (exitCode != 0){
-            System.out.println("Exit Code: " + exitCode);
-            return false;}
-
-        String removeOutputCommand = "rm " + appName + ".apk; rm -r output; mkdir output";
-        exitCode = Tool.shell.runHelperCommand(dareRoot, removeOutputCommand);
-        if (exitCode != 0){
-            System.out.println("Exit Code: " + exitCode);
-            return false;}*/
-
-
-        return true;
+    @Override
+    protected List<String> getPrivatePaths() {
+        return Collections.singletonList("dareOutput");
     }
 
     /**
@@ -2,8 +2,11 @@ package tool;
 
 import parser.IParser;
 import parser.IcctaParser;
+import shell.control.CommandSpec;
+import shell.control.FileOperations;
 
 import java.io.File;
+import java.nio.file.Paths;
 
 /**
  * Responsible for defining the properties of the IccTA Analysis Tool. Especially in terms of required commands
@@ -17,11 +20,14 @@ import java.io.File;
  * @see <a href="https://sites.google.com/site/icctawebpage/">IccTA Project Site</a>
  */
 public class IcctaTool extends Tool {
+    private static final int MAX_HEAP = 12; // maximum heap of the analysis JVM [in GB]
 
     public IcctaTool(String apkPath){
         super(apkPath);
         this.toolDir = Tool.homeDir + "/tools/iccTA";
         this.toolName = "iccta";
+        this.memoryReservation = MAX_HEAP * 1024 + JVM_OVERHEAD;
+        this.cpuReservation = 2;
         this.resultsFileName = getResultsFileName();
         this.androidSdk = toolDir + "/android-platforms/android-18/android.jar";
         this.matrixIndex = 2;
@@ -36,6 +42,8 @@ public class IcctaTool extends Tool {
         super(apkPath, androidSdk);
         this.toolDir = Tool.homeDir + "/tools/iccTA";
         this.toolName = "iccta";
+        this.memoryReservation = MAX_HEAP * 1024 + JVM_OVERHEAD;
+        this.cpuReservation = 2;
         this.resultsFileName = getResultsFileName();
         setCommand();
     }
@@ -46,8 +54,10 @@ public class IcctaTool extends Tool {
      */
     @Override
     protected void setCommand() {
-        command = "java -Xmx12g -jar IccTA.jar " + apkPath + " " + androidSdk +
-                " -iccProvider ./iccProvider/ic3/ > " + getResultsFileName();
+        CommandSpec spec = new CommandSpec(toolDir, "java", "-Xmx" + MAX_HEAP + "g", "-jar", "IccTA.jar", apkPath,
+                androidSdk, "-iccProvider", "./iccProvider/ic3/");
+        spec.setOutputFile(new File(toolDir, getResultsFileName()));
+        setCommandSpec(spec);
     }
 
     /**
@@ -55,16 +65,15 @@ public class IcctaTool extends Tool {
     */
     @Override
     public void cleanToolOutput() {
-        String cleanCommand = "rm -r " + getResultsFileName();
-        shell.runCommand(toolDir, cleanCommand);
+        FileOperations.delete(Paths.get(toolDir, getResultsFileName()));
     }
 
     /**
-     * Gets the file containing the results from the analysis.
+     * Locates the file in the tool directory containing the results from the analysis.
      * @return File - with extension .txt. Contains the results from the analysis.
      */
     @Override
-    public File getResultsFile() {
+    protected File locateResultsFile() {
         String resultsPath = toolDir + "/" + getResultsFileName();
         File results = new File(resultsPath);
         assert results.isFile();
@@ -0,0 +1,100 @@
+package tool;
+
+import shell.control.ShellExecutor;
+
+/**
+ * Responsible for producing an artifact that tools require but that is not a result of any tool, e.g. the retargeted
+ * classes Dare extracts for IC3. A preparation step is run once per apk, before all tools requiring its artifact.
+ *
+ * @see Artifact
+ * @see DareStep
+ */
+public abstract class PreparationStep {
+    protected final ShellExecutor shell;
+    protected final String apkPath;
+    protected final String appName;
+    protected int exitCode;
+
+    protected PreparationStep(ITool tool){
+        this.apkPath = tool.getApkPath();
+        this.appName = tool.getAppName();
+        this.shell = ShellExecutor.getShared();
+    }
+
+    /**
+     * Creates the step producing the given artifact for the apk of a tool.
+     *
+     * @param artifact - Artifact the tool requires.
+     * @param tool - ITool requiring the artifact.
+     * @return new PreparationStep or null if the artifact is produced by a tool instead.
+     */
+    public static PreparationStep forArtifact(Artifact artifact, ITool tool){
+        switch (artifact){
+            case DARE_OUTPUT: return new DareStep(tool);
+            default: return null;
+        }
+    }
+
+    /**
+     * Runs the steps producing the artifacts a tool requires, one after the other. It is used where a single tool is
+     * run on its own, e.g. by a remote worker.
+     *
+     * @param tool - ITool that is going to run.
+     * @return true if all steps completed, false otherwise.
+     */
+    public static boolean prepare(ITool tool){
+        for(Artifact artifact : tool.getRequiredArtifacts()){
+            PreparationStep step = forArtifact(artifact, tool);
+            if(step != null && !step.run()){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Produces the artifact for the apk.
+     * @return true if the artifact was produced, false otherwise.
+     */
+    public abstract boolean run();
+
+    /**
+     * Gets the name of the step, which is used like the name of a tool e.g. for tool limits.
+     * @return String: name of the step.
+     */
+    public abstract String getName();
+
+    /**
+     * Gets the artifact produced by the step.
+     * @return Artifact produced for the apk.
+     */
+    public abstract Artifact getProducedArtifact();
+
+    /** ----------------------------------------------------------------------------------------------------------------
+     * HELPER METHODS (GETTERS & SETTERS)
+     * ----------------------------------------------------------------------------------------------------------------*/
+
+    public String getAppName(){
+        return appName;
+    }
+
+    public int getExitCode(){
+        return exitCode;
+    }
+
+    /**
+     * Gets the memory the step is expected to need at most.
+     * @return Long: expected peak memory of the step [in MB].
+     */
+    public long getMemoryReservation(){
+        return 2048;
+    }
+
+    /**
+     * Gets the number of cores the step is expected to keep busy.
+     * @return Integer: expected number of cores.
+     */
+    public int getCpuReservation(){
+        return 1;
+    }
+}
@@ -2,11 +2,24 @@ package tool;
 
 import leaks.Leak;
 import parser.IParser;
+import shell.control.CommandSpec;
+import shell.control.ExecutionResult;
+import shell.control.FileOperations;
+import shell.control.OutputRingBuffer;
+import shell.control.ResourceUsage;
 import shell.control.ShellExecutor;
+import shell.control.WarmJvmPool;
 
 import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Responsible for the characteristics and generic methods of the different tools. All tools should use the same home
@@ -16,6 +29,10 @@ import java.util.concurrent.TimeUnit;
  * the command to run to the ShellExecutor. Other methods such as cleaning tool output or setting the command are more
  * tool specific and are therefore defined abstract.
  *
+ * Tools writing their output to fixed paths of their tool directory name these paths (see getPrivatePaths). If a
+ * workspace root is set, every run of such a tool works in a workspace of its own mirroring the tool directory, so
+ * several apks can be analysed by the same tool side by side.
+ *
  * The Tool class implements the ITool Interface and is abstract. It will be extended by the different types of tools e.g.
  * FlowDroidTool
  *
@@ -23,23 +40,36 @@ import java.util.concurrent.TimeUnit;
  * @see ITool
  */
 public abstract class Tool implements ITool {
-    protected static ShellExecutor shell;
+    protected ShellExecutor shell;
     protected IParser parser;
 
-    protected static String apkPath;
-    protected static String androidSdk;
+    protected String apkPath;
+    protected String androidSdk;
 	protected final String appName;
 	protected int matrixIndex;
 	protected int exitCode;
 
 	protected long duration;
-	static long totalDuration;
+	protected long runningTime;                     // wall time of the last run, whether it completed or not [in ms]
+	protected long timeout = ShellExecutor.DEFAULT_TIMEOUT; // time the analysis may run before it is killed [in ms]
+	protected ResourceUsage resourceUsage;          // resources used by the processes of the last run
+	protected volatile OutputRingBuffer output;     // end of the output while the analysis is running
+	protected String outputTail;                    // end of the output of the last run if it did not complete
     protected String command;
+    protected CommandSpec commandSpec;
     protected static String homeDir;
+    private static volatile WarmJvmPool warmJvms;   // runs Java analyzers in warm JVMs if set
+    private static volatile Path workspaceRoot;     // folder containing the workspaces of the runs if set
+    private volatile boolean workspacePrepared;     // workspace of the run created, e.g. before a preparation step
     protected String toolDir;
     protected String toolName;
     protected String resultsFileName;
     protected ArrayList<Leak> foundLeaks;
+    protected File cachedResultsFile;
+
+    protected static final int JVM_OVERHEAD = 1024; // memory used by a JVM on top of its maximum heap [in MB]
+    protected long memoryReservation = 2048;        // expected peak memory of the tool's processes [in MB]
+    protected int cpuReservation = 1;               // expected number of cores busy with the tool's processes
 
 
     public Tool(String apkPath){
@@ -48,7 +78,7 @@ public abstract class Tool implements ITool {
         this.apkPath = homeDir + apkPath;
         this.appName = apkPath.substring(apkPath.lastIndexOf('/') + 1, apkPath.indexOf(".apk"));
         this.androidSdk = workingDir + "/../tools/commonConfiguration/android-23.jar";
-        this.shell = new ShellExecutor();
+        this.shell = ShellExecutor.getShared();
     }
 
     public Tool(String apkPath, String androidSdk){
@@ -57,7 +87,7 @@ public abstract class Tool implements ITool {
         this.apkPath = apkPath;
         this.appName = apkPath.substring(apkPath.lastIndexOf('/') + 1, apkPath.indexOf(".apk"));
         this.androidSdk = androidSdk;
-        this.shell = new ShellExecutor();
+        this.shell = ShellExecutor.getShared();
 
     }
 
@@ -73,10 +103,35 @@ public abstract class Tool implements ITool {
     public abstract void cleanToolOutput();
 
     /**
-     * Gets the results file containing all findings from the analysis.
+     * Gets the results file containing all findings from the analysis. If the results are served from the cache, this
+     * is the cached file, otherwise the results file in the tool directory.
+     * @return File - results file of the tool
+     */
+    @Override
+    public File getResultsFile(){
+        return cachedResultsFile != null ? cachedResultsFile : locateResultsFile();
+    }
+
+    /**
+     * Locates the results file the tool writes to in its tool directory.
      * @return File - results file of the tool
      */
-    public abstract File getResultsFile();
+    protected abstract File locateResultsFile();
+
+    /**
+     * Serves the results of an earlier analysis of the same apk with the same tool instead of running the analysis.
+     * @param resultsFile - File: cached results file of the tool.
+     */
+    @Override
+    public void useCachedResults(File resultsFile){
+        this.cachedResultsFile = resultsFile;
+        this.exitCode = 0;
+    }
+
+    @Override
+    public void skipAnalysis(){
+        this.exitCode = 1;
+    }
 
     /**
      * Initializes the parser for the given results file.
@@ -100,9 +155,20 @@ public abstract class Tool implements ITool {
      */
     @Override
     public ArrayList<Leak> getLeaks() {
-        File file = getResultsFile();
-        IParser parser = setParser(file);
-        this.foundLeaks = parser.getLeaks(this);
+        return getLeaks(getResultsFile());
+    }
+
+    /**
+     * Collect all leaks from a given results file of the tool, e.g. from a backup of the raw results of an earlier run.
+     * @param resultsFile - File in the format of the tool's results file.
+     * @return ArrayList of Leak objects representing the tools findings.
+     */
+    @Override
+    public ArrayList<Leak> getLeaks(File resultsFile) {
+        IParser parser = setParser(resultsFile);
+        try (Stream<Leak> leaks = parser.streamLeaks(this)) {
+            this.foundLeaks = leaks.collect(Collectors.toCollection(ArrayList::new));
+        }
         return foundLeaks;
     }
 
@@ -116,17 +182,49 @@ public abstract class Tool implements ITool {
     public boolean runAnalysis()
     {
         long startTime = System.currentTimeMillis();
-        exitCode = shell.runCommand(toolDir, command);
+        if(!prepareWorkspace()){
+            exitCode = 1;
+            return false;
+        }
+        exitCode = runCommand();
         long endTime = System.currentTimeMillis();
+        runningTime = endTime - startTime;
 
         if(exitCode == 0) {
-            duration = endTime - startTime;
-            totalDuration += duration;
+            recordDuration(endTime - startTime);
             return true;
         }
         return false;
     }
 
+    /**
+     * Runs the command of the analysis with the deadline of the tool. While it runs, the end of its output can be
+     * followed with getOutputTail. Afterwards, the resources it used are kept and, if it did not complete, the end of
+     * its output. Java analyzers run in a warm JVM if a WarmJvmPool is set, unless they run in a workspace: a warm JVM
+     * keeps the working directory it was started in, so it could not be reused for the workspace of another apk.
+     * @return Integer exitCode - 0 if the analysis completed, 1 if it failed and 2 if it timed out.
+     */
+    protected int runCommand(){
+        output = new OutputRingBuffer(ShellExecutor.CAPTURE_SIZE);
+        commandSpec.setCapture(output);
+        WarmJvmPool pool = warmJvms;
+        boolean warm = pool != null && getWorkDir().equals(toolDir) && pool.supports(commandSpec);
+        ExecutionResult result = warm ? pool.execute(commandSpec, timeout) : shell.execute(commandSpec, timeout);
+        resourceUsage = result.getResourceUsage();
+        outputTail = result.getOutputTail();
+        output = null;
+        commandSpec.setCapture(null);
+        return ShellExecutor.getExitCode(result, timeout);
+    }
+
+    /**
+     * Stores the duration of a completed analysis.
+     * @param duration - Long: duration of the tool analysis in miliseconds.
+     */
+    protected void recordDuration(long duration){
+        this.duration = duration;
+    }
+
     /**
      * Changes the used home directory. By default it points to the root of the droid-security-thesis workspace (from
      * gitHub) i.e. the parent folder of the benchmarking project. That's because this directory contains the "tools"
@@ -144,6 +242,77 @@ public abstract class Tool implements ITool {
         this.homeDir = homeDir;
     }
 
+    /**
+     * Lets all tools run their Java analyzers in warm JVMs instead of starting a new JVM per apk.
+     * @param pool - WarmJvmPool to use or null to start a new JVM per apk.
+     */
+    public static void setWarmJvmPool(WarmJvmPool pool){
+        warmJvms = pool;
+    }
+
+    /**
+     * Lets every run of a tool writing to fixed paths of its tool directory work in a workspace of its own, so runs
+     * of the same tool do not overwrite each other's output. The workspaces may be put on a tmpfs.
+     * @param root - Path of the folder the workspaces are created in or null to run in the tool directories.
+     */
+    public static void setWorkspaceRoot(Path root){
+        workspaceRoot = root;
+    }
+
+    static Path getWorkspaceRoot(){
+        return workspaceRoot;
+    }
+
+    /**
+     * Gets the paths of the tool directory the tool writes its output to. In a workspace, they belong to the run,
+     * while all other entries of the tool directory are shared with other runs. Most tools only write files named
+     * after the apk and need no workspace.
+     * @return List of paths relative to the tool directory, e.g. "logs/app.log".
+     */
+    protected List<String> getPrivatePaths(){
+        return Collections.emptyList();
+    }
+
+    /**
+     * Gets the directory the tool runs in and writes its output to, i.e. the workspace of the apk if workspaces are
+     * used and the tool needs one, otherwise the tool directory.
+     * @return String path to the working directory of the tool.
+     */
+    @Override
+    public String getWorkDir(){
+        Path root = workspaceRoot;
+        if(root == null || getPrivatePaths().isEmpty()){
+            return toolDir;
+        }
+        return root.resolve(toolName).resolve(appName).toString();
+    }
+
+    /**
+     * Creates the workspace of the apk, if the tool runs in one. A workspace created for this run before, e.g. by a
+     * preparation step writing into it, is kept, so the analysis finds what the step produced.
+     * @return true if the tool can run.
+     */
+    protected boolean prepareWorkspace(){
+        if(workspacePrepared){
+            return true;
+        }
+        String workDir = getWorkDir();
+        workspacePrepared = workDir.equals(toolDir) || FileOperations.createWorkspace(Paths.get(toolDir),
+                Paths.get(workDir), getPrivatePaths());
+        return workspacePrepared;
+    }
+
+    /**
+     * Removes the workspace of the apk, if the tool ran in one, once its output is no longer needed.
+     */
+    protected void deleteWorkspace(){
+        String workDir = getWorkDir();
+        workspacePrepared = false;
+        if(!workDir.equals(toolDir)){
+            FileOperations.delete(Paths.get(workDir));
+        }
+    }
+
     /**
      * Gets the command to a given Tool Object. Since the String commands used to trigger the analysis to run are
      * highly diverse depending on the tools, we provide a mean to check these commands.
@@ -155,6 +324,27 @@ public abstract class Tool implements ITool {
         return command;
     }
 
+    /**
+     * Gets the command started to run the analysis, i.e. the program, its arguments and the file the results are
+     * redirected to.
+     * @return CommandSpec of the analysis.
+     */
+    @Override
+    public CommandSpec getCommandSpec(){
+        return commandSpec;
+    }
+
+    /**
+     * Sets the command started to run the analysis. The String command is kept in sync, so it can still be shown and
+     * compared.
+     * @param commandSpec - CommandSpec of the analysis.
+     */
+    protected void setCommandSpec(CommandSpec commandSpec){
+        commandSpec.setGroup(toolName);
+        this.commandSpec = commandSpec;
+        this.command = commandSpec.toString();
+    }
+
 
     /**
      * Gets the path to the directory in which the tool runs as a String.
@@ -165,6 +355,24 @@ public abstract class Tool implements ITool {
         return toolDir;
     }
 
+    /**
+     * Gets the path to the apk under investigation.
+     * @return String path to the apk.
+     */
+    @Override
+    public String getApkPath() {
+        return apkPath;
+    }
+
+    /**
+     * Gets the path to the android.jar the tool analyses the apk with.
+     * @return String path to the android.jar.
+     */
+    @Override
+    public String getAndroidSdk() {
+        return androidSdk;
+    }
+
     /**
      * Gets the toolName of the tool
      * @return String toolName of the tool
@@ -211,14 +419,23 @@ public abstract class Tool implements ITool {
 	    return appName + "-" + toolName + "Results.txt";
     }
 
+    @Override
+    public long getDurationMillis(){
+        return duration;
+    }
+
     /**
-     * Get the total duration (sum) of all analysis tools
+     * Get the total duration (sum) of the given analysis tools, e.g. of all tools that analysed an apk. The total is
+     * taken per apk, so apks evaluated one after the other in the same process do not add up.
+     * @param tools - Collection of the tools whose durations are summed.
      * @return String representation of duration
      */
-    @Override
-    public String getTotalDuration(){
-	    String runningTime = format(totalDuration);
-	    return runningTime;
+    public static String getTotalDuration(Collection<? extends ITool> tools){
+        long totalDuration = 0;
+        for(ITool tool : tools){
+            totalDuration += tool.getDurationMillis();
+        }
+        return format(totalDuration);
     }
 
     /**
@@ -230,6 +447,74 @@ public abstract class Tool implements ITool {
 	    return appName;
     }
 
+    /**
+     * Gets the memory the tool is expected to need at most while analysing an apk. For the Java based tools this is
+     * the maximum heap passed to the JVM plus the JVM overhead.
+     * @return Long: expected peak memory of the tool [in MB].
+     */
+    @Override
+    public long getMemoryReservation(){
+        return memoryReservation;
+    }
+
+    /**
+     * Gets the number of cores the tool is expected to keep busy while analysing an apk.
+     * @return Integer: expected number of cores.
+     */
+    @Override
+    public int getCpuReservation(){
+        return cpuReservation;
+    }
+
+    /**
+     * Sets the time the analysis may run before it is killed.
+     * @param timeout - Long: deadline of the analysis [in ms].
+     */
+    @Override
+    public void setTimeout(long timeout){
+        this.timeout = timeout;
+    }
+
+    @Override
+    public long getTimeout(){
+        return timeout;
+    }
+
+    @Override
+    public String getOutputTail(){
+        OutputRingBuffer running = output;
+        return running != null ? running.getTail() : outputTail;
+    }
+
+    @Override
+    public ResourceUsage getResourceUsage(){
+        return resourceUsage;
+    }
+
+    @Override
+    public long getRunningTime(){
+        return runningTime;
+    }
+
+    /**
+     * Gets the intermediate artifacts of the apk that have to exist before the tool can run. Most tools only need the
+     * apk itself.
+     * @return List of required Artifacts.
+     */
+    @Override
+    public List<Artifact> getRequiredArtifacts(){
+        return Collections.emptyList();
+    }
+
+    /**
+     * Gets the intermediate artifacts of the apk that the tool produces besides its results.
+     * @return List of produced Artifacts.
+     */
+    @Override
+    public List<Artifact> getProducedArtifacts(){
+        return Collections.emptyList();
+    }
+
     /**
      * Gets the exit code of the tool. Important for deciding whether the analysis timed out or not.
      * @return boolean - exit code: 0 if analysis completed, 1 if time out occurred.
@@ -1,7 +1,9 @@
 package writer;
 
 import leaks.Leak;
+import shell.control.ResourceUsage;
 import tool.ITool;
+import tool.Tool;
 
 import java.io.*;
 import java.util.ArrayList;
@@ -72,7 +74,16 @@ public class Writer {
             builder.append(tool.getToolName()).append(":").append(tool.getDuration()).append("\n");
         }
         builder.append("Total Running Time for APK: ");
-        builder.append(tools.get(tools.size()-1).getTotalDuration()).append("\n\n");
+        builder.append(Tool.getTotalDuration(tools)).append("\n");
+
+        for(ITool tool: tools){
+            ResourceUsage usage = tool.getResourceUsage();
+            if(usage != null){
+                builder.append("Resources: ");
+                builder.append(tool.getToolName()).append(":").append(usage.toString()).append("\n");
+            }
+        }
+        builder.append("\n");
 
         builder.append(matchingMatrix);
         builder.append(timedOut);
@@ -103,6 +114,7 @@ public class Writer {
             writer.flush();
             writer.close();
             writeTimedOutToCsv(appName);
+            writePerformanceToCsv(appName);
         } catch (IOException e) {
             System.out.println("Error: Could not find the file - " + e.getMessage());
         }
@@ -132,6 +144,36 @@ public class Writer {
         }
     }
 
+    /**
+     * Writes the performance data to a CSV file. Contains one row per tool with the running time of its last run and
+     * the resources its processes used. The resource columns are empty if they could not be measured.
+     * @param appName - String: name of the application.
+     */
+    private void writePerformanceToCsv(String appName) {
+        File folder = new File(resultsFolder + "/csv/performance");
+        String fileName = folder.getPath() + "/summary_performance" + appName + ".csv";
+        try {
+            folder.mkdirs();
+            File file = new File(fileName);
+            FileWriter fileWriter = new FileWriter(fileName, true);
+            BufferedWriter writer = new BufferedWriter(fileWriter);
+            String header = "App name;Tool;Running Time [ms];Peak RSS [kB];CPU User [ms];CPU System [ms];" +
+                    "Read [bytes];Written [bytes]\n";
+            if(file.length()==0){
+                writer.write(header);
+            }
+            for(ITool tool: tools){
+                ResourceUsage usage = tool.getResourceUsage();
+                writer.write(appName + ";" + tool.getToolName() + ";" + tool.getRunningTime() + ";"
+                        + (usage != null ? usage.getCSVRepresentation(";") : ";;;;") + "\n");
+            }
+            writer.flush();
+            writer.close();
+        }catch (IOException e) {
+            System.out.println("Error: Could not write the performance csv file - " + e.getMessage());
+        }
+    }
+
     /**
      * Gets the string representation of the time out csv file.
      * @param appName - String: name of the application
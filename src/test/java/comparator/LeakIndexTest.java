@@ -0,0 +1,86 @@
+package comparator;
+
+import leaks.Leak;
+import org.junit.Test;
+import tool.ITool;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Responsible for testing the LeakIndex i.e. that grouping the Leaks incrementally, in whatever order the tools finish,
+ * gives the same result as the LeakComparator on the Leaks of all tools.
+ */
+public class LeakIndexTest {
+    private static final String[] TOOLS = {"flowdroid", "covert", "iccta", "ic3"};
+    private static final String[] CLASSES = {"de.app.Main", "de.app.main", "de.app.Sender", "DE.APP.SENDER"};
+    private static final String[] METHODS = {"onCreate", "oncreate", "send"};
+    private static final String[] SINKS = {"sendTextMessage", "SENDTEXTMESSAGE", "write"};
+    private static final String[] RETURNS = {"", "void", "int"};
+
+    @Test
+    public void groupLikeLeakComparator() {
+        ArrayList<ArrayList<Leak>> leaksPerTool = createLeaks(42);
+        ArrayList<Leak> allLeaks = new ArrayList<>();
+        for(ArrayList<Leak> toolLeaks : leaksPerTool){
+            allLeaks.addAll(toolLeaks);
+        }
+        ArrayList<Leak> expected = new LeakComparator().groupLeaks(allLeaks);
+
+        ArrayList<ArrayList<Leak>> sameLeaksPerTool = createLeaks(42);
+        LeakIndex index = new LeakIndex(TOOLS.length);
+        for(int slot : new int[]{2, 0, 3, 1}){
+            index.add(slot, sameLeaksPerTool.get(slot));
+        }
+        ArrayList<Leak> grouped = index.groupLeaks();
+
+        assertEquals(allLeaks.size(), index.size());
+        assertEquals(describe(expected), describe(grouped));
+    }
+
+    @Test
+    public void groupWithoutLeaks() {
+        LeakIndex index = new LeakIndex(TOOLS.length);
+        index.add(0, new ArrayList<>());
+        assertTrue(index.groupLeaks().isEmpty());
+    }
+
+    /**
+     * Creates Leaks for each tool that differ only in the case of their names or in their return values, so the
+     * order in which they are grouped matters.
+     */
+    private ArrayList<ArrayList<Leak>> createLeaks(long seed){
+        Random random = new Random(seed);
+        ArrayList<ArrayList<Leak>> leaksPerTool = new ArrayList<>();
+        for(int i = 0; i < TOOLS.length; i++){
+            ITool tool = mock(ITool.class);
+            when(tool.getToolName()).thenReturn(TOOLS[i]);
+            when(tool.getAppName()).thenReturn("app");
+            when(tool.getMatrixIndex()).thenReturn(i);
+            ArrayList<Leak> leaks = new ArrayList<>();
+            for(int j = 0; j < 200; j++){
+                leaks.add(new Leak(new ArrayList<>(Arrays.asList(pick(random, CLASSES), pick(random, METHODS),
+                        pick(random, RETURNS), pick(random, SINKS), pick(random, RETURNS))), tool));
+            }
+            leaksPerTool.add(leaks);
+        }
+        return leaksPerTool;
+    }
+
+    private static String pick(Random random, String[] values){
+        return values[random.nextInt(values.length)];
+    }
+
+    private static ArrayList<String> describe(ArrayList<Leak> leaks){
+        ArrayList<String> descriptions = new ArrayList<>();
+        for(Leak leak : leaks){
+            descriptions.add(leak.toString() + leak.getCSVRepresentation(";"));
+        }
+        return descriptions;
+    }
+}
@@ -0,0 +1,168 @@
+package distributed;
+
+import leaks.Leak;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import scheduler.AnalysisJob;
+import tool.ITool;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Responsible for testing the Coordinator together with several Workers on localhost i.e. that all jobs are run once,
+ * that results and Leaks are shipped back, and that jobs of lost workers or expired leases are handed out again.
+ */
+public class CoordinatorTest {
+    private File workspace;
+    private final List<AnalysisJob> finishedJobs = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger createdTools = new AtomicInteger();
+
+    @Before
+    public void setUp() throws IOException {
+        workspace = Files.createTempDirectory("workspace").toFile();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.walk(workspace.toPath()).map(Path::toFile).sorted((a, b) -> b.compareTo(a)).forEach(File::delete);
+    }
+
+    @Test(timeout = 20000)
+    public void runJobsOnSeveralWorkers() throws Exception {
+        Coordinator coordinator = new Coordinator(0, 5000, new File(workspace, "received"), finishedJobs::add);
+        ArrayList<ITool> tools = new ArrayList<>();
+        for(int i = 0; i < 9; i++){
+            ITool tool = setupCoordinatorTool("flowdroid", "app" + i);
+            tools.add(tool);
+            coordinator.submit(new AnalysisJob(tool));
+        }
+        List<Thread> workers = Arrays.asList(startWorker(coordinator, fakeTools(20), 100),
+                startWorker(coordinator, fakeTools(20), 100), startWorker(coordinator, fakeTools(20), 100));
+        coordinator.awaitTermination();
+
+        assertEquals(9, finishedJobs.size());
+        assertEquals(9, createdTools.get());
+        for(AnalysisJob job : finishedJobs){
+            assertTrue(job.isCompleted());
+            assertEquals(1, job.getLeaks().size());
+            assertEquals("de.app." + job.getAppName(), job.getLeaks().get(0).getClassName());
+        }
+        for(ITool tool : tools){
+            verify(tool).useCachedResults(argThat(file -> read(file).equals("Results of " + tool.getAppName())));
+        }
+        for(Thread worker : workers){
+            worker.join();
+        }
+    }
+
+    @Test(timeout = 20000)
+    public void handOutJobOfLostWorkerAgain() throws Exception {
+        Coordinator coordinator = new Coordinator(0, 5000, new File(workspace, "received"), finishedJobs::add);
+        coordinator.submit(new AnalysisJob(setupCoordinatorTool("iccta", "app")));
+
+        AtomicReference<Worker> crashingWorker = new AtomicReference<>();
+        crashingWorker.set(new Worker("localhost", coordinator.getPort(), "crashing", (toolName, apkPath) -> {
+            createdTools.incrementAndGet();
+            crashingWorker.get().stop();
+            throw new IllegalStateException("worker crashed");
+        }, 100));
+        Thread crashing = new Thread(crashingWorker.get());
+        crashing.start();
+        crashing.join();
+
+        startWorker(coordinator, fakeTools(20), 100);
+        coordinator.awaitTermination();
+
+        assertEquals(2, createdTools.get());
+        assertEquals(1, finishedJobs.size());
+        assertTrue(finishedJobs.get(0).isCompleted());
+    }
+
+    @Test(timeout = 20000)
+    public void handOutJobAgainAfterLeaseExpired() throws Exception {
+        Coordinator coordinator = new Coordinator(0, 300, new File(workspace, "received"), finishedJobs::add);
+        coordinator.submit(new AnalysisJob(setupCoordinatorTool("ic3", "stuck")));
+
+        CountDownLatch started = new CountDownLatch(1);
+        startWorker(coordinator, (toolName, apkPath) -> {
+            started.countDown();
+            return setupWorkerTool(toolName, apkPath, 2000);
+        }, 10000);
+        started.await();
+        startWorker(coordinator, fakeTools(600), 50);
+        coordinator.awaitTermination();
+
+        assertEquals(1, finishedJobs.size());
+        assertTrue(finishedJobs.get(0).isCompleted());
+        assertEquals(1, createdTools.get());
+    }
+
+    private Thread startWorker(Coordinator coordinator, ToolFactory toolFactory, long heartbeatInterval){
+        Thread thread = new Thread(new Worker("localhost", coordinator.getPort(), "worker", toolFactory,
+                heartbeatInterval));
+        thread.start();
+        return thread;
+    }
+
+    private ToolFactory fakeTools(long runningTime){
+        return (toolName, apkPath) -> {
+            createdTools.incrementAndGet();
+            return setupWorkerTool(toolName, apkPath, runningTime);
+        };
+    }
+
+    /**
+     * Sets up the tool a worker runs. It writes a results file and reports one Leak in a class named after the app.
+     */
+    private ITool setupWorkerTool(String toolName, String apkPath, long runningTime){
+        String appName = apkPath.substring(apkPath.lastIndexOf('/') + 1, apkPath.indexOf(".apk"));
+        File resultsFile = new File(workspace, appName + "-" + toolName + "Results.txt");
+        ITool tool = mock(ITool.class);
+        when(tool.getToolName()).thenReturn(toolName);
+        when(tool.getAppName()).thenReturn(appName);
+        when(tool.getResultsFile()).thenReturn(resultsFile);
+        when(tool.runAnalysis()).thenAnswer(invocation -> {
+            Thread.sleep(runningTime);
+            Files.write(resultsFile.toPath(), ("Results of " + appName).getBytes(StandardCharsets.UTF_8));
+            return true;
+        });
+        ArrayList<String> properties = new ArrayList<>(Arrays.asList("de.app." + appName, "onCreate", "void",
+                "sendTextMessage", "void"));
+        ArrayList<Leak> leaks = new ArrayList<>();
+        leaks.add(new Leak(properties, tool));
+        when(tool.getLeaks()).thenReturn(leaks);
+        return tool;
+    }
+
+    private ITool setupCoordinatorTool(String toolName, String appName){
+        ITool tool = mock(ITool.class);
+        when(tool.getToolName()).thenReturn(toolName);
+        when(tool.getAppName()).thenReturn(appName);
+        when(tool.getApkPath()).thenReturn("/apksToTest/" + appName + ".apk");
+        return tool;
+    }
+
+    private static String read(File file){
+        try {
+            return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return "";
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package parser;
+
+import leaks.Leak;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import parser.SignatureScanner.Signature;
+import tool.ITool;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Responsible for testing the CovertReportReader i.e. that the method and app of every vulnerability are read regardless
+ * of the layout of the report and that broken reports end the leaks instead of failing.
+ */
+public class CovertReportReaderTest {
+    private static final String METHOD = "<element><type>METHOD</type><description>org.cert.sendsms.MainActivity: void "
+            + "onActivityResult(int,int,android.content.Intent)</description><element><type>SINK_TYPE</type>"
+            + "<description>SMS_MMS</description></element></element>";
+
+    private Path report;
+
+    @Before
+    public void setUp() throws IOException {
+        report = Files.createTempFile("covert", ".xml");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.delete(report);
+    }
+
+    @Test
+    public void readReportOnSingleLine() throws IOException {
+        write("<analysisReport><vulnerabilities>"
+                + "<vulnerability><type>Intent Spoofing</type><description>App org.cert.sendsms: leaks data"
+                + "</description><vulnerabilityElements><type>APP</type><description>org.cert.sendsms</description>"
+                + "<element><type>COMPONENT</type><description>a.B: int c(int)</description>" + METHOD + "</element>"
+                + "</vulnerabilityElements></vulnerability>"
+                + "<vulnerability><vulnerabilityElements><type>APP</type><description>org.cert.sendsms</description>"
+                + "</vulnerabilityElements></vulnerability>"
+                + "</vulnerabilities></analysisReport>");
+        try (CovertReportReader reader = new CovertReportReader(report.toFile())) {
+            Signature method = reader.next();
+            assertEquals("org.cert.sendsms.MainActivity", method.getClassName());
+            assertEquals("void", method.getReturnType());
+            assertEquals("onActivityResult(int,int,android.content.Intent)", method.getMethodName());
+            assertEquals("org.cert.sendsms", reader.getApp());
+            assertSame(Signature.NONE, reader.next());
+            assertEquals("org.cert.sendsms", reader.getApp());
+            assertFalse(reader.hasNext());
+        }
+    }
+
+    @Test
+    public void streamLeaksUpToBrokenVulnerability() throws IOException {
+        write("<analysisReport>\n  <vulnerabilities>\n    <vulnerability><vulnerabilityElements>" + METHOD
+                + "</vulnerabilityElements></vulnerability>\n    <vulnerability><vulnerabilityElements>" + METHOD
+                + "</vulnerability>\n");
+        ITool tool = mock(ITool.class);
+        ArrayList<Leak> leaks = new ArrayList<>();
+        try (Stream<Leak> stream = new CovertParser(report.toFile()).streamLeaks(tool)) {
+            stream.forEach(leaks::add);
+        }
+        assertEquals(1, leaks.size());
+        assertEquals("org.cert.sendsms.MainActivity", leaks.get(0).getClassName());
+        assertEquals("onActivityResult(int,int,android.content.Intent)", leaks.get(0).getSinkMethod());
+    }
+
+    private void write(String content) throws IOException {
+        Files.write(report, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -4,7 +4,13 @@ import leaks.Leak;
 import org.junit.Test;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import ch.unibe.jexample.JExample;
 import ch.unibe.jexample.Given;
 import org.junit.runner.RunWith;
@@ -116,4 +122,33 @@ public class FlowdroidParserTest {
                 leaks.get(2).getSinkMethod());
     }
 
+
+    @Test
+    public void streamSameLeaks() {
+        parser = new FlowDroidParser(file);
+        try (Stream<Leak> stream = parser.streamLeaks(tool)) {
+            assertEquals(parser.getLeaks(tool).toString(),
+                    stream.collect(Collectors.toCollection(ArrayList::new)).toString());
+        }
+    }
+
+    @Test
+    public void streamLeaksAfterLargeDump() throws IOException {
+        StringBuilder dump = new StringBuilder();
+        for(int i = 0; i < 100000; i++){
+            dump.append("[main] INFO soot.jimple.infoflow.Infoflow - Callgraph edge ").append(i).append("\n");
+        }
+        Path results = Files.createTempFile("flowdroid", ".txt");
+        try {
+            Files.write(results, (dump + new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8))
+                    .getBytes(StandardCharsets.UTF_8));
+            try (Stream<Leak> stream = new FlowDroidParser(results.toFile()).streamLeaks(tool)) {
+                assertEquals(new FlowDroidParser(file).getLeaks(tool).toString(),
+                        stream.collect(Collectors.toCollection(ArrayList::new)).toString());
+            }
+        } finally {
+            Files.delete(results);
+        }
+    }
+
 }
\ No newline at end of file
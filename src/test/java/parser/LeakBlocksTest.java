@@ -0,0 +1,105 @@
+package parser;
+
+import leaks.Leak;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import tool.ITool;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Responsible for testing the LeakBlocks i.e. that a results file is cut into the same leak descriptions as before and
+ * that reports with a hundred thousand leaks are parsed in bounded time and stack.
+ */
+public class LeakBlocksTest {
+    private static final int FLOWS = 120000;
+    private static final String FLOW = "Found a flow to sink virtualinvoke $r3.<android.telephony.SmsManager: void "
+            + "sendTextMessage(java.lang.String,java.lang.String,java.lang.String,android.app.PendingIntent,"
+            + "android.app.PendingIntent)>(\"1234567890\", null, $r1, null, null), from the following sources:\n"
+            + "\t- $r3 = staticinvoke <android.telephony.SmsManager: android.telephony.SmsManager getDefault()>() "
+            + "(in <org.cert.sendsms.Activity%d: void sendSMSMessage(java.lang.String)>)\n";
+
+    private Path results;
+
+    @Before
+    public void setUp() throws IOException {
+        results = Files.createTempFile("flowdroid", ".txt");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.delete(results);
+    }
+
+    @Test
+    public void splitAtLeakTags() {
+        String content = "header\n Found a flow one \nFound a flow two\n\n  Found a flow three\nMaximum memory: 84 MB\n";
+        List<String> blocks = LeakBlocks.split(content, Pattern.compile("Found a flow"), 12, "Maximum memory");
+        assertEquals(Arrays.asList("Found a flow one", "Found a flow two", "Found a flow three\n"), blocks);
+        assertTrue(LeakBlocks.split("no leaks\n", Pattern.compile("Found a flow"), 12, "").isEmpty());
+        assertEquals(Arrays.asList("Found a flow"), LeakBlocks.split("Found a flow\n", Pattern.compile("Found a flow"),
+                12, ""));
+    }
+
+    @Test
+    public void cutOnlyLastBlockWhenStreaming() {
+        String content = "header\n Found a flow one Maximum memory\nFound a flow two\nMaximum memory: 84 MB\n"
+                + "  Found a flow three\nMaximum memory: 84 MB\ntrailer\n";
+        Pattern leakPattern = Pattern.compile("Found a flow");
+        List<String> blocks = LeakBlocks.split(content, leakPattern, 12, "Maximum memory");
+        assertEquals(Arrays.asList("Found a flow one Maximum memory", "Found a flow two\nMaximum memory: 84 MB",
+                "Found a flow three\n"), blocks);
+
+        List<String> streamed = new ArrayList<>();
+        LeakBlockIterator iterator = new LeakBlockIterator(new BufferedReader(new StringReader(content)),
+                "Found a flow", "Maximum memory", "flowdroid.txt");
+        iterator.forEachRemaining(streamed::add);
+        iterator.close();
+        assertEquals(blocks, streamed);
+    }
+
+    @Test(timeout = 60000)
+    public void parseHundredThousandLeaks() throws Exception {
+        try (BufferedWriter writer = Files.newBufferedWriter(results, StandardCharsets.UTF_8)) {
+            writer.write("Running data flow analysis...\n");
+            for(int i = 0; i < FLOWS; i++){
+                writer.write(String.format(FLOW, i));
+            }
+            writer.write("Maximum memory consumption: 84.70512 MB\n");
+        }
+        ITool tool = mock(ITool.class);
+        AtomicReference<ArrayList<Leak>> leaks = new AtomicReference<>();
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        Thread parser = new Thread(null, () -> {
+            try {
+                leaks.set(new FlowDroidParser(results.toFile()).getLeaks(tool));
+            } catch (Throwable e) {
+                error.set(e);
+            }
+        }, "parser", 256 * 1024);
+        parser.start();
+        parser.join();
+
+        assertNull(error.get());
+        assertEquals(FLOWS, leaks.get().size());
+        assertEquals("org.cert.sendsms.Activity0", leaks.get().get(0).getClassName());
+        assertEquals("org.cert.sendsms.Activity" + (FLOWS - 1), leaks.get().get(FLOWS - 1).getClassName());
+        assertEquals("sendTextMessage(java.lang.String,java.lang.String,java.lang.String,android.app.PendingIntent,"
+                + "android.app.PendingIntent)", leaks.get().get(FLOWS - 1).getSinkMethod());
+    }
+}
@@ -0,0 +1,71 @@
+package parser;
+
+import leaks.Leak;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import tool.ITool;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Responsible for testing the MappedCharSequence i.e. that a mapped results file looks like the file read by the
+ * Parsers and that files which cannot be shown byte by byte are not mapped.
+ */
+public class MappedCharSequenceTest {
+    private Path results;
+
+    @Before
+    public void setUp() throws IOException {
+        results = Files.createTempFile("results", ".txt");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Parsers.setMemoryMapped(false);
+        Files.delete(results);
+    }
+
+    @Test
+    public void addLineBreakAtEndOfFile() throws IOException {
+        write("first line\nlast line");
+        CharSequence mapped = MappedCharSequence.map(results.toFile());
+        assertNotNull(mapped);
+        assertEquals("first line\nlast line\n", mapped.toString());
+        assertEquals(21, mapped.length());
+        assertEquals('\n', mapped.charAt(20));
+        assertEquals("last line\n", mapped.subSequence(11, 21).toString());
+        assertEquals("line", mapped.subSequence(11, 21).subSequence(5, 9).toString());
+    }
+
+    @Test
+    public void mapOnlyAsciiFiles() throws IOException {
+        write("line\r\n");
+        assertNull(MappedCharSequence.map(results.toFile()));
+        write("Z\u00fcrich\n");
+        assertNull(MappedCharSequence.map(results.toFile()));
+        write("");
+        assertEquals("", MappedCharSequence.map(results.toFile()).toString());
+    }
+
+    @Test
+    public void parseMappedFile() {
+        File file = new File(System.getProperty("user.dir") + "/testSources/flowdroidTestResults.txt");
+        ITool tool = mock(ITool.class);
+        ArrayList<Leak> leaks = new FlowDroidParser(file).getLeaks(tool);
+        Parsers.setMemoryMapped(true);
+        assertEquals(leaks.toString(), new FlowDroidParser(file).getLeaks(tool).toString());
+    }
+
+    private void write(String content) throws IOException {
+        Files.write(results, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
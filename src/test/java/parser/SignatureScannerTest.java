@@ -0,0 +1,60 @@
+package parser;
+
+import org.junit.Test;
+import parser.SignatureScanner.Signature;
+
+import static org.junit.Assert.*;
+
+/**
+ * Responsible for testing the SignatureScanner i.e. that the parts of Soot signatures are read out of leak
+ * descriptions and that text that only looks like a signature is skipped.
+ */
+public class SignatureScannerTest {
+    private static final String SINK = "Found a flow to sink virtualinvoke $r3.<org.cert.sendsms.MainActivity: void "
+            + "startActivityForResult(android.content.Intent,int)>($r2, 0), from the following sources:\n"
+            + "\t- $r6 = virtualinvoke $r5.<android.telephony.TelephonyManager: java.lang.String getDeviceId()>() "
+            + "(in <org.cert.sendsms.Button1Listener: void onClick(android.view.View)>)\n"
+            + "\t- $r1 := @parameter0: java.lang.String[] (in <org.cert.sendsms.MainActivity$1: void <init>(int[])>)";
+
+    @Test
+    public void findFirstSignature() {
+        Signature sink = SignatureScanner.findFirst(SINK, "<", 0);
+        assertEquals("org.cert.sendsms.MainActivity", sink.getClassName());
+        assertEquals("void", sink.getReturnType());
+        assertEquals("startActivityForResult(android.content.Intent,int)", sink.getMethodName());
+    }
+
+    @Test
+    public void findLastSignature() {
+        Signature method = SignatureScanner.findLast(SINK, "(in <");
+        assertEquals("org.cert.sendsms.MainActivity$1", method.getClassName());
+        assertEquals("void", method.getReturnType());
+        assertEquals("<init>(int[])", method.getMethodName());
+    }
+
+    @Test
+    public void findLastMethodOfClass() {
+        Signature method = SignatureScanner.findLastMethod(SINK, "org.cert.sendsms.Button1Listener");
+        assertEquals("org.cert.sendsms.Button1Listener", method.getClassName());
+        assertEquals("onClick(android.view.View)", method.getMethodName());
+        assertSame(Signature.NONE, SignatureScanner.findLastMethod(SINK, "org.cert.sendsms.Button2Listener"));
+    }
+
+    @Test
+    public void skipTextThatIsNoSignature() {
+        String field = "$r4 = <SharedPreferencesHelper: java.lang.Object MyPrefsFile_imei>, <a.B: int c(int)>";
+        assertEquals("c(int)", SignatureScanner.findFirst(field, "<", 0).getMethodName());
+        assertSame(Signature.NONE, SignatureScanner.findFirst("<a.B: int c(int", "<", 0));
+        assertSame(Signature.NONE, SignatureScanner.findFirst("<a.B: c(int)>", "<", 0));
+        assertNull(SignatureScanner.parse("a.B:int c(int)", 0));
+    }
+
+    @Test
+    public void findDalvikMethod() {
+        String leak = "Test if register 4 leaks at line 48 in method onClick(Landroid/view/View;)V of the class "
+                + "Lorg/cert/sendsms/Button1Listener; to the sink i(Ljava/lang/String;Ljava/lang/String;)I";
+        assertEquals("onClick(Landroid/view/View;)", SignatureScanner.findMethod(leak, "method "));
+        assertEquals("i(Ljava/lang/String;Ljava/lang/String;)", SignatureScanner.findMethod(leak, "to the sink "));
+        assertEquals("", SignatureScanner.findMethod(leak, "in the class "));
+    }
+}
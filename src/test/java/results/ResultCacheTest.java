@@ -0,0 +1,139 @@
+package results;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import shell.control.CommandSpec;
+import tool.ITool;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Responsible for testing the ResultCache i.e. that tools are only run again if the apk or the tool changed and that
+ * the least recently used entries are evicted.
+ */
+public class ResultCacheTest {
+    private File workspace;
+    private File cacheDir;
+    private File toolDir;
+    private File apk;
+    private File resultsFile;
+
+    @Before
+    public void setUp() throws IOException {
+        workspace = Files.createTempDirectory("workspace").toFile();
+        cacheDir = new File(workspace, "cache");
+        toolDir = new File(workspace, "flowDroid");
+        toolDir.mkdirs();
+        write(new File(toolDir, "soot-infoflow.jar"), "infoflow");
+        write(new File(toolDir, "android.jar"), "android-23");
+        apk = new File(workspace, "app.apk");
+        write(apk, "dex");
+        resultsFile = new File(toolDir, "app-flowdroidResults.txt");
+        write(resultsFile, "Found 1 leaks");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.walk(workspace.toPath()).map(Path::toFile).sorted((a, b) -> b.compareTo(a))
+                .forEach(File::delete);
+    }
+
+    @Test
+    public void serveCachedResults() {
+        ResultCache cache = new ResultCache(cacheDir, 100);
+        ITool firstRun = setupTool(apk, "app");
+        assertTrue(cache.runAnalysis(firstRun));
+        verify(firstRun).runAnalysis();
+
+        ITool secondRun = setupTool(apk, "app");
+        assertTrue(cache.runAnalysis(secondRun));
+        verify(secondRun, never()).runAnalysis();
+        verify(secondRun).useCachedResults(any(File.class));
+    }
+
+    @Test
+    public void ignoreApkLocation() throws IOException {
+        File copy = new File(workspace, "renamed.apk");
+        write(copy, "dex");
+        ResultCache cache = new ResultCache(cacheDir, 100);
+        assertEquals(cache.getKey(setupTool(apk, "app")), cache.getKey(setupTool(copy, "renamed")));
+    }
+
+    @Test
+    public void missAfterToolChanged() throws IOException {
+        String key = new ResultCache(cacheDir, 100).getKey(setupTool(apk, "app"));
+        write(new File(toolDir, "soot-infoflow.jar"), "infoflow-2.0");
+        assertNotEquals(key, new ResultCache(cacheDir, 100).getKey(setupTool(apk, "app")));
+
+        ITool tool = setupTool(apk, "app");
+        when(tool.getCommandSpec()).thenReturn(new CommandSpec(toolDir.getPath(), "java", "-Xmx4g", "-jar",
+                "soot-infoflow.jar", apk.getPath()));
+        assertNotEquals(key, new ResultCache(cacheDir, 100).getKey(tool));
+    }
+
+    @Test
+    public void replaceOnlyWholeArguments() throws IOException {
+        File copy = new File(workspace, "soot.apk");
+        write(copy, "dex");
+        ResultCache cache = new ResultCache(cacheDir, 100);
+        ITool app = setupTool(apk, "app");
+        when(app.getCommandSpec()).thenReturn(new CommandSpec(toolDir.getPath(), "java", "-jar", "soot-app.jar",
+                apk.getPath(), "app"));
+        ITool soot = setupTool(copy, "soot");
+        when(soot.getCommandSpec()).thenReturn(new CommandSpec(toolDir.getPath(), "java", "-jar", "soot-app.jar",
+                copy.getPath(), "soot"));
+        assertEquals(cache.getKey(app), cache.getKey(soot));
+
+        when(app.getCommandSpec()).thenReturn(new CommandSpec(toolDir.getPath(), "java", "-jar", "app.jar",
+                apk.getPath()));
+        when(soot.getCommandSpec()).thenReturn(new CommandSpec(toolDir.getPath(), "java", "-jar", "soot.jar",
+                copy.getPath()));
+        assertNotEquals(cache.getKey(app), cache.getKey(soot));
+    }
+
+    @Test
+    public void evictLeastRecentlyUsed() throws IOException {
+        ResultCache cache = new ResultCache(cacheDir, 1);
+        byte[] results = new byte[400 * 1024];
+        Files.write(resultsFile.toPath(), results);
+        cache.store("first", resultsFile);
+        cache.store("second", resultsFile);
+        new File(cacheDir, "first").setLastModified(1000);
+        new File(cacheDir, "second").setLastModified(2000);
+        assertNotNull(cache.lookup("first"));
+
+        cache.store("third", resultsFile);
+        assertNotNull(cache.lookup("first"));
+        assertNull(cache.lookup("second"));
+        assertNotNull(cache.lookup("third"));
+    }
+
+    private ITool setupTool(File apk, String appName){
+        ITool tool = mock(ITool.class);
+        when(tool.getToolName()).thenReturn("flowdroid");
+        when(tool.getAppName()).thenReturn(appName);
+        when(tool.getApkPath()).thenReturn(apk.getPath());
+        when(tool.getToolDir()).thenReturn(toolDir.getPath());
+        when(tool.getAndroidSdk()).thenReturn(new File(toolDir, "android.jar").getPath());
+        CommandSpec spec = new CommandSpec(toolDir.getPath(), "java", "-Xmx12g", "-jar", "soot-infoflow.jar",
+                apk.getPath());
+        spec.setOutputFile(new File(toolDir, appName + "-flowdroidResults.txt"));
+        when(tool.getCommandSpec()).thenReturn(spec);
+        when(tool.getResultsFile()).thenReturn(resultsFile);
+        when(tool.runAnalysis()).thenReturn(true);
+        return tool;
+    }
+
+    private static void write(File file, String content) throws IOException {
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
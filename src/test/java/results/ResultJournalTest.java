@@ -0,0 +1,119 @@
+package results;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.Assert.*;
+
+/**
+ * Responsible for testing the ResultJournal i.e. that completed jobs are found again after the journal was reopened,
+ * while failed jobs and partially written records are not.
+ */
+public class ResultJournalTest {
+    private static final String APK_HASH = "3f4a";
+    private File journalFile;
+    private File resultsFile;
+
+    @Before
+    public void setUp() throws IOException {
+        journalFile = File.createTempFile("journal", ".txt");
+        resultsFile = File.createTempFile("app-flowdroidResults", ".txt");
+    }
+
+    @After
+    public void tearDown() {
+        journalFile.delete();
+        resultsFile.delete();
+    }
+
+    @Test
+    public void findCompletedJobsAfterReopening() throws IOException {
+        try (ResultJournal journal = new ResultJournal(journalFile, 16, 30000)) {
+            journal.record(new JournalEntry(APK_HASH, "flowdroid", 0, resultsFile, 7));
+            journal.record(new JournalEntry(APK_HASH, "iccta", 2, null, 0));
+        }
+
+        try (ResultJournal journal = new ResultJournal(journalFile, 16, 30000)) {
+            JournalEntry entry = journal.getCompleted(APK_HASH, "flowdroid");
+            assertNotNull(entry);
+            assertEquals(resultsFile, entry.getResultsFile());
+            assertEquals(7, entry.getLeakCount());
+            assertNull(journal.getCompleted(APK_HASH, "iccta"));
+            assertNull(journal.getCompleted(APK_HASH, "ic3"));
+            assertFalse(journal.isEvaluated(APK_HASH));
+        }
+    }
+
+    @Test
+    public void syncAfterIntervalWithoutFurtherRecords() throws IOException, InterruptedException {
+        try (ResultJournal journal = new ResultJournal(journalFile, 16, 200)) {
+            journal.record(new JournalEntry(APK_HASH, "flowdroid", 0, resultsFile, 7));
+            assertTrue(journal.hasUnsyncedRecords());
+            long deadline = System.currentTimeMillis() + 5000;
+            while(journal.hasUnsyncedRecords() && System.currentTimeMillis() < deadline){
+                Thread.sleep(10);
+            }
+            assertFalse(journal.hasUnsyncedRecords());
+        }
+    }
+
+    @Test
+    public void latestRecordWins() throws IOException {
+        try (ResultJournal journal = new ResultJournal(journalFile, 1, 30000)) {
+            journal.record(new JournalEntry(APK_HASH, "iccta", 2, null, 0));
+            journal.record(new JournalEntry(APK_HASH, "iccta", 0, resultsFile, 3));
+            journal.recordEvaluation(APK_HASH);
+        }
+
+        try (ResultJournal journal = new ResultJournal(journalFile, 1, 30000)) {
+            assertEquals(3, journal.getCompleted(APK_HASH, "iccta").getLeakCount());
+            assertTrue(journal.isEvaluated(APK_HASH));
+        }
+    }
+
+    @Test
+    public void rerunJobsWithMissingResults() throws IOException {
+        try (ResultJournal journal = new ResultJournal(journalFile, 16, 30000)) {
+            journal.record(new JournalEntry(APK_HASH, "flowdroid", 0, resultsFile, 7));
+        }
+        resultsFile.delete();
+
+        try (ResultJournal journal = new ResultJournal(journalFile, 16, 30000)) {
+            assertNull(journal.getCompleted(APK_HASH, "flowdroid"));
+        }
+    }
+
+    @Test
+    public void cutOffPartiallyWrittenRecord() throws IOException {
+        try (ResultJournal journal = new ResultJournal(journalFile, 16, 30000)) {
+            journal.record(new JournalEntry(APK_HASH, "flowdroid", 0, resultsFile, 7));
+        }
+        Files.write(journalFile.toPath(), (APK_HASH + "\tcovert\t0\t").getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+
+        try (ResultJournal journal = new ResultJournal(journalFile, 16, 30000)) {
+            journal.record(new JournalEntry(APK_HASH, "ic3", 0, resultsFile, 1));
+        }
+
+        try (ResultJournal journal = new ResultJournal(journalFile, 16, 30000)) {
+            assertNotNull(journal.getCompleted(APK_HASH, "flowdroid"));
+            assertNotNull(journal.getCompleted(APK_HASH, "ic3"));
+            assertNull(journal.getCompleted(APK_HASH, "covert"));
+        }
+        assertEquals(2, Files.readAllLines(journalFile.toPath()).size());
+    }
+
+    @Test
+    public void hashApk() throws IOException {
+        Files.write(resultsFile.toPath(), "abc".getBytes(StandardCharsets.UTF_8));
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad",
+                Checksums.sha256(resultsFile));
+    }
+}
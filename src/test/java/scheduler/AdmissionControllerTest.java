@@ -0,0 +1,81 @@
+package scheduler;
+
+import org.junit.Before;
+import org.junit.Test;
+import tool.ITool;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Responsible for testing the AdmissionController i.e. that jobs are only admitted while their reservations fit into
+ * the machine.
+ */
+public class AdmissionControllerTest {
+    private AdmissionController controller;
+
+    @Before
+    public void setUp() {
+        controller = new AdmissionController(32768, 2048, 8);
+    }
+
+    @Test
+    public void admitWhileMemoryFits() {
+        AnalysisJob flowdroid = setupJob(13312, 2);
+        AnalysisJob iccta = setupJob(13312, 2);
+        AnalysisJob horndroid = setupJob(13312, 2);
+        assertTrue(controller.tryAdmit(flowdroid));
+        assertTrue(controller.tryAdmit(iccta));
+        assertFalse(controller.tryAdmit(horndroid));
+        assertEquals(26624, controller.getReservedMemory());
+
+        controller.release(flowdroid);
+        assertTrue(controller.tryAdmit(horndroid));
+    }
+
+    @Test
+    public void admitWhileCoresFit() {
+        for(int i = 0; i < 4; i++){
+            assertTrue(controller.tryAdmit(setupJob(1024, 2)));
+        }
+        assertFalse(controller.tryAdmit(setupJob(1024, 1)));
+    }
+
+    @Test
+    public void admitOversizedJobOnIdleMachine() {
+        AnalysisJob hugeJob = setupJob(65536, 2);
+        AnalysisJob smallJob = setupJob(1024, 1);
+        assertTrue(controller.tryAdmit(smallJob));
+        assertFalse(controller.tryAdmit(hugeJob));
+
+        controller.release(smallJob);
+        assertTrue(controller.tryAdmit(hugeJob));
+        assertEquals(1, controller.getAdmittedJobs());
+    }
+
+    @Test
+    public void readTotalMemory() throws IOException {
+        File meminfo = File.createTempFile("meminfo", ".txt");
+        meminfo.deleteOnExit();
+        Files.write(meminfo.toPath(), Arrays.asList("MemTotal:       65842028 kB", "MemFree:        12345678 kB"));
+        assertEquals(64298, AdmissionController.readTotalMemory(meminfo));
+    }
+
+    @Test
+    public void readTotalMemoryMissingFile() {
+        assertEquals(Long.MAX_VALUE, AdmissionController.readTotalMemory(new File("noSuchFile")));
+    }
+
+    private AnalysisJob setupJob(long memory, int cpus){
+        ITool tool = mock(ITool.class);
+        when(tool.getMemoryReservation()).thenReturn(memory);
+        when(tool.getCpuReservation()).thenReturn(cpus);
+        return new AnalysisJob(tool);
+    }
+}
@@ -0,0 +1,155 @@
+package scheduler;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Responsible for testing the ApkInspector i.e. that the classes and methods of all dex files are counted from their
+ * headers and that the components and the package name are read from the binary manifest.
+ */
+public class ApkInspectorTest {
+    private File apk;
+
+    @Before
+    public void setUp() throws IOException {
+        apk = File.createTempFile("app", ".apk");
+    }
+
+    @After
+    public void tearDown() {
+        apk.delete();
+    }
+
+    @Test
+    public void countClassesOfAllDexFiles() throws IOException {
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(apk))) {
+            addEntry(zip, "AndroidManifest.xml", createManifest(false, "manifest", "application", "activity",
+                    "activity", "service", "receiver"));
+            addEntry(zip, "classes.dex", createDex(1200, 9000));
+            addEntry(zip, "classes2.dex", createDex(70000, 65000));
+            addEntry(zip, "assets/classes.dex", createDex(5, 5));
+        }
+
+        ApkFeatures features = ApkInspector.inspect(apk);
+
+        assertEquals(71200, features.getDexClasses());
+        assertEquals(74000, features.getDexMethods());
+        assertEquals(2, features.getDexFiles());
+        assertEquals(4, features.getComponents());
+        assertEquals(apk.length(), features.getApkSize());
+        assertEquals(74000 + 4 * ApkFeatures.COMPONENT_WEIGHT, features.getEstimatedCost());
+    }
+
+    @Test
+    public void countComponentsOfUtf8Manifest() throws IOException {
+        ApkFeatures features = new ApkFeatures(0, 0);
+        ApkInspector.countComponents(createManifest(true, "manifest", "application", "activity-alias", "provider",
+                "provider", "meta-data", "receiver"), features);
+
+        assertEquals(1, features.getActivities());
+        assertEquals(0, features.getServices());
+        assertEquals(1, features.getReceivers());
+        assertEquals(2, features.getProviders());
+    }
+
+    @Test
+    public void readPackageNameOfManifest() throws IOException {
+        ApkFeatures features = new ApkFeatures(0, 0);
+        byte[] manifest = createManifest(false, "manifest", "package", "org.cert.sendsms");
+        ApkInspector.countComponents(addPackageAttribute(manifest, 3), features);
+
+        assertEquals("org.cert.sendsms", features.getPackageName());
+        assertEquals(0, features.getComponents());
+    }
+
+    @Test
+    public void inspectBrokenApk() {
+        assertNull(ApkInspector.inspect(apk));
+    }
+
+    private static void addEntry(ZipOutputStream zip, String name, byte[] content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(content);
+        zip.closeEntry();
+    }
+
+    private static byte[] createDex(int classes, int methods){
+        ByteBuffer dex = ByteBuffer.allocate(0x200).order(ByteOrder.LITTLE_ENDIAN);
+        dex.put("dex\n035\0".getBytes(StandardCharsets.US_ASCII));
+        dex.putInt(0x58, methods);
+        dex.putInt(0x60, classes);
+        return dex.array();
+    }
+
+    /**
+     * Adds a package attribute to the first start element of a manifest created by createManifest. The names of the
+     * attribute and of its value are the second and third string of the pool.
+     */
+    private static byte[] addPackageAttribute(byte[] manifest, int elements){
+        int firstElement = manifest.length - 36 * elements;
+        ByteBuffer xml = ByteBuffer.allocate(manifest.length + 20).order(ByteOrder.LITTLE_ENDIAN);
+        xml.put(manifest, 0, firstElement + 36);
+        xml.putInt(-1).putInt(1).putInt(2).putShort((short) 8).put((byte) 0).put((byte) 0x03).putInt(2);
+        xml.put(manifest, firstElement + 36, manifest.length - firstElement - 36);
+        xml.putInt(4, manifest.length + 20);
+        xml.putInt(firstElement + 4, 56);
+        xml.putShort(firstElement + 28, (short) 1);
+        return xml.array();
+    }
+
+    /**
+     * Creates a binary xml file with one start element per given name. Every name is put into the string pool once.
+     */
+    private static byte[] createManifest(boolean utf8, String... elements){
+        ByteArrayOutputStream strings = new ByteArrayOutputStream();
+        int[] offsets = new int[elements.length];
+        for(int i = 0; i < elements.length; i++){
+            offsets[i] = strings.size();
+            byte[] value = elements[i].getBytes(utf8 ? StandardCharsets.UTF_8 : StandardCharsets.UTF_16LE);
+            if(utf8){
+                strings.write(elements[i].length());
+                strings.write(value.length);
+                strings.write(value, 0, value.length);
+                strings.write(0);
+            } else {
+                strings.write(elements[i].length());
+                strings.write(0);
+                strings.write(value, 0, value.length);
+                strings.write(0);
+                strings.write(0);
+            }
+        }
+        while(strings.size() % 4 != 0){
+            strings.write(0);
+        }
+        int poolSize = 28 + 4 * elements.length + strings.size();
+        int size = 8 + poolSize + 36 * elements.length;
+        ByteBuffer xml = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        xml.putShort((short) 0x0003).putShort((short) 8).putInt(size);
+        xml.putShort((short) 0x0001).putShort((short) 28).putInt(poolSize).putInt(elements.length).putInt(0)
+                .putInt(utf8 ? 1 << 8 : 0).putInt(28 + 4 * elements.length).putInt(0);
+        for(int offset : offsets){
+            xml.putInt(offset);
+        }
+        xml.put(strings.toByteArray());
+        for(int i = 0; i < elements.length; i++){
+            xml.putShort((short) 0x0102).putShort((short) 16).putInt(36).putInt(i + 1).putInt(-1)
+                    .putInt(-1).putInt(i).putShort((short) 20).putShort((short) 20).putShort((short) 0)
+                    .putShort((short) 0).putShort((short) 0).putShort((short) 0);
+        }
+        return xml.array();
+    }
+}
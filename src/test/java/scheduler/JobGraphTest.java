@@ -0,0 +1,104 @@
+package scheduler;
+
+import org.junit.Test;
+import results.ResultCache;
+import tool.Artifact;
+import tool.DareStep;
+import tool.ITool;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Responsible for testing the JobGraph i.e. that preparation steps are shared by the tools of an apk, that tools
+ * depend on the jobs producing their artifacts and that prerequisites are ordered first.
+ */
+public class JobGraphTest {
+
+    @Test
+    public void shareDareStep() {
+        ITool flowdroid = setupTool("flowdroid", Collections.emptyList(), Collections.emptyList());
+        ITool ic3 = setupTool("ic3", Collections.singletonList(Artifact.DARE_OUTPUT),
+                Collections.singletonList(Artifact.IC3_MODEL));
+        ITool otherIc3 = setupTool("ic3-copy", Collections.singletonList(Artifact.DARE_OUTPUT),
+                Collections.emptyList());
+
+        List<Job> jobs = JobGraph.createJobs(Arrays.asList(flowdroid, ic3, otherIc3), null);
+
+        assertEquals(4, jobs.size());
+        assertTrue(jobs.get(0) instanceof PreparationJob);
+        assertTrue(((PreparationJob) jobs.get(0)).getStep() instanceof DareStep);
+        assertTrue(jobs.get(1).getPrerequisites().isEmpty());
+        assertEquals(Collections.singletonList(jobs.get(0)), jobs.get(2).getPrerequisites());
+        assertEquals(Collections.singletonList(jobs.get(0)), jobs.get(3).getPrerequisites());
+    }
+
+    @Test
+    public void dependOnProducingTool() {
+        ITool consumer = setupTool("consumer", Collections.singletonList(Artifact.IC3_MODEL), Collections.emptyList());
+        ITool ic3 = setupTool("ic3", Collections.emptyList(), Collections.singletonList(Artifact.IC3_MODEL));
+
+        List<Job> jobs = JobGraph.createJobs(Arrays.asList(consumer, ic3), null);
+
+        assertEquals(2, jobs.size());
+        assertEquals("ic3", jobs.get(0).getName());
+        assertEquals("consumer", jobs.get(1).getName());
+        assertEquals(Collections.singletonList(jobs.get(0)), jobs.get(1).getPrerequisites());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void rejectCycles() {
+        ITool first = setupTool("first", Collections.singletonList(Artifact.IC3_MODEL),
+                Collections.singletonList(Artifact.DARE_OUTPUT));
+        ITool second = setupTool("second", Collections.singletonList(Artifact.DARE_OUTPUT),
+                Collections.singletonList(Artifact.IC3_MODEL));
+        JobGraph.createJobs(Arrays.asList(first, second), null);
+    }
+
+    @Test
+    public void skipDareStepOfCachedTool() {
+        ITool ic3 = setupTool("ic3", Collections.singletonList(Artifact.DARE_OUTPUT), Collections.emptyList());
+        ResultCache cache = mock(ResultCache.class);
+        when(cache.serveCachedResults(ic3)).thenReturn(true);
+
+        List<Job> jobs = JobGraph.createJobs(Collections.singletonList(ic3), cache);
+
+        assertEquals(1, jobs.size());
+        assertTrue(jobs.get(0).getPrerequisites().isEmpty());
+        jobs.get(0).run();
+        assertTrue(jobs.get(0).isCompleted());
+        verify(ic3, never()).runAnalysis();
+        verify(cache, never()).runAnalysis(ic3);
+    }
+
+    @Test
+    public void failToolOfFailedPrerequisite() {
+        ITool ic3 = setupTool("ic3", Collections.emptyList(), Collections.singletonList(Artifact.IC3_MODEL));
+        ITool consumer = setupTool("consumer", Collections.singletonList(Artifact.IC3_MODEL), Collections.emptyList());
+
+        List<Job> jobs = JobGraph.createJobs(Arrays.asList(ic3, consumer), null);
+        jobs.get(0).run();
+        jobs.get(1).run();
+
+        assertFalse(jobs.get(1).isCompleted());
+        verify(consumer, never()).runAnalysis();
+        verify(consumer).skipAnalysis();
+    }
+
+    private ITool setupTool(String toolName, List<Artifact> required, List<Artifact> produced){
+        ITool tool = mock(ITool.class);
+        when(tool.getToolName()).thenReturn(toolName);
+        when(tool.getAppName()).thenReturn("app");
+        when(tool.getApkPath()).thenReturn("/apksToTest/app.apk");
+        when(tool.getRequiredArtifacts()).thenReturn(required);
+        when(tool.getProducedArtifacts()).thenReturn(produced);
+        return tool;
+    }
+}
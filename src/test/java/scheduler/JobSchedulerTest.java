@@ -0,0 +1,208 @@
+package scheduler;
+
+import org.junit.Test;
+import tool.ITool;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Responsible for testing the JobScheduler i.e. that all jobs are run, and that the parallelism, tool limits and
+ * prerequisites of the jobs are respected.
+ */
+public class JobSchedulerTest {
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger maxRunning = new AtomicInteger();
+    private final AtomicInteger runningIc3 = new AtomicInteger();
+    private final AtomicInteger maxRunningIc3 = new AtomicInteger();
+    private final List<AnalysisJob> finishedJobs = Collections.synchronizedList(new ArrayList<>());
+
+    @Test
+    public void runAllJobs() throws InterruptedException {
+        JobScheduler scheduler = new JobScheduler(3, finishedJobs::add);
+        for(int i = 0; i < 10; i++){
+            scheduler.submit(new AnalysisJob(setupTool("flowdroid", i % 2 == 0)));
+        }
+        scheduler.awaitTermination();
+
+        assertEquals(10, finishedJobs.size());
+        assertEquals(5, finishedJobs.stream().filter(AnalysisJob::isCompleted).count());
+    }
+
+    @Test
+    public void respectParallelism() throws InterruptedException {
+        JobScheduler scheduler = new JobScheduler(2, finishedJobs::add);
+        for(int i = 0; i < 8; i++){
+            scheduler.submit(new AnalysisJob(setupTool("flowdroid", true)));
+        }
+        scheduler.awaitTermination();
+
+        assertEquals(8, finishedJobs.size());
+        assertEquals(2, maxRunning.get());
+    }
+
+    @Test
+    public void respectToolLimit() throws InterruptedException {
+        JobScheduler scheduler = new JobScheduler(4, finishedJobs::add);
+        scheduler.setToolLimit("ic3", 1);
+        for(int i = 0; i < 6; i++){
+            scheduler.submit(new AnalysisJob(setupTool("ic3", true)));
+            scheduler.submit(new AnalysisJob(setupTool("covert", true)));
+        }
+        scheduler.awaitTermination();
+
+        assertEquals(12, finishedJobs.size());
+        assertEquals(1, maxRunningIc3.get());
+        assertTrue(maxRunning.get() > 1);
+    }
+
+    @Test
+    public void respectAdmissionController() throws InterruptedException {
+        JobScheduler scheduler = new JobScheduler(4, finishedJobs::add);
+        scheduler.setAdmissionController(new AdmissionController(4096, 0, 8));
+        for(int i = 0; i < 6; i++){
+            ITool tool = setupTool("flowdroid", true);
+            when(tool.getMemoryReservation()).thenReturn(2048L);
+            scheduler.submit(new AnalysisJob(tool));
+        }
+        scheduler.awaitTermination();
+
+        assertEquals(6, finishedJobs.size());
+        assertEquals(2, maxRunning.get());
+    }
+
+    @Test
+    public void failingToolDoesNotStopScheduler() throws InterruptedException {
+        JobScheduler scheduler = new JobScheduler(2, finishedJobs::add);
+        ITool brokenTool = mock(ITool.class);
+        when(brokenTool.getToolName()).thenReturn("iccta");
+        when(brokenTool.runAnalysis()).thenThrow(new IllegalStateException("broken"));
+        scheduler.submit(new AnalysisJob(brokenTool));
+        scheduler.submit(new AnalysisJob(setupTool("iccta", true)));
+        scheduler.awaitTermination();
+
+        assertEquals(2, finishedJobs.size());
+        assertFalse(finishedJobs.stream().filter(job -> job.getTool() == brokenTool).findFirst().get().isCompleted());
+    }
+
+    @Test
+    public void waitForPrerequisites() throws InterruptedException {
+        JobScheduler scheduler = new JobScheduler(3, finishedJobs::add);
+        AnalysisJob dare = new AnalysisJob(setupTool("dare", true));
+        AnalysisJob ic3 = new AnalysisJob(setupTool("ic3", true));
+        ic3.dependsOn(dare);
+        scheduler.submit(ic3);
+        scheduler.submit(dare);
+        scheduler.submit(new AnalysisJob(setupTool("covert", true)));
+        scheduler.awaitTermination();
+
+        assertEquals(3, finishedJobs.size());
+        assertTrue(finishedJobs.indexOf(dare) < finishedJobs.indexOf(ic3));
+        assertTrue(ic3.isCompleted());
+        assertTrue(maxRunning.get() > 1);
+    }
+
+    @Test
+    public void skipJobsOfFailedPrerequisites() throws InterruptedException {
+        JobScheduler scheduler = new JobScheduler(2, finishedJobs::add);
+        AnalysisJob dare = new AnalysisJob(setupTool("dare", false));
+        ITool ic3Tool = setupTool("ic3", true);
+        AnalysisJob ic3 = new AnalysisJob(ic3Tool);
+        ic3.dependsOn(dare);
+        scheduler.submit(dare);
+        scheduler.submit(ic3);
+        scheduler.awaitTermination();
+
+        assertEquals(2, finishedJobs.size());
+        assertFalse(ic3.isCompleted());
+        verify(ic3Tool, never()).runAnalysis();
+    }
+
+    @Test
+    public void runLongestJobsFirst() throws InterruptedException {
+        JobScheduler scheduler = new JobScheduler(1, finishedJobs::add);
+        scheduler.setPolicy(SchedulingPolicy.LONGEST_FIRST);
+        CountDownLatch submitted = new CountDownLatch(1);
+        AnalysisJob first = new AnalysisJob(setupBlockedTool(submitted));
+        first.setEstimatedCost(100);
+        scheduler.submit(first);
+        for(long cost : new long[]{5, 30, 10, 30, 20}){
+            AnalysisJob job = new AnalysisJob(setupTool("covert", true));
+            job.setEstimatedCost(cost);
+            scheduler.submit(job);
+        }
+        submitted.countDown();
+        scheduler.awaitTermination();
+
+        assertEquals(6, finishedJobs.size());
+        long[] costs = finishedJobs.stream().skip(1).mapToLong(Job::getEstimatedCost).toArray();
+        assertArrayEquals(new long[]{30, 30, 20, 10, 5}, costs);
+    }
+
+    @Test
+    public void runShortestJobsFirst() throws InterruptedException {
+        JobScheduler scheduler = new JobScheduler(1, finishedJobs::add);
+        scheduler.setPolicy(SchedulingPolicy.SHORTEST_FIRST);
+        CountDownLatch submitted = new CountDownLatch(1);
+        scheduler.submit(new AnalysisJob(setupBlockedTool(submitted)));
+        for(long cost : new long[]{5, 30, 10, 30, 20}){
+            AnalysisJob job = new AnalysisJob(setupTool("covert", true));
+            job.setEstimatedCost(cost);
+            scheduler.submit(job);
+        }
+        submitted.countDown();
+        scheduler.awaitTermination();
+
+        long[] costs = finishedJobs.stream().skip(1).mapToLong(Job::getEstimatedCost).toArray();
+        assertArrayEquals(new long[]{5, 10, 20, 30, 30}, costs);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void rejectJobsAfterShutdown() throws InterruptedException {
+        JobScheduler scheduler = new JobScheduler(1, finishedJobs::add);
+        scheduler.awaitTermination();
+        scheduler.submit(new AnalysisJob(setupTool("flowdroid", true)));
+    }
+
+    /**
+     * Sets up a tool whose analysis only ends once the latch is released, e.g. after all other jobs were submitted.
+     */
+    private ITool setupBlockedTool(CountDownLatch latch){
+        ITool tool = mock(ITool.class);
+        when(tool.getToolName()).thenReturn("flowdroid");
+        when(tool.getAppName()).thenReturn("app");
+        when(tool.runAnalysis()).thenAnswer(invocation -> {
+            latch.await();
+            return true;
+        });
+        return tool;
+    }
+
+    private ITool setupTool(String toolName, boolean completes){
+        ITool tool = mock(ITool.class);
+        when(tool.getToolName()).thenReturn(toolName);
+        when(tool.getAppName()).thenReturn("app");
+        when(tool.runAnalysis()).thenAnswer(invocation -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            if(toolName.equals("ic3")){
+                maxRunningIc3.accumulateAndGet(runningIc3.incrementAndGet(), Math::max);
+            }
+            Thread.sleep(20);
+            if(toolName.equals("ic3")){
+                runningIc3.decrementAndGet();
+            }
+            running.decrementAndGet();
+            return completes;
+        });
+        return tool;
+    }
+}
@@ -0,0 +1,97 @@
+package scheduler;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Responsible for testing the PressureMonitor i.e. that the concurrency limit is lowered under sustained pressure and
+ * raised again once the pressure has cleared.
+ */
+public class PressureMonitorTest {
+    private File memoryPressure;
+    private File cpuPressure;
+    private PressureMonitor monitor;
+
+    @Before
+    public void setUp() throws IOException {
+        memoryPressure = File.createTempFile("memory", ".pressure");
+        cpuPressure = File.createTempFile("cpu", ".pressure");
+        setPressure(memoryPressure, 0);
+        setPressure(cpuPressure, 0);
+        monitor = new PressureMonitor(memoryPressure, cpuPressure, 4, 10, 50);
+    }
+
+    @After
+    public void tearDown() {
+        memoryPressure.delete();
+        cpuPressure.delete();
+    }
+
+    @Test
+    public void readPressure() throws IOException {
+        setPressure(memoryPressure, 12.34);
+        assertEquals(12.34, PressureMonitor.readPressure(memoryPressure), 0.001);
+        assertEquals(0, PressureMonitor.readPressure(new File("doesNotExist")), 0.001);
+    }
+
+    @Test
+    public void throttleUnderSustainedPressure() throws IOException {
+        setPressure(memoryPressure, 25);
+        monitor.sample(4);
+        monitor.sample(4);
+        assertEquals(4, monitor.getConcurrencyLimit());
+        monitor.sample(4);
+        assertEquals(3, monitor.getConcurrencyLimit());
+
+        for(int i = 0; i < 9; i++){
+            monitor.sample(3);
+        }
+        assertEquals(1, monitor.getConcurrencyLimit());
+    }
+
+    @Test
+    public void ignoreShortPressureSpikes() throws IOException {
+        setPressure(cpuPressure, 80);
+        monitor.sample(4);
+        monitor.sample(4);
+        setPressure(cpuPressure, 30);
+        monitor.sample(4);
+        setPressure(cpuPressure, 80);
+        monitor.sample(4);
+        monitor.sample(4);
+        assertEquals(4, monitor.getConcurrencyLimit());
+    }
+
+    @Test
+    public void rampUpWhenPressureClears() throws IOException {
+        setPressure(memoryPressure, 25);
+        for(int i = 0; i < 3; i++){
+            monitor.sample(2);
+        }
+        assertEquals(1, monitor.getConcurrencyLimit());
+
+        setPressure(memoryPressure, 1);
+        for(int i = 0; i < 3; i++){
+            monitor.sample(1);
+        }
+        assertEquals(2, monitor.getConcurrencyLimit());
+        for(int i = 0; i < 12; i++){
+            monitor.sample(2);
+        }
+        assertEquals(4, monitor.getConcurrencyLimit());
+    }
+
+    private void setPressure(File pressureFile, double avg10) throws IOException {
+        Files.write(pressureFile.toPath(), Arrays.asList(
+                "some avg10=" + avg10 + " avg60=0.00 avg300=0.00 total=1000",
+                "full avg10=0.00 avg60=0.00 avg300=0.00 total=500"));
+    }
+}
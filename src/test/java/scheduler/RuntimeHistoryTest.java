@@ -0,0 +1,76 @@
+package scheduler;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Responsible for testing the RuntimeHistory i.e. that deadlines are derived from the running times on similar apks,
+ * stay within their bounds and survive a restart.
+ */
+public class RuntimeHistoryTest {
+    private static final long MINUTE = 60000;
+    private static final ApkFeatures SMALL_APK = new ApkFeatures(2_000_000, 800);
+    private static final ApkFeatures LARGE_APK = new ApkFeatures(60_000_000, 25_000);
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("runtimes", ".txt");
+        file.delete();
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void useCapWithoutHistory() {
+        RuntimeHistory history = new RuntimeHistory(file, 3, MINUTE, 60 * MINUTE);
+        for(int i = 0; i < RuntimeHistory.MIN_SAMPLES - 1; i++){
+            history.record("ic3", SMALL_APK, MINUTE, true);
+        }
+        assertEquals(60 * MINUTE, history.getTimeout("ic3", SMALL_APK));
+        assertEquals(60 * MINUTE, history.getTimeout("flowdroid", SMALL_APK));
+    }
+
+    @Test
+    public void deriveTimeoutFromSimilarApks() {
+        RuntimeHistory history = new RuntimeHistory(file, 3, MINUTE, 60 * MINUTE);
+        for(int i = 0; i < 30; i++){
+            history.record("ic3", new ApkFeatures(SMALL_APK.getApkSize() + i * 1000, 800), 2 * MINUTE, true);
+            history.record("ic3", new ApkFeatures(LARGE_APK.getApkSize() + i * 1000, 25_000), 15 * MINUTE, true);
+        }
+        history.record("ic3", SMALL_APK, 60 * MINUTE, false);
+
+        assertEquals(6 * MINUTE, history.getTimeout("ic3", SMALL_APK));
+        assertEquals(45 * MINUTE, history.getTimeout("ic3", LARGE_APK));
+    }
+
+    @Test
+    public void keepTimeoutWithinBounds() {
+        RuntimeHistory history = new RuntimeHistory(file, 3, 5 * MINUTE, 30 * MINUTE);
+        for(int i = 0; i < 30; i++){
+            history.record("flowdroid", SMALL_APK, 1000, true);
+            history.record("flowdroid", LARGE_APK, 20 * MINUTE, true);
+        }
+        assertEquals(5 * MINUTE, history.getTimeout("flowdroid", SMALL_APK));
+        assertEquals(30 * MINUTE, history.getTimeout("flowdroid", LARGE_APK));
+    }
+
+    @Test
+    public void loadHistoryFromFile() {
+        RuntimeHistory history = new RuntimeHistory(file, 2, MINUTE, 60 * MINUTE);
+        for(int i = 0; i < 10; i++){
+            history.record("covert", SMALL_APK, 4 * MINUTE, true);
+        }
+        RuntimeHistory reloaded = new RuntimeHistory(file, 2, MINUTE, 60 * MINUTE);
+        assertEquals(8 * MINUTE, reloaded.getTimeout("covert", SMALL_APK));
+    }
+}
@@ -0,0 +1,107 @@
+package test;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import shell.control.FileOperations;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Responsible for testing the FileOperations i.e. that the output of the tools is removed and apks are transferred
+ * without running commands in the shell, and that workspaces mirror the tool directory.
+ */
+public class FileOperationsTest {
+    private Path workspace;
+
+    @Before
+    public void setUp() throws IOException {
+        workspace = Files.createTempDirectory("workspace");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.walk(workspace).map(Path::toFile).sorted((a, b) -> b.compareTo(a)).forEach(File::delete);
+    }
+
+    @Test
+    public void deleteDirectoriesRecursively() throws IOException {
+        Path first = workspace.resolve("dareOutput/optimized/app");
+        Path second = workspace.resolve("dareOutput/retargeted/app");
+        assertTrue(FileOperations.createDirectories(first.resolve("de/app")));
+        assertTrue(FileOperations.createDirectories(second));
+        Files.write(first.resolve("de/app/Main.class"), new byte[16]);
+        Files.write(workspace.resolve("results.txt"), new byte[16]);
+
+        assertTrue(FileOperations.deleteAll(first, second, workspace.resolve("results.txt"),
+                workspace.resolve("missing")));
+        assertFalse(Files.exists(first));
+        assertFalse(Files.exists(second));
+        assertFalse(Files.exists(workspace.resolve("results.txt")));
+        assertTrue(Files.isDirectory(workspace.resolve("dareOutput/optimized")));
+    }
+
+    @Test
+    public void truncateFile() throws IOException {
+        Path log = workspace.resolve("app.log");
+        Files.write(log, "analysis log".getBytes(StandardCharsets.UTF_8));
+        assertTrue(FileOperations.truncate(log));
+        assertEquals(0, Files.size(log));
+    }
+
+    @Test
+    public void linkApkOnSameFileStore() throws IOException {
+        Path apk = workspace.resolve("app.apk");
+        Files.write(apk, "apk".getBytes(StandardCharsets.UTF_8));
+        Path target = workspace.resolve("app_repo/app/app.apk");
+        assertTrue(FileOperations.createDirectories(target.getParent()));
+        Files.write(target, "old apk".getBytes(StandardCharsets.UTF_8));
+
+        assertTrue(FileOperations.linkOrCopy(apk, target));
+        assertEquals("apk", new String(Files.readAllBytes(target), StandardCharsets.UTF_8));
+        assertTrue(Files.isSameFile(apk, target));
+
+        assertTrue(FileOperations.delete(target.getParent()));
+        assertTrue(Files.isRegularFile(apk));
+    }
+
+    @Test
+    public void failToTransferMissingApk() {
+        assertFalse(FileOperations.linkOrCopy(workspace.resolve("missing.apk"), workspace.resolve("copy.apk")));
+    }
+
+    @Test
+    public void mirrorToolDirectoryInWorkspace() throws IOException {
+        Path toolDir = workspace.resolve("horndroid");
+        Files.createDirectories(toolDir.resolve("OUTPUT.report"));
+        Files.createDirectories(toolDir.resolve("logs"));
+        Files.write(toolDir.resolve("OUTPUT.report/other.apk.json"), new byte[16]);
+        Files.write(toolDir.resolve("logs/app.log"), "log of another run".getBytes(StandardCharsets.UTF_8));
+        Files.write(toolDir.resolve("logs/settings.txt"), new byte[16]);
+        Files.write(toolDir.resolve("apktool.jar"), new byte[16]);
+        Path run = workspace.resolve("workspaces/horndroid/app");
+        Files.createDirectories(run.resolve("stale"));
+
+        assertTrue(FileOperations.createWorkspace(toolDir, run, Arrays.asList("OUTPUT.report", "logs/app.log")));
+
+        assertTrue(Files.isSymbolicLink(run.resolve("apktool.jar")));
+        assertTrue(Files.isSameFile(toolDir.resolve("apktool.jar"), run.resolve("apktool.jar")));
+        assertTrue(Files.isSymbolicLink(run.resolve("logs/settings.txt")));
+        assertFalse(Files.isSymbolicLink(run.resolve("logs")));
+        assertFalse(Files.exists(run.resolve("logs/app.log")));
+        assertFalse(Files.isSymbolicLink(run.resolve("OUTPUT.report")));
+        assertEquals(0, run.resolve("OUTPUT.report").toFile().list().length);
+        assertFalse(Files.exists(run.resolve("stale")));
+
+        assertTrue(FileOperations.delete(run));
+        assertTrue(Files.isRegularFile(toolDir.resolve("apktool.jar")));
+        assertTrue(Files.isRegularFile(toolDir.resolve("logs/app.log")));
+    }
+}
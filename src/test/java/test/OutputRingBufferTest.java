@@ -0,0 +1,54 @@
+package test;
+
+import org.junit.Test;
+import shell.control.OutputRingBuffer;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+/**
+ * Responsible for testing the OutputRingBuffer i.e. that only the end of the output is kept, however it is written.
+ */
+public class OutputRingBufferTest {
+
+    @Test
+    public void keepEverythingBelowCapacity() {
+        OutputRingBuffer buffer = new OutputRingBuffer(16);
+        write(buffer, "line 1\nline 2\n");
+        assertEquals("line 1\nline 2\n", buffer.getTail());
+        assertEquals(14, buffer.getBytesWritten());
+    }
+
+    @Test
+    public void keepEndOfOutput() {
+        OutputRingBuffer buffer = new OutputRingBuffer(10);
+        write(buffer, "0123456");
+        write(buffer, "789abc");
+        buffer.write('d');
+        assertEquals("456789abcd", new String(buffer.toByteArray(), StandardCharsets.UTF_8));
+        assertEquals(14, buffer.getBytesWritten());
+    }
+
+    @Test
+    public void keepEndOfLargeWrite() {
+        OutputRingBuffer buffer = new OutputRingBuffer(8);
+        write(buffer, "xy");
+        write(buffer, "0123456789abcdef");
+        assertEquals("89abcdef", new String(buffer.toByteArray(), StandardCharsets.UTF_8));
+        write(buffer, "gh");
+        assertEquals("abcdefgh", new String(buffer.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void startTailWithCompleteLine() {
+        OutputRingBuffer buffer = new OutputRingBuffer(12);
+        write(buffer, "first line\nsecond\nthird\n");
+        assertEquals("[18 bytes of earlier output omitted]\nthird\n", buffer.getTail());
+    }
+
+    private static void write(OutputRingBuffer buffer, String text){
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        buffer.write(bytes, 0, bytes.length);
+    }
+}
@@ -0,0 +1,53 @@
+package test;
+
+import org.junit.Test;
+import shell.control.ProcessTree;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Responsible for testing the ProcessTree i.e. that the descendants of a shell are found and killed with it.
+ */
+public class ProcessTreeTest {
+
+    @Test
+    public void killShellWithItsChildren() throws Exception {
+        assumeTrue(new File("/proc").isDirectory());
+        Process shell = new ProcessBuilder("sh", "-c", "sleep 30 & sleep 30 & wait").start();
+        long pid = ProcessTree.getPid(shell);
+        assertTrue(pid > 0);
+
+        List<Long> children = ProcessTree.getDescendants(pid);
+        for(int i = 0; i < 50 && children.size() < 2; i++){
+            Thread.sleep(20);
+            children = ProcessTree.getDescendants(pid);
+        }
+        assertEquals(2, children.size());
+
+        ProcessTree.kill(shell);
+        shell.waitFor();
+        for(Long child : children){
+            for(int i = 0; i < 100 && isRunning(child); i++){
+                Thread.sleep(20);
+            }
+            assertFalse(isRunning(child));
+        }
+    }
+
+    /**
+     * Checks whether a process is still running. Killed children are reaped by init, until then they are zombies.
+     */
+    private static boolean isRunning(long pid) throws Exception {
+        File stat = new File("/proc/" + pid + "/stat");
+        if(!stat.exists()){
+            return false;
+        }
+        String content = new String(Files.readAllBytes(stat.toPath()));
+        return content.charAt(content.lastIndexOf(')') + 2) != 'Z';
+    }
+}
@@ -0,0 +1,44 @@
+package test;
+
+import org.junit.Test;
+import shell.control.ExecutionResult;
+import shell.control.ResourceSampler;
+import shell.control.ResourceUsage;
+import shell.control.ShellExecutor;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Responsible for testing the ResourceSampler i.e. that the memory and CPU time used by the processes of a command
+ * are measured while it runs.
+ */
+public class ResourceSamplerTest {
+
+    @Test
+    public void measureProcessTree() {
+        assumeTrue(ResourceSampler.isSupported());
+        String dir = System.getProperty("user.dir");
+        // busy for two seconds, so the child is seen by more than one sample
+        String busyChild = "end=$(($(date +%s) + 2)); while [ $(date +%s) -lt $end ]; do :; done";
+        ExecutionResult result = new ShellExecutor().execute(dir, "sh -c '" + busyChild + "' & wait", 60000);
+
+        assertTrue(result.isCompleted());
+        ResourceUsage usage = result.getResourceUsage();
+        assertNotNull(usage);
+        assertTrue(usage.getPeakRss() > 0);
+        assertTrue(usage.getUserCpuTime() + usage.getSystemCpuTime() > 0);
+        assertEquals(5, usage.getCSVRepresentation(";").split(";").length);
+    }
+
+    @Test
+    public void measureUntilTimeout() {
+        assumeTrue(ResourceSampler.isSupported());
+        String dir = System.getProperty("user.dir");
+        ExecutionResult result = new ShellExecutor().execute(dir, "sleep 30 & wait", 300);
+
+        assertTrue(result.isTimedOut());
+        assertNotNull(result.getResourceUsage());
+        assertTrue(result.getResourceUsage().getPeakRss() > 0);
+    }
+}
@@ -2,8 +2,20 @@ package test;
 
 import org.junit.Before;
 import org.junit.Test;
+import shell.control.CommandSpec;
+import shell.control.ExecutionResult;
 import shell.control.ShellExecutor;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import static org.junit.Assert.*;
 
 /**
@@ -36,6 +48,118 @@ public class ShellExecutorTest {
         assertEquals(0, exitCode);
     }
 
+    @Test
+    public void killCommandAfterTimeout(){
+        String dir = System.getProperty("user.dir");
+        long start = System.currentTimeMillis();
+        int exitCode = shell.runCommand(dir, "exec sleep 10", 300);
+        assertEquals(2, exitCode);
+        assertTrue(System.currentTimeMillis() - start < 5000);
+    }
+
+    @Test
+    public void killChildrenKeepingOutputOpen(){
+        String dir = System.getProperty("user.dir");
+        long start = System.currentTimeMillis();
+        ExecutionResult result = shell.execute(dir, "echo started; sleep 30 & sleep 30 & wait", 300);
+        assertTrue(result.isTimedOut());
+        assertFalse(result.isCompleted());
+        assertEquals(8, result.getOutputBytes());
+        assertTrue(System.currentTimeMillis() - start < 10000);
+    }
+
+    @Test
+    public void reportExitValue(){
+        String dir = System.getProperty("user.dir");
+        ExecutionResult result = shell.execute(dir, "exit 3", 10000);
+        assertFalse(result.isTimedOut());
+        assertEquals(3, result.getExitValue());
+        assertEquals(1, shell.runCommand(dir, "exit 3"));
+    }
+
+    @Test
+    public void redirectOutputWithoutShell() throws IOException {
+        File dir = Files.createTempDirectory("shell").toFile();
+        File results = new File(dir, "my results.txt");
+        CommandSpec spec = new CommandSpec(dir.getPath(), "printf", "%s|%s", "app with spaces.apk", "$HOME");
+        spec.setOutputFile(results);
+        spec.setEnvironment("UNUSED", "value");
+        try {
+            ExecutionResult result = shell.execute(spec, 10000);
+            assertTrue(result.isCompleted());
+            assertEquals(0, result.getOutputBytes());
+            assertEquals("app with spaces.apk|$HOME",
+                    new String(Files.readAllBytes(results.toPath()), StandardCharsets.UTF_8));
+            assertEquals("printf '%s|%s' 'app with spaces.apk' '$HOME' > 'my results.txt'", spec.toString());
+        } finally {
+            results.delete();
+            dir.delete();
+        }
+    }
+
+    @Test
+    public void failToStartUnknownProgram(){
+        String dir = System.getProperty("user.dir");
+        assertEquals(1, shell.runCommand(new CommandSpec(dir, "./no-such-tool"), 10000));
+    }
+
+    @Test
+    public void keepEndOfOutputOfFailedCommand(){
+        String dir = System.getProperty("user.dir");
+        ExecutionResult result = shell.execute(dir, "seq 1 100000; echo failed >&2; exit 1", 10000);
+        assertFalse(result.isCompleted());
+        assertTrue(result.getOutputTail().length() <= ShellExecutor.CAPTURE_SIZE + 64);
+        assertTrue(result.getOutputTail().startsWith("["));
+        assertTrue(result.getOutputTail().endsWith("99999\n100000\nfailed\n"));
+        assertNull(shell.execute(dir, "seq 1 100000", 10000).getOutputTail());
+    }
+
+    @Test(timeout = 20000)
+    public void reportInterruptedCommandAsFailed() throws Exception {
+        String dir = System.getProperty("user.dir");
+        ExecutorService thread = Executors.newSingleThreadExecutor();
+        Future<ExecutionResult> result = thread.submit(() -> shell.execute(new CommandSpec(dir, "sleep", "30"), 60000));
+        Thread.sleep(500);
+        thread.shutdownNow();
+        assertFalse(result.get().isTimedOut());
+        assertFalse(result.get().isCompleted());
+        assertEquals(1, ShellExecutor.getExitCode(result.get(), 60000));
+    }
+
+    @Test
+    public void runCommandsConcurrently() throws Exception {
+        long duration = runInParallel(4, null);
+        assertTrue("took " + duration + " ms", duration < 1500);
+    }
+
+    @Test
+    public void limitCommandsOfGroup() throws Exception {
+        shell.setLimit("ic3", 1);
+        long duration = runInParallel(3, "ic3");
+        assertTrue("took " + duration + " ms", duration >= 1500);
+    }
+
+    /**
+     * Runs commands sleeping half a second on the executor from several threads at once.
+     * @return Long: time until all commands have ended [in ms].
+     */
+    private long runInParallel(int commands, String group) throws Exception {
+        String dir = System.getProperty("user.dir");
+        ExecutorService threads = Executors.newFixedThreadPool(commands);
+        long start = System.currentTimeMillis();
+        List<Future<ExecutionResult>> results = new ArrayList<>();
+        for(int i = 0; i < commands; i++){
+            CommandSpec spec = new CommandSpec(dir, "sleep", "0.5");
+            spec.setGroup(group);
+            results.add(threads.submit(() -> shell.execute(spec, 10000)));
+        }
+        for(Future<ExecutionResult> result : results){
+            assertTrue(result.get().isCompleted());
+        }
+        threads.shutdown();
+        return System.currentTimeMillis() - start;
+    }
+
     //TODO add edge cases i.e. faulty commands.
 
 }
\ No newline at end of file
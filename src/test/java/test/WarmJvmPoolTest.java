@@ -0,0 +1,120 @@
+package test;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import shell.control.CommandSpec;
+import shell.control.ExecutionResult;
+import shell.control.WarmJvmPool;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.*;
+
+/**
+ * Responsible for testing the WarmJvmPool i.e. that a Java analyzer runs several times in the same JVM, that its
+ * System.exit only ends its run and that JVMs are recycled and killed after their deadline.
+ */
+public class WarmJvmPoolTest {
+    private static final String JAVA = System.getProperty("java.home") + "/bin/java";
+    private Path workspace;
+    private WarmJvmPool pool;
+
+    /**
+     * Analyzer writing the apk and the JVM it runs in to stdout.
+     */
+    public static class FakeAnalyzer {
+        public static void main(String[] args) throws InterruptedException {
+            if(args[0].equals("exit")){
+                System.exit(3);
+            } else if(args[0].equals("sleep")){
+                Thread.sleep(30000);
+            }
+            System.out.println(args[0] + " analyzed in " + ManagementFactory.getRuntimeMXBean().getName());
+        }
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        workspace = Files.createTempDirectory("warm");
+        pool = new WarmJvmPool(2);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        pool.close();
+        Files.walk(workspace).map(Path::toFile).sorted((a, b) -> b.compareTo(a)).forEach(File::delete);
+    }
+
+    @Test(timeout = 60000)
+    public void recycleJvmAfterItsJobs() throws IOException {
+        String first = analyze("app1");
+        String second = analyze("app2");
+        String third = analyze("app3");
+        assertTrue(first.startsWith("app1 analyzed in "));
+        assertTrue(second.startsWith("app2 analyzed in "));
+        assertEquals(getJvm(first), getJvm(second));
+        assertNotEquals(getJvm(second), getJvm(third));
+    }
+
+    @Test(timeout = 60000)
+    public void trapExitOfAnalyzer() throws IOException {
+        ExecutionResult exit = pool.execute(createSpec("exit"), 30000);
+        assertFalse(exit.isTimedOut());
+        assertEquals(3, exit.getExitValue());
+        assertTrue(analyze("app").startsWith("app analyzed in "));
+    }
+
+    @Test(timeout = 60000)
+    public void killJvmAfterTimeout() throws IOException {
+        long start = System.currentTimeMillis();
+        ExecutionResult result = pool.execute(createSpec("sleep"), 2000);
+        assertTrue(result.isTimedOut());
+        assertTrue(System.currentTimeMillis() - start < 20000);
+        assertTrue(analyze("app").startsWith("app analyzed in "));
+    }
+
+    @Test(timeout = 60000)
+    public void runColdIfExitCannotBeTrapped() throws IOException {
+        for(String apk : new String[]{"app1", "app2"}){
+            CommandSpec spec = new CommandSpec(workspace.toString(), JAVA, "-Xmx128m", "-Djava.security.manager=default",
+                    "-cp", System.getProperty("java.class.path"), FakeAnalyzer.class.getName(), apk);
+            spec.setOutputFile(workspace.resolve(apk + "-Results.txt").toFile());
+            ExecutionResult result = pool.execute(spec, 30000);
+            assertTrue(result.getOutputTail(), result.isCompleted());
+            String output = new String(Files.readAllBytes(spec.getOutputFile().toPath()), StandardCharsets.UTF_8);
+            assertTrue(output.startsWith(apk + " analyzed in "));
+        }
+    }
+
+    @Test
+    public void runOnlyJavaAnalyzers() {
+        assertTrue(pool.supports(createSpec("app")));
+        assertFalse(pool.supports(new CommandSpec(workspace.toString(), "./runIC3.sh", "app.apk")));
+        assertTrue(pool.supports(new CommandSpec(workspace.toString(), "~/jdk/bin/java", "-Xmx12g", "-jar",
+                "IccTA.jar", "app.apk")));
+    }
+
+    private String analyze(String apk) throws IOException {
+        CommandSpec spec = createSpec(apk);
+        ExecutionResult result = pool.execute(spec, 30000);
+        assertTrue(result.getOutputTail(), result.isCompleted());
+        return new String(Files.readAllBytes(spec.getOutputFile().toPath()), StandardCharsets.UTF_8).trim();
+    }
+
+    private CommandSpec createSpec(String apk){
+        CommandSpec spec = new CommandSpec(workspace.toString(), JAVA, "-Xmx128m", "-cp",
+                System.getProperty("java.class.path"), FakeAnalyzer.class.getName(), apk);
+        spec.setOutputFile(workspace.resolve(apk + "-Results.txt").toFile());
+        return spec;
+    }
+
+    private static String getJvm(String output){
+        return output.substring(output.lastIndexOf(' ') + 1);
+    }
+}
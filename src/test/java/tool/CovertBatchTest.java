@@ -0,0 +1,222 @@
+package tool;
+
+import leaks.Leak;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import parser.CovertReportReader;
+import scheduler.AnalysisJob;
+import scheduler.BatchJob;
+import scheduler.JobScheduler;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Responsible for testing the CovertBatch i.e. that Covert runs once for all apks of the batch, that its report is
+ * split into the reports of the single apps and that the apks are handed back to run on their own if the batch fails.
+ */
+public class CovertBatchTest {
+    private static final String HEAD = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+            + "<analysisReport>\n    <name>batch</name>\n    <apps/>\n    <vulnerabilities>";
+    private static final String TAIL = "\n    </vulnerabilities>\n</analysisReport>\n";
+
+    private Path workspace;
+    private Path toolDir;
+
+    @Before
+    public void setUp() throws IOException {
+        workspace = Files.createTempDirectory("covert");
+        toolDir = Files.createDirectories(workspace.resolve("covert"));
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(workspace)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Test
+    public void runCovertOnceForAllApks() throws IOException {
+        writeCovert("echo run >> runs.txt\n"
+                + "cat > app_repo/$1/$1.xml <<'EOF'\n" + HEAD + vulnerability("org.a", "org.a.Main")
+                + vulnerability("org.b", "org.b.Main") + vulnerability("org.a", "org.a.Other") + TAIL + "EOF\n");
+        CovertTool first = createTool("first");
+        CovertTool second = createTool("second");
+        CovertBatch batch = new CovertBatch();
+        assertTrue(batch.add(first, "org.a"));
+        assertTrue(batch.add(second, "org.b"));
+
+        assertTrue(batch.runAnalysis().isEmpty());
+
+        assertEquals(1, Files.readAllLines(toolDir.resolve("runs.txt")).size());
+        assertEquals(0, first.getExitCode());
+        assertEquals(0, second.getExitCode());
+        assertEquals(toolDir.resolve("app_repo").resolve(batch.getFolderName()).resolve("first.xml").toFile(),
+                first.getResultsFile());
+        ArrayList<Leak> firstLeaks = first.getLeaks();
+        assertEquals(2, firstLeaks.size());
+        assertEquals("org.a.Main", firstLeaks.get(0).getClassName());
+        assertEquals("org.a.Other", firstLeaks.get(1).getClassName());
+        ArrayList<Leak> secondLeaks = second.getLeaks();
+        assertEquals(1, secondLeaks.size());
+        assertEquals("org.b.Main", secondLeaks.get(0).getClassName());
+
+        first.cleanToolOutput();
+        assertTrue(Files.isDirectory(toolDir.resolve("app_repo").resolve(batch.getFolderName())));
+        second.cleanToolOutput();
+        assertFalse(Files.exists(toolDir.resolve("app_repo").resolve(batch.getFolderName())));
+    }
+
+    @Test
+    public void splitReportByApp() throws IOException {
+        Path report = workspace.resolve("batch.xml");
+        String shared = "\n        <vulnerability>\n            <vulnerabilityElements>\n                <type>APP</type>"
+                + "\n                <description>org.a</description>\n            </vulnerabilityElements>"
+                + "\n            <vulnerabilityElements>\n                <type>APP</type>"
+                + "\n                <description>org.b</description>\n            </vulnerabilityElements>"
+                + "\n        </vulnerability>";
+        Files.write(report, (HEAD + vulnerability("org.a", "org.a.Main") + shared + TAIL)
+                .getBytes(StandardCharsets.UTF_8));
+        HashMap<String, File> reports = new HashMap<>();
+        reports.put("org.a", workspace.resolve("a.xml").toFile());
+        reports.put("org.b", workspace.resolve("b.xml").toFile());
+
+        assertTrue(CovertBatch.splitReport(report.toFile(), reports));
+
+        assertEquals(Arrays.asList("org.a"), readApps(reports.get("org.a")));
+        assertEquals(Collections.emptyList(), readApps(reports.get("org.b")));
+        assertTrue(read(reports.get("org.a")).contains("<description>org.a.Main: void onCreate(android.os.Bundle)"));
+        assertTrue(read(reports.get("org.b")).contains("<name>batch</name>"));
+    }
+
+    @Test
+    public void splitReformattedReport() throws IOException {
+        Path report = workspace.resolve("batch.xml");
+        Files.write(report, ("<?xml version=\"1.0\"?><analysisReport><vulnerabilities>"
+                + "<vulnerability id=\"1\"><vulnerabilityElements><type>APP</type><!-- app -->"
+                + "<description> org.b </description></vulnerabilityElements></vulnerability>"
+                + "<vulnerability><vulnerabilityElements><type>APP</type><description><![CDATA[org.a]]></description>"
+                + "</vulnerabilityElements><description>a &lt; b</description></vulnerability>"
+                + "</vulnerabilities></analysisReport>").getBytes(StandardCharsets.UTF_8));
+        HashMap<String, File> reports = new HashMap<>();
+        reports.put("org.a", workspace.resolve("a.xml").toFile());
+        reports.put("org.b", workspace.resolve("b.xml").toFile());
+
+        assertTrue(CovertBatch.splitReport(report.toFile(), reports));
+
+        assertEquals(Arrays.asList("org.a"), readApps(reports.get("org.a")));
+        assertEquals(Arrays.asList("org.b"), readApps(reports.get("org.b")));
+        assertTrue(read(reports.get("org.a")).contains("a &lt; b"));
+        assertTrue(read(reports.get("org.b")).contains("<vulnerability id=\"1\">"));
+    }
+
+    @Test
+    public void handBackApksIfBatchFails() throws IOException {
+        writeCovert("echo $1 >> runs.txt\ncase $1 in covertBatch*) exit 1;; esac\n"
+                + "cat > app_repo/$1/$1.xml <<'EOF'\n" + HEAD + vulnerability("org.a", "org.a.Main") + TAIL + "EOF\n");
+        CovertTool first = createTool("first");
+        CovertTool second = createTool("second");
+        CovertBatch batch = new CovertBatch();
+        batch.add(first, "org.a");
+        batch.add(second, "org.b");
+
+        List<CovertTool> retriedTools = batch.runAnalysis();
+
+        assertEquals(Arrays.asList(first, second), retriedTools);
+        assertEquals(1, Files.readAllLines(toolDir.resolve("runs.txt")).size());
+        assertNotEquals(0, first.getExitCode());
+        first.runAnalysis();
+        second.runAnalysis();
+        assertEquals(0, first.getExitCode());
+        assertEquals(0, second.getExitCode());
+        assertEquals(toolDir.resolve("app_repo/second/second.xml").toFile(), second.getResultsFile());
+        assertEquals(1, second.getLeaks().size());
+    }
+
+    @Test
+    public void runHandedBackApksAsJobsOfTheirOwn() throws IOException, InterruptedException {
+        writeCovert("echo $1 >> runs.txt\ncase $1 in covertBatch*) sleep 1; exit 1;; esac\n"
+                + "cat > app_repo/$1/$1.xml <<'EOF'\n" + HEAD + vulnerability("org.a", "org.a.Main") + TAIL + "EOF\n");
+        AnalysisJob first = new AnalysisJob(createTool("first"));
+        AnalysisJob second = new AnalysisJob(createTool("second"));
+        BatchJob batch = new BatchJob(2, null);
+        assertTrue(batch.add(first, "org.a"));
+        assertTrue(batch.add(second, "org.b"));
+        List<AnalysisJob> finishedJobs = Collections.synchronizedList(new ArrayList<>());
+        JobScheduler scheduler = new JobScheduler(2, finishedJobs::add);
+
+        scheduler.submit(batch);
+        scheduler.awaitTermination();
+
+        assertEquals(3, Files.readAllLines(toolDir.resolve("runs.txt")).size());
+        assertEquals(2, finishedJobs.size());
+        assertTrue(finishedJobs.contains(first) && first.isCompleted());
+        assertTrue(finishedJobs.contains(second) && second.isCompleted());
+        assertEquals(0, second.getTool().getExitCode());
+        assertTrue(first.getWallTime() < 1000);
+    }
+
+    @Test
+    public void addOnlyDistinctApps() throws IOException {
+        CovertBatch batch = new CovertBatch();
+        assertTrue(batch.add(createTool("first"), "org.a"));
+        assertFalse(batch.add(createTool("second"), "org.a"));
+        assertFalse(batch.add(createTool("first"), "org.b"));
+        assertFalse(batch.add(createTool("third"), null));
+        assertFalse(batch.add(new FlowDroidTool(workspace + "/fourth.apk", "sdk"), "org.d"));
+        assertEquals(1, batch.size());
+    }
+
+    private CovertTool createTool(String appName) throws IOException {
+        Path apk = Files.write(workspace.resolve(appName + ".apk"), new byte[]{1});
+        CovertTool tool = new CovertTool(apk.toString(), "sdk");
+        tool.toolDir = toolDir.toString();
+        tool.setCommand();
+        return tool;
+    }
+
+    private void writeCovert(String script) throws IOException {
+        Path covert = toolDir.resolve("covert.sh");
+        Files.write(covert, ("#!/bin/sh\n" + script).getBytes(StandardCharsets.UTF_8));
+        covert.toFile().setExecutable(true);
+    }
+
+    private static String vulnerability(String app, String className){
+        return "\n        <vulnerability>\n            <type>Intent Spoofing</type>"
+                + "\n            <description>App " + app + " leaks data.</description>"
+                + "\n            <vulnerabilityElements>\n                <type>APP</type>"
+                + "\n                <description>" + app + "</description>"
+                + "\n                <element>\n                    <type>METHOD</type>"
+                + "\n                    <description>" + className + ": void onCreate(android.os.Bundle)</description>"
+                + "\n                </element>\n            </vulnerabilityElements>\n        </vulnerability>";
+    }
+
+    private static List<String> readApps(File file) throws IOException {
+        ArrayList<String> apps = new ArrayList<>();
+        try (CovertReportReader reader = new CovertReportReader(file)) {
+            while(reader.hasNext()){
+                reader.next();
+                apps.add(reader.getApp());
+            }
+        }
+        return apps;
+    }
+
+    private static String read(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+}
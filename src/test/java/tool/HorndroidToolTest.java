@@ -2,11 +2,23 @@ package tool;
 
 import org.junit.Before;
 import org.junit.Test;
+import shell.control.CommandSpec;
+import shell.control.WarmJvmPool;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.regex.Pattern;
 
 import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 /**
  * Responsible for Testing the HornDroidTool properties i.e. its specific implementation of the Tools class.
@@ -51,6 +63,40 @@ public class HorndroidToolTest {
         assertEquals("horndroid", name);
     }
 
+    @Test
+    public void runInWorkspace(){
+        Tool.setWorkspaceRoot(Paths.get("/dev/shm/workspaces"));
+        try {
+            HorndroidTool tool = new HorndroidTool(APKPATH, SDK);
+            assertEquals("/dev/shm/workspaces/horndroid/app", tool.getWorkDir());
+            assertEquals(new File(tool.getWorkDir()), tool.getCommandSpec().getDirectory());
+            assertEquals(new File("/dev/shm/workspaces/horndroid/app/OUTPUT.report/app.apk.json"),
+                    tool.locateResultsFile());
+            assertEquals(new FlowDroidTool(APKPATH, SDK).getToolDir(), new FlowDroidTool(APKPATH, SDK).getWorkDir());
+        } finally {
+            Tool.setWorkspaceRoot(null);
+        }
+    }
+
+    @Test
+    public void runColdInWorkspace() throws IOException {
+        Path root = Files.createTempDirectory("workspaces");
+        WarmJvmPool pool = mock(WarmJvmPool.class);
+        when(pool.supports(any(CommandSpec.class))).thenReturn(true);
+        Tool.setWorkspaceRoot(root);
+        Tool.setWarmJvmPool(pool);
+        try {
+            HorndroidTool tool = new HorndroidTool(APKPATH, SDK);
+            tool.runAnalysis();
+            verify(pool, never()).execute(any(CommandSpec.class), anyLong());
+            tool.cleanToolOutput();
+        } finally {
+            Tool.setWarmJvmPool(null);
+            Tool.setWorkspaceRoot(null);
+            Files.walk(root).map(Path::toFile).sorted((a, b) -> b.compareTo(a)).forEach(File::delete);
+        }
+    }
+
     @Test
     public void parseError(){
         String line = "<android.app.ContextImpl: android.content.Intent registerReceiver(android.content.BroadcastReceiver,android.content.IntentFilter,java.lang.String,android.os.Handler,int)> -> _SINK_";
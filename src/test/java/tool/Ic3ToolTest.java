@@ -3,6 +3,13 @@ package tool;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+
 import static org.junit.Assert.*;
 
 
@@ -48,6 +55,42 @@ public class Ic3ToolTest {
         //TODO test that dare runs on apk.
     }
 
+    @Test
+    public void keepDareOutputInWorkspace() throws IOException {
+        Path home = Files.createTempDirectory("home");
+        String previousHomeDir = Tool.homeDir;
+        Tool.setWorkspaceRoot(home.resolve("workspaces"));
+        try {
+            script(home.resolve("tools/tools_helper/dare/dare"),
+                    "mkdir -p \"$2/retargeted/app\" && touch \"$2/retargeted/app/A.class\"");
+            script(home.resolve("tools/ic3/runIC3.sh"), "ls dareOutput/retargeted/app");
+            Ic3Tool tool = new Ic3Tool(APKPATH, SDK);
+            tool.setHomeDir(home.toString());
+            tool.toolDir = home.resolve("tools/ic3").toString();
+            tool.setCommand();
+
+            assertTrue(new DareStep(tool).run());
+            assertTrue(tool.runAnalysis());
+
+            Path workspace = home.resolve("workspaces/ic3/app");
+            assertTrue(Files.isRegularFile(workspace.resolve("dareOutput/retargeted/app/A.class")));
+            assertEquals("A.class", new String(Files.readAllBytes(workspace.resolve("app-ic3Results.txt")),
+                    StandardCharsets.UTF_8).trim());
+            tool.cleanToolOutput();
+            assertFalse(Files.exists(workspace));
+        } finally {
+            Tool.homeDir = previousHomeDir;
+            Tool.setWorkspaceRoot(null);
+            Files.walk(home).map(Path::toFile).sorted((a, b) -> b.compareTo(a)).forEach(File::delete);
+        }
+    }
+
+    private static void script(Path path, String command) throws IOException {
+        Files.createDirectories(path.getParent());
+        Files.write(path, ("#!/bin/sh\n" + command + "\n").getBytes(StandardCharsets.UTF_8));
+        Files.setPosixFilePermissions(path, PosixFilePermissions.fromString("rwxr-xr-x"));
+    }
+
     @Test
     public void getResults(){
         //TODO add clever test